@@ -1,20 +1,23 @@
 /** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+// Uses the shared intent engine: javac -sourcepath ../IntentEngine AIChatbot.java
+// Run "java AIChatbot --serve [port]" to answer chat sessions over TCP instead of the console.
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Scanner;
 
 public class AIChatbot {
-    private static Map<String, String> responses = new HashMap<>();
+    // Phrases match whole words; on overlap the higher priority wins, then the longer phrase.
+    static final IntentEngine ENGINE = IntentEngine.builder()
+            .intent("greeting", "Hello! How can I assist you today?", "hello")
+            .intent("help", "Sure, I'm here to help. What do you need assistance with?", 1, "help")
+            .intent("search", "You can use our search engine to find information. Just type your query.", 2, "search")
+            // Add more intents as needed
+            .build();
 
-    static {
-        responses.put("hello", "Hello! How can I assist you today?");
-        responses.put("help", "Sure, I'm here to help. What do you need assistance with?");
-        responses.put("search", "You can use our search engine to find information. Just type your query.");
-        // Add more responses as needed
-    }
-
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            ChatServer.serve(ENGINE, args.length > 1 ? Integer.parseInt(args[1]) : 5050);
+            return;
+        }
         Scanner scanner = new Scanner(System.in);
         System.out.println("Welcome to the AI Chatbot. Type 'exit' to quit.");
 
@@ -29,12 +32,7 @@ public class AIChatbot {
         }
     }
 
-    private static String getResponse(String input) {
-        for (String key : responses.keySet()) {
-            if (input.contains(key)) {
-                return responses.get(key);
-            }
-        }
-        return "I'm sorry, I don't understand that. Can you please rephrase?";
+    static String getResponse(String input) {
+        return ENGINE.respond(input);
     }
-}
\ No newline at end of file
+}
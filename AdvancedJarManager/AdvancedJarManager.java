@@ -51,6 +51,8 @@ import java.util.stream.*;
 
 public class AdvancedJarManager {
     private static final String JAR_DIRECTORY = "./jars";
+    private static final String ADVISORY_FILE = "./advisories.txt";
+    private static final String SCAN_CACHE_FILE = "./jar_scan_cache.ser";
     private static final Logger LOGGER = Logger.getLogger(AdvancedJarManager.class.getName());
     private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(4);
     private static final Map<String, Process> runningJars = new ConcurrentHashMap<>();
@@ -84,17 +86,41 @@ public class AdvancedJarManager {
         File[] jars = jarDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".jar"));
         if (jars == null) return;
         
+        List<Path> paths = new ArrayList<>();
         for (File jar : jars) {
-            try (ZipFile zip = new ZipFile(jar)) {
-                zip.stream().forEach(entry -> {
-                    if (entry.getName().contains("log4j")) {
-                        LOGGER.warning("Potential vulnerability found in " + jar.getName());
-                    }
-                });
+            paths.add(jar.toPath());
+        }
+        AdvisoryDatabase advisories = AdvisoryDatabase.builtin();
+        Path advisoryFile = Paths.get(ADVISORY_FILE);
+        if (Files.isRegularFile(advisoryFile)) {
+            try {
+                advisories = AdvisoryDatabase.load(advisoryFile);
             } catch (IOException e) {
-                LOGGER.severe("Error scanning JAR: " + e.getMessage());
+                LOGGER.severe("Error loading advisories, using built-in list: " + e.getMessage());
+            }
+        }
+        ScanCache cache = ScanCache.load(Paths.get(SCAN_CACHE_FILE));
+        JarVulnerabilityScanner scanner = new JarVulnerabilityScanner(advisories, cache);
+        int vulnerable = 0;
+        for (JarVulnerabilityScanner.JarReport report : scanner.scan(paths)) {
+            if (report.getError() != null) {
+                LOGGER.severe("Error scanning JAR " + report.getJar().getFileName() + ": " + report.getError());
+            }
+            for (String archive : report.getUnreadableArchives()) {
+                LOGGER.warning("Could not fully read " + report.getJar().getFileName() + "!/" + archive);
             }
+            for (JarVulnerabilityScanner.Finding finding : report.getFindings()) {
+                LOGGER.warning("Vulnerability found: " + finding);
+            }
+            if (!report.getFindings().isEmpty()) vulnerable++;
+        }
+        try {
+            cache.save();
+        } catch (IOException e) {
+            LOGGER.warning("Error saving scan cache: " + e.getMessage());
         }
+        LOGGER.info("Security scan: " + paths.size() + " JARs, " + vulnerable + " vulnerable, "
+                + scanner.getUnpackedCount() + " unpacked");
     }
     
     private static void scheduleJarExecution() {
@@ -0,0 +1,319 @@
+/*
+ * Copyright © 2025 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Known vulnerabilities by artifact, loaded from a local file and indexed by coordinates so that a
+ * lookup costs one hash probe however many advisories there are. One advisory per line, fields
+ * separated by ';', '#' starts a comment:
+ *
+ * <pre>
+ * CVE-2021-44228; CRITICAL; org.apache.logging.log4j:log4j-core org.apache.logging.log4j.core; [2.0-beta9,2.15.0); Log4Shell
+ * </pre>
+ *
+ * The third field lists {@code groupId:artifactId} coordinates and, optionally, names without a
+ * colon as found in MANIFEST.MF ({@code Bundle-SymbolicName}, {@code Automatic-Module-Name}). The
+ * fourth lists affected version ranges in Maven notation, separated by spaces; an empty bound is
+ * open and {@code [1.2]} is a single version.
+ */
+public class AdvisoryDatabase {
+
+    /** One known vulnerability. */
+    public static final class Advisory implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String id;
+        private final String severity;
+        private final String summary;
+        private final List<String> ranges;
+
+        Advisory(String id, String severity, String summary, List<String> ranges) {
+            this.id = id;
+            this.severity = severity;
+            this.summary = summary;
+            this.ranges = ranges;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getSeverity() {
+            return severity;
+        }
+
+        public String getSummary() {
+            return summary;
+        }
+
+        /** Whether {@code version} falls in an affected range; an unknown version always does. */
+        public boolean affects(String version) {
+            if (version == null) {
+                return true;
+            }
+            for (String range : ranges) {
+                if (inRange(version, range)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return id + " (" + severity + ") " + summary;
+        }
+    }
+
+    /** A few well-known advisories, used when no advisory file is configured. */
+    private static final String BUILTIN = String.join("\n",
+            "CVE-2021-44228; CRITICAL; org.apache.logging.log4j:log4j-core org.apache.logging.log4j.core; "
+                    + "[2.0-beta9,2.3.1) [2.4,2.12.2) [2.13.0,2.15.0); Log4Shell: remote code execution through JNDI lookups",
+            "CVE-2021-45046; CRITICAL; org.apache.logging.log4j:log4j-core org.apache.logging.log4j.core; "
+                    + "[2.0-beta9,2.3.1) [2.4,2.12.2) [2.13.0,2.16.0); Incomplete Log4Shell fix in thread context lookups",
+            "CVE-2021-45105; HIGH; org.apache.logging.log4j:log4j-core org.apache.logging.log4j.core; "
+                    + "[2.0-alpha1,2.3.1) [2.4,2.12.3) [2.13.0,2.17.0); Uncontrolled recursion in lookups",
+            "CVE-2021-44832; MEDIUM; org.apache.logging.log4j:log4j-core org.apache.logging.log4j.core; "
+                    + "[2.0-alpha7,2.3.2) [2.4,2.12.4) [2.13.0,2.17.1); JDBC appender JNDI code execution",
+            "CVE-2019-17571; CRITICAL; log4j:log4j; [1.2,1.2.17]; SocketServer deserialization of untrusted data",
+            "CVE-2022-22965; CRITICAL; org.springframework:spring-beans; [,5.2.20) [5.3.0,5.3.18); "
+                    + "Spring4Shell: data binding remote code execution",
+            "CVE-2022-42889; CRITICAL; org.apache.commons:commons-text; [1.5,1.10.0); "
+                    + "Text4Shell: string interpolation code execution",
+            "CVE-2015-7501; CRITICAL; commons-collections:commons-collections; [3.0,3.2.2); "
+                    + "InvokerTransformer deserialization gadget",
+            "CVE-2022-1471; HIGH; org.yaml:snakeyaml; [,2.0); Constructor deserialization code execution",
+            "CVE-2020-36518; HIGH; com.fasterxml.jackson.core:jackson-databind; [,2.12.6.1) [2.13.0,2.13.2.1); "
+                    + "Deeply nested JSON stack overflow");
+
+    private static final int RELEASE = 5;
+
+    private final Map<String, List<Advisory>> index = new HashMap<>();
+    private int size;
+
+    private AdvisoryDatabase() {
+    }
+
+    public static AdvisoryDatabase load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return load(reader, file.toString());
+        }
+    }
+
+    public static AdvisoryDatabase builtin() {
+        try {
+            return load(new StringReader(BUILTIN), "built-in advisories");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static AdvisoryDatabase load(Reader source, String name) throws IOException {
+        AdvisoryDatabase db = new AdvisoryDatabase();
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";", 5);
+            if (fields.length < 4) {
+                throw new IOException(name + ":" + number + ": expected id; severity; coordinates; ranges; summary");
+            }
+            List<String> ranges = new ArrayList<>();
+            for (String range : fields[3].trim().split("\\s+")) {
+                if (!range.isEmpty()) {
+                    validateRange(range, name, number);
+                    ranges.add(range);
+                }
+            }
+            Advisory advisory = new Advisory(fields[0].trim(), fields[1].trim().toUpperCase(Locale.ROOT),
+                    fields.length > 4 ? fields[4].trim() : "", ranges);
+            for (String key : fields[2].trim().split("\\s+")) {
+                db.index.computeIfAbsent(key.toLowerCase(Locale.ROOT), k -> new ArrayList<>(2)).add(advisory);
+            }
+            db.size++;
+        }
+        return db;
+    }
+
+    /** Number of advisories loaded. */
+    public int size() {
+        return size;
+    }
+
+    /** Advisories affecting {@code groupId:artifactId} at {@code version}; null version means unknown. */
+    public List<Advisory> lookup(String groupId, String artifactId, String version) {
+        return lookup(groupId + ":" + artifactId, version);
+    }
+
+    /** Advisories affecting the coordinates or manifest name {@code key} at {@code version}. */
+    public List<Advisory> lookup(String key, String version) {
+        List<Advisory> candidates = index.get(key.toLowerCase(Locale.ROOT));
+        if (candidates == null) {
+            return Collections.emptyList();
+        }
+        List<Advisory> matches = new ArrayList<>(candidates.size());
+        for (Advisory advisory : candidates) {
+            if (advisory.affects(version)) {
+                matches.add(advisory);
+            }
+        }
+        return matches;
+    }
+
+    private static void validateRange(String range, String name, int number) throws IOException {
+        char open = range.charAt(0);
+        char close = range.charAt(range.length() - 1);
+        if (range.length() < 3 || (open != '[' && open != '(') || (close != ']' && close != ')')) {
+            throw new IOException(name + ":" + number + ": bad version range " + range);
+        }
+    }
+
+    static boolean inRange(String version, String range) {
+        boolean lowerInclusive = range.charAt(0) == '[';
+        boolean upperInclusive = range.charAt(range.length() - 1) == ']';
+        String body = range.substring(1, range.length() - 1);
+        int comma = body.indexOf(',');
+        if (comma < 0) {
+            return compareVersions(version, body.trim()) == 0;
+        }
+        String lower = body.substring(0, comma).trim();
+        String upper = body.substring(comma + 1).trim();
+        if (!lower.isEmpty()) {
+            int c = compareVersions(version, lower);
+            if (c < 0 || (c == 0 && !lowerInclusive)) {
+                return false;
+            }
+        }
+        if (!upper.isEmpty()) {
+            int c = compareVersions(version, upper);
+            if (c > 0 || (c == 0 && !upperInclusive)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Orders versions the way Maven does for common schemes: numeric parts by value, and
+     * pre-release qualifiers (alpha, beta, milestone, rc, snapshot) before the release, so
+     * 2.0-beta9 &lt; 2.0 &lt; 2.0.1 and 2.12.6 &lt; 2.12.6.1.
+     */
+    static int compareVersions(String a, String b) {
+        List<Object> left = tokens(a);
+        List<Object> right = tokens(b);
+        int length = Math.max(left.size(), right.size());
+        for (int i = 0; i < length; i++) {
+            Object x = i < left.size() ? left.get(i) : null;
+            Object y = i < right.size() ? right.get(i) : null;
+            int c = compareTokens(x, y);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    private static int compareTokens(Object x, Object y) {
+        if (x == null) {
+            x = y instanceof Long ? (Object) 0L : "";
+        }
+        if (y == null) {
+            y = x instanceof Long ? (Object) 0L : "";
+        }
+        if (x instanceof Long && y instanceof Long) {
+            return Long.compare((Long) x, (Long) y);
+        }
+        if (x instanceof Long || y instanceof Long) {
+            // A number outranks any qualifier: 2.0.1 > 2.0-rc1 and 2.0.1 > 2.0-sp1
+            return x instanceof Long ? 1 : -1;
+        }
+        String p = (String) x;
+        String q = (String) y;
+        int c = Integer.compare(qualifierRank(p), qualifierRank(q));
+        return c != 0 ? c : p.compareTo(q);
+    }
+
+    private static int qualifierRank(String qualifier) {
+        switch (qualifier) {
+            case "alpha":
+            case "a":
+                return 0;
+            case "beta":
+            case "b":
+                return 1;
+            case "milestone":
+            case "m":
+                return 2;
+            case "rc":
+            case "cr":
+                return 3;
+            case "snapshot":
+                return 4;
+            case "":
+            case "ga":
+            case "final":
+            case "release":
+                return RELEASE;
+            case "sp":
+                return 7;
+            default:
+                return 6;
+        }
+    }
+
+    /** Splits at '.', '-', '_' and between digits and letters: 2.0-beta9 is [2, 0, beta, 9]. */
+    private static List<Object> tokens(String version) {
+        List<Object> tokens = new ArrayList<>();
+        String v = version.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < v.length()) {
+            char c = v.charAt(i);
+            if (c == '.' || c == '-' || c == '_' || c == '+') {
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean digits = Character.isDigit(c);
+            while (i < v.length() && Character.isDigit(v.charAt(i)) == digits
+                    && ".-_+".indexOf(v.charAt(i)) < 0) {
+                i++;
+            }
+            String token = v.substring(start, i);
+            if (digits) {
+                tokens.add(token.length() > 18 ? Long.MAX_VALUE : Long.parseLong(token));
+            } else {
+                tokens.add(token);
+            }
+        }
+        // Trailing zeros and release qualifiers do not change a version: 1.0 == 1 == 1.0-final
+        while (!tokens.isEmpty()) {
+            Object last = tokens.get(tokens.size() - 1);
+            if (Long.valueOf(0).equals(last) || (last instanceof String && qualifierRank((String) last) == RELEASE)) {
+                tokens.remove(tokens.size() - 1);
+            } else {
+                break;
+            }
+        }
+        return tokens;
+    }
+}
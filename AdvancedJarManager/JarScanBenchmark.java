@@ -0,0 +1,226 @@
+/*
+ * Copyright © 2025 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Scans a generated corpus of JARs: application JARs, fat JARs with nested libraries (some with
+ * vulnerable Log4j, Jackson or commons-text versions), JARs with shaded Log4j classes and no Maven
+ * metadata, and byte-for-byte copies. It compares the previous name-contains-"log4j" scan with a
+ * cold scan, a rescan of unchanged files, a rescan after every file was touched, and saving and
+ * loading the cache.
+ *
+ * <p>Usage: java JarScanBenchmark [jars] [directory]
+ */
+public class JarScanBenchmark {
+
+    private static final String[][] LIBRARIES = {
+        {"org.apache.logging.log4j", "log4j-core", "2.14.1"},
+        {"org.apache.logging.log4j", "log4j-core", "2.17.2"},
+        {"org.apache.logging.log4j", "log4j-api", "2.14.1"},
+        {"com.fasterxml.jackson.core", "jackson-databind", "2.12.3"},
+        {"com.fasterxml.jackson.core", "jackson-databind", "2.15.2"},
+        {"org.apache.commons", "commons-text", "1.9"},
+        {"org.apache.commons", "commons-text", "1.10.0"},
+        {"org.yaml", "snakeyaml", "1.33"},
+        {"com.google.guava", "guava", "32.1.2-jre"},
+        {"org.slf4j", "slf4j-api", "2.0.9"},
+    };
+
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("jar-corpus-");
+        Files.createDirectories(dir);
+        long start = System.nanoTime();
+        List<Path> jars = generate(dir, count, new Random(17));
+        long bytes = 0;
+        for (Path jar : jars) {
+            bytes += Files.size(jar);
+        }
+        System.out.printf("Corpus: %,d JARs, %,d MB, generated in %.1f s in %s%n",
+                jars.size(), bytes >> 20, (System.nanoTime() - start) / 1e9, dir);
+
+        // Warm up the JIT on a slice of the corpus
+        legacyScan(jars.subList(0, Math.min(500, jars.size())));
+        new JarVulnerabilityScanner(AdvisoryDatabase.builtin(), ScanCache.inMemory())
+                .scan(jars.subList(0, Math.min(500, jars.size())));
+
+        start = System.nanoTime();
+        int flagged = legacyScan(jars);
+        System.out.printf("Previous scan (names containing log4j, top level only): %8.0f ms, %,d JARs flagged%n",
+                (System.nanoTime() - start) / 1e6, flagged);
+
+        AdvisoryDatabase advisories = AdvisoryDatabase.builtin();
+        int processors = Runtime.getRuntime().availableProcessors();
+        ScanCache cache = ScanCache.inMemory();
+        for (int parallelism : processors > 1 ? new int[] {1, processors} : new int[] {1}) {
+            cache = ScanCache.inMemory();
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            JarVulnerabilityScanner scanner = new JarVulnerabilityScanner(advisories, cache, pool);
+            start = System.nanoTime();
+            List<JarVulnerabilityScanner.JarReport> reports = scanner.scan(jars);
+            long nanos = System.nanoTime() - start;
+            pool.shutdown();
+            System.out.printf("Cold scan, %2d thread(s):                                %8.0f ms, %s, %,d unpacked%n",
+                    parallelism, nanos / 1e6, summarize(reports), scanner.getUnpackedCount());
+        }
+
+        JarVulnerabilityScanner scanner = new JarVulnerabilityScanner(advisories, cache);
+        start = System.nanoTime();
+        List<JarVulnerabilityScanner.JarReport> reports = scanner.scan(jars);
+        System.out.printf("Rescan, nothing changed:                                %8.0f ms, %s, %,d hashed%n",
+                (System.nanoTime() - start) / 1e6, summarize(reports), scanner.getHashedCount());
+
+        FileTime now = FileTime.fromMillis(System.currentTimeMillis() + 60_000);
+        for (Path jar : jars) {
+            Files.setLastModifiedTime(jar, now);
+        }
+        scanner = new JarVulnerabilityScanner(advisories, cache);
+        start = System.nanoTime();
+        reports = scanner.scan(jars);
+        System.out.printf("Rescan, every file touched (content unchanged):         %8.0f ms, %s, %,d unpacked%n",
+                (System.nanoTime() - start) / 1e6, summarize(reports), scanner.getUnpackedCount());
+
+        Path cacheFile = dir.resolve("jar_scan_cache.ser");
+        ScanCache persistent = ScanCache.load(cacheFile);
+        new JarVulnerabilityScanner(advisories, persistent).scan(jars);
+        start = System.nanoTime();
+        persistent.save();
+        long saveNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        ScanCache loaded = ScanCache.load(cacheFile);
+        System.out.printf("Cache file: %,d KB, saved in %.0f ms, loaded in %.0f ms (%,d entries)%n",
+                Files.size(cacheFile) / 1024, saveNanos / 1e6, (System.nanoTime() - start) / 1e6, loaded.size());
+
+        if (args.length < 2) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    /** The previous performSecurityScan loop, counting instead of logging. */
+    private static int legacyScan(List<Path> jars) {
+        int flagged = 0;
+        for (Path jar : jars) {
+            try (ZipFile zip = new ZipFile(jar.toFile())) {
+                if (zip.stream().anyMatch(entry -> entry.getName().contains("log4j"))) {
+                    flagged++;
+                }
+            } catch (IOException e) {
+                System.err.println("Error scanning JAR: " + e.getMessage());
+            }
+        }
+        return flagged;
+    }
+
+    private static String summarize(List<JarVulnerabilityScanner.JarReport> reports) {
+        int vulnerable = 0;
+        int findings = 0;
+        int errors = 0;
+        for (JarVulnerabilityScanner.JarReport report : reports) {
+            findings += report.getFindings().size();
+            vulnerable += report.getFindings().isEmpty() ? 0 : 1;
+            errors += report.getError() == null ? 0 : 1;
+        }
+        return String.format("%,d vulnerable JARs, %,d findings, %d errors", vulnerable, findings, errors);
+    }
+
+    private static List<Path> generate(Path dir, int count, Random random) throws IOException {
+        List<byte[]> libraries = new ArrayList<>();
+        for (String[] library : LIBRARIES) {
+            libraries.add(jar(library[0], library[1], library[2], 12, false, List.of(), random));
+        }
+        List<Path> jars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Path path = dir.resolve(String.format("app-%05d.jar", i));
+            int kind = random.nextInt(100);
+            if (kind < 5 && i > 0) {
+                // Same artifact deployed twice
+                Files.copy(jars.get(random.nextInt(jars.size())), path);
+            } else {
+                List<byte[]> nested = new ArrayList<>();
+                if (kind < 20) {
+                    int libs = 2 + random.nextInt(4);
+                    for (int l = 0; l < libs; l++) {
+                        nested.add(libraries.get(random.nextInt(libraries.size())));
+                    }
+                }
+                Files.write(path, jar("com.example", "app-" + i, "1." + (i % 7) + "." + i,
+                        10 + random.nextInt(20), kind >= 20 && kind < 22, nested, random));
+            }
+            jars.add(path);
+        }
+        return jars;
+    }
+
+    /** A JAR with Maven metadata, some class files, optionally shaded JndiLookup, and nested JARs. */
+    private static byte[] jar(String groupId, String artifactId, String version, int classes, boolean shadedLog4j,
+            List<byte[]> nested, Random random) throws IOException {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_TITLE, artifactId);
+        manifest.getMainAttributes().put(Attributes.Name.IMPLEMENTATION_VERSION, version);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream out = new JarOutputStream(bytes, manifest)) {
+            String pomPath = "META-INF/maven/" + groupId + "/" + artifactId + "/pom.properties";
+            out.putNextEntry(new ZipEntry(pomPath));
+            out.write(("groupId=" + groupId + "\nartifactId=" + artifactId + "\nversion=" + version + "\n")
+                    .getBytes(StandardCharsets.ISO_8859_1));
+            String pkg = groupId.replace('.', '/') + "/" + artifactId.replace("-", "");
+            for (int c = 0; c < classes; c++) {
+                out.putNextEntry(new ZipEntry(pkg + "/Class" + c + ".class"));
+                writeClassLike(out, 400 + random.nextInt(1600), random);
+            }
+            if (shadedLog4j) {
+                out.putNextEntry(new ZipEntry("shaded/org/apache/logging/log4j/core/Logger.class"));
+                writeClassLike(out, 800, random);
+                out.putNextEntry(new ZipEntry("org/apache/logging/log4j/core/lookup/JndiLookup.class"));
+                writeClassLike(out, 900, random);
+            }
+            for (int n = 0; n < nested.size(); n++) {
+                ZipEntry entry = new ZipEntry("BOOT-INF/lib/lib-" + n + ".jar");
+                out.putNextEntry(entry);
+                out.write(nested.get(n));
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /** Bytes that compress roughly like class files: a small vocabulary with some noise. */
+    private static void writeClassLike(OutputStream out, int length, Random random) throws IOException {
+        String[] words = {"java/lang/Object", "java/lang/String", "<init>", "()V", "Code", "LineNumberTable",
+            "getValue", "setValue", "this", "StackMapTable", "SourceFile", "java/util/List"};
+        byte[] data = new byte[length];
+        int i = 0;
+        while (i < length) {
+            if (random.nextInt(4) == 0) {
+                data[i++] = (byte) random.nextInt(256);
+            } else {
+                byte[] word = words[random.nextInt(words.length)].getBytes(StandardCharsets.ISO_8859_1);
+                for (int w = 0; w < word.length && i < length; w++) {
+                    data[i++] = word[w];
+                }
+            }
+        }
+        out.write(data);
+    }
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright © 2025 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Finds the libraries inside JARs and matches them against an {@link AdvisoryDatabase}. JARs are
+ * split across a fork-join pool. Only the entries that identify libraries are read from each JAR;
+ * nested archives (fat JARs, WARs, EARs) are streamed through {@link ZipInputStream} as they are
+ * met, without extracting anything. Libraries are identified by their Maven
+ * {@code pom.properties}, or failing that by MANIFEST.MF, and Log4j's JndiLookup class is
+ * recognised even when shaded without metadata.
+ *
+ * <p>With a {@link ScanCache}, an unchanged JAR is not read at all and a JAR whose content has
+ * been seen before (e.g. a copy) is only hashed.
+ */
+public class JarVulnerabilityScanner {
+
+    /** Nested archives deeper than this are not opened. */
+    private static final int MAX_DEPTH = 8;
+    /** JARs scanned sequentially per fork-join task. */
+    private static final int BATCH = 4;
+    private static final String JNDI_LOOKUP = "org/apache/logging/log4j/core/lookup/JndiLookup.class";
+
+    /** A library found in a JAR. */
+    public static final class Component implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String groupId;
+        private final String artifactId;
+        private final String name;
+        private final String version;
+        private final String source;
+        private final String location;
+
+        Component(String groupId, String artifactId, String name, String version, String source, String location) {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.name = name;
+            this.version = version;
+            this.source = source;
+            this.location = location;
+        }
+
+        /** {@code groupId:artifactId}, or the manifest name when coordinates are unknown. */
+        public String getKey() {
+            return groupId != null ? groupId + ":" + artifactId : name;
+        }
+
+        /** Null if the version could not be determined. */
+        public String getVersion() {
+            return version;
+        }
+
+        /** Where the identification came from: pom.properties, MANIFEST.MF or a class fingerprint. */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Path of the evidence inside the scanned JAR, with "!/" between nested archives. It does
+         * not name the JAR itself, since the same cached content can be found under any name.
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + ":" + (version == null ? "unknown" : version);
+        }
+    }
+
+    /** An advisory that applies to a component of a JAR. */
+    public static final class Finding {
+        private final Path jar;
+        private final Component component;
+        private final AdvisoryDatabase.Advisory advisory;
+
+        Finding(Path jar, Component component, AdvisoryDatabase.Advisory advisory) {
+            this.jar = jar;
+            this.component = component;
+            this.advisory = advisory;
+        }
+
+        public Path getJar() {
+            return jar;
+        }
+
+        public Component getComponent() {
+            return component;
+        }
+
+        public AdvisoryDatabase.Advisory getAdvisory() {
+            return advisory;
+        }
+
+        @Override
+        public String toString() {
+            return component + " at " + jar.getFileName() + "!/" + component.getLocation() + ": " + advisory
+                    + (component.getVersion() == null ? " (version unknown)" : "");
+        }
+    }
+
+    /** The result for one JAR. */
+    public static final class JarReport {
+        private final Path jar;
+        private final List<Component> components;
+        private final List<Finding> findings;
+        private final boolean cached;
+        private final List<String> unreadable;
+        private final String error;
+
+        JarReport(Path jar, List<Component> components, List<Finding> findings, boolean cached,
+                List<String> unreadable, String error) {
+            this.jar = jar;
+            this.components = components;
+            this.findings = findings;
+            this.cached = cached;
+            this.unreadable = unreadable;
+            this.error = error;
+        }
+
+        public Path getJar() {
+            return jar;
+        }
+
+        public List<Component> getComponents() {
+            return components;
+        }
+
+        public List<Finding> getFindings() {
+            return findings;
+        }
+
+        /** True if the JAR was not unpacked because its content was in the cache. */
+        public boolean isCached() {
+            return cached;
+        }
+
+        /**
+         * Nested archives that could not be read to the end, each as its path inside the JAR and
+         * the error. Components found in them before the damage, and everywhere else in the JAR,
+         * are still reported.
+         */
+        public List<String> getUnreadableArchives() {
+            return unreadable;
+        }
+
+        /** Why the JAR could not be scanned, or null. */
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final AdvisoryDatabase advisories;
+    private final ScanCache cache;
+    private final ForkJoinPool pool;
+    private final AtomicInteger unpacked = new AtomicInteger();
+    private final AtomicInteger hashed = new AtomicInteger();
+
+    public JarVulnerabilityScanner(AdvisoryDatabase advisories, ScanCache cache) {
+        this(advisories, cache, ForkJoinPool.commonPool());
+    }
+
+    public JarVulnerabilityScanner(AdvisoryDatabase advisories, ScanCache cache, ForkJoinPool pool) {
+        this.advisories = advisories;
+        this.cache = cache;
+        this.pool = pool;
+    }
+
+    /** Scans every JAR in parallel; reports are in the same order as {@code jars}. */
+    public List<JarReport> scan(List<Path> jars) {
+        return pool.invoke(new ScanTask(jars, 0, jars.size()));
+    }
+
+    /** JARs unpacked since this scanner was created, i.e. not answered from the cache. */
+    public int getUnpackedCount() {
+        return unpacked.get();
+    }
+
+    /** JARs whose content was hashed because their size or modification time was new. */
+    public int getHashedCount() {
+        return hashed.get();
+    }
+
+    public JarReport scan(Path jar) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            String sha256 = cache.hashIfUnchanged(jar, size, modified);
+            List<Component> components = sha256 == null ? null : cache.get(sha256);
+            if (components == null) {
+                sha256 = sha256(jar);
+                hashed.incrementAndGet();
+                components = cache.get(sha256);
+                cache.remember(jar, size, modified, sha256);
+            }
+            boolean cached = components != null;
+            List<String> unreadable = new ArrayList<>();
+            if (!cached) {
+                components = inventory(jar, unreadable);
+                unpacked.incrementAndGet();
+                if (unreadable.isEmpty()) { // an incomplete inventory is read again next time
+                    cache.put(sha256, components);
+                }
+            }
+            return new JarReport(jar, components, match(jar, components), cached, unreadable, null);
+        } catch (IOException | RuntimeException e) {
+            return new JarReport(jar, List.of(), List.of(), false, List.of(), e.toString());
+        }
+    }
+
+    private List<Finding> match(Path jar, List<Component> components) {
+        List<Finding> findings = new ArrayList<>();
+        for (Component component : components) {
+            for (AdvisoryDatabase.Advisory advisory : advisories.lookup(component.getKey(), component.getVersion())) {
+                findings.add(new Finding(jar, component, advisory));
+            }
+        }
+        return findings;
+    }
+
+    /**
+     * The components in a JAR on disk and in archives nested in it. The central directory is used
+     * to open only the entries that matter, so class files are never inflated. A nested archive
+     * that cannot be read is added to {@code unreadable} and skipped from the point of damage.
+     */
+    static List<Component> inventory(Path jar, List<String> unreadable) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            Inventory inventory = new Inventory("", unreadable);
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                if (!entry.isDirectory()) {
+                    inventory.visit(entry.getName(), () -> zip.getInputStream(entry), 0);
+                }
+            }
+            return inventory.finish();
+        }
+    }
+
+    /** Opens the content of the entry being visited. */
+    private interface EntryContent {
+        InputStream open() throws IOException;
+    }
+
+    /** The evidence collected from the entries of one archive. */
+    private static final class Inventory {
+        // Path of this archive inside the scanned JAR, ending with "!/"; empty for the JAR itself.
+        private final String prefix;
+        private final List<String> unreadable;
+        private final List<Component> components = new ArrayList<>();
+        private boolean hasPom;
+        private boolean hasLog4jCore;
+        private boolean hasJndiLookup;
+        private Manifest manifest;
+
+        Inventory(String prefix, List<String> unreadable) {
+            this.prefix = prefix;
+            this.unreadable = unreadable;
+        }
+
+        /** Reads a nested archive front to back, visiting its entries as they are met. */
+        void read(InputStream in, int depth) throws IOException {
+            ZipInputStream zip = new ZipInputStream(in);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    visit(entry.getName(), () -> new NonClosingInputStream(zip), depth);
+                }
+            }
+        }
+
+        void visit(String name, EntryContent content, int depth) throws IOException {
+            if (isArchive(name)) {
+                if (depth < MAX_DEPTH) {
+                    // A truncated or corrupt nested archive must not hide what the rest of the JAR
+                    // holds, nor what was found in it before the damage.
+                    Inventory nested = new Inventory(prefix + name + "!/", unreadable);
+                    try (InputStream in = content.open()) {
+                        nested.read(in, depth + 1);
+                    } catch (IOException | RuntimeException e) {
+                        unreadable.add(prefix + name + ": " + e);
+                    }
+                    components.addAll(nested.finish());
+                }
+            } else if (name.startsWith("META-INF/maven/") && name.endsWith("/pom.properties")) {
+                Properties pom = new Properties();
+                try (InputStream in = content.open()) {
+                    pom.load(in);
+                }
+                String groupId = trimToNull(pom.getProperty("groupId"));
+                String artifactId = trimToNull(pom.getProperty("artifactId"));
+                if (groupId != null && artifactId != null) {
+                    hasPom = true;
+                    hasLog4jCore |= groupId.equals("org.apache.logging.log4j") && artifactId.equals("log4j-core");
+                    components.add(new Component(groupId, artifactId, null,
+                            trimToNull(pom.getProperty("version")), "pom.properties", prefix + name));
+                }
+            } else if (name.equalsIgnoreCase("META-INF/MANIFEST.MF")) {
+                try (InputStream in = content.open()) {
+                    manifest = new Manifest(in);
+                }
+            } else if (name.equals(JNDI_LOOKUP)) {
+                hasJndiLookup = true;
+            }
+        }
+
+        List<Component> finish() {
+            if (!hasPom && manifest != null) {
+                Component component = fromManifest(manifest, prefix);
+                if (component != null) {
+                    components.add(component);
+                }
+            }
+            if (hasJndiLookup && !hasLog4jCore) {
+                // Shaded or repackaged Log4j without its Maven metadata.
+                components.add(new Component("org.apache.logging.log4j", "log4j-core", null,
+                        null, "class fingerprint", prefix + JNDI_LOOKUP));
+            }
+            return components;
+        }
+    }
+
+    private static Component fromManifest(Manifest manifest, String prefix) {
+        Attributes main = manifest.getMainAttributes();
+        String name = main.getValue("Bundle-SymbolicName");
+        if (name != null) {
+            int directive = name.indexOf(';');
+            name = directive < 0 ? name : name.substring(0, directive);
+        } else {
+            name = main.getValue("Automatic-Module-Name");
+        }
+        if (name == null) {
+            name = main.getValue("Implementation-Title");
+        }
+        name = trimToNull(name);
+        if (name == null) {
+            return null;
+        }
+        String version = main.getValue("Bundle-Version");
+        if (version == null) {
+            version = main.getValue("Implementation-Version");
+        }
+        return new Component(null, null, name, trimToNull(version), "MANIFEST.MF", prefix + "META-INF/MANIFEST.MF");
+    }
+
+    private static boolean isArchive(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return lower.endsWith(".jar") || lower.endsWith(".war") || lower.endsWith(".ear");
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    static String sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /** Lets a nested ZipInputStream read the current entry without closing the outer stream. */
+    private static final class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Splits the list in halves until a batch is small enough to scan directly. */
+    private final class ScanTask extends RecursiveTask<List<JarReport>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Path> jars;
+        private final int from;
+        private final int to;
+
+        ScanTask(List<Path> jars, int from, int to) {
+            this.jars = jars;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected List<JarReport> compute() {
+            if (to - from <= BATCH) {
+                List<JarReport> reports = new ArrayList<>(to - from);
+                for (int i = from; i < to; i++) {
+                    reports.add(scan(jars.get(i)));
+                }
+                return reports;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(jars, from, middle);
+            left.fork();
+            List<JarReport> right = new ScanTask(jars, middle, to).compute();
+            List<JarReport> reports = left.join();
+            reports.addAll(right);
+            return reports;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2025 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * What a scan found in each JAR, keyed by the SHA-256 of its content, so a JAR is only unpacked
+ * the first time its content is seen. A second map from path to size and modification time
+ * remembers each file's hash, so unchanged files are not even read. The cache holds the
+ * components found, not the advisories matched, so updating the advisory database takes effect
+ * without rescanning.
+ *
+ * <p>Thread-safe. Persisted with Java serialization, read back through a filter that admits only
+ * the cache's own types; a cache file that cannot be read (e.g. written by another version, or
+ * holding anything else) is ignored and replaced on the next save.
+ */
+public class ScanCache {
+    private static final Logger LOGGER = Logger.getLogger(ScanCache.class.getName());
+    // 2: component locations are relative to the scanned JAR.
+    private static final int FORMAT_VERSION = 2;
+    // Only the cache's own types may be deserialized; anything else in the file is rejected
+    // before it is instantiated. Component lists are written as ArrayLists for the same reason.
+    private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(String.join(";",
+            "maxdepth=8",
+            "java.lang.String",
+            "java.lang.Object",
+            "java.util.HashMap",
+            "java.util.Map$Entry", // HashMap checks its table size as an array of these
+            "java.util.ArrayList",
+            Stamp.class.getName(),
+            JarVulnerabilityScanner.Component.class.getName(),
+            "!*"));
+
+    /** Size and modification time of a file when it had a given hash. */
+    private static final class Stamp implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        final long size;
+        final long modified;
+        final String sha256;
+
+        Stamp(long size, long modified, String sha256) {
+            this.size = size;
+            this.modified = modified;
+            this.sha256 = sha256;
+        }
+    }
+
+    private final Path file;
+    private final Map<String, List<JarVulnerabilityScanner.Component>> byHash = new ConcurrentHashMap<>();
+    private final Map<String, Stamp> byPath = new ConcurrentHashMap<>();
+    private final AtomicInteger changes = new AtomicInteger();
+
+    private ScanCache(Path file) {
+        this.file = file;
+    }
+
+    /** An empty cache that is never saved. */
+    public static ScanCache inMemory() {
+        return new ScanCache(null);
+    }
+
+    /** Loads the cache from {@code file}, or starts empty if it is missing or unreadable. */
+    @SuppressWarnings("unchecked")
+    public static ScanCache load(Path file) {
+        ScanCache cache = new ScanCache(file);
+        if (!Files.isRegularFile(file)) {
+            return cache;
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file));
+             ObjectInputStream objects = new ObjectInputStream(in)) {
+            objects.setObjectInputFilter(FILTER);
+            if (objects.readInt() != FORMAT_VERSION) {
+                LOGGER.info("Scan cache " + file + " has an old format; starting empty.");
+                return cache;
+            }
+            Map<String, List<JarVulnerabilityScanner.Component>> components =
+                    (Map<String, List<JarVulnerabilityScanner.Component>>) objects.readObject();
+            components.forEach((sha256, list) -> cache.byHash.put(sha256, List.copyOf(list)));
+            cache.byPath.putAll((Map<String, Stamp>) objects.readObject());
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            LOGGER.log(Level.WARNING, "Ignoring unreadable scan cache " + file, e);
+            cache.byHash.clear();
+            cache.byPath.clear();
+        }
+        return cache;
+    }
+
+    /** Writes the cache if anything changed since it was loaded; the old file is replaced atomically. */
+    public void save() throws IOException {
+        if (file == null || changes.getAndSet(0) == 0) {
+            return;
+        }
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "scan-cache", ".tmp");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FORMAT_VERSION);
+            HashMap<String, ArrayList<JarVulnerabilityScanner.Component>> components = new HashMap<>();
+            byHash.forEach((sha256, list) -> components.put(sha256, new ArrayList<>(list)));
+            out.writeObject(components);
+            out.writeObject(new HashMap<>(byPath));
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** The hash recorded for {@code path} if its size and modification time are unchanged, else null. */
+    public String hashIfUnchanged(Path path, long size, long modified) {
+        Stamp stamp = byPath.get(path.toAbsolutePath().toString());
+        return stamp != null && stamp.size == size && stamp.modified == modified ? stamp.sha256 : null;
+    }
+
+    /** Components found in content with this hash, or null if it was never scanned. */
+    public List<JarVulnerabilityScanner.Component> get(String sha256) {
+        return byHash.get(sha256);
+    }
+
+    /** Records that {@code path}, with this size and modification time, has content {@code sha256}. */
+    public void remember(Path path, long size, long modified, String sha256) {
+        byPath.put(path.toAbsolutePath().toString(), new Stamp(size, modified, sha256));
+        changes.incrementAndGet();
+    }
+
+    public void put(String sha256, List<JarVulnerabilityScanner.Component> components) {
+        byHash.put(sha256, List.copyOf(components));
+        changes.incrementAndGet();
+    }
+
+    /** Distinct JAR contents cached. */
+    public int size() {
+        return byHash.size();
+    }
+}
@@ -2,6 +2,7 @@
  * Copyright © 2024 Devin B. Royal. All Rights Reserved.
  * This program provides real-world implementations of mathematical formulas and concepts.
  * It is designed to handle high-precision calculations for scientific research and practical applications.
+ * Zeta values come from the shared ZetaFunction module: javac -sourcepath ../ZetaFunction AdvancedMath.java
  */
 
 import java.math.BigDecimal;
@@ -11,31 +12,49 @@ public class AdvancedMath {
 
   // === Zeta Function Formula ===
   /**
-   * Computes the Zeta Function \u03b6(s) = \u03a3(1/n^s) for s > 1 using finite terms.
+   * Computes the Zeta Function \u03b6(s) = \u03a3(1/n^s) to the requested precision.
    *
-   * <p>What It Does: - Approximates the infinite series for the Zeta Function using a specified
-   * number of terms. - Validates input to ensure convergence criteria are met (s > 1).
+   * <p>What It Does: - Delegates to the shared ZetaFunction evaluator, which uses Euler-Maclaurin
+   * summation with cached Bernoulli numbers, so the error shrinks geometrically with the work
+   * done instead of as 1/terms. - Works for every real s except the pole at s = 1.
    *
    * <p>What It Can Be Used For: - Number theory, cryptography, and theoretical research. -
    * Practical applications such as approximating values of \u03c0 or analyzing distributions of
    * prime numbers.
    *
+   * @param s the argument, any real value other than 1.
+   * @param digits the number of significant digits to compute.
+   * @return \u03b6(s) to {@code digits} significant digits.
+   */
+  public static BigDecimal zeta(double s, int digits) {
+    return ZetaFunction.zeta(s, digits);
+  }
+
+  /**
+   * Computes the Zeta Function for a complex argument, such as a point s = 1/2 + it on the
+   * critical line.
+   *
+   * @param s the complex argument, other than 1.
+   * @param digits the number of significant digits for each component.
+   * @return \u03b6(s) to {@code digits} significant digits.
+   */
+  public static ZetaFunction.Complex zeta(ZetaFunction.Complex s, int digits) {
+    return ZetaFunction.zeta(s, digits);
+  }
+
+  /**
+   * Computes the Zeta Function \u03b6(s) for s > 1 to 20 significant digits.
+   *
    * @param s the real part of the input, must be greater than 1 for convergence.
-   * @param terms the number of terms in the series to compute.
-   * @return the approximation of the Zeta Function.
+   * @param terms formerly the number of series terms; only validated now.
+   * @return \u03b6(s) to 20 significant digits.
+   * @deprecated the result no longer depends on a term count; use {@link #zeta(double, int)}.
    */
+  @Deprecated
   public static BigDecimal zetaFunction(double s, int terms) {
     if (s <= 1) throw new IllegalArgumentException("s must be greater than 1 for convergence.");
     if (terms <= 0) throw new IllegalArgumentException("Number of terms must be positive.");
-
-    BigDecimal sum = BigDecimal.ZERO;
-    MathContext mc = new MathContext(20); // Precision level
-
-    for (int n = 1; n <= terms; n++) {
-      BigDecimal term = BigDecimal.ONE.divide(BigDecimal.valueOf(Math.pow(n, s)), mc);
-      sum = sum.add(term);
-    }
-    return sum;
+    return zeta(s, 20);
   }
 
   // === Riemann Zeta Function ===
@@ -50,9 +69,11 @@ public class AdvancedMath {
    * functions.
    *
    * @param s the real part of the input, must be greater than 1 for convergence.
-   * @param terms the number of terms in the series to compute.
-   * @return the approximation of the Riemann Zeta Function.
+   * @param terms formerly the number of series terms; only validated now.
+   * @return \u03b6(s) to 20 significant digits.
+   * @deprecated the result no longer depends on a term count; use {@link #zeta(double, int)}.
    */
+  @Deprecated
   public static BigDecimal riemannZetaFunction(double s, int terms) {
     return zetaFunction(s, terms);
   }
@@ -73,20 +94,39 @@ public class AdvancedMath {
    * @return the calculated mass gap.
    */
   public static BigDecimal calculateMassGap(double g, int energyLevels) {
-    if (g <= 0) throw new IllegalArgumentException("Coupling constant g must be positive.");
-    if (energyLevels <= 0)
-      throw new IllegalArgumentException("Number of energy levels must be positive.");
-
-    BigDecimal sum = BigDecimal.ZERO;
-    MathContext mc = new MathContext(20); // Precision level
+    // \u03a3 n^2 has the closed form N(N + 1)(2N + 1)/6; see MassGap.
+    return MassGap.massGap(g, energyLevels);
+  }
 
-    for (int n = 1; n <= energyLevels; n++) {
-      BigDecimal energySquared = BigDecimal.valueOf(n).pow(2);
-      sum = sum.add(energySquared);
-    }
+  /**
+   * Evaluates the mass gap for a sweep of (g, energy levels) points.
+   *
+   * <p>What It Does: - Uses the closed form of the energy sum and primitive arithmetic wherever it
+   * fits, with a BigDecimal fallback for very large level counts. - Evaluates large sweeps in
+   * parallel.
+   *
+   * <p>What It Can Be Used For: - Parameter sweeps over millions of coupling constants and
+   * truncation levels.
+   *
+   * @param g the coupling constants, each must be positive.
+   * @param energyLevels the number of energy levels for each point.
+   * @return the mass gap of each point, within one ulp of the exact value.
+   */
+  public static double[] calculateMassGaps(double[] g, int[] energyLevels) {
+    return MassGap.massGaps(g, energyLevels);
+  }
 
-    BigDecimal gSquared = BigDecimal.valueOf(g).pow(2, mc);
-    return sum.multiply(gSquared, mc);
+  /**
+   * Evaluates the mass gap for a sweep of (g, energy levels) points in BigDecimal, rounding as
+   * {@link #calculateMassGap(double, int)} does at the precision of {@code mc}.
+   *
+   * @param g the coupling constants, each must be positive.
+   * @param energyLevels the number of energy levels for each point.
+   * @param mc the precision of g^2 and of the result.
+   * @return the mass gap of each point.
+   */
+  public static BigDecimal[] calculateMassGaps(double[] g, int[] energyLevels, MathContext mc) {
+    return MassGap.massGaps(g, energyLevels, mc);
   }
 
   // === Core Features of the Code ===
@@ -101,18 +141,26 @@ public class AdvancedMath {
   /** Demonstrates the capabilities of the program with sample calculations. */
   public static void main(String[] args) {
     try {
-      // Example: Zeta Function \u03b6(2)
-      BigDecimal zeta2 = zetaFunction(2.0, 1000);
+      // Example: Zeta Function \u03b6(2) = \u03c0^2/6 to 50 digits
+      BigDecimal zeta2 = zeta(2.0, 50);
       System.out.println("Zeta Function \u03b6(2): " + zeta2);
 
-      // Example: Riemann Zeta Function \u03b6(3)
-      BigDecimal zeta3 = riemannZetaFunction(3.0, 1000);
+      // Example: Riemann Zeta Function \u03b6(3) (Ap\u00e9ry's constant)
+      BigDecimal zeta3 = zeta(3.0, 50);
       System.out.println("Riemann Zeta Function \u03b6(3): " + zeta3);
 
+      // Example: \u03b6 on the critical line, s = 1/2 + 10i
+      ZetaFunction.Complex critical = zeta(ZetaFunction.Complex.of("0.5", "10"), 30);
+      System.out.println("Zeta Function \u03b6(1/2 + 10i): " + critical);
+
       // Example: Yang-Mills Mass Gap
       BigDecimal massGap = calculateMassGap(0.5, 100);
       System.out.println("Yang-Mills Mass Gap: " + massGap);
 
+      // Example: Mass gap sweep over several couplings
+      double[] sweep = calculateMassGaps(new double[] {0.1, 0.5, 1.0}, new int[] {100, 100, 1000});
+      System.out.println("Yang-Mills Mass Gap sweep: " + java.util.Arrays.toString(sweep));
+
     } catch (Exception e) {
       System.err.println("Error: " + e.getMessage());
     }
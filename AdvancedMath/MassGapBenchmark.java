@@ -0,0 +1,105 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Throughput of the mass gap evaluators over a random parameter sweep, against the per-level
+ * BigDecimal loop previously in AdvancedMath.calculateMassGap. Also checks that the BigDecimal
+ * evaluators reproduce the loop exactly and that the double evaluators stay within one ulp.
+ * Usage: java MassGapBenchmark [points]
+ */
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Random;
+
+public class MassGapBenchmark {
+
+  private static final int LEGACY_SAMPLE = 20_000;
+  private static final int CHECK_SAMPLE = 200_000;
+  private static final int SLICE = 1_000_000;
+
+  public static void main(String[] args) {
+    int points = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+    double[] g = new double[points];
+    int[] levels = new int[points];
+    Random random = new Random(42);
+    for (int i = 0; i < points; i++) {
+      g[i] = 0.01 + 2 * random.nextDouble();
+      int bucket = random.nextInt(100);
+      // Mostly small truncations, some up to the long range, a few needing the BigInteger path.
+      levels[i] = bucket < 90 ? 1 + random.nextInt(1000)
+          : bucket < 99 ? 1 + random.nextInt(MassGap.LONG_LEVELS)
+          : MassGap.LONG_LEVELS + 1 + random.nextInt(Integer.MAX_VALUE - MassGap.LONG_LEVELS);
+    }
+    System.out.printf("%,d points, %d CPU(s), long path up to %,d levels%n",
+        points, Runtime.getRuntime().availableProcessors(), MassGap.LONG_LEVELS);
+
+    // Legacy loop on a sample of small truncations only; the large ones would take hours.
+    int legacyPoints = 0;
+    long legacyLevels = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < points && legacyPoints < LEGACY_SAMPLE; i++) {
+      if (levels[i] <= 1000) {
+        BigDecimal legacy = legacyMassGap(g[i], levels[i]);
+        BigDecimal closed = MassGap.massGap(g[i], levels[i]);
+        if (!legacy.equals(closed)) {
+          throw new AssertionError("Mismatch at " + i + ": " + legacy + " vs " + closed);
+        }
+        legacyPoints++;
+        legacyLevels += levels[i];
+      }
+    }
+    long legacyNanos = System.nanoTime() - start;
+    report("legacy loop (levels <= 1000 only)", legacyPoints, legacyNanos);
+    System.out.printf("  mean %.0f levels per point; 10M such points extrapolate to %.0f s%n",
+        (double) legacyLevels / legacyPoints, legacyNanos / 1e9 / legacyPoints * 1e7);
+
+    double[] out = new double[points];
+    for (int round = 0; round < 3; round++) {
+      start = System.nanoTime();
+      for (int i = 0; i < points; i++) {
+        out[i] = MassGap.massGapDouble(g[i], levels[i]);
+      }
+      report("massGapDouble, one call per point", points, System.nanoTime() - start);
+    }
+    for (int round = 0; round < 3; round++) {
+      start = System.nanoTime();
+      MassGap.massGaps(g, levels, out);
+      report("massGaps double batch (parallel)", points, System.nanoTime() - start);
+    }
+
+    // BigDecimal results are ~100 bytes each, so the batch goes through in slices.
+    for (int round = 0; round < 2; round++) {
+      start = System.nanoTime();
+      for (int from = 0; from < points; from += SLICE) {
+        int to = Math.min(points, from + SLICE);
+        MassGap.massGaps(Arrays.copyOfRange(g, from, to),
+            Arrays.copyOfRange(levels, from, to), MassGap.DEFAULT_CONTEXT);
+      }
+      report("massGaps BigDecimal batch, 20 digits", points, System.nanoTime() - start);
+    }
+
+    double worstUlps = 0;
+    for (int i = 0; i < Math.min(points, CHECK_SAMPLE); i++) {
+      BigDecimal exact = new BigDecimal(g[i]).pow(2).multiply(MassGap.sumOfSquares(levels[i]));
+      BigDecimal error = new BigDecimal(out[i]).subtract(exact).abs();
+      worstUlps = Math.max(worstUlps, error.doubleValue() / Math.ulp(out[i]));
+    }
+    System.out.printf("double results: worst error %.3f ulp over %,d points%n",
+        worstUlps, Math.min(points, CHECK_SAMPLE));
+  }
+
+  /** The loop previously in AdvancedMath.calculateMassGap. */
+  private static BigDecimal legacyMassGap(double g, int energyLevels) {
+    BigDecimal sum = BigDecimal.ZERO;
+    MathContext mc = new MathContext(20);
+    for (int n = 1; n <= energyLevels; n++) {
+      sum = sum.add(BigDecimal.valueOf(n).pow(2));
+    }
+    return sum.multiply(BigDecimal.valueOf(g).pow(2, mc), mc);
+  }
+
+  private static void report(String label, long points, long nanos) {
+    System.out.printf("  %-38s %,12d points in %,9.1f ms  %,14.0f points/sec%n",
+        label, points, nanos / 1e6, points / (nanos / 1e9));
+  }
+}
@@ -2,6 +2,7 @@
  * Copyright © 2024 Devin B. Royal. All Rights Reserved.
  * This program provides a robust Bitcoin (₿) denomination system with high-precision calculations,
  * utilizing BigDecimal for precision and advanced mathematical operations.
+ * Compile with the shared zeta module: javac -sourcepath ../ZetaFunction BitcoinDenomination.java
  */
 
 import java.math.BigDecimal;
@@ -31,17 +32,17 @@ public class BitcoinDenomination {
         return denominations;
     }
 
-    // Example use of mathematical extensions - Riemann Zeta Function
+    // Example use of mathematical extensions - Riemann Zeta Function, to 20 significant digits.
+    // Evaluated by the shared ZetaFunction module; the result no longer depends on a term count.
+    @Deprecated
     public static BigDecimal riemannZetaFunction(double s, int terms) {
         if (s <= 1) throw new IllegalArgumentException("Input s must be greater than 1 for convergence.");
-        BigDecimal sum = BigDecimal.ZERO;
-        MathContext mc = new MathContext(20);
+        return riemannZetaFunction(s, new MathContext(20));
+    }
 
-        for (int n = 1; n <= terms; n++) {
-            BigDecimal term = BigDecimal.ONE.divide(BigDecimal.valueOf(Math.pow(n, s)), mc);
-            sum = sum.add(term);
-        }
-        return sum;
+    // Riemann Zeta Function to the precision of the given MathContext
+    public static BigDecimal riemannZetaFunction(double s, MathContext mc) {
+        return ZetaFunction.zeta(s, mc.getPrecision());
     }
 
     public static void main(String[] args) {
@@ -57,8 +58,7 @@ public class BitcoinDenomination {
 
             // Example: Calculate Riemann Zeta Function for advanced cryptography
             double s = 2.0; // Parameter for Zeta Function
-            int terms = 1000; // Convergence terms
-            BigDecimal zeta = riemannZetaFunction(s, terms);
+            BigDecimal zeta = riemannZetaFunction(s, new MathContext(20));
             System.out.println("\nRiemann Zeta Function (ζ(" + s + ")) = " + zeta);
 
         } catch (Exception e) {
@@ -81,7 +81,7 @@ public class BitcoinDenomination {
  * 10^-7 BTC = 0.0000001
  * 10^-8 BTC = 0.00000001
  *
- * Riemann Zeta Function (ζ(2.0)) = 1.64493406684822643647
+ * Riemann Zeta Function (ζ(2.0)) = 1.6449340668482264365
  * 
  * This implementation complies with the principles of:
  * - High precision: Utilizes BigDecimal for accurate calculations.
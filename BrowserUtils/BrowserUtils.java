@@ -1,72 +1,81 @@
 /** Copyright © 2024 Devin B. Royal. All rights reserved. */
 package com.devinroyal;
 
+import java.io.PrintWriter;
 import java.util.ArrayDeque;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import org.fusesource.jansi.Ansi;
 import org.jline.terminal.Terminal;
 import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 /**
  * Utility class to handle browser-like functionality, such as displaying page content, filtering
  * elements, and managing a basic browsing history system.
+ *
+ * <p>Pages are indexed once ({@link PageIndex}) and shown one screen at a time ({@link
+ * PageViewport}); {@link #nextPage}, {@link #previousPage} and {@link #displayLinks} move through
+ * the page last displayed.
  */
 public class BrowserUtils {
 
-  // Deque to store the browsing history for "back" navigation
+  // Most "back" entries and visited links kept; the oldest are dropped beyond these
+  private static final int HISTORY_LIMIT = 100;
+  private static final int VISITED_LIMIT = 10_000;
+  private static final int LINKS_PER_PAGE = 20;
+
+  // Deque to store the browsing history for "back" navigation, most recent first
   private static Deque<String> history = new ArrayDeque<>();
 
-  // Set to track visited links to avoid revisiting
-  private static Set<String> visitedLinks = new HashSet<>();
+  // Set to track visited links to avoid revisiting, in least recently visited order
+  private static Set<String> visitedLinks = Collections.newSetFromMap(new LruMap<>(VISITED_LIMIT));
+
+  // The page last displayed and the screen it is scrolled to
+  private static PageIndex currentPage;
+  private static PageViewport viewport;
 
   /**
-   * Displays the page content in the terminal, with optional filtering for specific content.
+   * Displays the first screen of the page content in the terminal, with optional filtering for
+   * specific content. Only the blocks of text matching the filter are shown.
    *
    * @param doc The JSoup Document representing the HTML of the page
    * @param terminal The terminal to write output to
-   * @param filterArgument The filter string (optional) to match content in the page
+   * @param filterArgument The filter string (optional), a case-insensitive regular expression
    */
   public static void displayPageContent(Document doc, Terminal terminal, String filterArgument) {
     try {
-      // Extract the title of the page and display it in bold blue
-      String title = doc.title();
-      terminal.writer().println(Ansi.ansi().bold().fg(Ansi.Color.BLUE).a(title).reset());
-
-      // Extract body elements and links
-      Elements bodyElements = doc.body().children();
-      Elements links = doc.select("a[href]");
+      // Index the page once; paging and link listing reuse it
+      PageIndex page = PageIndex.build(doc);
 
       // Prepare a filter pattern if the argument is not empty
       Pattern filterPattern =
           filterArgument.isEmpty()
               ? null
-              : Pattern.compile(filterArgument, Pattern.CASE_INSENSITIVE);
+              : Pattern.compile(filterArgument, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
 
-      // Display content in the body
-      for (Element element : bodyElements) {
-        displayElement(element, terminal, filterPattern);
+      // Links placed directly in the body are remembered as before
+      for (String linkUrl : page.getTopLevelLinks()) {
+        recordVisit(linkUrl);
       }
 
-      // If links exist, display them in a numbered list for navigation
-      if (!links.isEmpty()) {
-        terminal.writer().println("\nLinks:");
-        for (int i = 0; i < links.size(); i++) {
-          String linkText = links.get(i).text();
-          String linkUrl = links.get(i).absUrl("href");
-          terminal
-              .writer()
-              .println(
-                  Ansi.ansi().fg(Ansi.Color.GREEN).a((i + 1) + ". " + linkText).reset()
-                      + " ("
-                      + linkUrl
-                      + ")");
-        }
-      }
+      currentPage = page;
+      viewport =
+          new PageViewport(
+              page, page.filter(filterPattern), screenWidth(terminal), screenHeight(terminal));
+
+      // Display the title of the page in bold blue, then the first screen
+      terminal.writer().println(Ansi.ansi().bold().fg(Ansi.Color.BLUE).a(page.getTitle()).reset());
+      viewport.render(terminal.writer());
+      printStatus(terminal.writer());
+    } catch (PatternSyntaxException e) {
+      terminal
+          .writer()
+          .println(Ansi.ansi().fg(Ansi.Color.RED).a("Invalid filter: " + e.getDescription()).reset());
     } catch (Exception e) {
       // Handle errors gracefully and display them in red
       terminal
@@ -80,64 +89,115 @@ public class BrowserUtils {
   }
 
   /**
-   * Displays individual elements of the page body based on their tag name. Filters content if a
-   * filter pattern is provided.
+   * Shows the next screen of the page last displayed.
    *
-   * @param element The JSoup element to display
    * @param terminal The terminal to write output to
-   * @param filterPattern The filter pattern (optional)
+   * @return false if there was no further content
    */
-  private static void displayElement(Element element, Terminal terminal, Pattern filterPattern) {
-    try {
-      // Skip displaying the element if it doesn't match the filter pattern
-      if (filterPattern != null && !filterPattern.matcher(element.text()).find()) {
-        return; // Skip if doesn't match filter
-      }
+  public static boolean nextPage(Terminal terminal) {
+    if (viewport == null || !viewport.next()) {
+      terminal.writer().println("End of page.");
+      return false;
+    }
+    viewport.render(terminal.writer());
+    printStatus(terminal.writer());
+    return true;
+  }
 
-      // Determine the tag name of the element and display it accordingly
-      String tagName = element.tagName().toLowerCase();
-      switch (tagName) {
-        case "h1":
-        case "h2":
-        case "h3":
-        case "h4":
-        case "h5":
-        case "h6":
-          // Display headings in bold
-          terminal.writer().println(Ansi.ansi().bold().a(element.text()).reset());
-          break;
-        case "p":
-          // Display paragraphs with newline after them
-          terminal.writer().println(element.text() + "\n");
-          break;
-        case "ul":
-        case "ol":
-          // Display lists, prefixed with a bullet or number
-          for (Element listItem : element.children()) {
-            terminal.writer().println("  * " + listItem.text());
-          }
-          terminal.writer().println();
-          break;
-        case "a":
-          // Store link in history and mark as visited
-          String linkUrl = element.absUrl("href");
-          history.push(linkUrl); // Save the link for "back" navigation
-          visitedLinks.add(linkUrl); // Mark the link as visited
-          break;
-        default:
-          // Default case to display other types of elements
-          terminal.writer().println(element.text());
-      }
-    } catch (Exception e) {
-      // Handle errors in displaying individual elements
+  /**
+   * Shows the previous screen of the page last displayed.
+   *
+   * @param terminal The terminal to write output to
+   * @return false if the first screen is already shown
+   */
+  public static boolean previousPage(Terminal terminal) {
+    if (viewport == null || !viewport.previous()) {
+      terminal.writer().println("Start of page.");
+      return false;
+    }
+    viewport.render(terminal.writer());
+    printStatus(terminal.writer());
+    return true;
+  }
+
+  /**
+   * Displays one numbered page of the links on the page last displayed. Link text and URLs are
+   * only resolved for the links shown.
+   *
+   * @param terminal The terminal to write output to
+   * @param linkPage The page of links to show, starting at 1
+   */
+  public static void displayLinks(Terminal terminal, int linkPage) {
+    if (currentPage == null || currentPage.linkCount() == 0) {
+      terminal.writer().println("No links.");
+      return;
+    }
+    int pages = (currentPage.linkCount() + LINKS_PER_PAGE - 1) / LINKS_PER_PAGE;
+    int pageNumber = Math.max(1, Math.min(linkPage, pages));
+    int from = (pageNumber - 1) * LINKS_PER_PAGE;
+    int to = Math.min(currentPage.linkCount(), from + LINKS_PER_PAGE);
+    terminal.writer().println("\nLinks (page " + pageNumber + " of " + pages + "):");
+    for (int i = from; i < to; i++) {
+      String linkText = currentPage.linkText(i);
+      String linkUrl = currentPage.linkUrl(i);
       terminal
           .writer()
           .println(
-              Ansi.ansi()
-                  .fg(Ansi.Color.RED)
-                  .a("Error displaying element: " + e.getMessage())
-                  .reset());
+              Ansi.ansi().fg(Ansi.Color.GREEN).a((i + 1) + ". " + linkText).reset()
+                  + " ("
+                  + linkUrl
+                  + ")");
     }
+    terminal.writer().flush();
+  }
+
+  /**
+   * Records a visited link for "back" navigation. Both the history and the visited set are
+   * bounded; the oldest entries are dropped first.
+   *
+   * @param linkUrl The absolute URL visited
+   */
+  public static void recordVisit(String linkUrl) {
+    history.push(linkUrl); // Save the link for "back" navigation
+    if (history.size() > HISTORY_LIMIT) {
+      history.removeLast();
+    }
+    visitedLinks.add(linkUrl); // Mark the link as visited
+  }
+
+  /**
+   * Checks whether a link was visited recently enough to still be remembered.
+   *
+   * @param linkUrl The absolute URL
+   * @return true if the link is in the visited set
+   */
+  public static boolean isVisited(String linkUrl) {
+    return visitedLinks.contains(linkUrl);
+  }
+
+  private static void printStatus(PrintWriter out) {
+    out.println(
+        Ansi.ansi()
+            .fg(Ansi.Color.CYAN)
+            .a(
+                "["
+                    + viewport.status()
+                    + (viewport.hasNext() ? ", next page available" : ", end of page")
+                    + ", "
+                    + currentPage.linkCount()
+                    + " links]")
+            .reset());
+    out.flush();
+  }
+
+  private static int screenWidth(Terminal terminal) {
+    int width = terminal.getWidth();
+    return width >= 20 ? width - 1 : 80;
+  }
+
+  private static int screenHeight(Terminal terminal) {
+    int height = terminal.getHeight();
+    return height >= 8 ? height - 3 : 21;
   }
 
   /**
@@ -148,6 +208,22 @@ public class BrowserUtils {
   public static boolean hasBackHistory() {
     return history.size() > 1; // We need at least two pages to go "back"
   }
+
+  /** A map that drops its least recently accessed entry once it holds more than a limit. */
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private static final long serialVersionUID = 1L;
+    private final int limit;
+
+    LruMap(int limit) {
+      super(16, 0.75f, true);
+      this.limit = limit;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > limit;
+    }
+  }
 }
 
 /** Copyright © 2024 Devin B. Royal. All rights reserved. */
@@ -0,0 +1,229 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+package com.devinroyal;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.fusesource.jansi.Ansi;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+/**
+ * Time to the first screen of a 10 MB HTML document: the previous displayPageContent, which
+ * printed every element and every link, against PageIndex plus PageViewport. Also times filtering
+ * and paging. Parsing with Jsoup is the same for both and reported separately.
+ *
+ * <p>Usage: java com.devinroyal.BrowserUtilsBenchmark [megabytes] [filter]
+ */
+public class BrowserUtilsBenchmark {
+
+  private static final int RUNS = 5;
+  private static final int WIDTH = 119;
+  private static final int HEIGHT = 45;
+
+  public static void main(String[] args) {
+    int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+    String filter = args.length > 1 ? args[1] : "quantum";
+    String html = generate(megabytes * 1024 * 1024, new Random(11));
+
+    long start = System.nanoTime();
+    Document doc = Jsoup.parse(html, "https://example.com/");
+    System.out.printf(
+        "%,d KB of HTML, %,d elements, parsed in %.0f ms%n",
+        html.length() / 1024, doc.getAllElements().size(), (System.nanoTime() - start) / 1e6);
+    Pattern pattern = Pattern.compile(filter, Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+    for (int warm = 0; warm < 2; warm++) {
+      legacy(doc, null, new CountingWriter());
+      firstScreen(doc, null, new CountingWriter());
+    }
+
+    for (Pattern p : new Pattern[] {null, pattern}) {
+      String label = p == null ? "no filter" : "filter \"" + filter + "\"";
+      long legacyNanos = Long.MAX_VALUE;
+      CountingWriter legacyOut = null;
+      for (int i = 0; i < RUNS; i++) {
+        legacyOut = new CountingWriter();
+        start = System.nanoTime();
+        legacy(doc, p, legacyOut);
+        legacyNanos = Math.min(legacyNanos, System.nanoTime() - start);
+      }
+      long newNanos = Long.MAX_VALUE;
+      CountingWriter newOut = null;
+      for (int i = 0; i < RUNS; i++) {
+        newOut = new CountingWriter();
+        start = System.nanoTime();
+        firstScreen(doc, p, newOut);
+        newNanos = Math.min(newNanos, System.nanoTime() - start);
+      }
+      System.out.printf(
+          "%s:%n  legacy displayPageContent  %8.1f ms  %,9d lines  %,11d chars printed%n"
+              + "  index + first screen      %8.1f ms  %,9d lines  %,11d chars printed%n",
+          label,
+          legacyNanos / 1e6,
+          legacyOut.lines,
+          legacyOut.chars,
+          newNanos / 1e6,
+          newOut.lines,
+          newOut.chars);
+    }
+
+    PageIndex page = PageIndex.build(doc);
+    long best = Long.MAX_VALUE;
+    int matches = 0;
+    for (int i = 0; i < RUNS; i++) {
+      start = System.nanoTime();
+      matches = page.filter(pattern).length;
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    System.out.printf(
+        "Refiltering the built index: %.1f ms, %,d of %,d blocks match%n",
+        best / 1e6, matches, page.blockCount());
+
+    PageViewport viewport = new PageViewport(page, page.filter(null), WIDTH, HEIGHT);
+    CountingWriter out = new CountingWriter();
+    viewport.render(new PrintWriter(out));
+    int pages = 200;
+    start = System.nanoTime();
+    for (int i = 0; i < pages && viewport.next(); i++) {
+      viewport.render(new PrintWriter(out));
+    }
+    System.out.printf(
+        "Paging: %.1f us per screen, now at %s%n",
+        (System.nanoTime() - start) / 1e3 / pages, viewport.status());
+    start = System.nanoTime();
+    for (int i = 0; i < 50; i++) {
+      page.linkText(i * 97 % page.linkCount());
+      page.linkUrl(i * 97 % page.linkCount());
+    }
+    System.out.printf(
+        "Links: %,d recorded, resolving 50 took %.1f us%n",
+        page.linkCount(), (System.nanoTime() - start) / 1e3);
+  }
+
+  private static void firstScreen(Document doc, Pattern filter, Writer writer) {
+    PrintWriter out = new PrintWriter(writer);
+    PageIndex page = PageIndex.build(doc);
+    out.println(Ansi.ansi().bold().fg(Ansi.Color.BLUE).a(page.getTitle()).reset());
+    new PageViewport(page, page.filter(filter), WIDTH, HEIGHT).render(out);
+    out.flush();
+  }
+
+  /** The previous displayPageContent and displayElement, writing to {@code writer}. */
+  private static void legacy(Document doc, Pattern filterPattern, Writer writer) {
+    PrintWriter out = new PrintWriter(writer);
+    out.println(Ansi.ansi().bold().fg(Ansi.Color.BLUE).a(doc.title()).reset());
+    Elements bodyElements = doc.body().children();
+    Elements links = doc.select("a[href]");
+    for (Element element : bodyElements) {
+      if (filterPattern != null && !filterPattern.matcher(element.text()).find()) {
+        continue;
+      }
+      String tagName = element.tagName().toLowerCase();
+      switch (tagName) {
+        case "h1":
+        case "h2":
+        case "h3":
+        case "h4":
+        case "h5":
+        case "h6":
+          out.println(Ansi.ansi().bold().a(element.text()).reset());
+          break;
+        case "p":
+          out.println(element.text() + "\n");
+          break;
+        case "ul":
+        case "ol":
+          for (Element listItem : element.children()) {
+            out.println("  * " + listItem.text());
+          }
+          out.println();
+          break;
+        case "a":
+          element.absUrl("href");
+          break;
+        default:
+          out.println(element.text());
+      }
+    }
+    if (!links.isEmpty()) {
+      out.println("\nLinks:");
+      for (int i = 0; i < links.size(); i++) {
+        String linkText = links.get(i).text();
+        String linkUrl = links.get(i).absUrl("href");
+        out.println(
+            Ansi.ansi().fg(Ansi.Color.GREEN).a((i + 1) + ". " + linkText).reset()
+                + " ("
+                + linkUrl
+                + ")");
+      }
+    }
+    out.flush();
+  }
+
+  /**
+   * A page of top-level sections, headings, paragraphs and lists with inline markup and links,
+   * about {@code size} characters long.
+   */
+  private static String generate(int size, Random random) {
+    String[] words = {
+      "terminal", "browser", "viewport", "index", "render", "network", "parser", "screen",
+      "history", "document", "quantum", "request", "response", "header", "filter", "page"
+    };
+    StringBuilder html =
+        new StringBuilder("<!DOCTYPE html><html><head><title>Benchmark page</title></head><body>\n");
+    int section = 0;
+    while (html.length() < size) {
+      section++;
+      html.append("<h2>Section ").append(section).append("</h2>\n<section>");
+      for (int p = 0; p < 6; p++) {
+        html.append("<p>");
+        int count = 30 + random.nextInt(60);
+        for (int w = 0; w < count; w++) {
+          String word = words[random.nextInt(words.length)];
+          if (w % 17 == 5) {
+            html.append("<a href=\"/s").append(section).append("/").append(w).append("\">")
+                .append(word).append("</a> ");
+          } else if (w % 11 == 3) {
+            html.append("<em>").append(word).append("</em> ");
+          } else {
+            html.append(word).append(' ');
+          }
+        }
+        html.append("</p>\n");
+      }
+      html.append("<ul>");
+      for (int li = 0; li < 5; li++) {
+        html.append("<li>").append(words[random.nextInt(words.length)]).append(" item ").append(li)
+            .append("</li>");
+      }
+      html.append("</ul></section>\n");
+    }
+    return html.append("</body></html>").toString();
+  }
+
+  /** Discards output, counting what would have reached the terminal. */
+  private static final class CountingWriter extends Writer {
+    long chars;
+    long lines;
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+      chars += length;
+      for (int i = offset; i < offset + length; i++) {
+        if (buffer[i] == '\n') {
+          lines++;
+        }
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,263 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+package com.devinroyal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.jsoup.internal.StringUtil;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * The readable text of a page as a flat list of blocks (headings, paragraphs, list items and other
+ * runs of text), built in one pass over the document. Every text node is visited once, and all
+ * block texts are stored back to back in one string, which filters search directly.
+ *
+ * <p>Links are recorded by reference during the same pass; their text and absolute URL are only
+ * computed when asked for.
+ */
+public final class PageIndex {
+
+  /** How a block is displayed. */
+  public enum Kind {
+    HEADING,
+    PARAGRAPH,
+    LIST_ITEM,
+    TEXT
+  }
+
+  private final String title;
+  // Block i is text.substring(starts[i], starts[i + 1] - 1); each block ends with '\n'
+  private final String text;
+  private final int[] starts;
+  private final Kind[] kinds;
+  private final boolean[] blankAfter;
+  private final int blockCount;
+  private final List<Element> links;
+  private final List<String> topLevelLinks;
+
+  private PageIndex(Builder builder, String title) {
+    this.title = title;
+    this.text = builder.text.toString();
+    this.blockCount = builder.count;
+    this.starts = Arrays.copyOf(builder.starts, blockCount + 1);
+    this.starts[blockCount] = text.length();
+    this.kinds = Arrays.copyOf(builder.kinds, blockCount);
+    this.blankAfter = Arrays.copyOf(builder.blankAfter, blockCount);
+    this.links = builder.links;
+    this.topLevelLinks = builder.topLevelLinks;
+  }
+
+  /** Indexes the body of {@code doc}. */
+  public static PageIndex build(Document doc) {
+    Builder builder = new Builder();
+    Element body = doc.body();
+    if (body != null) {
+      NodeTraversor.traverse(builder, body);
+      builder.flush();
+    }
+    return new PageIndex(builder, doc.title());
+  }
+
+  public String getTitle() {
+    return title;
+  }
+
+  public int blockCount() {
+    return blockCount;
+  }
+
+  public String blockText(int block) {
+    return text.substring(starts[block], end(block));
+  }
+
+  public Kind blockKind(int block) {
+    return kinds[block];
+  }
+
+  /** True after a paragraph or the last item of a list, which are followed by an empty line. */
+  public boolean isBlankAfter(int block) {
+    return blankAfter[block];
+  }
+
+  /** Total characters of text on the page. */
+  public int textLength() {
+    return text.length();
+  }
+
+  /**
+   * The blocks in which {@code pattern} finds a match, in page order. One matcher is reused for
+   * every block, limited to that block's text, so a match never spans two blocks and {@code ^}
+   * and {@code $} match at the block's start and end. A null pattern selects every block.
+   */
+  public int[] filter(Pattern pattern) {
+    if (pattern == null) {
+      int[] all = new int[blockCount];
+      Arrays.setAll(all, i -> i);
+      return all;
+    }
+    int[] matches = new int[16];
+    int found = 0;
+    Matcher matcher = pattern.matcher(text);
+    for (int block = 0; block < blockCount; block++) {
+      if (matcher.region(starts[block], end(block)).find()) {
+        if (found == matches.length) {
+          matches = Arrays.copyOf(matches, found * 2);
+        }
+        matches[found++] = block;
+      }
+    }
+    return Arrays.copyOf(matches, found);
+  }
+
+  public int linkCount() {
+    return links.size();
+  }
+
+  public String linkText(int link) {
+    return links.get(link).text();
+  }
+
+  public String linkUrl(int link) {
+    return links.get(link).absUrl("href");
+  }
+
+  /** Absolute URLs of links placed directly in the body, outside any other element. */
+  public List<String> getTopLevelLinks() {
+    return topLevelLinks;
+  }
+
+  // Offset just past the block's text, before its '\n' separator.
+  private int end(int block) {
+    return starts[block + 1] - 1;
+  }
+
+  /** The single pass: splits text at block elements and records links. */
+  private static final class Builder implements NodeVisitor {
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder current = new StringBuilder();
+    private int[] starts = new int[256];
+    private Kind[] kinds = new Kind[256];
+    private boolean[] blankAfter = new boolean[256];
+    private int count;
+    private final List<Element> links = new ArrayList<>();
+    private final List<String> topLevelLinks = new ArrayList<>();
+    // Kind of the innermost open block element, resumed after a nested block closes
+    private final List<Kind> open = new ArrayList<>();
+    private Kind kind = Kind.TEXT;
+    private int preDepth;
+
+    @Override
+    public void head(Node node, int depth) {
+      if (node instanceof TextNode) {
+        String whole = ((TextNode) node).getWholeText();
+        if (preDepth > 0) {
+          current.append(whole);
+        } else {
+          StringUtil.appendNormalisedWhitespace(current, whole, endsWithSpace(current));
+        }
+        return;
+      }
+      if (!(node instanceof Element)) {
+        return;
+      }
+      Element element = (Element) node;
+      String name = element.normalName();
+      if (name.equals("a") && element.hasAttr("href")) {
+        links.add(element);
+        if (depth == 1) {
+          topLevelLinks.add(element.absUrl("href"));
+        }
+      }
+      if (name.equals("pre")) {
+        preDepth++;
+      }
+      if (depth > 0 && element.isBlock()) {
+        flush();
+        open.add(kind);
+        kind = kindOf(name);
+      } else if (name.equals("br") && current.length() > 0 && !endsWithSpace(current)) {
+        current.append(' ');
+      }
+    }
+
+    @Override
+    public void tail(Node node, int depth) {
+      if (!(node instanceof Element)) {
+        return;
+      }
+      Element element = (Element) node;
+      String name = element.normalName();
+      if (name.equals("pre")) {
+        preDepth--;
+      }
+      if (depth > 0 && element.isBlock()) {
+        Kind closing = kind;
+        flush();
+        kind = open.remove(open.size() - 1);
+        if ((closing == Kind.PARAGRAPH || name.equals("ul") || name.equals("ol")) && count > 0) {
+          blankAfter[count - 1] = true;
+        }
+      }
+    }
+
+    void flush() {
+      String block = current.toString();
+      current.setLength(0);
+      if (block.indexOf('\n') < 0) {
+        add(block.trim());
+        return;
+      }
+      // Preformatted text: one block per line, so the index keeps one line per block.
+      for (String line : block.split("\n")) {
+        add(line.stripTrailing());
+      }
+    }
+
+    private void add(String block) {
+      if (block.isBlank()) {
+        return;
+      }
+      if (count + 1 >= starts.length) {
+        int size = starts.length * 2;
+        starts = Arrays.copyOf(starts, size);
+        kinds = Arrays.copyOf(kinds, size);
+        blankAfter = Arrays.copyOf(blankAfter, size);
+      }
+      starts[count] = text.length();
+      kinds[count] = kind;
+      count++;
+      text.append(block).append('\n');
+    }
+
+    private static Kind kindOf(String name) {
+      switch (name) {
+        case "h1":
+        case "h2":
+        case "h3":
+        case "h4":
+        case "h5":
+        case "h6":
+          return Kind.HEADING;
+        case "p":
+          return Kind.PARAGRAPH;
+        case "li":
+        case "dt":
+        case "dd":
+          return Kind.LIST_ITEM;
+        default:
+          return Kind.TEXT;
+      }
+    }
+
+    private static boolean endsWithSpace(StringBuilder builder) {
+      return builder.length() > 0 && builder.charAt(builder.length() - 1) == ' ';
+    }
+  }
+}
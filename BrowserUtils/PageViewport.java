@@ -0,0 +1,151 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+package com.devinroyal;
+
+import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.fusesource.jansi.Ansi;
+
+/**
+ * A screen-sized window onto the blocks of a {@link PageIndex}. Only the blocks that fall inside
+ * the window are wrapped and printed, so showing a page costs the same whether it has a hundred
+ * blocks or a million. Pages are counted in screen lines after wrapping, and the start of every
+ * page shown is remembered so paging back returns to exactly the same lines.
+ */
+public final class PageViewport {
+
+  private final PageIndex index;
+  private final int[] blocks;
+  private final int width;
+  private final int height;
+
+  // First line of the page on screen: a position in blocks and a wrapped line within that block
+  private int block;
+  private int line;
+  private int nextBlock;
+  private int nextLine;
+  private final Deque<int[]> previousPages = new ArrayDeque<>();
+
+  /**
+   * @param blocks the blocks to show, in order, e.g. the result of {@link PageIndex#filter}
+   * @param width the column at which text is wrapped
+   * @param height the number of text lines in one page
+   */
+  public PageViewport(PageIndex index, int[] blocks, int width, int height) {
+    if (width < 10 || height < 1) {
+      throw new IllegalArgumentException("Viewport too small: " + width + "x" + height);
+    }
+    this.index = index;
+    this.blocks = blocks;
+    this.width = width;
+    this.height = height;
+  }
+
+  /** Prints the current page and remembers where the next one starts. */
+  public void render(PrintWriter out) {
+    int shown = 0;
+    int b = block;
+    int l = line;
+    while (shown < height && b < blocks.length) {
+      List<String> rows = rows(blocks[b]);
+      while (l < rows.size() && shown < height) {
+        out.println(rows.get(l++));
+        shown++;
+      }
+      if (l == rows.size()) {
+        b++;
+        l = 0;
+      }
+    }
+    nextBlock = b;
+    nextLine = l;
+    out.flush();
+  }
+
+  public boolean hasNext() {
+    return nextBlock < blocks.length;
+  }
+
+  public boolean hasPrevious() {
+    return !previousPages.isEmpty();
+  }
+
+  /** Moves to the page after the one last rendered; false at the end. */
+  public boolean next() {
+    if (!hasNext()) {
+      return false;
+    }
+    previousPages.push(new int[] {block, line});
+    block = nextBlock;
+    line = nextLine;
+    return true;
+  }
+
+  /** Moves back one page; false on the first page. */
+  public boolean previous() {
+    if (previousPages.isEmpty()) {
+      return false;
+    }
+    int[] start = previousPages.pop();
+    block = start[0];
+    line = start[1];
+    return true;
+  }
+
+  /** Which blocks the page shows, e.g. "blocks 41-60 of 1,234". */
+  public String status() {
+    if (blocks.length == 0) {
+      return "no matching content";
+    }
+    int last = nextLine > 0 ? nextBlock + 1 : nextBlock;
+    return String.format("blocks %,d-%,d of %,d", block + 1, Math.max(block + 1, last), blocks.length);
+  }
+
+  /** The screen lines of one block: wrapped and styled, plus an empty line where one follows. */
+  private List<String> rows(int blockIndex) {
+    PageIndex.Kind kind = index.blockKind(blockIndex);
+    String text = index.blockText(blockIndex);
+    List<String> rows = new ArrayList<>();
+    switch (kind) {
+      case HEADING:
+        for (String row : wrap(text, width)) {
+          rows.add(Ansi.ansi().bold().a(row).reset().toString());
+        }
+        break;
+      case LIST_ITEM:
+        for (String row : wrap(text, width - 4)) {
+          rows.add((rows.isEmpty() ? "  * " : "    ") + row);
+        }
+        break;
+      default:
+        rows.addAll(wrap(text, width));
+    }
+    if (index.isBlankAfter(blockIndex)) {
+      rows.add("");
+    }
+    return rows;
+  }
+
+  /** Splits text at spaces into lines of at most {@code limit} characters. */
+  private static List<String> wrap(String text, int limit) {
+    List<String> lines = new ArrayList<>();
+    int from = 0;
+    while (from < text.length()) {
+      int to = Math.min(text.length(), from + limit);
+      if (to < text.length()) {
+        int space = text.lastIndexOf(' ', to);
+        if (space > from) {
+          to = space;
+        }
+      }
+      lines.add(text.substring(from, to));
+      from = to;
+      while (from < text.length() && text.charAt(from) == ' ') {
+        from++;
+      }
+    }
+    return lines;
+  }
+}
@@ -0,0 +1,100 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+/**
+ * In-process fake {@link ObjectStore} for exercising {@link TransferManager} without network access.
+ * Parts are verified against the CRC32C the client sends, the way a real store checks its
+ * integrity headers. {@link #failAfterParts} injects failures to exercise resume.
+ */
+public class InMemoryObjectStore implements ObjectStore {
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private volatile int remainingParts = Integer.MAX_VALUE;
+
+    /** Makes every part upload after the next {@code parts} fail until the limit is reset. */
+    public void failAfterParts(int parts) {
+        remainingParts = parts;
+    }
+
+    @Override
+    public String createMultipartUpload(String bucket, String key) {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ConcurrentHashMap<>());
+        return uploadId;
+    }
+
+    @Override
+    public String uploadPart(String bucket, String key, String uploadId, int partNumber, ByteBuffer data, long crc32c)
+            throws IOException {
+        Map<Integer, byte[]> parts = uploads.get(uploadId);
+        if (parts == null) {
+            throw new IOException("No such upload: " + uploadId);
+        }
+        synchronized (this) {
+            if (remainingParts-- <= 0) {
+                throw new IOException("Injected failure on part " + partNumber);
+            }
+        }
+        byte[] bytes = new byte[data.remaining()];
+        data.duplicate().get(bytes);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes);
+        if (crc.getValue() != crc32c) {
+            throw new IOException("Checksum mismatch on part " + partNumber);
+        }
+        parts.put(partNumber, bytes);
+        return Long.toHexString(crc32c);
+    }
+
+    @Override
+    public void completeMultipartUpload(String bucket, String key, String uploadId, List<String> partTags)
+            throws IOException {
+        Map<Integer, byte[]> parts = uploads.remove(uploadId);
+        if (parts == null || parts.size() != partTags.size()) {
+            throw new IOException("Upload " + uploadId + " is missing parts");
+        }
+        int total = 0;
+        for (byte[] part : parts.values()) {
+            total += part.length;
+        }
+        byte[] object = new byte[total];
+        int offset = 0;
+        for (int part = 1; part <= partTags.size(); part++) {
+            byte[] bytes = parts.get(part);
+            System.arraycopy(bytes, 0, object, offset, bytes.length);
+            offset += bytes.length;
+        }
+        objects.put(bucket + "/" + key, object);
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucket, String key, String uploadId) {
+        uploads.remove(uploadId);
+    }
+
+    @Override
+    public long objectSize(String bucket, String key) throws IOException {
+        return object(bucket, key).length;
+    }
+
+    @Override
+    public void readRange(String bucket, String key, long offset, ByteBuffer target) throws IOException {
+        target.put(object(bucket, key), (int) offset, target.remaining());
+    }
+
+    private byte[] object(String bucket, String key) throws IOException {
+        byte[] object = objects.get(bucket + "/" + key);
+        if (object == null) {
+            throw new FileNotFoundException(bucket + "/" + key);
+        }
+        return object;
+    }
+}
@@ -0,0 +1,42 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Minimal multipart object-store contract shared by the S3 and GCS integrations, so that
+ * {@link TransferManager} can split, parallelise and resume transfers the same way for both.
+ * Part numbers start at 1. Implementations must allow concurrent calls for different parts.
+ */
+public interface ObjectStore {
+
+    /**
+     * The most parts one upload may be split into; {@link TransferManager} refuses larger uploads
+     * before starting them. S3 allows 10,000.
+     */
+    default int maxParts() {
+        return 10_000;
+    }
+
+    String createMultipartUpload(String bucket, String key) throws IOException;
+
+    /**
+     * Uploads one part and returns the tag that {@link #completeMultipartUpload} needs for it.
+     * {@code data} is read from its position to its limit; {@code crc32c} is the CRC32C of those
+     * bytes, which stores without native support may use to verify the part themselves.
+     */
+    String uploadPart(String bucket, String key, String uploadId, int partNumber, ByteBuffer data, long crc32c)
+            throws IOException;
+
+    /** Assembles the object from the given part tags, in part-number order. */
+    void completeMultipartUpload(String bucket, String key, String uploadId, List<String> partTags)
+            throws IOException;
+
+    void abortMultipartUpload(String bucket, String key, String uploadId) throws IOException;
+
+    long objectSize(String bucket, String key) throws IOException;
+
+    /** Reads {@code target.remaining()} bytes of the object starting at {@code offset} into {@code target}. */
+    void readRange(String bucket, String key, long offset, ByteBuffer target) throws IOException;
+}
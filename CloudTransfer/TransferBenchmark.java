@@ -0,0 +1,100 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.zip.CRC32C;
+
+/**
+ * Measures upload and download throughput of {@link TransferManager} against
+ * {@link InMemoryObjectStore} across part sizes and concurrency levels, checks that every round
+ * trip is byte-identical, and runs one interrupted upload to confirm it resumes.
+ * Usage: java TransferBenchmark [fileSizeMB]
+ */
+public class TransferBenchmark {
+    private static final long MB = 1024 * 1024;
+    private static final long[] PART_SIZES = {MB, 8 * MB, 32 * MB};
+    private static final int[] CONCURRENCY = {1, 2, 4, 8};
+
+    public static void main(String[] args) throws IOException {
+        long fileSize = (args.length > 0 ? Long.parseLong(args[0]) : 512) * MB;
+        Path dir = Files.createTempDirectory("transfer-bench");
+        Path source = dir.resolve("source.bin");
+        Path target = dir.resolve("target.bin");
+        writeRandom(source, fileSize);
+        long expected = checksum(source);
+
+        System.out.printf("%-10s %-6s %12s %12s%n", "part", "thread", "upload GB/s", "download GB/s");
+        for (long partSize : PART_SIZES) {
+            for (int threads : CONCURRENCY) {
+                InMemoryObjectStore store = new InMemoryObjectStore();
+                try (TransferManager manager = new TransferManager(store, partSize, threads)) {
+                    long start = System.nanoTime();
+                    manager.upload(source, "bench", "object", TransferListener.NONE);
+                    long uploaded = System.nanoTime() - start;
+                    start = System.nanoTime();
+                    manager.download("bench", "object", target, TransferListener.NONE);
+                    long downloaded = System.nanoTime() - start;
+                    if (checksum(target) != expected) {
+                        throw new IllegalStateException("Round trip corrupted data");
+                    }
+                    System.out.printf("%-10s %-6d %12.2f %12.2f%n", partSize / MB + " MB", threads,
+                            gbPerSecond(fileSize, uploaded), gbPerSecond(fileSize, downloaded));
+                }
+            }
+        }
+
+        InMemoryObjectStore store = new InMemoryObjectStore();
+        try (TransferManager manager = new TransferManager(store, 8 * MB, 4)) {
+            store.failAfterParts(3);
+            try {
+                manager.upload(source, "bench", "resumed", TransferListener.NONE);
+                throw new IllegalStateException("Injected failure did not surface");
+            } catch (IOException expectedFailure) {
+                System.out.println("Interrupted upload: " + expectedFailure.getMessage());
+            }
+            store.failAfterParts(Integer.MAX_VALUE);
+            manager.upload(source, "bench", "resumed", (done, total) -> { });
+            manager.download("bench", "resumed", target, TransferListener.NONE);
+            System.out.println("Resumed upload intact: " + (checksum(target) == expected));
+        }
+
+        Files.deleteIfExists(source);
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(dir);
+    }
+
+    private static void writeRandom(Path file, long size) throws IOException {
+        Random random = new Random(7);
+        ByteBuffer chunk = ByteBuffer.allocate((int) MB);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < size; written += MB) {
+                random.nextBytes(chunk.array());
+                chunk.clear().limit((int) Math.min(MB, size - written));
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        }
+    }
+
+    private static long checksum(Path file) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect((int) MB);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (channel.read(buffer.clear()) > 0) {
+                crc.update(buffer.flip());
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static double gbPerSecond(long bytes, long nanos) {
+        return bytes / (double) nanos;
+    }
+}
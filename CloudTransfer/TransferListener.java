@@ -0,0 +1,9 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+/** Progress callback for {@link TransferManager}; invoked from worker threads after each part. */
+@FunctionalInterface
+public interface TransferListener {
+    TransferListener NONE = (transferred, total) -> { };
+
+    void onProgress(long bytesTransferred, long totalBytes);
+}
@@ -0,0 +1,192 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Parallel, resumable multipart transfers over any {@link ObjectStore}. Files are split into
+ * fixed-size parts that move on a bounded worker pool: uploads read each part as a memory-mapped
+ * slice of the file's {@link FileChannel} (no heap copy), downloads fetch ranges into per-thread
+ * direct buffers and write them back with positional writes. Every finished part is checksummed
+ * with CRC32C and recorded in a {@link TransferManifest}; a rerun after a failure skips parts whose
+ * local bytes still match their recorded checksum.
+ */
+public class TransferManager implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(TransferManager.class.getName());
+    /** Downloads are ranged reads with no store limit; this only keeps the part list bounded. */
+    private static final int MAX_DOWNLOAD_PARTS = 10_000;
+
+    private final ObjectStore store;
+    private final long partSize;
+    private final ExecutorService workers;
+    private final ThreadLocal<ByteBuffer> downloadBuffers;
+
+    public TransferManager(ObjectStore store, long partSize, int concurrency) {
+        if (partSize <= 0 || partSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Part size out of range: " + partSize);
+        }
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency must be positive: " + concurrency);
+        }
+        this.store = store;
+        this.partSize = partSize;
+        this.workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.downloadBuffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect((int) partSize));
+    }
+
+    public void upload(Path file, String bucket, String key, TransferListener listener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int parts = partCount(size, store.maxParts());
+            TransferManifest manifest = TransferManifest.open(file, "upload", bucket, key, size, partSize);
+            String uploadId = manifest.getUploadId();
+            if (uploadId == null) {
+                uploadId = store.createMultipartUpload(bucket, key);
+                manifest.setUploadId(uploadId);
+            }
+            String id = uploadId;
+            AtomicLong transferred = new AtomicLong();
+            List<Future<?>> pending = new ArrayList<>(parts);
+            for (int part = 1; part <= parts; part++) {
+                int partNumber = part;
+                pending.add(workers.submit(() -> {
+                    long offset = offset(partNumber);
+                    ByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, offset, length(partNumber, size));
+                    long crc = checksum(slice);
+                    if (crc != manifest.getChecksum(partNumber) || manifest.getTag(partNumber) == null) {
+                        String tag = store.uploadPart(bucket, key, id, partNumber, slice, crc);
+                        manifest.recordPart(partNumber, crc, tag);
+                    }
+                    listener.onProgress(transferred.addAndGet(slice.limit()), size);
+                    return null;
+                }));
+            }
+            awaitAll(pending, "Upload of " + file + " to " + bucket + "/" + key);
+
+            List<String> tags = new ArrayList<>(parts);
+            for (int part = 1; part <= parts; part++) {
+                tags.add(manifest.getTag(part));
+            }
+            store.completeMultipartUpload(bucket, key, uploadId, tags);
+            manifest.delete();
+            logger.info("Uploaded " + size + " bytes in " + parts + " parts to " + bucket + "/" + key);
+        }
+    }
+
+    public void download(String bucket, String key, Path file, TransferListener listener) throws IOException {
+        long size = store.objectSize(bucket, key);
+        int parts = partCount(size, MAX_DOWNLOAD_PARTS);
+        TransferManifest manifest = TransferManifest.open(file, "download", bucket, key, size, partSize);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+            FileChannel channel = raf.getChannel();
+            AtomicLong transferred = new AtomicLong();
+            List<Future<?>> pending = new ArrayList<>(parts);
+            for (int part = 1; part <= parts; part++) {
+                int partNumber = part;
+                pending.add(workers.submit(() -> {
+                    long offset = offset(partNumber);
+                    int length = length(partNumber, size);
+                    long recorded = manifest.getChecksum(partNumber);
+                    if (recorded < 0
+                            || recorded != checksum(channel.map(FileChannel.MapMode.READ_ONLY, offset, length))) {
+                        ByteBuffer buffer = downloadBuffers.get();
+                        buffer.clear().limit(length);
+                        store.readRange(bucket, key, offset, buffer);
+                        buffer.flip();
+                        long crc = checksum(buffer);
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer, offset + buffer.position());
+                        }
+                        manifest.recordPart(partNumber, crc, null);
+                    }
+                    listener.onProgress(transferred.addAndGet(length), size);
+                    return null;
+                }));
+            }
+            awaitAll(pending, "Download of " + bucket + "/" + key + " to " + file);
+            channel.force(false);
+        }
+        manifest.delete();
+        logger.info("Downloaded " + size + " bytes in " + parts + " parts from " + bucket + "/" + key);
+    }
+
+    /** Abandons an interrupted upload on the store side and forgets its local manifest. */
+    public void abortUpload(Path file, String bucket, String key) throws IOException {
+        long size = file.toFile().length();
+        TransferManifest manifest = TransferManifest.open(file, "upload", bucket, key, size, partSize);
+        if (manifest.getUploadId() != null) {
+            store.abortMultipartUpload(bucket, key, manifest.getUploadId());
+        }
+        manifest.delete();
+    }
+
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+
+    private int partCount(long size, int maxParts) {
+        long parts = Math.max(1, (size + partSize - 1) / partSize);
+        if (parts > maxParts) {
+            throw new IllegalArgumentException("Part size " + partSize + " is too small for " + size
+                    + " bytes; at most " + maxParts + " parts are allowed");
+        }
+        return (int) parts;
+    }
+
+    private long offset(int partNumber) {
+        return (partNumber - 1) * partSize;
+    }
+
+    private int length(int partNumber, long size) {
+        return (int) Math.min(partSize, size - offset(partNumber));
+    }
+
+    private static long checksum(ByteBuffer data) {
+        CRC32C crc = new CRC32C();
+        crc.update(data.duplicate());
+        return crc.getValue();
+    }
+
+    private static void awaitAll(List<Future<?>> pending, String description) throws IOException {
+        IOException failure = null;
+        for (Future<?> future : pending) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.forEach(f -> f.cancel(true));
+                throw new IOException(description + " interrupted", e);
+            } catch (CancellationException e) {
+                // Cancelled after an earlier part failed; that failure is reported below.
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IOException(description + " failed; rerun to resume", e.getCause());
+                    pending.forEach(f -> f.cancel(false));
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Local resume manifest stored next to the transferred file as {@code <file>.transfer}. It records
+ * the transfer parameters plus the checksum (and, for uploads, the store tag) of every finished
+ * part, and is rewritten atomically after each part so an interrupted run can pick up where it
+ * stopped.
+ */
+class TransferManifest {
+    private static final String SUFFIX = ".transfer";
+
+    private final Path path;
+    private final Properties properties;
+
+    private TransferManifest(Path path, Properties properties) {
+        this.path = path;
+        this.properties = properties;
+    }
+
+    /**
+     * Loads the manifest for {@code file} if one exists for the same operation and parameters,
+     * otherwise starts a fresh one.
+     */
+    static TransferManifest open(Path file, String operation, String bucket, String key, long size, long partSize)
+            throws IOException {
+        Path path = file.resolveSibling(file.getFileName() + SUFFIX);
+        Properties expected = new Properties();
+        expected.setProperty("operation", operation);
+        expected.setProperty("bucket", bucket);
+        expected.setProperty("key", key);
+        expected.setProperty("size", Long.toString(size));
+        expected.setProperty("partSize", Long.toString(partSize));
+        if (Files.exists(path)) {
+            Properties stored = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                stored.load(in);
+            }
+            boolean matches = true;
+            for (String name : expected.stringPropertyNames()) {
+                matches &= expected.getProperty(name).equals(stored.getProperty(name));
+            }
+            if (matches) {
+                return new TransferManifest(path, stored);
+            }
+        }
+        return new TransferManifest(path, expected);
+    }
+
+    synchronized String getUploadId() {
+        return properties.getProperty("uploadId");
+    }
+
+    synchronized void setUploadId(String uploadId) throws IOException {
+        properties.setProperty("uploadId", uploadId);
+        save();
+    }
+
+    /** Returns the recorded CRC32C of a finished part, or -1 if the part has not completed. */
+    synchronized long getChecksum(int partNumber) {
+        String value = properties.getProperty("part." + partNumber + ".crc");
+        return value == null ? -1 : Long.parseLong(value);
+    }
+
+    synchronized String getTag(int partNumber) {
+        return properties.getProperty("part." + partNumber + ".tag");
+    }
+
+    synchronized void recordPart(int partNumber, long crc32c, String tag) throws IOException {
+        properties.setProperty("part." + partNumber + ".crc", Long.toString(crc32c));
+        if (tag != null) {
+            properties.setProperty("part." + partNumber + ".tag", tag);
+        }
+        save();
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(path);
+    }
+
+    private void save() throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Resumable transfer manifest");
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
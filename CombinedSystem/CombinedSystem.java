@@ -3,8 +3,7 @@ import java.io.*;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.impl.SimpleLogger;
@@ -19,12 +18,15 @@ import org.slf4j.impl.SimpleLogger;
 public class CombinedSystem {
 
   private static final Logger logger = LoggerFactory.getLogger(CombinedSystem.class);
-  private final PriorityBlockingQueue<ScheduledTask> taskQueue = new PriorityBlockingQueue<>();
   private final ScheduledThreadPoolExecutor executor;
+  private final DagExecutor dagExecutor;
+  // Handles of scheduled tasks, so later tasks can name them as dependencies. A finished handle no
+  // longer references its task, so an entry goes once the caller drops the task.
+  private final Map<Runnable, TaskHandle> scheduledTasks =
+      Collections.synchronizedMap(new WeakHashMap<>());
   private final AtomicBoolean isShuttingDown = new AtomicBoolean(false);
   private final Properties config = new Properties();
   private final RateLimiter rateLimiter;
-  private final Lock taskLock = new ReentrantLock();
   private final long configurationReloadInterval = 60000; // 1 minute
   private volatile long lastConfigReloadTime = 0;
 
@@ -35,6 +37,7 @@ public class CombinedSystem {
 
   public CombinedSystem(int initialPoolSize) {
     this.executor = new ScheduledThreadPoolExecutor(initialPoolSize, new CustomThreadFactory());
+    this.dagExecutor = new DagExecutor(initialPoolSize);
     this.rateLimiter = RateLimiter.create(getRateLimit());
     loadConfiguration();
     startConfigReloadScheduler();
@@ -86,7 +89,7 @@ public class CombinedSystem {
       int rateLimit = Integer.parseInt(config.getProperty("rate.limit", "10"));
       validateConfiguration(poolSize, rateLimit);
       executor.setCorePoolSize(Integer.parseInt(poolSize));
-      rateLimiter.updateRateLimit(rateLimit);
+      rateLimiter.updateRateLimit(rateLimit, rateLimit);
       logger.info(
           "Configuration loaded. Thread pool size: " + poolSize + ", Rate limit: " + rateLimit);
     } catch (IOException e) {
@@ -187,87 +190,70 @@ public class CombinedSystem {
   }
 
   /**
-   * Schedules a task to be executed after a specified delay.
+   * Schedules a task to be executed after a specified delay. The task runs once the delay has
+   * elapsed and every dependency has completed; among ready tasks, higher priorities run first.
    *
    * @param task The task to be executed.
    * @param delaySeconds The delay in seconds before the task is executed.
-   * @param dependencies List of dependent tasks that need to complete before this task.
+   * @param dependencies List of previously scheduled tasks that need to complete before this task.
    * @param priority The priority of the task.
-   * @throws IllegalArgumentException If delaySeconds is negative or zero.
+   * @return The handle of the scheduled task, or null if it could not be scheduled.
    */
-  public void scheduleTask(
+  public TaskHandle scheduleTask(
       Runnable task, int delaySeconds, List<Runnable> dependencies, int priority) {
     if (task == null) {
       logger.error("Task cannot be null.");
-      return;
+      return null;
     }
     if (delaySeconds <= 0) {
       logger.error("Delay must be positive and greater than zero.");
-      return;
+      return null;
     }
 
-    long scheduledTime = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(delaySeconds);
-
-    taskLock.lock();
-    try {
-      // Handle dependencies
-      if (dependencies != null && !dependencies.isEmpty()) {
-        for (Runnable dependency : dependencies) {
-          if (dependency == null) {
-            logger.error("Dependency cannot be null.");
-            return;
-          }
-          // Check if dependencies are already executed (dummy implementation)
-          if (!taskQueue.contains(new ScheduledTask(dependency, 0, 0))) {
-            logger.error("Dependency not found: " + dependency);
-            return;
-          }
+    // Handle dependencies
+    List<TaskHandle> upstream = new ArrayList<>();
+    if (dependencies != null && !dependencies.isEmpty()) {
+      for (Runnable dependency : dependencies) {
+        if (dependency == null) {
+          logger.error("Dependency cannot be null.");
+          return null;
+        }
+        TaskHandle handle = scheduledTasks.get(dependency);
+        if (handle == null) {
+          logger.error("Dependency not found: " + dependency);
+          return null;
         }
-        logger.info("Task dependencies handled.");
+        upstream.add(handle);
       }
+      logger.info("Task dependencies handled.");
+    }
 
-      rateLimiter.acquire(); // Enforce rate limit
-
-      ScheduledTask scheduledTask = new ScheduledTask(task, scheduledTime, priority);
-      taskQueue.add(scheduledTask);
+    rateLimiter.acquire(); // Enforce rate limit
 
-      executor.schedule(
-          () -> {
-            executeTask(scheduledTask);
-            taskQueue.remove(scheduledTask); // Remove from queue after execution
-          },
-          delaySeconds,
-          TimeUnit.SECONDS);
+    try {
+      CompletableFuture<Void> delay = new CompletableFuture<>();
+      executor.schedule(() -> delay.complete(null), delaySeconds, TimeUnit.SECONDS);
+      TaskHandle handle =
+          dagExecutor.submit(
+              () -> {
+                logger.info("Executing task with priority " + priority + " at " + new Date());
+                task.run();
+              },
+              priority,
+              upstream,
+              delay);
+      handle
+          .completion()
+          .exceptionally(
+              ex -> {
+                logger.error("Task execution failed: ", ex);
+                return null;
+              });
+      scheduledTasks.put(task, handle);
+      return handle;
     } catch (RejectedExecutionException e) {
       logger.error("Error scheduling task: ", e);
-    } finally {
-      taskLock.unlock();
-    }
-  }
-
-  /**
-   * Executes the task scheduled at the specified time.
-   *
-   * @param scheduledTask The scheduled task to be executed.
-   */
-  private void executeTask(ScheduledTask scheduledTask) {
-    Runnable task = scheduledTask.getTask();
-    if (task != null) {
-      try {
-        logger.info(
-            "Executing task with priority " + scheduledTask.getPriority() + " at " + new Date());
-        CompletableFuture.runAsync(task, executor)
-            .exceptionally(
-                ex -> {
-                  logger.error("Task execution failed: ", ex);
-                  return null;
-                });
-      } catch (Exception e) {
-        logger.error("Task execution failed: ", e);
-      }
-    } else {
-      logger.error(
-          "Task not found for scheduled time: " + new Date(scheduledTask.getScheduledTime()));
+      return null;
     }
   }
 
@@ -280,10 +266,14 @@ public class CombinedSystem {
 
     executor.shutdown();
     try {
-      if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+      // Pending delays still fire after shutdown, so let them release their tasks before the DAG
+      // executor stops accepting work.
+      if (!executor.awaitTermination(60, TimeUnit.SECONDS)
+          || !dagExecutor.shutdown(60, TimeUnit.SECONDS)) {
         logger.warn(
             "Scheduler did not terminate in the allotted time. Attempting forced shutdown...");
         executor.shutdownNow();
+        dagExecutor.close();
         if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
           logger.error("Scheduler did not terminate properly.");
         }
@@ -291,6 +281,7 @@ public class CombinedSystem {
     } catch (InterruptedException e) {
       logger.error("Shutdown interrupted: ", e);
       executor.shutdownNow();
+      dagExecutor.close();
       Thread.currentThread().interrupt();
     } finally {
       logger.info("Scheduler shutdown complete.");
@@ -309,93 +300,4 @@ public class CombinedSystem {
       return thread;
     }
   }
-
-  /** Represents a task with a priority and scheduled time. */
-  private static class ScheduledTask implements Comparable<ScheduledTask> {
-    private final Runnable task;
-    private final long scheduledTime;
-    private final int priority;
-
-    public ScheduledTask(Runnable task, long scheduledTime, int priority) {
-      this.task = task;
-      this.scheduledTime = scheduledTime;
-      this.priority = priority;
-    }
-
-    public Runnable getTask() {
-      return task;
-    }
-
-    public long getScheduledTime() {
-      return scheduledTime;
-    }
-
-    public int getPriority() {
-      return priority;
-    }
-
-    @Override
-    public int compareTo(ScheduledTask other) {
-      int timeComparison = Long.compare(this.scheduledTime, other.scheduledTime);
-      if (timeComparison != 0) {
-        return timeComparison;
-      }
-      return Integer.compare(other.priority, this.priority); // Higher priority tasks first
-    }
-
-    @Override
-    public boolean equals(Object obj) {
-      if (this == obj) return true;
-      if (obj == null || getClass() != obj.getClass()) return false;
-      ScheduledTask that = (ScheduledTask) obj;
-      return scheduledTime == that.scheduledTime
-          && priority == that.priority
-          && task.equals(that.task);
-    }
-
-    @Override
-    public int hashCode() {
-      return Objects.hash(task, scheduledTime, priority);
-    }
-  }
-
-  /** Rate limiter class to control the rate of task execution. */
-  private static class RateLimiter {
-    private int permitsPerSecond;
-    private long lastPermitsTime;
-    private double availablePermits;
-
-    private RateLimiter(int permitsPerSecond) {
-      this.permitsPerSecond = permitsPerSecond;
-      this.lastPermitsTime = System.currentTimeMillis();
-      this.availablePermits = permitsPerSecond;
-    }
-
-    public synchronized void acquire() {
-      long now = System.currentTimeMillis();
-      long elapsed = now - lastPermitsTime;
-      availablePermits += elapsed * permitsPerSecond / 1000;
-      if (availablePermits > permitsPerSecond) {
-        availablePermits = permitsPerSecond;
-      }
-      lastPermitsTime = now;
-      if (availablePermits < 1) {
-        try {
-          Thread.sleep(1000 / permitsPerSecond);
-        } catch (InterruptedException e) {
-          Thread.currentThread().interrupt();
-        }
-      } else {
-        availablePermits--;
-      }
-    }
-
-    public void updateRateLimit(int newRate) {
-      this.permitsPerSecond = newRate;
-    }
-
-    public static RateLimiter create(int permitsPerSecond) {
-      return new RateLimiter(permitsPerSecond);
-    }
-  }
 }
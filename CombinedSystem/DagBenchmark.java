@@ -0,0 +1,83 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds a random DAG (1M nodes by default, each depending on up to three earlier nodes), runs it
+ * on a {@link DagExecutor} and reports nodes per second. Also checks that a cyclic graph is
+ * rejected before anything runs. Usage: java DagBenchmark [nodes] [parallelism]
+ */
+public class DagBenchmark {
+
+  public static void main(String[] args) throws InterruptedException {
+    int nodes = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int parallelism =
+        args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+    try (DagExecutor executor = new DagExecutor(parallelism)) {
+      for (int round = 0; round < 3; round++) {
+        run(executor, nodes, round);
+      }
+      rejectCycle(executor);
+      executor.shutdown(10, TimeUnit.SECONDS);
+    }
+  }
+
+  private static void run(DagExecutor executor, int nodes, int round) {
+    SplittableRandom random = new SplittableRandom(round);
+    LongAdder executed = new LongAdder();
+    Runnable work = executed::increment;
+
+    long start = System.nanoTime();
+    TaskGraph graph = new TaskGraph();
+    TaskHandle[] handles = new TaskHandle[nodes];
+    int edges = 0;
+    for (int i = 0; i < nodes; i++) {
+      handles[i] = graph.add(work, random.nextInt(DagExecutor.PRIORITY_LEVELS));
+      int parents = i == 0 ? 0 : random.nextInt(4);
+      for (int p = 0; p < parents; p++) {
+        // Mostly recent parents, so the graph stays wide rather than one long chain.
+        int parent = Math.max(0, i - 1 - random.nextInt(Math.min(i, 1024)));
+        graph.dependsOn(handles[i], handles[parent]);
+        edges++;
+      }
+    }
+    long built = System.nanoTime();
+    executor.submit(graph);
+    CompletableFuture<?>[] completions = new CompletableFuture<?>[nodes];
+    for (int i = 0; i < nodes; i++) {
+      completions[i] = handles[i].completion();
+    }
+    CompletableFuture.allOf(completions).join();
+    long done = System.nanoTime();
+
+    System.out.printf(
+        "round %d: %,d nodes / %,d edges, build %d ms, execute %d ms (%,.0f nodes/sec), ran %,d%n",
+        round,
+        nodes,
+        edges,
+        (built - start) / 1_000_000,
+        (done - built) / 1_000_000,
+        nodes / ((done - built) / 1e9),
+        executed.sum());
+  }
+
+  private static void rejectCycle(DagExecutor executor) {
+    TaskGraph graph = new TaskGraph();
+    LongAdder executed = new LongAdder();
+    TaskHandle a = graph.add(executed::increment, 1);
+    TaskHandle b = graph.add(executed::increment, 1);
+    TaskHandle c = graph.add(executed::increment, 1);
+    graph.dependsOn(b, a);
+    graph.dependsOn(c, b);
+    graph.dependsOn(a, c);
+    try {
+      executor.submit(graph);
+      System.out.println("cycle check: NOT rejected");
+    } catch (IllegalArgumentException e) {
+      System.out.println("cycle check: rejected (" + e.getMessage() + "), ran " + executed.sum());
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dependency-aware task engine. Tasks are submitted with explicit upstream edges, either one at a
+ * time or as a {@link TaskGraph} that is checked for cycles up front. A task becomes ready when its
+ * last upstream task completes, and ready tasks are dispatched onto a work-stealing {@link
+ * ForkJoinPool} highest priority first. If a task fails, everything downstream of it completes
+ * exceptionally without running.
+ */
+public final class DagExecutor implements AutoCloseable {
+
+  /** Priorities are clamped to {@code [0, PRIORITY_LEVELS)}; higher runs first. */
+  public static final int PRIORITY_LEVELS = 32;
+
+  private final ForkJoinPool pool;
+  private final List<ConcurrentLinkedQueue<TaskHandle>> ready;
+  private final Runnable runNext = this::runNext;
+
+  public DagExecutor(int parallelism) {
+    this.pool =
+        new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    List<ConcurrentLinkedQueue<TaskHandle>> queues = new ArrayList<>(PRIORITY_LEVELS);
+    for (int i = 0; i < PRIORITY_LEVELS; i++) {
+      queues.add(new ConcurrentLinkedQueue<>());
+    }
+    this.ready = List.copyOf(queues);
+  }
+
+  /** Submits one task that runs after every task in {@code upstream} has completed. */
+  public TaskHandle submit(Runnable task, int priority, Collection<TaskHandle> upstream) {
+    return submit(task, priority, upstream, null);
+  }
+
+  /**
+   * Submits one task that runs after every task in {@code upstream} has completed and {@code gate}
+   * (if not null) has completed, successfully or not.
+   */
+  public TaskHandle submit(
+      Runnable task, int priority, Collection<TaskHandle> upstream, CompletionStage<?> gate) {
+    TaskGraph graph = new TaskGraph();
+    TaskHandle handle = graph.add(task, priority);
+    if (upstream != null) {
+      for (TaskHandle parent : upstream) {
+        graph.dependsOn(handle, parent);
+      }
+    }
+    if (gate != null) {
+      handle.addGate();
+    }
+    submit(graph);
+    if (gate != null) {
+      gate.whenComplete((ignored, failure) -> handle.release());
+    }
+    return handle;
+  }
+
+  /**
+   * Submits every task of {@code graph}.
+   *
+   * @throws IllegalArgumentException if the graph's edges contain a cycle or it was already
+   *     submitted
+   */
+  public List<TaskHandle> submit(TaskGraph graph) {
+    if (graph.submitted) {
+      throw new IllegalArgumentException("Graph has already been submitted.");
+    }
+    checkAcyclic(graph);
+    graph.submitted = true;
+    List<TaskHandle> nodes = graph.nodes;
+    for (TaskHandle node : nodes) {
+      node.executor = this;
+    }
+    for (TaskHandle node : nodes) {
+      for (TaskHandle parent : node.upstream) {
+        node.subscribeTo(parent);
+      }
+    }
+    for (TaskHandle node : nodes) {
+      node.graph = null;
+    }
+    for (TaskHandle node : nodes) {
+      node.release();
+    }
+    return Collections.unmodifiableList(nodes);
+  }
+
+  void dispatch(TaskHandle node) {
+    ready.get(Math.max(0, Math.min(PRIORITY_LEVELS - 1, node.getPriority()))).offer(node);
+    pool.execute(runNext);
+  }
+
+  /** One pool task per dispatched node; each runs the highest-priority node ready at that moment. */
+  private void runNext() {
+    for (int level = PRIORITY_LEVELS - 1; level >= 0; level--) {
+      TaskHandle node = ready.get(level).poll();
+      if (node != null) {
+        node.run();
+        return;
+      }
+    }
+  }
+
+  /** Kahn's algorithm over the edges internal to {@code graph}, using flat int arrays. */
+  private static void checkAcyclic(TaskGraph graph) {
+    List<TaskHandle> nodes = graph.nodes;
+    int n = nodes.size();
+    int[] inDegree = new int[n];
+    int[] offsets = new int[n + 1];
+    for (TaskHandle node : nodes) {
+      for (TaskHandle parent : node.upstream) {
+        if (parent.graph == graph) {
+          inDegree[node.index]++;
+          offsets[parent.index + 1]++;
+        }
+      }
+    }
+    for (int i = 0; i < n; i++) {
+      offsets[i + 1] += offsets[i];
+    }
+    int[] children = new int[offsets[n]];
+    int[] fill = offsets.clone();
+    for (TaskHandle node : nodes) {
+      for (TaskHandle parent : node.upstream) {
+        if (parent.graph == graph) {
+          children[fill[parent.index]++] = node.index;
+        }
+      }
+    }
+
+    int[] queue = new int[n];
+    int head = 0;
+    int tail = 0;
+    for (int i = 0; i < n; i++) {
+      if (inDegree[i] == 0) {
+        queue[tail++] = i;
+      }
+    }
+    while (head < tail) {
+      int current = queue[head++];
+      for (int e = offsets[current]; e < offsets[current + 1]; e++) {
+        if (--inDegree[children[e]] == 0) {
+          queue[tail++] = children[e];
+        }
+      }
+    }
+    if (tail < n) {
+      throw new IllegalArgumentException(
+          "Dependency cycle detected among " + (n - tail) + " of " + n + " tasks.");
+    }
+  }
+
+  /** Stops accepting work and waits up to {@code timeout} for running tasks to finish. */
+  public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+    pool.shutdown();
+    return pool.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+}
@@ -0,0 +1,164 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free token bucket, kept as a single "theoretical arrival time" in nanoseconds (the generic
+ * cell rate algorithm). Each permit pushes that time one interval into the future; a request is
+ * admitted while it stays within the burst tolerance of now. Admission is one CAS on an {@link
+ * AtomicLong}, so no caller ever blocks another; callers that must wait park on their own thread
+ * after their permits are reserved.
+ */
+public final class RateLimiter {
+
+  private final AtomicReference<Limits> limits;
+  private final AtomicLong nextFree;
+
+  private RateLimiter(double permitsPerSecond, int maxBurst) {
+    this.limits = new AtomicReference<>(new Limits(permitsPerSecond, maxBurst));
+    this.nextFree = new AtomicLong(System.nanoTime());
+  }
+
+  /** Creates a limiter allowing bursts of up to one second's worth of permits. */
+  public static RateLimiter create(double permitsPerSecond) {
+    return create(permitsPerSecond, (int) Math.max(1, Math.min(Integer.MAX_VALUE, permitsPerSecond)));
+  }
+
+  /** Creates a limiter that starts full and allows bursts of up to {@code maxBurst} permits. */
+  public static RateLimiter create(double permitsPerSecond, int maxBurst) {
+    return new RateLimiter(permitsPerSecond, maxBurst);
+  }
+
+  public double getRate() {
+    return limits.get().permitsPerSecond;
+  }
+
+  public int getMaxBurst() {
+    return limits.get().maxBurst;
+  }
+
+  /** Changes the rate, keeping the current burst size. */
+  public void updateRateLimit(double permitsPerSecond) {
+    limits.updateAndGet(current -> new Limits(permitsPerSecond, current.maxBurst));
+  }
+
+  /**
+   * Changes rate and burst size together; every later request sees both or neither. Permits that
+   * were already reserved keep the times they were given.
+   */
+  public void updateRateLimit(double permitsPerSecond, int maxBurst) {
+    limits.set(new Limits(permitsPerSecond, maxBurst));
+  }
+
+  /** Takes one permit if it is available right now. */
+  public boolean tryAcquire() {
+    return tryAcquire(1);
+  }
+
+  /** Takes {@code permits} permits if they are all available right now. */
+  public boolean tryAcquire(int permits) {
+    return reserve(permits, 0) == 0;
+  }
+
+  /**
+   * Takes {@code permits} permits, waiting up to {@code timeout} for them. Gives up immediately,
+   * without reserving anything, if they would not be available in time.
+   */
+  public boolean tryAcquire(int permits, long timeout, TimeUnit unit) {
+    long waitNanos = reserve(permits, Math.max(0, unit.toNanos(timeout)));
+    if (waitNanos < 0) {
+      return false;
+    }
+    park(waitNanos);
+    return true;
+  }
+
+  /** Takes one permit, waiting as long as necessary. Returns the nanoseconds spent waiting. */
+  public long acquire() {
+    return acquire(1);
+  }
+
+  /** Takes {@code permits} permits, waiting as long as necessary. */
+  public long acquire(int permits) {
+    long waitNanos = reserve(permits, Long.MAX_VALUE);
+    park(waitNanos);
+    return waitNanos;
+  }
+
+  /**
+   * Reserves {@code permits} permits without blocking. The returned future completes once the
+   * reservation falls due, immediately if the permits are available now.
+   */
+  public CompletableFuture<Void> acquireAsync(int permits) {
+    long waitNanos = reserve(permits, Long.MAX_VALUE);
+    if (waitNanos == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(
+        () -> {}, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS));
+  }
+
+  /**
+   * Reserves {@code permits} if they fall due within {@code maxWaitNanos}. Returns how long the
+   * caller must wait for them, or -1 if nothing was reserved.
+   */
+  private long reserve(int permits, long maxWaitNanos) {
+    Limits current = limits.get();
+    if (permits <= 0 || permits > current.maxBurst) {
+      throw new IllegalArgumentException(
+          "Permits must be between 1 and the burst size " + current.maxBurst + ": " + permits);
+    }
+    long cost = permits * current.intervalNanos;
+    while (true) {
+      long now = System.nanoTime();
+      long free = nextFree.get();
+      long start = free - now > 0 ? free : now;
+      long next = start + cost;
+      long waitNanos = next - now - current.toleranceNanos;
+      if (waitNanos < 0) {
+        waitNanos = 0;
+      }
+      if (waitNanos > maxWaitNanos) {
+        return -1;
+      }
+      if (nextFree.compareAndSet(free, next)) {
+        return waitNanos;
+      }
+    }
+  }
+
+  /** Waits out a reservation; an interrupt cuts the wait short but stays set for the caller. */
+  private static void park(long nanos) {
+    long deadline = System.nanoTime() + nanos;
+    for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+      LockSupport.parkNanos(remaining);
+      if (Thread.currentThread().isInterrupted()) {
+        return;
+      }
+    }
+  }
+
+  /** Rate and burst, swapped as one immutable value on reload. */
+  private static final class Limits {
+    final double permitsPerSecond;
+    final int maxBurst;
+    final long intervalNanos;
+    final long toleranceNanos;
+
+    Limits(double permitsPerSecond, int maxBurst) {
+      if (!(permitsPerSecond > 0) || Double.isInfinite(permitsPerSecond)) {
+        throw new IllegalArgumentException("Rate must be positive: " + permitsPerSecond);
+      }
+      if (maxBurst <= 0) {
+        throw new IllegalArgumentException("Burst size must be positive: " + maxBurst);
+      }
+      this.permitsPerSecond = permitsPerSecond;
+      this.maxBurst = maxBurst;
+      this.intervalNanos = Math.max(1, Math.round(TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+      this.toleranceNanos = intervalNanos * maxBurst;
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures permit acquisitions per second at 1 to 64 threads for {@link RateLimiter} and for the
+ * synchronized limiter it replaced, with the rate set high enough that only contention limits
+ * throughput, then at a 10,000/sec limit where the rate itself should cap it.
+ * Usage: java RateLimiterBenchmark [millisPerRun]
+ */
+public class RateLimiterBenchmark {
+
+  private static final int HIGH_RATE = 1_000_000_000;
+  private static final int LOW_RATE = 10_000;
+
+  public static void main(String[] args) throws InterruptedException {
+    long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+
+    System.out.printf("%-8s %18s %18s%n", "threads", "synchronized/sec", "lock-free/sec");
+    for (int threads = 1; threads <= 64; threads *= 2) {
+      LegacyRateLimiter legacy = new LegacyRateLimiter(HIGH_RATE);
+      RateLimiter limiter = RateLimiter.create(HIGH_RATE);
+      long legacyRate = measure(threads, millis, legacy::acquire);
+      long lockFreeRate = measure(threads, millis, limiter::acquire);
+      System.out.printf("%-8d %,18d %,18d%n", threads, legacyRate, lockFreeRate);
+    }
+
+    // At a real limit, blocking acquire should settle at the configured rate. The old limiter
+    // returns without a permit whenever its (truncated) sleep is zero, so it over-admits.
+    System.out.printf("%n%-8s %18s %18s   (limit %,d/sec)%n", "threads", "synchronized/sec",
+        "lock-free/sec", LOW_RATE);
+    for (int threads = 1; threads <= 64; threads *= 4) {
+      LegacyRateLimiter legacy = new LegacyRateLimiter(LOW_RATE);
+      RateLimiter limiter = RateLimiter.create(LOW_RATE, 1);
+      long legacyRate = measure(threads, millis, legacy::acquire);
+      long lockFreeRate = measure(threads, millis, limiter::acquire);
+      System.out.printf("%-8d %,18d %,18d%n", threads, legacyRate, lockFreeRate);
+    }
+
+    // 1,000 permits/sec with a burst of 100: one second should admit close to 1,100.
+    RateLimiter limited = RateLimiter.create(1000, 100);
+    LongAdder granted = new LongAdder();
+    measure(
+        16,
+        1000,
+        () -> {
+          if (limited.tryAcquire()) {
+            granted.increment();
+          }
+        });
+    System.out.printf("%ntryAcquire at 1000/sec + burst 100 over 1 s admitted %,d%n", granted.sum());
+  }
+
+  private static long measure(int threads, long millis, Runnable acquire)
+      throws InterruptedException {
+    AtomicBoolean running = new AtomicBoolean(true);
+    LongAdder operations = new LongAdder();
+    CountDownLatch ready = new CountDownLatch(threads);
+    CountDownLatch go = new CountDownLatch(1);
+    Thread[] workers = new Thread[threads];
+    for (int i = 0; i < threads; i++) {
+      workers[i] =
+          new Thread(
+              () -> {
+                ready.countDown();
+                try {
+                  go.await();
+                } catch (InterruptedException e) {
+                  return;
+                }
+                long count = 0;
+                while (running.get()) {
+                  acquire.run();
+                  count++;
+                }
+                operations.add(count);
+              });
+      workers[i].start();
+    }
+    ready.await();
+    long start = System.nanoTime();
+    go.countDown();
+    Thread.sleep(millis);
+    running.set(false);
+    for (Thread worker : workers) {
+      worker.join();
+    }
+    return (long) (operations.sum() / ((System.nanoTime() - start) / 1e9));
+  }
+
+  /** The synchronized limiter previously nested in CombinedSystem, kept verbatim for comparison. */
+  private static class LegacyRateLimiter {
+    private int permitsPerSecond;
+    private long lastPermitsTime;
+    private double availablePermits;
+
+    private LegacyRateLimiter(int permitsPerSecond) {
+      this.permitsPerSecond = permitsPerSecond;
+      this.lastPermitsTime = System.currentTimeMillis();
+      this.availablePermits = permitsPerSecond;
+    }
+
+    public synchronized void acquire() {
+      long now = System.currentTimeMillis();
+      long elapsed = now - lastPermitsTime;
+      availablePermits += elapsed * permitsPerSecond / 1000;
+      if (availablePermits > permitsPerSecond) {
+        availablePermits = permitsPerSecond;
+      }
+      lastPermitsTime = now;
+      if (availablePermits < 1) {
+        try {
+          Thread.sleep(1000 / permitsPerSecond);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      } else {
+        availablePermits--;
+      }
+    }
+  }
+}
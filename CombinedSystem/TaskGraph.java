@@ -0,0 +1,39 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A batch of tasks and their dependency edges, built on one thread and then handed to {@link
+ * DagExecutor#submit(TaskGraph)}, which rejects it if the edges form a cycle. Edges may point at
+ * tasks in this graph or at tasks that were already submitted.
+ */
+public final class TaskGraph {
+
+  final List<TaskHandle> nodes = new ArrayList<>();
+  boolean submitted;
+
+  /** Adds a task; higher priorities are dispatched first among ready tasks. */
+  public TaskHandle add(Runnable task, int priority) {
+    if (task == null) {
+      throw new IllegalArgumentException("Task cannot be null.");
+    }
+    TaskHandle handle = new TaskHandle(task, priority, this, nodes.size());
+    nodes.add(handle);
+    return handle;
+  }
+
+  /** Declares that {@code downstream} may only run after {@code upstream} has completed. */
+  public void dependsOn(TaskHandle downstream, TaskHandle upstream) {
+    if (downstream.graph != this || submitted) {
+      throw new IllegalArgumentException("Downstream task is not an unsubmitted task of this graph.");
+    }
+    if (upstream == null || (upstream.graph != null && upstream.graph != this)) {
+      throw new IllegalArgumentException("Dependency must be in this graph or already submitted.");
+    }
+    downstream.upstream.add(upstream);
+  }
+
+  public int size() {
+    return nodes.size();
+  }
+}
@@ -0,0 +1,126 @@
+/** Copyright © 2024 Devin B. Royal. All rights reserved. */
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A task in a {@link DagExecutor} graph. The handle tracks how many upstream tasks (plus internal
+ * gates) are still outstanding; the thread that brings that count to zero dispatches the task. No
+ * locks are taken on this path: the count is an atomic counter and downstream edges are a Treiber
+ * stack that is swapped for a sentinel once the task finishes.
+ *
+ * <p>Once finished, a handle drops its task and its upstream list, so holding a handle (or a map
+ * from tasks to handles) does not keep the task or finished dependency chains reachable.
+ */
+public final class TaskHandle {
+
+  /** Marks a downstream stack whose task already finished; late subscribers release themselves. */
+  private static final Edge CLOSED = new Edge(null, null);
+
+  private Runnable task; // cleared once run
+  private final int priority;
+  private final CompletableFuture<Void> completion = new CompletableFuture<>();
+  private final AtomicReference<Edge> downstream = new AtomicReference<>();
+  // Starts at one: the submit guard, released once every edge has been wired.
+  private final AtomicInteger pending = new AtomicInteger(1);
+  private volatile Throwable failure;
+
+  // Build-time state, owned by the submitting thread until the handle is submitted.
+  TaskGraph graph;
+  final int index;
+  List<TaskHandle> upstream = new ArrayList<>(2); // cleared once run
+  DagExecutor executor;
+
+  TaskHandle(Runnable task, int priority, TaskGraph graph, int index) {
+    this.task = task;
+    this.priority = priority;
+    this.graph = graph;
+    this.index = index;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  /** Completes when the task has run, or exceptionally if it or any upstream task failed. */
+  public CompletableFuture<Void> completion() {
+    return completion;
+  }
+
+  public boolean isDone() {
+    return completion.isDone();
+  }
+
+  /** Adds one more condition that must be released before the task may run. */
+  void addGate() {
+    pending.incrementAndGet();
+  }
+
+  /** Releases one outstanding upstream edge or gate; dispatches the task when none remain. */
+  void release() {
+    if (pending.decrementAndGet() == 0) {
+      executor.dispatch(this);
+    }
+  }
+
+  /**
+   * Wires the edge from {@code parent} to this task. If the parent already finished the edge is
+   * released straight away, inheriting the parent's failure if it had one.
+   */
+  void subscribeTo(TaskHandle parent) {
+    pending.incrementAndGet();
+    while (true) {
+      Edge head = parent.downstream.get();
+      if (head == CLOSED) {
+        Throwable parentFailure = parent.failure;
+        if (parentFailure != null) {
+          failure = parentFailure;
+        }
+        release();
+        return;
+      }
+      if (parent.downstream.compareAndSet(head, new Edge(this, head))) {
+        return;
+      }
+    }
+  }
+
+  /** Runs the task on a pool thread, or skips it if an upstream task failed. */
+  void run() {
+    Runnable body = task;
+    task = null;
+    upstream = null;
+    Throwable upstreamFailure = failure;
+    if (upstreamFailure == null) {
+      try {
+        body.run();
+        completion.complete(null);
+      } catch (Throwable t) {
+        failure = t;
+        completion.completeExceptionally(t);
+      }
+    } else {
+      completion.completeExceptionally(new CompletionException("Upstream task failed", upstreamFailure));
+    }
+    Throwable propagated = failure;
+    for (Edge edge = downstream.getAndSet(CLOSED); edge != null; edge = edge.next) {
+      if (propagated != null) {
+        edge.node.failure = propagated;
+      }
+      edge.node.release();
+    }
+  }
+
+  private static final class Edge {
+    final TaskHandle node;
+    final Edge next;
+
+    Edge(TaskHandle node, Edge next) {
+      this.node = node;
+      this.next = next;
+    }
+  }
+}
@@ -22,6 +22,7 @@
  * This code is designed for production use and includes robust error handling.
  */
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
@@ -48,7 +49,10 @@ import javax.net.ssl.HttpsURLConnection;
 import javax.sound.sampled.*;
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.net.URL;
+import java.nio.file.Paths;
+import java.time.Duration;
 import java.security.cert.Certificate;
 import java.util.Locale;
 import java.util.prefs.Preferences;
@@ -65,6 +69,9 @@ public class DUKEAIAppl extends Application {
     private static final String UPDATE_URL = "https://example.com/check-for-update";
     private static final String ERROR_REPORTING_URL = "https://example.com/report-error";
     private static final String CONFIG_FILE = "dukeaia_config.properties";
+    private static final String STARTUP_TIMINGS_FILE = "dukeaia_startup_timings.csv";
+    private static final Duration NETWORK_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration UPDATE_TIMEOUT = Duration.ofSeconds(6);
 
     private boolean adminPrivileges;
     private Preferences userPreferences;
@@ -72,7 +79,8 @@ public class DUKEAIAppl extends Application {
     private VoiceInteraction voiceInteraction;
     private UpdateManager updateManager;
     private NetworkManager networkManager;
-    private ErrorReporting errorReporting;
+    static volatile ErrorReporting errorReporting;
+    private StartupOrchestrator startup;
     private BackupManager backupManager;
     private AuthenticationManager authManager;
     private WorkflowManager workflowManager;
@@ -136,32 +144,74 @@ public class DUKEAIAppl extends Application {
         advancedSearch = new AdvancedSearch();
         vrSupport = new VRSupport();
 
-        checkAdminPrivileges();
-        checkDependencies();
-        networkManager.initializeNetworkSettings();
+        // Show the window first; everything else initializes off the FX thread, in dependency
+        // order, with independent modules running in parallel.
+        startup = new StartupOrchestrator(Math.max(2, Runtime.getRuntime().availableProcessors()),
+                Platform::runLater);
+        registerStartupModules();
         setupGUI(primaryStage);
-        updateManager.checkForUpdates();
-        voiceInteraction.initializeVoiceInteraction();
-        tutorials.initializeTutorials();
-        themes.initializeThemes();
-        dataVisualization.initializeDataVisualization();
-        gestureControls.initializeGestureControls();
-        plugins.initializePlugins();
-        multilingualSupport.initializeMultilingualSupport();
-        arIntegration.initializeARIntegration();
-        aiAssistance.initializeAIAssistance();
-        dashboard.initializeDashboard();
-        voiceToText.initializeVoiceToText();
-        behavioralAnalytics.initializeBehavioralAnalytics();
-        chatbot.initializeChatbot();
-        advancedSearch.initializeAdvancedSearch();
-        vrSupport.initializeVRSupport();
-
-        backupManager.initializeAutoBackup();
-        authManager.authenticateUser();
-        workflowManager.loadWorkflows();
-        collaborationManager.initializeCollaboration();
-        aiSuggestions.initializeAISuggestions();
+        markFirstFrame();
+        startup.start().thenRun(this::reportStartupTimings);
+    }
+
+    private void registerStartupModules() {
+        StartupOrchestrator.Mode eager = StartupOrchestrator.Mode.EAGER;
+        StartupOrchestrator.Mode lazy = StartupOrchestrator.Mode.LAZY;
+        StartupOrchestrator.Affinity background = StartupOrchestrator.Affinity.BACKGROUND;
+
+        startup.register("adminPrivileges", this::checkAdminPrivileges)
+                .register("dependencies", this::checkDependencies)
+                .register("network", eager, background, NETWORK_TIMEOUT,
+                        networkManager::initializeNetworkSettings)
+                // Never holds up the UI: a slow or missing network only delays the update notice.
+                .register("updates", eager, background, UPDATE_TIMEOUT,
+                        updateManager::checkForUpdates, "network")
+                .register("voice", voiceInteraction::initializeVoiceInteraction, "dependencies")
+                .register("tutorials", tutorials::initializeTutorials)
+                .register("themes", themes::initializeThemes)
+                .register("dataVisualization", dataVisualization::initializeDataVisualization)
+                .register("gestures", gestureControls::initializeGestureControls)
+                .register("plugins", plugins::initializePlugins, "dependencies")
+                .register("multilingual", multilingualSupport::initializeMultilingualSupport)
+                .register("aiAssistance", aiAssistance::initializeAIAssistance)
+                .register("dashboard", dashboard::initializeDashboard, "dataVisualization")
+                .register("voiceToText", voiceToText::initializeVoiceToText, "voice")
+                .register("analytics", behavioralAnalytics::initializeBehavioralAnalytics)
+                .register("chatbot", chatbot::initializeChatbot, "aiAssistance")
+                .register("search", advancedSearch::initializeAdvancedSearch)
+                // AR and VR are rarely used and heavy; they initialize on first require().
+                .register("ar", lazy, background, null, arIntegration::initializeARIntegration, "dependencies")
+                .register("vr", lazy, background, null, vrSupport::initializeVRSupport, "dependencies")
+                .register("backup", backupManager::initializeAutoBackup, "adminPrivileges")
+                // The login dialog needs the FX thread and must not block other modules.
+                .register("authentication", eager, StartupOrchestrator.Affinity.UI_THREAD, null,
+                        authManager::authenticateUser)
+                .register("workflows", workflowManager::loadWorkflows, "authentication")
+                .register("collaboration", collaborationManager::initializeCollaboration,
+                        "authentication", "network")
+                .register("aiSuggestions", aiSuggestions::initializeAISuggestions, "workflows");
+    }
+
+    /** Records when the first frame is rendered, measured from orchestrator creation. */
+    private void markFirstFrame() {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                startup.mark("firstFrame");
+                logger.info("First frame after " + startup.markMillis("firstFrame") + " ms ("
+                        + ManagementFactory.getRuntimeMXBean().getUptime() + " ms since JVM start)");
+            }
+        }.start();
+    }
+
+    private void reportStartupTimings() {
+        logger.info(startup.report());
+        try {
+            startup.exportTimings(Paths.get(STARTUP_TIMINGS_FILE));
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to export startup timings", e);
+        }
     }
 
     private void checkAdminPrivileges() {
@@ -198,9 +248,9 @@ public class DUKEAIAppl extends Application {
             HBox topControls = new HBox(10);
             topControls.setAlignment(Pos.CENTER);
             Button themeButton = new Button("Change Theme");
-            themeButton.setOnAction(e -> themes.changeTheme());
+            themeButton.setOnAction(e -> startup.whenReady("themes", themes::changeTheme));
             Button dataVizButton = new Button("Show Data Visualization");
-            dataVizButton.setOnAction(e -> dataVisualization.showVisualization());
+            dataVizButton.setOnAction(e -> startup.whenReady("dataVisualization", dataVisualization::showVisualization));
             topControls.getChildren().addAll(themeButton, dataVizButton);
             root.setTop(topControls);
 
@@ -225,6 +275,8 @@ public class DUKEAIAppl extends Application {
             stage.setOnCloseRequest(event -> {
                 logger.info("Shutting down DUKEªٱ...");
                 saveUserPreferences();
+                startup.shutdown();
+                errorReporting.close();
                 Platform.exit();
             });
 
@@ -293,6 +345,8 @@ class VoiceInteraction {
 class UpdateManager {
 
     private static final Logger logger = Logger.getLogger(UpdateManager.class.getName());
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    private static final int READ_TIMEOUT_MS = 3000;
     private final String version;
     private final String updateUrl;
 
@@ -307,6 +361,8 @@ class UpdateManager {
             URL url = new URL(updateUrl);
             HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
             connection.setRequestMethod("GET");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
 
             int responseCode = connection.getResponseCode();
             if (responseCode == HttpsURLConnection.HTTP_OK) {
@@ -318,12 +374,14 @@ class UpdateManager {
 
                 if (!version.equals(latestVersion)) {
                     logger.info("New version available: " + latestVersion);
-                    // Handle update prompt
-                    Alert alert = new Alert(AlertType.INFORMATION);
-                    alert.setTitle("Update Available");
-                    alert.setHeaderText(null);
-                    alert.setContentText("A new version (" + latestVersion + ") is available. Please update.");
-                    alert.showAndWait();
+                    // Handle update prompt; this runs off the FX thread, so hand the alert over
+                    Platform.runLater(() -> {
+                        Alert alert = new Alert(AlertType.INFORMATION);
+                        alert.setTitle("Update Available");
+                        alert.setHeaderText(null);
+                        alert.setContentText("A new version (" + latestVersion + ") is available. Please update.");
+                        alert.show();
+                    });
                 } else {
                     logger.info("Application is up to date.");
                 }
@@ -356,40 +414,6 @@ class NetworkManager {
     }
 }
 
-// Error Reporting Class
-class ErrorReporting {
-
-    private static final Logger logger = Logger.getLogger(ErrorReporting.class.getName());
-    private final String errorReportingUrl;
-
-    public ErrorReporting(String errorReportingUrl) {
-        this.errorReportingUrl = errorReportingUrl;
-    }
-
-    public void reportError(String component, String message) {
-        try {
-            logger.severe("Reporting error: " + message);
-            // Send error report (example code)
-            URL url = new URL(errorReportingUrl);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-
-            String postData = "component=" + component + "&message=" + message;
-            connection.getOutputStream().write(postData.getBytes());
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == HttpsURLConnection.HTTP_OK) {
-                logger.info("Error report submitted successfully.");
-            } else {
-                logger.warning("Failed to submit error report. Response code: " + responseCode);
-            }
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Failed to report error", e);
-        }
-    }
-}
-
 // Backup Manager Class
 class BackupManager {
 
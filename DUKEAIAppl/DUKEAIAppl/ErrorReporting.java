@@ -0,0 +1,341 @@
+/** 
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ *
+ * Asynchronous, coalescing error reporting for DUKEªٱ.
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link #reportError} never touches the network: it bumps a counter in a bounded map keyed by
+ * component and message, so a storm of identical errors costs one map lookup each. A daemon thread
+ * swaps the map out every flush interval and POSTs the coalesced records in batches, one
+ * form-encoded record per line with its occurrence count. When the endpoint is unreachable the
+ * batch is written to a spool directory and the sender backs off exponentially; spooled batches
+ * are resent, oldest first, before anything new once the endpoint answers again. Only server
+ * errors, 408, 429 and transport failures are retried: a batch refused with any other 4xx would
+ * be refused forever, so it is dropped rather than left to block the spool.
+ */
+class ErrorReporting implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(ErrorReporting.class.getName());
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int MAX_BATCH = 256;
+    private static final int MAX_SPOOLED_BATCHES = 500;
+    private static final long DEFAULT_FLUSH_MILLIS = 2000;
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final int CONNECT_TIMEOUT_MS = 3000;
+    private static final int READ_TIMEOUT_MS = 5000;
+
+    private final String errorReportingUrl;
+    private final Path spoolDirectory;
+    private final int capacity;
+    private final long flushMillis;
+    private final AtomicReference<Map<String, Pending>> pending =
+            new AtomicReference<>(new ConcurrentHashMap<>());
+    private final Thread sender;
+    private volatile boolean closed;
+
+    private final LongAdder reported = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong droppedSinceFlush = new AtomicLong();
+    private final AtomicLong sentRecords = new AtomicLong();
+    private final AtomicLong sentBatches = new AtomicLong();
+    private final AtomicLong spooledBatches = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong rejectedBatches = new AtomicLong();
+
+    /** What became of one POST. */
+    private enum Delivery { SENT, REJECTED, FAILED }
+
+    public ErrorReporting(String errorReportingUrl) {
+        this(errorReportingUrl, Paths.get(System.getProperty("user.home"), ".dukeaia", "error-spool"),
+                DEFAULT_CAPACITY, DEFAULT_FLUSH_MILLIS);
+    }
+
+    /**
+     * @param spoolDirectory where batches are kept while the endpoint is unreachable
+     * @param capacity distinct component/message pairs held between flushes; further new pairs are
+     *     dropped (and counted) until the next flush
+     * @param flushMillis how often pending reports are sent while the endpoint is healthy
+     */
+    public ErrorReporting(String errorReportingUrl, Path spoolDirectory, int capacity, long flushMillis) {
+        this.errorReportingUrl = errorReportingUrl;
+        this.spoolDirectory = spoolDirectory;
+        this.capacity = capacity;
+        this.flushMillis = flushMillis;
+        this.sender = new Thread(this::sendLoop, "error-reporter");
+        sender.setDaemon(true);
+        sender.start();
+    }
+
+    /**
+     * Records an error for asynchronous delivery. Never blocks and never throws; a null component
+     * or message is reported as "unknown".
+     */
+    public void reportError(String component, String message) {
+        reported.increment();
+        component = component != null ? component : "unknown";
+        message = message != null ? message : "unknown";
+        String key = component + '\u0000' + message;
+        Map<String, Pending> window = pending.get();
+        Pending entry = window.get(key);
+        if (entry == null) {
+            if (window.size() >= capacity) {
+                dropped.increment();
+                droppedSinceFlush.incrementAndGet();
+                return;
+            }
+            Pending created = new Pending(component, message);
+            entry = window.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+                // Only the first occurrence per flush window is logged; repeats are counted.
+                logger.severe("Reporting error: " + message);
+            }
+        }
+        entry.count.increment();
+    }
+
+    /** Sends whatever is pending now instead of waiting for the next flush interval. */
+    public void flush() {
+        LockSupport.unpark(sender);
+    }
+
+    /** Stops the sender after one last attempt; anything it cannot send is spooled. */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(sender);
+        try {
+            sender.join(CONNECT_TIMEOUT_MS + READ_TIMEOUT_MS + 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long reportedCount() {
+        return reported.sum();
+    }
+
+    /** Errors that arrived while the queue was full; they are reported only as an overflow count. */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public long sentRecordCount() {
+        return sentRecords.get();
+    }
+
+    public long sentBatchCount() {
+        return sentBatches.get();
+    }
+
+    public long spooledBatchCount() {
+        return spooledBatches.get();
+    }
+
+    public long failedAttemptCount() {
+        return failedAttempts.get();
+    }
+
+    /** Batches the endpoint refused with a client error; they are dropped, not retried. */
+    public long rejectedBatchCount() {
+        return rejectedBatches.get();
+    }
+
+    private void sendLoop() {
+        int failures = 0;
+        while (true) {
+            long delay = failures == 0 ? flushMillis
+                    : Math.min(MAX_BACKOFF_MILLIS, flushMillis << Math.min(failures, 20));
+            if (failures > 0) {
+                delay += ThreadLocalRandom.current().nextLong(delay / 4 + 1); // jitter
+            }
+            // An unpark from flush() or close() ends the wait early.
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(delay));
+            boolean last = closed;
+
+            boolean healthy = false;
+            try {
+                healthy = sendSpooled();
+                for (List<String> batch : drain()) {
+                    String body = String.join("\n", batch);
+                    Delivery delivery = healthy ? post(body) : Delivery.FAILED;
+                    if (delivery == Delivery.SENT) {
+                        sentRecords.addAndGet(batch.size());
+                    } else if (delivery == Delivery.FAILED) {
+                        healthy = false;
+                        spool(body);
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Never let one bad round end the thread; nothing would be sent after it.
+                logger.log(Level.WARNING, "Error reporter failed; retrying", e);
+            }
+            failures = healthy ? 0 : failures + 1;
+            if (last) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Swaps in an empty window and returns the old one's coalesced records, encoded and split into
+     * batches of at most MAX_BATCH. Errors dropped because the window was full travel as one
+     * overflow record, so the endpoint still sees how many there were.
+     */
+    private List<List<String>> drain() {
+        Map<String, Pending> window = pending.getAndSet(new ConcurrentHashMap<>());
+        List<String> records = new ArrayList<>();
+        long overflow = droppedSinceFlush.getAndSet(0);
+        if (overflow > 0) {
+            records.add("component=ErrorReporting&message=" + encode("Error reports dropped: queue full")
+                    + "&count=" + overflow + "&first=" + System.currentTimeMillis());
+        }
+        // A reporter that fetched the old window just before the swap may still add to a count
+        // already read here; that occurrence is lost, which is acceptable for a counter.
+        for (Pending entry : window.values()) {
+            try {
+                records.add("component=" + encode(entry.component) + "&message=" + encode(entry.message)
+                        + "&count=" + entry.count.sum() + "&first=" + entry.firstMillis);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Skipping error report that could not be encoded", e);
+            }
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += MAX_BATCH) {
+            batches.add(records.subList(from, Math.min(records.size(), from + MAX_BATCH)));
+        }
+        return batches;
+    }
+
+    /**
+     * Resends spooled batches oldest first; returns false as soon as one fails. Rejected batches
+     * are deleted like sent ones.
+     */
+    private boolean sendSpooled() {
+        for (Path file : spooledFiles()) {
+            try {
+                String body = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+                Delivery delivery = post(body);
+                if (delivery == Delivery.FAILED) {
+                    return false;
+                }
+                if (delivery == Delivery.SENT) {
+                    sentRecords.addAndGet(body.split("\n").length);
+                }
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to read spooled error batch " + file, e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Delivery post(String body) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(errorReportingUrl).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "text/plain; charset=utf-8");
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            connection.setFixedLengthStreamingMode(bytes.length);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(bytes);
+            }
+            int responseCode = connection.getResponseCode();
+            if (responseCode / 100 == 2) {
+                sentBatches.incrementAndGet();
+                return Delivery.SENT;
+            }
+            if (responseCode / 100 == 4 && responseCode != 408 && responseCode != 429) {
+                rejectedBatches.incrementAndGet();
+                logger.warning("Error reports rejected with response code " + responseCode + "; dropping the batch");
+                return Delivery.REJECTED;
+            }
+            logger.warning("Failed to submit error reports. Response code: " + responseCode);
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Error reporting endpoint unreachable", e);
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        failedAttempts.incrementAndGet();
+        return Delivery.FAILED;
+    }
+
+    private void spool(String body) {
+        try {
+            Files.createDirectories(spoolDirectory);
+            List<Path> existing = spooledFiles();
+            for (int i = 0; i <= existing.size() - MAX_SPOOLED_BATCHES; i++) {
+                Files.deleteIfExists(existing.get(i)); // keep the spool bounded, oldest go first
+            }
+            // Name sorts by creation time; written aside and moved so a crash leaves no torn batch.
+            Path target = spoolDirectory.resolve(String.format("%020d.batch", System.currentTimeMillis() * 1000
+                    + spooledBatches.incrementAndGet() % 1000));
+            Path temp = spoolDirectory.resolve(target.getFileName() + ".tmp");
+            Files.write(temp, body.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to spool error reports", e);
+        }
+    }
+
+    private List<Path> spooledFiles() {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(spoolDirectory)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolDirectory, "*.batch")) {
+                stream.forEach(files::add);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to list error spool", e);
+            }
+        }
+        files.sort(null);
+        return files;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static final class Pending {
+        final String component;
+        final String message;
+        final long firstMillis = System.currentTimeMillis();
+        final LongAdder count = new LongAdder();
+
+        Pending(String component, String message) {
+            this.component = component;
+            this.message = message;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/** 
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ *
+ * Drives ErrorReporting against a local stub endpoint: an error storm at 10k errors/sec from a
+ * single "UI" thread, with the endpoint going offline midway. Reports the per-call cost on the
+ * calling thread next to the old blocking POST-per-error, and checks that every counted error
+ * reaches the endpoint once it is back.
+ * Usage: java ErrorReportingBenchmark [errorsPerSecond] [seconds]
+ */
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+public class ErrorReportingBenchmark {
+
+    private static volatile boolean online = true;
+    private static final AtomicLong receivedRecords = new AtomicLong();
+    private static final AtomicLong receivedErrors = new AtomicLong();
+    private static final AtomicLong receivedRequests = new AtomicLong();
+
+    public static void main(String[] args) throws Exception {
+        int perSecond = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        // First occurrences are still logged; keep them off the console during measurement.
+        Logger.getLogger(ErrorReporting.class.getName()).setLevel(Level.OFF);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/report-error", exchange -> {
+            byte[] body = readAll(exchange.getRequestBody());
+            receivedRequests.incrementAndGet();
+            // Emulate a distant endpoint.
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+            if (!online) {
+                exchange.sendResponseHeaders(503, -1);
+            } else {
+                for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+                    int count = line.indexOf("&count=");
+                    if (count >= 0) {
+                        int end = line.indexOf('&', count + 1);
+                        receivedErrors.addAndGet(Long.parseLong(line.substring(count + 7, end < 0 ? line.length() : end)));
+                        receivedRecords.incrementAndGet();
+                    }
+                }
+                exchange.sendResponseHeaders(200, -1);
+            }
+            exchange.close();
+        });
+        server.start();
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/report-error";
+
+        int legacyCalls = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < legacyCalls; i++) {
+            legacyReport(url, "Component " + (i % 20), "Failed to initialize.");
+        }
+        long legacyNanos = (System.nanoTime() - start) / legacyCalls;
+        System.out.printf("legacy blocking POST: %,d us per error on the caller (max %,d errors/sec)%n",
+                legacyNanos / 1000, TimeUnit.SECONDS.toNanos(1) / legacyNanos);
+        receivedRecords.set(0);
+        receivedErrors.set(0);
+        receivedRequests.set(0);
+
+        Path spool = Files.createTempDirectory("error-spool");
+        ErrorReporting reporting = new ErrorReporting(url, spool, 1024, 200);
+        int total = perSecond * seconds;
+        long[] callNanos = new long[total];
+        long interval = TimeUnit.SECONDS.toNanos(1) / perSecond;
+        long busy = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            if (i == total / 3) {
+                online = false;
+                System.out.println("endpoint offline at " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } else if (i == 2 * total / 3) {
+                online = true;
+                System.out.println("endpoint online at " + (System.nanoTime() - start) / 1_000_000 + " ms, "
+                        + reporting.spooledBatchCount() + " batches spooled");
+            }
+            long before = System.nanoTime();
+            // Mostly repeats of a few hundred errors, plus the odd one-off message.
+            String message = i % 1000 == 0 ? "Unexpected state " + i : "Failed to initialize step " + (i % 300);
+            reporting.reportError("Module " + (i % 300 % 7), message);
+            long took = System.nanoTime() - before;
+            callNanos[i] = took;
+            busy += took;
+            long next = start + (i + 1) * interval;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        reporting.flush();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (receivedErrors.get() < reporting.reportedCount()
+                && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            reporting.flush();
+        }
+        reporting.close();
+        server.stop(0);
+
+        Arrays.sort(callNanos);
+        System.out.printf("async reporter: %,d errors in %,d ms on the UI thread (%,.0f/sec)%n",
+                total, elapsed / 1_000_000, total / (elapsed / 1e9));
+        System.out.printf("  caller cost ns p50=%,d p99=%,d p99.9=%,d max=%,d; %.3f%% of UI time%n",
+                callNanos[total / 2], callNanos[total * 99 / 100], callNanos[total * 999 / 1000],
+                callNanos[total - 1], 100.0 * busy / elapsed);
+        System.out.printf("  endpoint got %,d errors in %,d coalesced records over %,d requests"
+                        + " (%,d failed attempts, %,d batches spooled, %,d counted as overflow)%n",
+                receivedErrors.get(), receivedRecords.get(), receivedRequests.get(),
+                reporting.failedAttemptCount(), reporting.spooledBatchCount(), reporting.droppedCount());
+        long lost = reporting.reportedCount() - receivedErrors.get();
+        System.out.println(lost == 0 ? "  all errors delivered" : "  " + lost + " errors not delivered");
+        try (Stream<Path> leftovers = Files.walk(spool)) {
+            leftovers.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    /** The previous ErrorReporting.reportError: one blocking POST per error. */
+    private static void legacyReport(String endpoint, String component, String message) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(endpoint).openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            String postData = "component=" + component + "&message=" + message;
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(postData.getBytes());
+            }
+            connection.getResponseCode();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        try (InputStream stream = in) {
+            return stream.readAllBytes();
+        }
+    }
+}
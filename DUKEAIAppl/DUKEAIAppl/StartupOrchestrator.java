@@ -0,0 +1,292 @@
+/** 
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ *
+ * Dependency-aware, parallel and lazy startup for DUKEªٱ modules.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Modules are registered with the modules they depend on. {@link #start()} launches every eager
+ * module as soon as its dependencies are done, in parallel on a background pool or, for modules
+ * that show dialogs, on the UI thread; lazy modules are initialized on the first {@link
+ * #require(String)}. A module with a timeout stops holding up its dependents once the timeout
+ * passes, although its own work is left to finish in the background. Every module's timing is kept
+ * for {@link #report()} and {@link #exportTimings(Path)}.
+ */
+public class StartupOrchestrator {
+
+    public enum Mode { EAGER, LAZY }
+
+    public enum Affinity { BACKGROUND, UI_THREAD }
+
+    public enum Outcome { PENDING, RUNNING, DONE, FAILED, TIMED_OUT }
+
+    private static final Logger logger = Logger.getLogger(StartupOrchestrator.class.getName());
+
+    private final Map<String, Module> modules = new LinkedHashMap<>();
+    private final Map<String, Long> marks = new LinkedHashMap<>();
+    private final ExecutorService background;
+    private final Executor uiThread;
+    private final long origin = System.nanoTime();
+    private volatile boolean started;
+
+    /**
+     * @param threads background initialization threads
+     * @param uiThread runs UI-affine modules, e.g. {@code Platform::runLater}
+     */
+    public StartupOrchestrator(int threads, Executor uiThread) {
+        AtomicInteger count = new AtomicInteger();
+        this.background = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "startup-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.uiThread = uiThread;
+    }
+
+    /** Registers a module; must be called before {@link #start()}. */
+    public synchronized StartupOrchestrator register(String name, Mode mode, Affinity affinity,
+            Duration timeout, Runnable initializer, String... dependsOn) {
+        if (started) {
+            throw new IllegalStateException("Modules must be registered before start()");
+        }
+        if (modules.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate module: " + name);
+        }
+        modules.put(name, new Module(name, mode, affinity, timeout, initializer, dependsOn));
+        return this;
+    }
+
+    /** Shorthand for an eager background module without a timeout. */
+    public StartupOrchestrator register(String name, Runnable initializer, String... dependsOn) {
+        return register(name, Mode.EAGER, Affinity.BACKGROUND, null, initializer, dependsOn);
+    }
+
+    /**
+     * Validates the dependency graph and starts every eager module. Returns a future that
+     * completes when all eager modules have finished, failed or timed out.
+     */
+    public CompletableFuture<Void> start() {
+        synchronized (this) {
+            for (Module module : modules.values()) {
+                for (String dependency : module.dependsOn) {
+                    if (!modules.containsKey(dependency)) {
+                        throw new IllegalArgumentException(
+                                "Module " + module.name + " depends on unknown module " + dependency);
+                    }
+                }
+            }
+            checkAcyclic();
+            started = true;
+        }
+        List<CompletableFuture<Void>> eager = new ArrayList<>();
+        for (Module module : modules.values()) {
+            if (module.mode == Mode.EAGER) {
+                eager.add(require(module.name));
+            }
+        }
+        return CompletableFuture.allOf(eager.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Returns a future for the module's initialization, starting it (and its dependencies) if it
+     * has not started yet. The future never completes exceptionally: failures are logged and the
+     * application carries on, as it did when modules were initialized inline.
+     */
+    public CompletableFuture<Void> require(String name) {
+        Module module = modules.get(name);
+        if (module == null) {
+            throw new IllegalArgumentException("Unknown module: " + name);
+        }
+        synchronized (module) {
+            if (module.future == null) {
+                CompletableFuture<?>[] dependencies = new CompletableFuture<?>[module.dependsOn.length];
+                for (int i = 0; i < dependencies.length; i++) {
+                    dependencies[i] = require(module.dependsOn[i]);
+                }
+                Executor executor = module.affinity == Affinity.UI_THREAD ? uiThread : background;
+                CompletableFuture<Void> run = new CompletableFuture<>();
+                CompletableFuture.allOf(dependencies)
+                        .thenRunAsync(() -> run(module, run), executor)
+                        .whenComplete((ignored, failure) -> {
+                            if (failure != null) { // e.g. the pool was shut down
+                                run.completeExceptionally(failure);
+                            }
+                        });
+                module.future = run.handle((ignored, failure) -> {
+                    if (failure instanceof TimeoutException
+                            || failure != null && failure.getCause() instanceof TimeoutException) {
+                        if (module.settle(Outcome.TIMED_OUT)) {
+                            logger.warning("Module " + name + " timed out after " + module.timeout.toMillis()
+                                    + " ms; continuing without it");
+                        }
+                    } else if (failure != null) {
+                        module.settle(Outcome.FAILED);
+                        logger.log(Level.SEVERE, "Module " + name + " failed to initialize", failure);
+                    }
+                    return null;
+                });
+            }
+            return module.future;
+        }
+    }
+
+    /** Runs {@code action} on the UI thread once the module is ready, initializing it if lazy. */
+    public void whenReady(String name, Runnable action) {
+        require(name).thenRunAsync(action, uiThread);
+    }
+
+    /** Records a named point in time, such as the first rendered frame. */
+    public synchronized void mark(String name) {
+        marks.put(name, System.nanoTime());
+    }
+
+    /** Milliseconds from orchestrator creation to the named mark, or -1 if not reached. */
+    public synchronized long markMillis(String name) {
+        Long at = marks.get(name);
+        return at == null ? -1 : TimeUnit.NANOSECONDS.toMillis(at - origin);
+    }
+
+    public Outcome outcome(String name) {
+        return modules.get(name).outcome.get();
+    }
+
+    /** One line per module and mark: start offset and duration in milliseconds, and outcome. */
+    public synchronized String report() {
+        StringBuilder report = new StringBuilder("Startup timings (ms since launch):\n");
+        for (Map.Entry<String, Long> mark : marks.entrySet()) {
+            report.append(String.format("  %-24s at %6d%n", mark.getKey(),
+                    TimeUnit.NANOSECONDS.toMillis(mark.getValue() - origin)));
+        }
+        for (Module module : modules.values()) {
+            report.append(String.format("  %-24s at %6d  took %6d  %-9s %s%n", module.name,
+                    module.startMillis(origin), module.durationMillis(), module.outcome.get(),
+                    module.affinity == Affinity.UI_THREAD ? "(ui thread)" : ""));
+        }
+        return report.toString();
+    }
+
+    /** Writes the timings as CSV: name,kind,start_ms,duration_ms,outcome. */
+    public synchronized void exportTimings(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("name,kind,start_ms,duration_ms,outcome");
+        for (Map.Entry<String, Long> mark : marks.entrySet()) {
+            lines.add(mark.getKey() + ",mark," + TimeUnit.NANOSECONDS.toMillis(mark.getValue() - origin)
+                    + ",0,DONE");
+        }
+        for (Module module : modules.values()) {
+            lines.add(module.name + ",module," + module.startMillis(origin) + ","
+                    + module.durationMillis() + "," + module.outcome.get());
+        }
+        Files.write(file, lines);
+    }
+
+    /** Stops the background pool; modules still running are abandoned. */
+    public void shutdown() {
+        background.shutdownNow();
+    }
+
+    /**
+     * Runs the initializer and completes {@code run}. The timeout is armed here rather than in
+     * {@link #require(String)} so that time spent waiting for dependencies does not count against it.
+     */
+    private void run(Module module, CompletableFuture<Void> run) {
+        module.startNanos = System.nanoTime();
+        if (!module.outcome.compareAndSet(Outcome.PENDING, Outcome.RUNNING)) {
+            return;
+        }
+        if (module.timeout != null) {
+            run.orTimeout(module.timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        try {
+            module.initializer.run();
+            module.settle(Outcome.DONE); // keeps TIMED_OUT if it finished late
+            run.complete(null);
+        } catch (RuntimeException e) {
+            module.settle(Outcome.FAILED);
+            run.completeExceptionally(e);
+        } finally {
+            module.endNanos = System.nanoTime();
+        }
+    }
+
+    private void checkAcyclic() {
+        Map<String, Integer> state = new LinkedHashMap<>(); // 1 = visiting, 2 = done
+        for (String name : modules.keySet()) {
+            visit(name, state, new ArrayList<>());
+        }
+    }
+
+    private void visit(String name, Map<String, Integer> state, List<String> path) {
+        Integer current = state.get(name);
+        if (current != null && current == 2) {
+            return;
+        }
+        path.add(name);
+        if (current != null) {
+            throw new IllegalArgumentException("Module dependency cycle: " + String.join(" -> ", path));
+        }
+        state.put(name, 1);
+        for (String dependency : modules.get(name).dependsOn) {
+            visit(dependency, state, path);
+        }
+        state.put(name, 2);
+        path.remove(path.size() - 1);
+    }
+
+    private static final class Module {
+        final String name;
+        final Mode mode;
+        final Affinity affinity;
+        final Duration timeout;
+        final Runnable initializer;
+        final String[] dependsOn;
+        CompletableFuture<Void> future;
+        final AtomicReference<Outcome> outcome = new AtomicReference<>(Outcome.PENDING);
+        volatile long startNanos;
+        volatile long endNanos;
+
+        Module(String name, Mode mode, Affinity affinity, Duration timeout, Runnable initializer,
+                String[] dependsOn) {
+            this.name = name;
+            this.mode = mode;
+            this.affinity = affinity;
+            this.timeout = timeout;
+            this.initializer = initializer;
+            this.dependsOn = dependsOn;
+        }
+
+        /** Moves a pending or running module to a final outcome; false if it already has one. */
+        boolean settle(Outcome result) {
+            return outcome.compareAndSet(Outcome.RUNNING, result)
+                    || outcome.compareAndSet(Outcome.PENDING, result);
+        }
+
+        long startMillis(long origin) {
+            return startNanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(startNanos - origin);
+        }
+
+        long durationMillis() {
+            long end = endNanos != 0 ? endNanos : startNanos != 0 ? System.nanoTime() : 0;
+            return startNanos == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+        }
+    }
+}
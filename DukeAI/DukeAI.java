@@ -176,66 +176,40 @@ public class AdvancedVM {
 
   private static List<Object> heap = new ArrayList<>(); // Simulated heap for garbage collection
   private static Set<Class<?>> loadedClasses = new HashSet<>(); // Simulated class loader
-  private static ExecutorService executorService =
-      Executors.newFixedThreadPool(4); // Multithreading support
+  private static final VMPool vmPool =
+      new VMPool(4); // Shared worker pool; each worker reuses its own interpreter
   private static SecurityManager securityManager =
       new VMCustomSecurityManager(); // Security manager for enforcing policies
 
   public void runVM(byte[] bytecode) {
     try {
-      Future<?> vmTask =
-          executorService.submit(
-              () -> {
-                try {
-                  execute(bytecode);
-                } catch (VMException e) {
-                  System.err.println("VM Error: " + e.getMessage());
-                }
-              });
-      vmTask.get(); // Wait for VM execution to finish
-    } catch (InterruptedException | ExecutionException e) {
+      securityManager.checkExec(); // Check for permission to execute bytecode
+      VMProgram program = VMProgram.load(bytecode); // Verify once, before anything runs
+      int result = vmPool.submit(program).get(); // Wait for VM execution to finish
+      System.out.println("VM result: " + result);
+      garbageCollect();
+    } catch (VMException e) {
+      System.err.println("VM Error: " + e.getMessage());
+    } catch (ExecutionException e) {
+      System.err.println("VM Error: " + e.getCause().getMessage());
+    } catch (InterruptedException e) {
       System.err.println("Execution interrupted: " + e.getMessage());
-    } finally {
-      executorService.shutdown();
+      Thread.currentThread().interrupt();
     }
   }
 
-  public static void execute(byte[] bytecode) throws VMException {
-    securityManager.checkExec(); // Check for permission to execute bytecode
+  // Runs many programs concurrently on the shared pool.
+  public CompletableFuture<Integer> submitVM(VMProgram program) {
+    return vmPool.submit(program);
+  }
 
-    int pc = 0; // Program counter
-    int[] stack = new int[10]; // Simple stack
-    int sp = -1; // Stack pointer
-
-    while (pc < bytecode.length) {
-      int opcode = bytecode[pc++];
-      try {
-        switch (opcode) {
-          case 0x10: // Push constant
-            if (pc >= bytecode.length) {
-              throw new VMException("Missing operand for PUSH instruction");
-            }
-            stack[++sp] = bytecode[pc++];
-            break;
-          case 0x60: // Add
-            if (sp < 1) {
-              throw new VMException("Insufficient operands for ADD instruction");
-            }
-            stack[sp - 1] = stack[sp - 1] + stack[sp];
-            sp--;
-            break;
-          case 0x00: // Halt
-            return;
-          default:
-            throw new VMException("Invalid opcode: " + opcode);
-        }
-      } catch (ArrayIndexOutOfBoundsException e) {
-        throw new VMException("Stack overflow or underflow", e);
-      }
-    }
+  public static int execute(byte[] bytecode) throws VMException {
+    securityManager.checkExec(); // Check for permission to execute bytecode
+    int result = new VMInterpreter().run(VMProgram.load(bytecode));
 
     // Simulate garbage collection
     garbageCollect();
+    return result;
   }
 
   private static void garbageCollect() {
@@ -419,6 +393,14 @@ public class DistributedCoordinator {
  * and correctness of the new features and enhancements. - **Documentation**: Maintain up-to-date
  * documentation for the new features and changes to ensure that the system remains understandable
  * and maintainable by future developers.
+ *
+ * <p>10. **AdvancedVM Bytecode Engine**: - `VMProgram.load` verifies bytecode once (opcodes,
+ * operands, jump and call targets, stack depth at every instruction) and rewrites it into a
+ * register form, so `VMInterpreter` dispatches pre-decoded instructions without a stack pointer or
+ * bounds-check exceptions. - The instruction set covers constants, locals, arithmetic, branches,
+ * calls and returns (see `VMOpcodes`). - `VMPool` runs many programs at once, one reusable
+ * interpreter per worker, and is no longer shut down after the first run. - `VMBenchmark`
+ * measures instructions per second on fib, loop and arithmetic kernels.
  */
 
 /** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
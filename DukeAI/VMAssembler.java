@@ -0,0 +1,117 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Small builder for AdvancedVM bytecode with named labels, so programs need not be written as
+// raw byte arrays. Labels may be used before they are defined; assemble() resolves them.
+public final class VMAssembler {
+
+  private byte[] bytes = new byte[64];
+  private int size;
+  private final Map<String, Integer> labels = new HashMap<>();
+  private final List<Fixup> fixups = new ArrayList<>();
+
+  public VMAssembler label(String name) {
+    if (labels.putIfAbsent(name, size) != null) {
+      throw new IllegalArgumentException("Duplicate label: " + name);
+    }
+    return this;
+  }
+
+  // Emits an instruction without operands (arithmetic, stack, HALT, RET).
+  public VMAssembler op(int opcode) {
+    if (VMOpcodes.length(opcode) != 1) {
+      throw new IllegalArgumentException("Opcode takes operands: " + opcode);
+    }
+    return emit(opcode);
+  }
+
+  // Pushes a constant, using the one-byte form when it fits.
+  public VMAssembler push(int value) {
+    if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+      return emit(VMOpcodes.PUSH).emit(value);
+    }
+    return emit(VMOpcodes.PUSH_INT)
+        .emit(value >>> 24)
+        .emit(value >>> 16)
+        .emit(value >>> 8)
+        .emit(value);
+  }
+
+  public VMAssembler load(int local) {
+    return emit(VMOpcodes.LOAD).emit(checkLocal(local));
+  }
+
+  public VMAssembler store(int local) {
+    return emit(VMOpcodes.STORE).emit(checkLocal(local));
+  }
+
+  public VMAssembler inc(int local, int delta) {
+    if (delta < Byte.MIN_VALUE || delta > Byte.MAX_VALUE) {
+      throw new IllegalArgumentException("Increment out of range: " + delta);
+    }
+    return emit(VMOpcodes.INC).emit(checkLocal(local)).emit(delta);
+  }
+
+  // Emits GOTO or a conditional branch to a label.
+  public VMAssembler jump(int opcode, String label) {
+    if (opcode != VMOpcodes.GOTO && (opcode < VMOpcodes.IFEQ || opcode > VMOpcodes.IF_CMPLE)) {
+      throw new IllegalArgumentException("Not a jump opcode: " + opcode);
+    }
+    fixups.add(new Fixup(size + 1, size, label));
+    return emit(opcode).emit(0).emit(0);
+  }
+
+  public VMAssembler call(String label, int arguments) {
+    fixups.add(new Fixup(size + 1, -1, label));
+    return emit(VMOpcodes.CALL).emit(0).emit(0).emit(arguments);
+  }
+
+  public byte[] assemble() {
+    for (Fixup fixup : fixups) {
+      Integer target = labels.get(fixup.label);
+      if (target == null) {
+        throw new IllegalArgumentException("Undefined label: " + fixup.label);
+      }
+      int value = fixup.instruction < 0 ? target : target - fixup.instruction;
+      if (fixup.instruction >= 0 && (value < Short.MIN_VALUE || value > Short.MAX_VALUE)) {
+        throw new IllegalArgumentException("Jump to " + fixup.label + " is out of range");
+      }
+      bytes[fixup.operand] = (byte) (value >>> 8);
+      bytes[fixup.operand + 1] = (byte) value;
+    }
+    return Arrays.copyOf(bytes, size);
+  }
+
+  private VMAssembler emit(int value) {
+    if (size == bytes.length) {
+      bytes = Arrays.copyOf(bytes, size * 2);
+    }
+    bytes[size++] = (byte) value;
+    return this;
+  }
+
+  private static int checkLocal(int local) {
+    if (local < 0 || local > 0xFF) {
+      throw new IllegalArgumentException("Local index out of range: " + local);
+    }
+    return local;
+  }
+
+  // A label operand to patch: relative to its instruction for jumps, absolute (-1) for calls.
+  private static final class Fixup {
+    final int operand;
+    final int instruction;
+    final String label;
+
+    Fixup(int operand, int instruction, String label) {
+      this.operand = operand;
+      this.instruction = instruction;
+      this.label = label;
+    }
+  }
+}
@@ -0,0 +1,174 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.concurrent.CompletableFuture;
+
+// Interpreter benchmark suite: recursive fib, a counting loop and an arithmetic kernel (Collatz
+// step counts, exercising MUL/DIV/REM and branches), each checked against the same computation
+// in Java and reported in VM instructions per second. Finishes with VMPool throughput on many
+// small programs and a bytecode sample the verifier must reject.
+// Usage: java VMBenchmark [rounds]
+public class VMBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+    VMInterpreter interpreter = new VMInterpreter();
+
+    VMProgram fib = VMProgram.load(fib(27));
+    VMProgram loop = VMProgram.load(loop(20_000_000));
+    VMProgram collatz = VMProgram.load(collatz(100_000));
+    for (int round = 0; round < rounds; round++) {
+      measure("fib(27)", interpreter, fib, javaFib(27));
+      measure("loop 20M", interpreter, loop, javaLoop(20_000_000));
+      measure("collatz 100k", interpreter, collatz, javaCollatz(100_000));
+    }
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    int programs = 20_000;
+    VMProgram small = VMProgram.load(fib(15));
+    try (VMPool pool = new VMPool(threads)) {
+      for (int round = 0; round < 3; round++) {
+        long start = System.nanoTime();
+        CompletableFuture<?>[] results = new CompletableFuture<?>[programs];
+        for (int i = 0; i < programs; i++) {
+          results[i] = pool.submit(small);
+        }
+        CompletableFuture.allOf(results).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(
+            "pool x%d: %,d fib(15) programs in %.0f ms (%,.0f programs/sec)%n",
+            threads, programs, seconds * 1000, programs / seconds);
+      }
+    }
+
+    try {
+      VMProgram.load(new byte[] {0x10, 0x2A, 0x60, 0x00});
+      System.out.println("verifier: underflowing sample was NOT rejected");
+    } catch (VMException e) {
+      System.out.println("verifier: rejected sample (" + e.getMessage() + ")");
+    }
+  }
+
+  private static void measure(String name, VMInterpreter interpreter, VMProgram program, int expected)
+      throws VMException {
+    long before = interpreter.executedInstructions();
+    long start = System.nanoTime();
+    int result = interpreter.run(program);
+    long nanos = System.nanoTime() - start;
+    long ops = interpreter.executedInstructions() - before;
+    if (result != expected) {
+      throw new IllegalStateException(name + " returned " + result + ", expected " + expected);
+    }
+    System.out.printf(
+        "%-13s %,14d ops in %5d ms  %,8.1f Mops/sec%n",
+        name, ops, nanos / 1_000_000, ops / (nanos / 1e3));
+  }
+
+  static byte[] fib(int n) {
+    return new VMAssembler()
+        .push(n)
+        .call("fib", 1)
+        .op(VMOpcodes.HALT)
+        .label("fib")
+        .load(0)
+        .push(2)
+        .jump(VMOpcodes.IF_CMPGE, "recurse")
+        .load(0)
+        .op(VMOpcodes.RET)
+        .label("recurse")
+        .load(0)
+        .push(1)
+        .op(VMOpcodes.SUB)
+        .call("fib", 1)
+        .load(0)
+        .push(2)
+        .op(VMOpcodes.SUB)
+        .call("fib", 1)
+        .op(VMOpcodes.ADD)
+        .op(VMOpcodes.RET)
+        .assemble();
+  }
+
+  // sum = 0; for (i = 0; i < n; i++) sum += i;
+  static byte[] loop(int n) {
+    return new VMAssembler()
+        .label("test")
+        .load(0)
+        .push(n)
+        .jump(VMOpcodes.IF_CMPGE, "done")
+        .load(1)
+        .load(0)
+        .op(VMOpcodes.ADD)
+        .store(1)
+        .inc(0, 1)
+        .jump(VMOpcodes.GOTO, "test")
+        .label("done")
+        .load(1)
+        .op(VMOpcodes.HALT)
+        .assemble();
+  }
+
+  // Total Collatz steps for every start value 1..n (locals: 0 = start, 1 = x, 2 = total). Every
+  // trajectory stays within int range for n below 113,383.
+  static byte[] collatz(int n) {
+    return new VMAssembler()
+        .push(1)
+        .store(0)
+        .label("outer")
+        .load(0)
+        .push(n)
+        .jump(VMOpcodes.IF_CMPGT, "done")
+        .load(0)
+        .store(1)
+        .label("inner")
+        .load(1)
+        .push(1)
+        .jump(VMOpcodes.IF_CMPEQ, "next")
+        .inc(2, 1)
+        .load(1)
+        .push(2)
+        .op(VMOpcodes.REM)
+        .jump(VMOpcodes.IFNE, "odd")
+        .load(1)
+        .push(2)
+        .op(VMOpcodes.DIV)
+        .store(1)
+        .jump(VMOpcodes.GOTO, "inner")
+        .label("odd")
+        .load(1)
+        .push(3)
+        .op(VMOpcodes.MUL)
+        .push(1)
+        .op(VMOpcodes.ADD)
+        .store(1)
+        .jump(VMOpcodes.GOTO, "inner")
+        .label("next")
+        .inc(0, 1)
+        .jump(VMOpcodes.GOTO, "outer")
+        .label("done")
+        .load(2)
+        .op(VMOpcodes.HALT)
+        .assemble();
+  }
+
+  private static int javaFib(int n) {
+    return n < 2 ? n : javaFib(n - 1) + javaFib(n - 2);
+  }
+
+  private static int javaLoop(int n) {
+    int sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += i;
+    }
+    return sum;
+  }
+
+  private static int javaCollatz(int n) {
+    int total = 0;
+    for (int start = 1; start <= n; start++) {
+      for (int x = start; x != 1; total++) {
+        x = x % 2 != 0 ? x * 3 + 1 : x / 2;
+      }
+    }
+    return total;
+  }
+}
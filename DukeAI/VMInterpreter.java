@@ -0,0 +1,213 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.Arrays;
+
+// Executes VMPrograms. Instructions are pre-decoded ints, so dispatch is a single dense switch
+// (compiled to a jump table) over an opcode already in range, and every operand is a
+// frame-relative register: no byte decoding, no stack pointer and no per-instruction bounds checks
+// beyond the JVM's own. An interpreter owns its register file and call stack and is not
+// thread-safe; VMPool keeps one per worker thread.
+public final class VMInterpreter {
+
+  // Decoded instruction set, STRIDE ints each: {op, a, b, c}.
+  static final int STRIDE = 4;
+  static final int NOP = 0;
+  static final int HALT = 1; // a: result register, or -1
+  static final int CONST = 2; // a = b
+  static final int MOVE = 3; // a = r[b]
+  static final int SWAP = 4;
+  static final int ADD = 5; // a = r[b] op r[c]
+  static final int SUB = 6;
+  static final int MUL = 7;
+  static final int DIV = 8;
+  static final int REM = 9;
+  static final int NEG = 10; // a = -r[b]
+  static final int INC = 11; // a += b
+  static final int IFEQ = 12; // if r[a] op 0 goto b
+  static final int IFNE = 13;
+  static final int IFLT = 14;
+  static final int IFGE = 15;
+  static final int IFGT = 16;
+  static final int IFLE = 17;
+  static final int IF_CMPEQ = 18; // if r[a] op r[b] goto c
+  static final int IF_CMPNE = 19;
+  static final int IF_CMPLT = 20;
+  static final int IF_CMPGE = 21;
+  static final int IF_CMPGT = 22;
+  static final int IF_CMPLE = 23;
+  static final int GOTO = 24; // goto a
+  static final int CALL = 25; // call function b with its frame based at register a
+  static final int RET = 26; // return r[a]
+
+  public static final int DEFAULT_REGISTERS = 1 << 16;
+  public static final int DEFAULT_CALL_DEPTH = 4096;
+
+  private final int[] registers;
+  private final int[] returns; // return pc and caller frame base, per active call
+  private long executed;
+
+  public VMInterpreter() {
+    this(DEFAULT_REGISTERS, DEFAULT_CALL_DEPTH);
+  }
+
+  public VMInterpreter(int registers, int callDepth) {
+    this.registers = new int[registers];
+    this.returns = new int[callDepth * 2];
+  }
+
+  // Total instructions executed by this interpreter so far.
+  public long executedInstructions() {
+    return executed;
+  }
+
+  // Runs a program to completion and returns its result: the value on top of the stack at HALT
+  // or returned from the entry function, or 0 if the stack was empty.
+  public int run(VMProgram program) throws VMException {
+    final int[] code = program.code;
+    final int[] r = registers;
+    final int[] frames = returns;
+    if (program.frameSize[0] > r.length) {
+      throw new VMException("Program frame does not fit in " + r.length + " registers");
+    }
+    Arrays.fill(r, 0, program.frameSize[0], 0);
+    int pc = program.entry[0];
+    int fb = 0;
+    int depth = 0;
+    long ops = 0;
+    try {
+      while (true) {
+        ops++;
+        switch (code[pc]) {
+          case NOP:
+            pc += STRIDE;
+            break;
+          case HALT:
+            return code[pc + 1] < 0 ? 0 : r[fb + code[pc + 1]];
+          case CONST:
+            r[fb + code[pc + 1]] = code[pc + 2];
+            pc += STRIDE;
+            break;
+          case MOVE:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]];
+            pc += STRIDE;
+            break;
+          case SWAP:
+            {
+              int a = fb + code[pc + 1];
+              int b = fb + code[pc + 2];
+              int t = r[a];
+              r[a] = r[b];
+              r[b] = t;
+              pc += STRIDE;
+              break;
+            }
+          case ADD:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]] + r[fb + code[pc + 3]];
+            pc += STRIDE;
+            break;
+          case SUB:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]] - r[fb + code[pc + 3]];
+            pc += STRIDE;
+            break;
+          case MUL:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]] * r[fb + code[pc + 3]];
+            pc += STRIDE;
+            break;
+          case DIV:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]] / divisor(r[fb + code[pc + 3]]);
+            pc += STRIDE;
+            break;
+          case REM:
+            r[fb + code[pc + 1]] = r[fb + code[pc + 2]] % divisor(r[fb + code[pc + 3]]);
+            pc += STRIDE;
+            break;
+          case NEG:
+            r[fb + code[pc + 1]] = -r[fb + code[pc + 2]];
+            pc += STRIDE;
+            break;
+          case INC:
+            r[fb + code[pc + 1]] += code[pc + 2];
+            pc += STRIDE;
+            break;
+          case IFEQ:
+            pc = r[fb + code[pc + 1]] == 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IFNE:
+            pc = r[fb + code[pc + 1]] != 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IFLT:
+            pc = r[fb + code[pc + 1]] < 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IFGE:
+            pc = r[fb + code[pc + 1]] >= 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IFGT:
+            pc = r[fb + code[pc + 1]] > 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IFLE:
+            pc = r[fb + code[pc + 1]] <= 0 ? code[pc + 2] : pc + STRIDE;
+            break;
+          case IF_CMPEQ:
+            pc = r[fb + code[pc + 1]] == r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case IF_CMPNE:
+            pc = r[fb + code[pc + 1]] != r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case IF_CMPLT:
+            pc = r[fb + code[pc + 1]] < r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case IF_CMPGE:
+            pc = r[fb + code[pc + 1]] >= r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case IF_CMPGT:
+            pc = r[fb + code[pc + 1]] > r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case IF_CMPLE:
+            pc = r[fb + code[pc + 1]] <= r[fb + code[pc + 2]] ? code[pc + 3] : pc + STRIDE;
+            break;
+          case GOTO:
+            pc = code[pc + 1];
+            break;
+          case CALL:
+            {
+              int function = code[pc + 2];
+              int base = fb + code[pc + 1];
+              if (depth * 2 == frames.length || base + program.frameSize[function] > r.length) {
+                throw new VMException("Call stack overflow at depth " + depth);
+              }
+              Arrays.fill(r, base + program.arguments[function], base + program.locals[function], 0);
+              frames[depth * 2] = pc + STRIDE;
+              frames[depth * 2 + 1] = fb;
+              depth++;
+              fb = base;
+              pc = program.entry[function];
+              break;
+            }
+          case RET:
+            {
+              int value = r[fb + code[pc + 1]];
+              if (depth == 0) {
+                return value;
+              }
+              r[fb] = value;
+              depth--;
+              pc = frames[depth * 2];
+              fb = frames[depth * 2 + 1];
+              break;
+            }
+          default:
+            throw new VMException("Corrupt decoded instruction: " + code[pc]);
+        }
+      }
+    } finally {
+      executed += ops;
+    }
+  }
+
+  private static int divisor(int value) throws VMException {
+    if (value == 0) {
+      throw new VMException("Division by zero");
+    }
+    return value;
+  }
+}
@@ -0,0 +1,66 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.Arrays;
+
+// Bytecode accepted by AdvancedVM. Numbering follows the JVM's int instructions where one
+// exists. Multi-byte operands are big-endian; jump offsets are signed 16-bit, relative to the
+// start of the jump instruction; CALL names its callee by absolute byte offset.
+public final class VMOpcodes {
+
+  public static final int HALT = 0x00; // ends the program; result is the top of stack, if any
+  public static final int PUSH = 0x10; // i8 constant
+  public static final int PUSH_INT = 0x11; // i32 constant
+  public static final int LOAD = 0x15; // u8 local
+  public static final int STORE = 0x36; // u8 local
+  public static final int POP = 0x57;
+  public static final int DUP = 0x59;
+  public static final int SWAP = 0x5F;
+  public static final int ADD = 0x60;
+  public static final int SUB = 0x64;
+  public static final int MUL = 0x68;
+  public static final int DIV = 0x6C;
+  public static final int REM = 0x70;
+  public static final int NEG = 0x74;
+  public static final int INC = 0x84; // u8 local, i8 delta
+  public static final int IFEQ = 0x99; // compares the top of stack against zero
+  public static final int IFNE = 0x9A;
+  public static final int IFLT = 0x9B;
+  public static final int IFGE = 0x9C;
+  public static final int IFGT = 0x9D;
+  public static final int IFLE = 0x9E;
+  public static final int IF_CMPEQ = 0x9F; // compares the top two values
+  public static final int IF_CMPNE = 0xA0;
+  public static final int IF_CMPLT = 0xA1;
+  public static final int IF_CMPGE = 0xA2;
+  public static final int IF_CMPGT = 0xA3;
+  public static final int IF_CMPLE = 0xA4;
+  public static final int GOTO = 0xA7;
+  public static final int RET = 0xAC; // returns the top of stack to the caller
+  public static final int CALL = 0xB8; // u16 callee offset, u8 argument count
+
+  private static final int[] LENGTHS = new int[256];
+
+  static {
+    Arrays.fill(LENGTHS, -1);
+    for (int op : new int[] {HALT, POP, DUP, SWAP, ADD, SUB, MUL, DIV, REM, NEG, RET}) {
+      LENGTHS[op] = 1;
+    }
+    LENGTHS[PUSH] = 2;
+    LENGTHS[LOAD] = 2;
+    LENGTHS[STORE] = 2;
+    LENGTHS[PUSH_INT] = 5;
+    LENGTHS[INC] = 3;
+    for (int op = IFEQ; op <= IF_CMPLE; op++) {
+      LENGTHS[op] = 3;
+    }
+    LENGTHS[GOTO] = 3;
+    LENGTHS[CALL] = 4;
+  }
+
+  private VMOpcodes() {}
+
+  // Encoded length of the instruction, or -1 if the opcode is unknown.
+  public static int length(int opcode) {
+    return LENGTHS[opcode & 0xFF];
+  }
+}
@@ -0,0 +1,59 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs many programs at once: a fixed set of daemon worker threads, each with its own
+// VMInterpreter (register file and call stack) that is reused from one program to the next.
+public final class VMPool implements AutoCloseable {
+
+  private final ExecutorService executor;
+  private final ThreadLocal<VMInterpreter> interpreters =
+      ThreadLocal.withInitial(VMInterpreter::new);
+
+  public VMPool(int threads) {
+    AtomicInteger count = new AtomicInteger();
+    this.executor =
+        Executors.newFixedThreadPool(
+            threads,
+            task -> {
+              Thread thread = new Thread(task, "vm-worker-" + count.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  // Runs an already loaded program; the future fails with a VMException if it traps.
+  public CompletableFuture<Integer> submit(VMProgram program) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return interpreters.get().run(program);
+          } catch (VMException e) {
+            throw new CompletionException(e);
+          }
+        },
+        executor);
+  }
+
+  // Verifies and runs raw bytecode; programs run repeatedly should be loaded once instead.
+  public CompletableFuture<Integer> submit(byte[] bytecode) {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return interpreters.get().run(VMProgram.load(bytecode));
+          } catch (VMException e) {
+            throw new CompletionException(e);
+          }
+        },
+        executor);
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
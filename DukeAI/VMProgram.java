@@ -0,0 +1,370 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// A verified, pre-decoded AdvancedVM program. Loading checks the bytecode once: every opcode and
+// operand, every jump and call target, and the operand stack depth at every instruction. Because
+// that depth is then known statically, each stack slot is just a fixed register in the frame, and
+// the program is rewritten into VMInterpreter's register form with no stack pointer left to track.
+// A loaded program is immutable and can run on any number of interpreters at once.
+public final class VMProgram {
+
+  static final int MAX_STACK = 256;
+  static final int MAX_CODE = 0xFFFF;
+
+  // Decoded code, VMInterpreter.STRIDE ints per instruction; index n is an implicit HALT that
+  // main reaches by running off the end of the bytecode.
+  final int[] code;
+  // Per function: entry point (scaled code index), argument count, locals (arguments included)
+  // and frame size (locals plus operand stack). Function 0 is the program entry at offset 0.
+  final int[] entry;
+  final int[] arguments;
+  final int[] locals;
+  final int[] frameSize;
+  private final int instructionCount;
+
+  private VMProgram(
+      int[] code, int[] entry, int[] arguments, int[] locals, int[] frameSize, int count) {
+    this.code = code;
+    this.entry = entry;
+    this.arguments = arguments;
+    this.locals = locals;
+    this.frameSize = frameSize;
+    this.instructionCount = count;
+  }
+
+  public int instructionCount() {
+    return instructionCount;
+  }
+
+  public int functionCount() {
+    return entry.length;
+  }
+
+  // Verifies and decodes bytecode, throwing VMException on the first problem found.
+  public static VMProgram load(byte[] bytecode) throws VMException {
+    int length = bytecode.length;
+    if (length > MAX_CODE) {
+      throw new VMException("Program too large: " + length + " bytes");
+    }
+
+    // Pass 1: instruction boundaries and operand presence.
+    int[] indexAt = new int[length + 1];
+    Arrays.fill(indexAt, -1);
+    int[] offsets = new int[length + 1];
+    int n = 0;
+    for (int pc = 0; pc < length; ) {
+      int opcode = bytecode[pc] & 0xFF;
+      int size = VMOpcodes.length(opcode);
+      if (size < 0) {
+        throw new VMException(String.format("Invalid opcode: 0x%02X at offset %d", opcode, pc));
+      }
+      if (pc + size > length) {
+        throw new VMException(
+            String.format("Missing operand for opcode 0x%02X at offset %d", opcode, pc));
+      }
+      indexAt[pc] = n;
+      offsets[n++] = pc;
+      pc += size;
+    }
+    indexAt[length] = n;
+    offsets[n] = length;
+
+    // Pass 2: functions are the entry point plus every CALL target.
+    Map<Integer, Integer> functionAt = new HashMap<>();
+    List<Integer> functionOffsets = new ArrayList<>();
+    List<Integer> functionArguments = new ArrayList<>();
+    functionAt.put(0, 0);
+    functionOffsets.add(0);
+    functionArguments.add(0);
+    for (int i = 0; i < n; i++) {
+      int pc = offsets[i];
+      if ((bytecode[pc] & 0xFF) != VMOpcodes.CALL) {
+        continue;
+      }
+      int target = u16(bytecode, pc + 1);
+      int argc = bytecode[pc + 3] & 0xFF;
+      if (target >= length || indexAt[target] < 0) {
+        throw new VMException("CALL target " + target + " at offset " + pc + " is not an instruction");
+      }
+      Integer function = functionAt.get(target);
+      if (function == null) {
+        functionAt.put(target, functionOffsets.size());
+        functionOffsets.add(target);
+        functionArguments.add(argc);
+      } else if (functionArguments.get(function) != argc) {
+        throw new VMException(
+            "CALL at offset " + pc + " passes " + argc + " argument(s) to the function at offset "
+                + target + ", which takes " + functionArguments.get(function));
+      }
+    }
+
+    // Pass 3: data flow over each function's reachable code.
+    int functions = functionOffsets.size();
+    int[] owner = new int[n + 1];
+    int[] depthAt = new int[n + 1];
+    Arrays.fill(owner, -1);
+    int[] maxDepth = new int[functions];
+    int[] localCount = new int[functions];
+    ArrayDeque<Integer> work = new ArrayDeque<>();
+    for (int f = 0; f < functions; f++) {
+      localCount[f] = functionArguments.get(f);
+      visit(owner, depthAt, work, f, indexAt[functionOffsets.get(f)], 0, functionOffsets.get(f));
+      while (!work.isEmpty()) {
+        int i = work.pop();
+        int depth = depthAt[i];
+        int pc = offsets[i];
+        if (i == n) {
+          if (f != 0) {
+            throw new VMException(
+                "Function at offset " + functionOffsets.get(f) + " runs past the end of the code");
+          }
+          continue;
+        }
+        int opcode = bytecode[pc] & 0xFF;
+        int pops;
+        int pushes;
+        int jump = 0;
+        boolean jumps = false;
+        boolean fallsThrough = true;
+        switch (opcode) {
+          case VMOpcodes.HALT:
+            pops = 0;
+            pushes = 0;
+            fallsThrough = false;
+            break;
+          case VMOpcodes.PUSH:
+          case VMOpcodes.PUSH_INT:
+            pops = 0;
+            pushes = 1;
+            break;
+          case VMOpcodes.LOAD:
+            localCount[f] = Math.max(localCount[f], (bytecode[pc + 1] & 0xFF) + 1);
+            pops = 0;
+            pushes = 1;
+            break;
+          case VMOpcodes.STORE:
+            localCount[f] = Math.max(localCount[f], (bytecode[pc + 1] & 0xFF) + 1);
+            pops = 1;
+            pushes = 0;
+            break;
+          case VMOpcodes.INC:
+            localCount[f] = Math.max(localCount[f], (bytecode[pc + 1] & 0xFF) + 1);
+            pops = 0;
+            pushes = 0;
+            break;
+          case VMOpcodes.POP:
+            pops = 1;
+            pushes = 0;
+            break;
+          case VMOpcodes.DUP:
+            pops = 1;
+            pushes = 2;
+            break;
+          case VMOpcodes.SWAP:
+            pops = 2;
+            pushes = 2;
+            break;
+          case VMOpcodes.NEG:
+            pops = 1;
+            pushes = 1;
+            break;
+          case VMOpcodes.GOTO:
+            pops = 0;
+            pushes = 0;
+            jump = pc + s16(bytecode, pc + 1);
+            jumps = true;
+            fallsThrough = false;
+            break;
+          case VMOpcodes.RET:
+            pops = 1;
+            pushes = 0;
+            fallsThrough = false;
+            break;
+          case VMOpcodes.CALL:
+            pops = bytecode[pc + 3] & 0xFF;
+            pushes = 1;
+            break;
+          default:
+            if (opcode >= VMOpcodes.IFEQ && opcode <= VMOpcodes.IFLE) {
+              pops = 1;
+              pushes = 0;
+              jump = pc + s16(bytecode, pc + 1);
+              jumps = true;
+            } else if (opcode >= VMOpcodes.IF_CMPEQ && opcode <= VMOpcodes.IF_CMPLE) {
+              pops = 2;
+              pushes = 0;
+              jump = pc + s16(bytecode, pc + 1);
+              jumps = true;
+            } else {
+              // ADD, SUB, MUL, DIV, REM
+              pops = 2;
+              pushes = 1;
+            }
+        }
+        if (depth < pops) {
+          throw new VMException(
+              String.format(
+                  "Stack underflow at offset %d: opcode 0x%02X needs %d operand(s), found %d",
+                  pc, opcode, pops, depth));
+        }
+        int after = depth - pops + pushes;
+        if (after > MAX_STACK) {
+          throw new VMException("Stack overflow at offset " + pc + ": depth exceeds " + MAX_STACK);
+        }
+        maxDepth[f] = Math.max(maxDepth[f], Math.max(after, depth));
+        if (jumps) {
+          if (jump < 0 || jump >= length || indexAt[jump] < 0) {
+            throw new VMException(
+                "Jump target " + jump + " at offset " + pc + " is not an instruction");
+          }
+          visit(owner, depthAt, work, f, indexAt[jump], after, jump);
+        }
+        if (fallsThrough) {
+          visit(owner, depthAt, work, f, i + 1, after, offsets[i + 1]);
+        }
+      }
+    }
+
+    // Pass 4: rewrite into register form.
+    int stride = VMInterpreter.STRIDE;
+    int[] code = new int[(n + 1) * stride];
+    for (int i = 0; i <= n; i++) {
+      int f = owner[i];
+      int at = i * stride;
+      if (f < 0) {
+        code[at] = VMInterpreter.NOP; // unreachable
+        continue;
+      }
+      int base = localCount[f];
+      int depth = depthAt[i];
+      int top = base + depth - 1;
+      if (i == n) {
+        code[at] = VMInterpreter.HALT;
+        code[at + 1] = depth > 0 ? top : -1;
+        continue;
+      }
+      int pc = offsets[i];
+      int opcode = bytecode[pc] & 0xFF;
+      switch (opcode) {
+        case VMOpcodes.HALT:
+          emit(code, at, VMInterpreter.HALT, depth > 0 ? top : -1, 0, 0);
+          break;
+        case VMOpcodes.PUSH:
+          emit(code, at, VMInterpreter.CONST, top + 1, bytecode[pc + 1], 0);
+          break;
+        case VMOpcodes.PUSH_INT:
+          emit(code, at, VMInterpreter.CONST, top + 1, s32(bytecode, pc + 1), 0);
+          break;
+        case VMOpcodes.LOAD:
+          emit(code, at, VMInterpreter.MOVE, top + 1, bytecode[pc + 1] & 0xFF, 0);
+          break;
+        case VMOpcodes.STORE:
+          emit(code, at, VMInterpreter.MOVE, bytecode[pc + 1] & 0xFF, top, 0);
+          break;
+        case VMOpcodes.INC:
+          emit(code, at, VMInterpreter.INC, bytecode[pc + 1] & 0xFF, bytecode[pc + 2], 0);
+          break;
+        case VMOpcodes.POP:
+          emit(code, at, VMInterpreter.NOP, 0, 0, 0);
+          break;
+        case VMOpcodes.DUP:
+          emit(code, at, VMInterpreter.MOVE, top + 1, top, 0);
+          break;
+        case VMOpcodes.SWAP:
+          emit(code, at, VMInterpreter.SWAP, top - 1, top, 0);
+          break;
+        case VMOpcodes.ADD:
+          emit(code, at, VMInterpreter.ADD, top - 1, top - 1, top);
+          break;
+        case VMOpcodes.SUB:
+          emit(code, at, VMInterpreter.SUB, top - 1, top - 1, top);
+          break;
+        case VMOpcodes.MUL:
+          emit(code, at, VMInterpreter.MUL, top - 1, top - 1, top);
+          break;
+        case VMOpcodes.DIV:
+          emit(code, at, VMInterpreter.DIV, top - 1, top - 1, top);
+          break;
+        case VMOpcodes.REM:
+          emit(code, at, VMInterpreter.REM, top - 1, top - 1, top);
+          break;
+        case VMOpcodes.NEG:
+          emit(code, at, VMInterpreter.NEG, top, top, 0);
+          break;
+        case VMOpcodes.GOTO:
+          emit(code, at, VMInterpreter.GOTO, target(bytecode, pc, indexAt), 0, 0);
+          break;
+        case VMOpcodes.RET:
+          emit(code, at, VMInterpreter.RET, top, 0, 0);
+          break;
+        case VMOpcodes.CALL:
+          int argc = bytecode[pc + 3] & 0xFF;
+          emit(
+              code, at, VMInterpreter.CALL, top + 1 - argc, functionAt.get(u16(bytecode, pc + 1)), 0);
+          break;
+        default:
+          if (opcode >= VMOpcodes.IFEQ && opcode <= VMOpcodes.IFLE) {
+            int op = VMInterpreter.IFEQ + (opcode - VMOpcodes.IFEQ);
+            emit(code, at, op, top, target(bytecode, pc, indexAt), 0);
+          } else {
+            int op = VMInterpreter.IF_CMPEQ + (opcode - VMOpcodes.IF_CMPEQ);
+            emit(code, at, op, top - 1, top, target(bytecode, pc, indexAt));
+          }
+      }
+    }
+
+    int[] entry = new int[functions];
+    int[] arguments = new int[functions];
+    int[] frameSize = new int[functions];
+    for (int f = 0; f < functions; f++) {
+      entry[f] = indexAt[functionOffsets.get(f)] * stride;
+      arguments[f] = functionArguments.get(f);
+      frameSize[f] = localCount[f] + maxDepth[f];
+    }
+    return new VMProgram(code, entry, arguments, localCount, frameSize, n);
+  }
+
+  private static void visit(
+      int[] owner, int[] depthAt, ArrayDeque<Integer> work, int f, int i, int depth, int pc)
+      throws VMException {
+    if (owner[i] < 0) {
+      owner[i] = f;
+      depthAt[i] = depth;
+      work.push(i);
+    } else if (owner[i] != f) {
+      throw new VMException("Code at offset " + pc + " is reachable from more than one function");
+    } else if (depthAt[i] != depth) {
+      throw new VMException(
+          "Inconsistent stack depth at offset " + pc + ": " + depthAt[i] + " vs " + depth);
+    }
+  }
+
+  private static void emit(int[] code, int at, int op, int a, int b, int c) {
+    code[at] = op;
+    code[at + 1] = a;
+    code[at + 2] = b;
+    code[at + 3] = c;
+  }
+
+  private static int target(byte[] bytecode, int pc, int[] indexAt) {
+    return indexAt[pc + s16(bytecode, pc + 1)] * VMInterpreter.STRIDE;
+  }
+
+  private static int u16(byte[] bytecode, int at) {
+    return ((bytecode[at] & 0xFF) << 8) | (bytecode[at + 1] & 0xFF);
+  }
+
+  private static int s16(byte[] bytecode, int at) {
+    return (short) u16(bytecode, at);
+  }
+
+  private static int s32(byte[] bytecode, int at) {
+    return (u16(bytecode, at) << 16) | u16(bytecode, at + 2);
+  }
+}
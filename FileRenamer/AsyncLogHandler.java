@@ -0,0 +1,105 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Moves log publishing (and its file I/O) off the renaming threads.
+ */
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * Wraps another handler behind a bounded queue drained by a daemon thread. When the queue is full
+ * callers block, so a slow disk throttles the renamer instead of dropping records.
+ */
+public class AsyncLogHandler extends Handler {
+
+    private final Handler delegate;
+    private final BlockingQueue<LogRecord> queue;
+    private final Thread writer;
+    private volatile boolean closed;
+    // Records accepted by publish and records handed to the delegate; flush waits for the second
+    // to catch up with the first. written is guarded by this.
+    private final AtomicLong enqueued = new AtomicLong();
+    private long written;
+
+    public AsyncLogHandler(Handler delegate, int capacity) {
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // Resolve caller information now; it is lost once the record crosses threads.
+        record.getSourceClassName();
+        enqueued.incrementAndGet();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            enqueued.decrementAndGet();
+            progressed(0);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Blocks until every record published before the call has reached the delegate. */
+    @Override
+    public void flush() {
+        long target = enqueued.get();
+        synchronized (this) {
+            while (written < Math.min(target, enqueued.get()) && writer.isAlive()) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        delegate.close();
+    }
+
+    private void drain() {
+        try {
+            while (!closed) {
+                delegate.publish(queue.take());
+                progressed(1);
+            }
+        } catch (InterruptedException e) {
+            // Closing; fall through and write whatever is still queued.
+        }
+        LogRecord record;
+        while ((record = queue.poll()) != null) {
+            delegate.publish(record);
+            progressed(1);
+        }
+        delegate.flush();
+        progressed(0); // the writer is exiting; wake flushers so they stop waiting on it
+    }
+
+    private synchronized void progressed(int records) {
+        written += records;
+        notifyAll();
+    }
+}
@@ -6,26 +6,40 @@
  * and provides advanced troubleshooting for specific errors.
  */
 
-import java.io.File;
 import java.io.IOException;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.*;
 
 public class FileRenamer {
 
     private static final Logger logger = Logger.getLogger(FileRenamer.class.getName());
 
+    /** Journal kept next to the log so an interrupted run resumes on the next invocation. */
+    static final Path JOURNAL = Paths.get("file_rename.journal");
+    static final int BATCH_SIZE = 1000;
+
+    public enum Mode {
+        /** Log what would be renamed without touching the tree. */
+        DRY_RUN,
+        /** Write the plan to the journal without executing it; the next normal run executes it. */
+        PLAN,
+        /** Plan (or resume the journaled plan) and rename. */
+        EXECUTE
+    }
+
     static {
         try {
             LogManager.getLogManager().reset();
             ConsoleHandler consoleHandler = new ConsoleHandler();
             consoleHandler.setLevel(Level.ALL);
-            logger.addHandler(consoleHandler);
+            logger.addHandler(new AsyncLogHandler(consoleHandler, 8192));
 
             FileHandler fileHandler = new FileHandler("file_rename.log", true);
             fileHandler.setFormatter(new SimpleFormatter());
-            logger.addHandler(fileHandler);
+            logger.addHandler(new AsyncLogHandler(fileHandler, 8192));
             logger.setLevel(Level.ALL);
         } catch (IOException e) {
             logger.severe("Error configuring logging: " + e.getMessage());
@@ -33,35 +47,130 @@ public class FileRenamer {
     }
 
     public static void main(String[] args) {
-        if (args.length != 1) {
-            System.out.println("Usage: java FileRenamer <directory_path>");
+        Mode mode = Mode.EXECUTE;
+        String directoryArg = null;
+        for (String arg : args) {
+            if (arg.equals("--dry-run")) {
+                mode = Mode.DRY_RUN;
+            } else if (arg.equals("--plan")) {
+                mode = Mode.PLAN;
+            } else if (directoryArg == null) {
+                directoryArg = arg;
+            } else {
+                directoryArg = null;
+                break;
+            }
+        }
+        if (directoryArg == null) {
+            System.out.println("Usage: java FileRenamer [--dry-run | --plan] <directory_path>");
             logger.severe("Invalid usage. Directory path not provided.");
+            closeLogs();
             return;
         }
-        Path directory = Paths.get(args[0]);
-        renameFiles(directory);
+        Path directory = Paths.get(directoryArg);
+        renameFiles(directory, mode);
+        closeLogs();
         System.out.println("File renaming process completed. Check the log for details.");
     }
 
     public static void renameFiles(Path directory) {
+        renameFiles(directory, Mode.EXECUTE);
+    }
+
+    public static void renameFiles(Path directory, Mode mode) {
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
         try {
-            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
-                @Override
-                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                    String originalName = file.getFileName().toString();
-                    String newName = originalName.replaceAll("[^A-Za-z0-9._-]", "_");
-                    if (!originalName.equals(newName)) {
-                        Path newPath = file.resolveSibling(newName);
-                        Files.move(file, newPath);
-                        logger.info("Renamed: " + originalName + " -> " + newName);
-                    }
-                    return FileVisitResult.CONTINUE;
+            List<RenamePlanner.Rename> plan = null;
+            int completed = 0;
+            if (mode == Mode.EXECUTE && Files.exists(JOURNAL)) {
+                RenameJournal.State state = RenameJournal.read(JOURNAL);
+                if (state.isFor(directory)) {
+                    plan = state.plan;
+                    completed = state.completed;
+                    logger.info("Resuming journaled run at " + completed + " of " + plan.size() + " renames.");
+                } else {
+                    logger.warning("Discarding journaled run for " + (state.root != null ? state.root : "an unknown directory")
+                            + "; it was not planned for " + directory + " under the current sanitizer rules.");
+                }
+            }
+            boolean resuming = plan != null;
+            if (!resuming) {
+                plan = new RenamePlanner(pool).plan(directory);
+            }
+
+            for (RenamePlanner.Rename rename : plan) {
+                if (rename.collision) {
+                    logger.warning("Name collision: " + rename.source + " will be renamed to "
+                            + rename.target.getFileName());
                 }
-            });
+            }
+            if (mode == Mode.DRY_RUN) {
+                plan.forEach(rename -> logger.info("Would rename: " + rename.source + " -> " + rename.target.getFileName()));
+                logger.info("Dry run complete: " + plan.size() + " files would be renamed.");
+                return;
+            }
+            if (mode == Mode.PLAN) {
+                RenameJournal.create(JOURNAL, directory, plan).close();
+                plan.forEach(rename -> logger.info("Planned: " + rename.source + " -> " + rename.target.getFileName()));
+                logger.info("Plan of " + plan.size() + " renames written to " + JOURNAL + "; run without --plan to apply it.");
+                return;
+            }
+
+            try (RenameJournal journal = resuming ? RenameJournal.append(JOURNAL) : RenameJournal.create(JOURNAL, directory, plan)) {
+                execute(plan, completed, journal, pool);
+            }
+            Files.delete(JOURNAL);
             logger.info("File renaming completed successfully.");
         } catch (IOException e) {
             logger.severe("Error during file renaming: " + e.getMessage());
             troubleshootError(e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Applies the plan from {@code completed} onwards in batches: the renames in a batch run in
+     * parallel, then a journal commit records the batch before the next one starts.
+     */
+    private static void execute(List<RenamePlanner.Rename> plan, int completed, RenameJournal journal,
+                                ForkJoinPool pool) throws IOException {
+        AtomicInteger failures = new AtomicInteger();
+        for (int start = completed; start < plan.size(); start += BATCH_SIZE) {
+            List<RenamePlanner.Rename> batch = plan.subList(start, Math.min(plan.size(), start + BATCH_SIZE));
+            pool.submit(() -> batch.parallelStream().forEach(rename -> {
+                if (!applyRename(rename)) {
+                    failures.incrementAndGet();
+                }
+            })).join();
+            journal.commit(start + batch.size());
+        }
+        if (failures.get() > 0) {
+            logger.warning(failures.get() + " files could not be renamed; see errors above.");
+        }
+    }
+
+    private static boolean applyRename(RenamePlanner.Rename rename) {
+        try {
+            // After a crash mid-batch some moves of the uncommitted batch may already be done.
+            if (Files.notExists(rename.source, LinkOption.NOFOLLOW_LINKS)
+                    && Files.exists(rename.target, LinkOption.NOFOLLOW_LINKS)) {
+                return true;
+            }
+            Files.move(rename.source, rename.target);
+            logger.info("Renamed: " + rename.source.getFileName() + " -> " + rename.target.getFileName());
+            return true;
+        } catch (IOException e) {
+            logger.severe("Error renaming " + rename.source + ": " + e.getMessage());
+            troubleshootError(e);
+            return false;
+        }
+    }
+
+    /** Drains the asynchronous handlers; call before the JVM exits so no records are lost. */
+    static void closeLogs() {
+        for (Handler handler : logger.getHandlers()) {
+            handler.close();
         }
     }
 
@@ -79,12 +188,22 @@ public class FileRenamer {
 /**
  * Enhanced Logging: Added detailed logging using java.util.logging.Logger, including a console and file handler.
  *
- * Recursive File Renaming: Uses Files.walkFileTree to rename files in the specified directory and all its subdirectories.
+ * Recursive File Renaming: RenamePlanner walks the directory tree in parallel with one fork-join task per subdirectory.
+ *
+ * Sanitizing: NameSanitizer uses a lookup table instead of compiling a regex for every file name.
+ *
+ * Collisions: When two names sanitize to the same result, or the result already exists, a numeric suffix is added.
+ *
+ * Modes: --dry-run logs the renames without applying them; --plan journals them so the next run applies exactly that plan.
+ *
+ * Resumable Execution: Renames run in parallel batches recorded in file_rename.journal, so an interrupted run resumes where it stopped.
+ *
+ * Asynchronous Logging: AsyncLogHandler keeps console and file output off the renaming threads.
  *
  * Advanced Error Handling: Provides detailed troubleshooting for specific errors like AccessDeniedException and NoSuchFileException.
  *
  * Usage Instructions: Checks for the correct usage and logs an error if the directory path is not provided.
  *
  * This script is now more robust and provides a comprehensive approach to renaming files and handling errors. 
- * To run this script, save it as FileRenamer.java, compile it with javac FileRenamer.java, and execute it with java FileRenamer <directory_path>.
+ * To run this script, compile the directory with javac *.java, and execute it with java FileRenamer [--dry-run | --plan] <directory_path>.
  */
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Generates a synthetic tree (1M files by default) and times the old single-threaded
+ * walkFileTree + replaceAll scan against RenamePlanner, then times a full journaled rename.
+ * Usage: java FileRenamerBenchmark [files] [filesPerDirectory]
+ */
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+public class FileRenamerBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int files = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int perDirectory = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Path root = Files.createTempDirectory("renamer-bench");
+        // Also initializes FileRenamer's logging, which resets logger levels, before quietening it:
+        // per-file INFO and collision WARNING records would dominate the measurement.
+        Files.deleteIfExists(FileRenamer.JOURNAL);
+        Logger renamerLogger = Logger.getLogger(FileRenamer.class.getName());
+        renamerLogger.setLevel(Level.SEVERE);
+
+        long start = System.nanoTime();
+        generate(root, files, perDirectory);
+        report("generate", files, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        int legacy = legacyScan(root);
+        report("legacy scan", files, System.nanoTime() - start);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        start = System.nanoTime();
+        List<RenamePlanner.Rename> plan = new RenamePlanner(pool).plan(root);
+        report("parallel plan", files, System.nanoTime() - start);
+        pool.shutdown();
+        long collisions = plan.stream().filter(rename -> rename.collision).count();
+        System.out.println("  " + plan.size() + " renames planned (legacy found " + legacy + "), "
+                + collisions + " collisions resolved");
+
+        start = System.nanoTime();
+        FileRenamer.renameFiles(root);
+        report("journaled rename", plan.size(), System.nanoTime() - start);
+        FileRenamer.closeLogs();
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static void generate(Path root, int files, int perDirectory) throws IOException {
+        Path directory = root;
+        for (int i = 0; i < files; i++) {
+            if (i % perDirectory == 0) {
+                int index = i / perDirectory;
+                directory = root.resolve("group " + (index / 100)).resolve("dir#" + (index % 100));
+                Files.createDirectories(directory);
+            }
+            String name;
+            switch (i % 4) {
+                case 0: name = "report " + i + ".txt"; break;
+                case 1: name = "clean_" + i + ".dat"; break;
+                // Sanitizes to the same name as the case 3 file of the same group.
+                case 2: name = "photo_" + (i + 1) + "_(copy).jpg"; break;
+                default: name = "photo_" + i + " (copy).jpg"; break;
+            }
+            Files.createFile(directory.resolve(name));
+        }
+    }
+
+    private static int legacyScan(Path root) throws IOException {
+        AtomicInteger renames = new AtomicInteger();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String originalName = file.getFileName().toString();
+                String newName = originalName.replaceAll("[^A-Za-z0-9._-]", "_");
+                if (!originalName.equals(newName)) {
+                    renames.incrementAndGet();
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return renames.get();
+    }
+
+    private static void report(String phase, int count, long nanos) {
+        System.out.printf("%-17s %,d entries in %,d ms (%,.0f/sec)%n",
+                phase, count, nanos / 1_000_000, count / (nanos / 1e9));
+    }
+}
@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Table-driven replacement for the per-file "[^A-Za-z0-9._-]" regex in FileRenamer.
+ */
+
+public final class NameSanitizer {
+
+    /** Describes the rules below; a journaled plan made under different rules is not resumed. */
+    public static final String RULES = "[A-Za-z0-9._-] kept, other code points replaced by '_'";
+
+    private static final boolean[] ALLOWED = new boolean[128];
+
+    static {
+        for (char c = 'A'; c <= 'Z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            ALLOWED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            ALLOWED[c] = true;
+        }
+        ALLOWED['.'] = true;
+        ALLOWED['_'] = true;
+        ALLOWED['-'] = true;
+    }
+
+    private NameSanitizer() {
+    }
+
+    /**
+     * Replaces every character outside [A-Za-z0-9._-] with '_'. Returns the same instance when the
+     * name is already clean, so the common case allocates nothing.
+     */
+    public static String sanitize(String name) {
+        int length = name.length();
+        int i = 0;
+        while (i < length && isAllowed(name.charAt(i))) {
+            i++;
+        }
+        if (i == length) {
+            return name;
+        }
+        StringBuilder sanitized = new StringBuilder(length).append(name, 0, i);
+        while (i < length) {
+            int codePoint = name.codePointAt(i);
+            // One '_' per code point, matching what the regex did for surrogate pairs.
+            sanitized.append(codePoint < 128 && ALLOWED[codePoint] ? (char) codePoint : '_');
+            i += Character.charCount(codePoint);
+        }
+        return sanitized.toString();
+    }
+
+    private static boolean isAllowed(char c) {
+        return c < 128 && ALLOWED[c];
+    }
+}
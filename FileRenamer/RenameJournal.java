@@ -0,0 +1,129 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Write-ahead journal that lets an interrupted FileRenamer run resume.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The journal starts with a header naming the root directory and the sanitizer rules the plan was
+ * made for, then the full rename plan, followed by one commit record per executed batch holding
+ * the number of renames completed so far. Records are binary (modified UTF-8 paths) so
+ * that names containing tabs or newlines survive. A torn trailing record from a crash is ignored.
+ */
+public class RenameJournal implements AutoCloseable {
+
+    private static final byte HEADER = 'H';
+    private static final byte PLAN = 'P';
+    private static final byte COMMIT = 'C';
+
+    private final FileOutputStream file;
+    private final DataOutputStream out;
+
+    private RenameJournal(Path path, boolean append) throws IOException {
+        this.file = new FileOutputStream(path.toFile(), append);
+        this.out = new DataOutputStream(new BufferedOutputStream(file));
+    }
+
+    /** Creates a new journal holding {@code plan} for {@code root}, replacing any previous one. */
+    public static RenameJournal create(Path path, Path root, List<RenamePlanner.Rename> plan) throws IOException {
+        RenameJournal journal = new RenameJournal(path, false);
+        journal.out.writeByte(HEADER);
+        journal.out.writeUTF(canonical(root).toString());
+        journal.out.writeUTF(NameSanitizer.RULES);
+        for (RenamePlanner.Rename rename : plan) {
+            journal.out.writeByte(PLAN);
+            journal.out.writeUTF(rename.source.toString());
+            journal.out.writeUTF(rename.target.toString());
+            journal.out.writeBoolean(rename.collision);
+        }
+        journal.sync();
+        return journal;
+    }
+
+    /** Reopens an existing journal for appending further commit records. */
+    public static RenameJournal append(Path path) throws IOException {
+        return new RenameJournal(path, true);
+    }
+
+    /** Durably records that the first {@code completed} renames of the plan are done. */
+    public void commit(int completed) throws IOException {
+        out.writeByte(COMMIT);
+        out.writeInt(completed);
+        sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void sync() throws IOException {
+        out.flush();
+        file.getFD().sync();
+    }
+
+    /** Plan and progress read back from a journal. */
+    public static final class State {
+        /** Null if the journal has no header, e.g. one written before headers existed. */
+        public final Path root;
+        public final String rules;
+        public final List<RenamePlanner.Rename> plan;
+        public final int completed;
+
+        State(Path root, String rules, List<RenamePlanner.Rename> plan, int completed) {
+            this.root = root;
+            this.rules = rules;
+            this.plan = plan;
+            this.completed = completed;
+        }
+
+        /** True if this plan was made for {@code directory} under the current sanitizer rules. */
+        public boolean isFor(Path directory) {
+            return root != null && root.equals(canonical(directory)) && NameSanitizer.RULES.equals(rules);
+        }
+    }
+
+    public static State read(Path path) throws IOException {
+        Path root = null;
+        String rules = null;
+        List<RenamePlanner.Rename> plan = new ArrayList<>();
+        int completed = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (true) {
+                int type = in.read();
+                if (type == HEADER) {
+                    root = Paths.get(in.readUTF());
+                    rules = in.readUTF();
+                } else if (type == PLAN) {
+                    Path source = Paths.get(in.readUTF());
+                    Path target = Paths.get(in.readUTF());
+                    plan.add(new RenamePlanner.Rename(source, target, in.readBoolean()));
+                } else if (type == COMMIT) {
+                    completed = in.readInt();
+                } else {
+                    break;
+                }
+            }
+        } catch (EOFException e) {
+            // Torn final record; everything before it is intact.
+        }
+        return new State(root, rules, plan, completed);
+    }
+
+    private static Path canonical(Path directory) {
+        return directory.toAbsolutePath().normalize();
+    }
+}
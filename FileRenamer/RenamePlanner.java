@@ -0,0 +1,118 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Parallel directory walker that computes the renames FileRenamer should perform.
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class RenamePlanner {
+
+    /** One planned move. {@code collision} is set when the sanitized name had to be suffixed. */
+    public static final class Rename {
+        public final Path source;
+        public final Path target;
+        public final boolean collision;
+
+        Rename(Path source, Path target, boolean collision) {
+            this.source = source;
+            this.target = target;
+            this.collision = collision;
+        }
+    }
+
+    private final ForkJoinPool pool;
+
+    public RenamePlanner(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Walks {@code root} with one fork-join task per subdirectory and returns the renames in a
+     * deterministic depth-first order. Symbolic links are not followed, matching walkFileTree.
+     */
+    public List<Rename> plan(Path root) throws IOException {
+        try {
+            return pool.invoke(new DirectoryTask(root));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class DirectoryTask extends RecursiveTask<List<Rename>> {
+        private static final long serialVersionUID = 1L;
+
+        private final Path directory;
+
+        DirectoryTask(Path directory) {
+            this.directory = directory;
+        }
+
+        @Override
+        protected List<Rename> compute() {
+            List<Path> files = new ArrayList<>();
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            Set<String> taken = new HashSet<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    taken.add(entry.getFileName().toString());
+                    if (Files.isDirectory(entry, LinkOption.NOFOLLOW_LINKS)) {
+                        DirectoryTask task = new DirectoryTask(entry);
+                        task.fork();
+                        subdirectories.add(task);
+                    } else {
+                        files.add(entry);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            Collections.sort(files);
+            List<Rename> renames = new ArrayList<>();
+            for (Path file : files) {
+                String originalName = file.getFileName().toString();
+                String newName = NameSanitizer.sanitize(originalName);
+                if (newName.equals(originalName)) {
+                    continue;
+                }
+                boolean collision = taken.contains(newName);
+                if (collision) {
+                    newName = disambiguate(newName, taken);
+                }
+                taken.add(newName);
+                renames.add(new Rename(file, file.resolveSibling(newName), collision));
+            }
+
+            subdirectories.sort((a, b) -> a.directory.compareTo(b.directory));
+            for (DirectoryTask task : subdirectories) {
+                renames.addAll(task.join());
+            }
+            return renames;
+        }
+
+        private static String disambiguate(String name, Set<String> taken) {
+            int dot = name.lastIndexOf('.');
+            String base = dot > 0 ? name.substring(0, dot) : name;
+            String extension = dot > 0 ? name.substring(dot) : "";
+            for (int n = 1; ; n++) {
+                String candidate = base + "_" + n + extension;
+                if (!taken.contains(candidate)) {
+                    return candidate;
+                }
+            }
+        }
+    }
+}
@@ -1,21 +1,25 @@
 /** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
 
-import com.google.cloud.storage.Blob;
-import com.google.cloud.storage.BlobId;
-import com.google.cloud.storage.Bucket;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageOptions;
-import java.nio.file.Files;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
+/**
+ * Downloads an object from GCS through the shared {@link TransferManager} in ../CloudTransfer as
+ * parallel ranged reads, resumable after a failure by simply running again. Compile with that
+ * directory on the source path.
+ */
 public class GCSIntegration {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         Storage storage = StorageOptions.getDefaultInstance().getService();
-        BlobId blobId = BlobId.of("my-bucket", "my-object");
-        Blob blob = storage.get(blobId);
         Path path = Paths.get("file_path");
-        blob.downloadTo(path);
+        try (TransferManager transfers = new TransferManager(new GCSObjectStore(storage), 8L * 1024 * 1024, 8)) {
+            transfers.download("my-bucket", "my-object", path,
+                    (done, total) -> System.out.printf("\rDownloaded %d of %d bytes", done, total));
+        }
+        System.out.println();
         System.out.println("File downloaded from GCS.");
     }
 }
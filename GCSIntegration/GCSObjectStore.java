@@ -0,0 +1,126 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.WriteChannel;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BlobId;
+import com.google.cloud.storage.BlobInfo;
+import com.google.cloud.storage.Storage;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link ObjectStore} for Google Cloud Storage. GCS has no native multipart API, so each part is
+ * written as a temporary object under {@code <key>.parts/<uploadId>/} with a server-side CRC32C
+ * check, and completion composes them (32 sources per compose call, in rounds) into the target.
+ * GCS caps a composite object at 1024 components, counted through every level of composition, so
+ * an upload may have at most that many parts.
+ */
+public class GCSObjectStore implements ObjectStore {
+    private static final int MAX_COMPOSE_SOURCES = 32;
+    private static final int MAX_COMPONENTS = 1024;
+
+    private final Storage storage;
+
+    public GCSObjectStore(Storage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public int maxParts() {
+        return MAX_COMPONENTS;
+    }
+
+    @Override
+    public String createMultipartUpload(String bucket, String key) {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public String uploadPart(String bucket, String key, String uploadId, int partNumber, ByteBuffer data, long crc32c)
+            throws IOException {
+        String partName = partPrefix(key, uploadId) + String.format("%05d", partNumber);
+        BlobInfo info = BlobInfo.newBuilder(bucket, partName).setCrc32c(encodeCrc32c(crc32c)).build();
+        ByteBuffer source = data.duplicate();
+        try (WriteChannel writer = storage.writer(info, Storage.BlobWriteOption.crc32cMatch())) {
+            while (source.hasRemaining()) {
+                writer.write(source);
+            }
+        }
+        return partName;
+    }
+
+    @Override
+    public void completeMultipartUpload(String bucket, String key, String uploadId, List<String> partTags)
+            throws IOException {
+        if (partTags.size() > MAX_COMPONENTS) {
+            throw new IOException("GCS cannot compose " + partTags.size() + " parts into " + bucket + "/" + key
+                    + "; at most " + MAX_COMPONENTS + " are allowed");
+        }
+        List<String> sources = partTags;
+        int round = 0;
+        while (sources.size() > MAX_COMPOSE_SOURCES) {
+            List<String> merged = new ArrayList<>();
+            for (int i = 0; i < sources.size(); i += MAX_COMPOSE_SOURCES) {
+                String target = partPrefix(key, uploadId) + "r" + round + "-" + merged.size();
+                compose(bucket, sources.subList(i, Math.min(sources.size(), i + MAX_COMPOSE_SOURCES)), target);
+                merged.add(target);
+            }
+            sources = merged;
+            round++;
+        }
+        compose(bucket, sources, key);
+        abortMultipartUpload(bucket, key, uploadId);
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucket, String key, String uploadId) {
+        for (Blob blob : storage.list(bucket, Storage.BlobListOption.prefix(partPrefix(key, uploadId))).iterateAll()) {
+            blob.delete();
+        }
+    }
+
+    @Override
+    public long objectSize(String bucket, String key) throws IOException {
+        Blob blob = storage.get(BlobId.of(bucket, key));
+        if (blob == null) {
+            throw new FileNotFoundException(bucket + "/" + key);
+        }
+        return blob.getSize();
+    }
+
+    @Override
+    public void readRange(String bucket, String key, long offset, ByteBuffer target) throws IOException {
+        try (ReadChannel reader = storage.reader(BlobId.of(bucket, key))) {
+            reader.setChunkSize(target.remaining());
+            reader.seek(offset);
+            while (target.hasRemaining()) {
+                if (reader.read(target) < 0) {
+                    throw new EOFException("Short read of " + bucket + "/" + key + " at " + offset);
+                }
+            }
+        }
+    }
+
+    private void compose(String bucket, List<String> sources, String target) {
+        storage.compose(Storage.ComposeRequest.newBuilder()
+                .addSource(sources)
+                .setTarget(BlobInfo.newBuilder(bucket, target).build())
+                .build());
+    }
+
+    private static String partPrefix(String key, String uploadId) {
+        return key + ".parts/" + uploadId + "/";
+    }
+
+    /** GCS expects CRC32C as the base64 of its four big-endian bytes. */
+    private static String encodeCrc32c(long crc32c) {
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(4).putInt((int) crc32c).array());
+    }
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Throughput benchmark for HybridFileCipher: encrypts and decrypts generated files of each size
+ * (1 MB to 1 GB by default; pass sizes such as 10G to go further), verifies the round trip by
+ * digest, and checks that tampered ciphertext and wrong context info are rejected.
+ * Usage: java hybrid.HybridBenchmark [sizes, e.g. 1M,64M,1G,10G] [parallelism]
+ */
+
+package hybrid;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.util.Random;
+
+public final class HybridBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String[] sizes = (args.length > 0 ? args[0] : "1M,16M,256M,1G").split(",");
+        int parallelism = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(3072);
+        KeyPair keys = generator.generateKeyPair();
+        byte[] context = "benchmark".getBytes(StandardCharsets.UTF_8);
+        HybridFileCipher cipher = new HybridFileCipher(HybridFileCipher.DEFAULT_CHUNK_SIZE, parallelism);
+        Path directory = Files.createTempDirectory("hybrid-bench");
+        Path plain = directory.resolve("plain");
+        Path sealed = directory.resolve("sealed");
+        Path opened = directory.resolve("opened");
+        System.out.println("parallelism " + parallelism + ", max heap " + Runtime.getRuntime().maxMemory() / (1 << 20) + " MB");
+
+        try {
+            // Untimed pass over many small chunks, so the AES-GCM intrinsics are compiled before
+            // anything is measured.
+            HybridFileCipher warmUp = new HybridFileCipher(16 << 10, parallelism);
+            generate(plain, 256L << 20);
+            for (int i = 0; i < 2; i++) {
+                warmUp.encrypt(plain, sealed, keys.getPublic(), context);
+                warmUp.decrypt(sealed, opened, keys.getPrivate(), context);
+            }
+
+            for (String size : sizes) {
+                long bytes = parseSize(size.trim());
+                generate(plain, bytes);
+                long start = System.nanoTime();
+                cipher.encrypt(plain, sealed, keys.getPublic(), context);
+                long encrypt = System.nanoTime() - start;
+                start = System.nanoTime();
+                cipher.decrypt(sealed, opened, keys.getPrivate(), context);
+                long decrypt = System.nanoTime() - start;
+                boolean same = MessageDigest.isEqual(digest(plain), digest(opened));
+                System.out.printf("%6s  encrypt %,8.1f MB/s  decrypt %,8.1f MB/s  overhead %,d bytes  %s%n",
+                        size, bytes / 1e6 / (encrypt / 1e9), bytes / 1e6 / (decrypt / 1e9),
+                        Files.size(sealed) - bytes, same ? "round trip ok" : "ROUND TRIP MISMATCH");
+            }
+
+            // The last sealed file is reused for the negative checks.
+            System.out.println("wrong context rejected: "
+                    + rejected(cipher, sealed, opened, keys, "other".getBytes(StandardCharsets.UTF_8)));
+            try (FileChannel channel = FileChannel.open(sealed, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer one = ByteBuffer.allocate(1);
+                long position = channel.size() / 2;
+                channel.read(one, position);
+                one.put(0, (byte) (one.get(0) ^ 1)).rewind();
+                channel.write(one, position);
+            }
+            System.out.println("tampered chunk rejected: " + rejected(cipher, sealed, opened, keys, context)
+                    + ", partial output removed: " + !Files.exists(opened));
+            try (FileChannel channel = FileChannel.open(sealed, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - HybridFileCipher.DEFAULT_CHUNK_SIZE / 2);
+            }
+            System.out.println("truncated file rejected: " + rejected(cipher, sealed, opened, keys, context));
+        } finally {
+            Files.deleteIfExists(plain);
+            Files.deleteIfExists(sealed);
+            Files.deleteIfExists(opened);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static boolean rejected(HybridFileCipher cipher, Path sealed, Path opened, KeyPair keys, byte[] context)
+            throws IOException {
+        try {
+            cipher.decrypt(sealed, opened, keys.getPrivate(), context);
+            return false;
+        } catch (GeneralSecurityException expected) {
+            return true;
+        }
+    }
+
+    private static long parseSize(String size) {
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        long value = Long.parseLong(Character.isDigit(unit) ? size : size.substring(0, size.length() - 1));
+        switch (unit) {
+            case 'K': return value << 10;
+            case 'M': return value << 20;
+            case 'G': return value << 30;
+            default: return value;
+        }
+    }
+
+    /** Writes {@code bytes} of pseudo-random data without holding more than 1 MB in memory. */
+    private static void generate(Path file, long bytes) throws IOException {
+        byte[] block = new byte[1 << 20];
+        new Random(42).nextBytes(block);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (long written = 0; written < bytes; ) {
+                int length = (int) Math.min(block.length, bytes - written);
+                block[0] = (byte) (written >>> 20); // blocks differ, so swapped chunks would be caught
+                ByteBuffer buffer = ByteBuffer.wrap(block, 0, length);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer);
+                }
+            }
+        }
+    }
+
+    private static byte[] digest(Path file) throws IOException, GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    private HybridBenchmark() {}
+}
@@ -64,14 +64,13 @@
 
 package hybrid;
 
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.security.*;
 import java.security.spec.X509EncodedKeySpec;
 import java.security.spec.PKCS8EncodedKeySpec;
-import javax.crypto.Cipher;
-import java.util.Base64;
 
 public final class HybridExample {
     public static void main(String[] args) throws Exception {
@@ -90,18 +89,18 @@ public final class HybridExample {
 
         Path keyFile = Paths.get(args[1]);
         Path inputFile = Paths.get(args[2]);
-        byte[] input = Files.readAllBytes(inputFile);
         Path outputFile = Paths.get(args[3]);
-        byte[] contextInfo = args.length == 5 ? args[4].getBytes() : new byte[0];
+        // Bound to every chunk as associated data; decryption needs the same value.
+        byte[] contextInfo = args.length == 5 ? args[4].getBytes(StandardCharsets.UTF_8) : new byte[0];
 
+        // Streams the file in chunks, so input size is limited only by disk space.
+        HybridFileCipher cipher = new HybridFileCipher();
         if ("encrypt".equals(mode)) {
             PublicKey publicKey = readPublicKey(keyFile);
-            byte[] ciphertext = encrypt(input, publicKey, contextInfo);
-            Files.write(outputFile, ciphertext);
+            cipher.encrypt(inputFile, outputFile, publicKey, contextInfo);
         } else {
             PrivateKey privateKey = readPrivateKey(keyFile);
-            byte[] plaintext = decrypt(input, privateKey, contextInfo);
-            Files.write(outputFile, plaintext);
+            cipher.decrypt(inputFile, outputFile, privateKey, contextInfo);
         }
     }
 
@@ -119,18 +118,6 @@ public final class HybridExample {
         return keyFactory.generatePrivate(spec);
     }
 
-    private static byte[] encrypt(byte[] plaintext, PublicKey publicKey, byte[] contextInfo) throws Exception {
-        Cipher cipher = Cipher.getInstance("RSA");
-        cipher.init(Cipher.ENCRYPT_MODE, publicKey);
-        return cipher.doFinal(plaintext);
-    }
-
-    private static byte[] decrypt(byte[] ciphertext, PrivateKey privateKey, byte[] contextInfo) throws Exception {
-        Cipher cipher = Cipher.getInstance("RSA");
-        cipher.init(Cipher.DECRYPT_MODE, privateKey);
-        return cipher.doFinal(ciphertext);
-    }
-
     private HybridExample() {}
 }
 
@@ -0,0 +1,284 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Streaming hybrid file encryption: RSA-OAEP key encapsulation of a fresh AES-256 data key,
+ * then the file in fixed-size AES-GCM chunks, encrypted and decrypted in parallel.
+ */
+
+package hybrid;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.MGF1ParameterSpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.OAEPParameterSpec;
+import javax.crypto.spec.PSource;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * File layout:
+ *
+ * <pre>
+ *   "HYB1" | version (1) | KEM id (1) | chunk size (int) | nonce prefix (8) |
+ *   encapsulated key length (int) | encapsulated key | chunk 0 | chunk 1 | ...
+ * </pre>
+ *
+ * Every chunk but the last holds exactly {@code chunkSize} plaintext bytes followed by a 16-byte GCM
+ * tag; an empty file still has one (empty) chunk. The nonce of chunk {@code i} is the random
+ * prefix followed by {@code i}, and its additional authenticated data is SHA-256(header || context
+ * info), {@code i} and a final-chunk flag. Chunks therefore cannot be reordered, dropped or
+ * truncated, the header cannot be altered, and decryption with different context info fails.
+ * The counter is 32 bits, so a file may have at most 2^32 chunks; larger inputs are rejected
+ * rather than letting nonces repeat, and need a larger chunk size.
+ *
+ * <p>Because chunk {@code i} always sits at a known offset in both files, workers read and write
+ * chunks independently with positional channel I/O. Each worker owns one input and one output
+ * buffer, so memory use is {@code 2 * parallelism * chunkSize} regardless of file size.
+ */
+public final class HybridFileCipher {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CHUNK_SIZE = 64 << 20;
+    private static final byte[] MAGIC = "HYB1".getBytes(StandardCharsets.US_ASCII);
+    private static final byte VERSION = 1;
+    private static final byte KEM_RSA_OAEP_SHA256 = 1;
+    private static final int TAG_LENGTH = 16;
+    private static final int NONCE_PREFIX_LENGTH = 8;
+    private static final long MAX_CHUNKS = 1L << 32;
+    private static final OAEPParameterSpec OAEP = new OAEPParameterSpec(
+            "SHA-256", "MGF1", MGF1ParameterSpec.SHA256, PSource.PSpecified.DEFAULT);
+
+    private final int chunkSize;
+    private final int parallelism;
+
+    public HybridFileCipher() {
+        this(DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+    }
+
+    public HybridFileCipher(int chunkSize, int parallelism) {
+        if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+    }
+
+    /** Encrypts {@code input} into {@code output} for the holder of the matching private key. */
+    public void encrypt(Path input, Path output, PublicKey publicKey, byte[] contextInfo)
+            throws IOException, GeneralSecurityException {
+        SecureRandom random = new SecureRandom();
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(256, random);
+        SecretKey dataKey = keyGenerator.generateKey();
+
+        Cipher rsa = Cipher.getInstance("RSA/ECB/OAEPPadding");
+        rsa.init(Cipher.ENCRYPT_MODE, publicKey, OAEP, random);
+        byte[] encapsulatedKey = rsa.doFinal(dataKey.getEncoded());
+        byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+        random.nextBytes(noncePrefix);
+        byte[] header = header(chunkSize, noncePrefix, encapsulatedKey);
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long chunks = Math.max(1, (in.size() + chunkSize - 1) / chunkSize);
+            if (chunks > MAX_CHUNKS) {
+                throw new IllegalArgumentException("Input of " + in.size() + " bytes needs more than "
+                        + MAX_CHUNKS + " chunks of " + chunkSize + " bytes; use a larger chunk size");
+            }
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                out.write(ByteBuffer.wrap(header), 0);
+                process(Cipher.ENCRYPT_MODE, dataKey, noncePrefix, aadPrefix(header, contextInfo), chunks,
+                        in, 0, chunkSize, out, header.length, chunkSize + TAG_LENGTH);
+            }
+        }
+    }
+
+    /**
+     * Decrypts a file written by {@link #encrypt}. If any chunk fails authentication the partial
+     * output is deleted and an {@link javax.crypto.AEADBadTagException} is thrown.
+     */
+    public void decrypt(Path input, Path output, PrivateKey privateKey, byte[] contextInfo)
+            throws IOException, GeneralSecurityException {
+        boolean complete = false;
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer fixed = ByteBuffer.allocate(MAGIC.length + 2 + 4 + NONCE_PREFIX_LENGTH + 4);
+            readFully(in, fixed, 0);
+            fixed.flip();
+            byte[] magic = new byte[MAGIC.length];
+            fixed.get(magic);
+            if (!MessageDigest.isEqual(magic, MAGIC) || fixed.get() != VERSION || fixed.get() != KEM_RSA_OAEP_SHA256) {
+                throw new GeneralSecurityException("Not a supported hybrid-encrypted file");
+            }
+            int storedChunkSize = fixed.getInt();
+            byte[] noncePrefix = new byte[NONCE_PREFIX_LENGTH];
+            fixed.get(noncePrefix);
+            int keyLength = fixed.getInt();
+            if (storedChunkSize <= 0 || storedChunkSize > MAX_CHUNK_SIZE || keyLength <= 0 || keyLength > 8192) {
+                throw new GeneralSecurityException("Corrupt hybrid-encrypted header");
+            }
+            ByteBuffer keyBuffer = ByteBuffer.allocate(keyLength);
+            readFully(in, keyBuffer, fixed.capacity());
+            byte[] encapsulatedKey = keyBuffer.array();
+
+            Cipher rsa = Cipher.getInstance("RSA/ECB/OAEPPadding");
+            rsa.init(Cipher.DECRYPT_MODE, privateKey, OAEP);
+            SecretKey dataKey = new SecretKeySpec(rsa.doFinal(encapsulatedKey), "AES");
+
+            byte[] header = header(storedChunkSize, noncePrefix, encapsulatedKey);
+            long body = in.size() - header.length;
+            long chunks = (body + storedChunkSize + TAG_LENGTH - 1) / (storedChunkSize + TAG_LENGTH);
+            if (chunks < 1 || body - chunks * TAG_LENGTH < 0) {
+                throw new GeneralSecurityException("Truncated hybrid-encrypted file");
+            }
+            if (chunks > MAX_CHUNKS) {
+                throw new GeneralSecurityException("Corrupt hybrid-encrypted file: too many chunks");
+            }
+            process(Cipher.DECRYPT_MODE, dataKey, noncePrefix, aadPrefix(header, contextInfo), chunks,
+                    in, header.length, storedChunkSize + TAG_LENGTH, out, 0, storedChunkSize);
+            complete = true;
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(output);
+            }
+        }
+    }
+
+    /** Runs {@code chunks} chunk transforms on up to {@code parallelism} threads. */
+    private void process(int mode, SecretKey key, byte[] noncePrefix, byte[] aadPrefix, long chunks,
+            FileChannel in, long inBase, int inStride, FileChannel out, long outBase, int outStride)
+            throws IOException, GeneralSecurityException {
+        long inputSize = in.size();
+        AtomicLong nextChunk = new AtomicLong();
+        AtomicBoolean failed = new AtomicBoolean();
+        int workers = (int) Math.min(parallelism, chunks);
+        ExecutorService pool = Executors.newFixedThreadPool(workers, task -> {
+            Thread thread = new Thread(task, "hybrid-cipher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Void>> results = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                results.add(pool.submit(() -> {
+                    Cipher gcm = Cipher.getInstance("AES/GCM/NoPadding");
+                    ByteBuffer source = ByteBuffer.allocate(Math.max(inStride, outStride));
+                    ByteBuffer target = ByteBuffer.allocate(Math.max(inStride, outStride));
+                    byte[] nonce = new byte[12];
+                    System.arraycopy(noncePrefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+                    byte[] aad = new byte[aadPrefix.length + 9];
+                    System.arraycopy(aadPrefix, 0, aad, 0, aadPrefix.length);
+                    long chunk;
+                    while (!failed.get() && (chunk = nextChunk.getAndIncrement()) < chunks) {
+                        long inPosition = inBase + chunk * inStride;
+                        int length = (int) Math.min(inStride, inputSize - inPosition);
+                        source.clear().limit(length);
+                        readFully(in, source, inPosition);
+                        source.flip();
+
+                        putInt(nonce, NONCE_PREFIX_LENGTH, (int) chunk); // chunk < MAX_CHUNKS, no wrap
+                        putLong(aad, aadPrefix.length, chunk);
+                        aad[aad.length - 1] = (byte) (chunk == chunks - 1 ? 1 : 0);
+                        gcm.init(mode, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+                        gcm.updateAAD(aad);
+                        target.clear();
+                        gcm.doFinal(source, target);
+                        target.flip();
+                        long outPosition = outBase + chunk * outStride;
+                        while (target.hasRemaining()) {
+                            outPosition += out.write(target, outPosition);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failed.set(true);
+                    Throwable cause = e.getCause();
+                    if (cause instanceof GeneralSecurityException) {
+                        throw (GeneralSecurityException) cause;
+                    }
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                } catch (InterruptedException e) {
+                    failed.set(true);
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        if (nextChunk.get() < chunks) {
+            throw new IOException("Not all chunks were processed");
+        }
+    }
+
+    private static byte[] header(int chunkSize, byte[] noncePrefix, byte[] encapsulatedKey) {
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 2 + 4 + NONCE_PREFIX_LENGTH + 4 + encapsulatedKey.length);
+        header.put(MAGIC).put(VERSION).put(KEM_RSA_OAEP_SHA256).putInt(chunkSize).put(noncePrefix)
+                .putInt(encapsulatedKey.length).put(encapsulatedKey);
+        return header.array();
+    }
+
+    private static byte[] aadPrefix(byte[] header, byte[] contextInfo) throws GeneralSecurityException {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(header);
+        digest.update(contextInfo);
+        return digest.digest();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+            position += read;
+        }
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        for (int i = 3; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void putLong(byte[] bytes, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            bytes[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
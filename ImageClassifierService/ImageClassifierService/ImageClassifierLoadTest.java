@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ *
+ * Unauthorized use, distribution, or reproduction of this software and code is strictly prohibited without written consent from the author.
+ */
+
+package com.devinroyal.imageclassifier;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local load generator for ImageClassifierService: fires N concurrent multipart uploads (1000 by
+ * default) at /predict and reports status codes and latency percentiles. Every request must get
+ * an answer (200, 429 or 504); transport failures mean responses were lost.
+ * Usage: java ImageClassifierLoadTest [url] [concurrentUploads] [timeoutMs]
+ */
+public class ImageClassifierLoadTest {
+
+    private static final String BOUNDARY = "----ImageClassifierLoadTest";
+
+    public static void main(String[] args) throws IOException {
+        String url = args.length > 0 ? args[0] : "http://localhost:7000/predict";
+        int uploads = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        String timeoutMs = args.length > 2 ? args[2] : "5000";
+
+        byte[] body = multipartBody(sampleImage());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Map<String, AtomicInteger> outcomes = new ConcurrentHashMap<>();
+        long[] latencies = new long[uploads];
+
+        long start = System.nanoTime();
+        CompletableFuture<?>[] requests = new CompletableFuture<?>[uploads];
+        for (int i = 0; i < uploads; i++) {
+            int index = i;
+            HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .header("X-Request-Timeout-Ms", timeoutMs)
+                    .timeout(Duration.ofSeconds(60))
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+            long sent = System.nanoTime();
+            requests[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        String outcome = failure != null
+                                ? "failed: " + failure.getClass().getSimpleName()
+                                : Integer.toString(response.statusCode());
+                        outcomes.computeIfAbsent(outcome, key -> new AtomicInteger()).incrementAndGet();
+                        return null;
+                    });
+        }
+        CompletableFuture.allOf(requests).join();
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%d uploads in %d ms (%.0f req/s)%n", uploads, elapsed / 1_000_000,
+                uploads / (elapsed / 1e9));
+        System.out.println("Outcomes: " + new TreeMap<>(outcomes));
+        System.out.printf("Latency ms p50=%d p90=%d p99=%d max=%d%n", percentile(latencies, 50),
+                percentile(latencies, 90), percentile(latencies, 99), latencies[uploads - 1] / 1_000_000);
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)] / 1_000_000;
+    }
+
+    private static byte[] sampleImage() throws IOException {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", png);
+        return png.toByteArray();
+    }
+
+    private static byte[] multipartBody(byte[] image) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        body.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"image\"; filename=\"sample.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        body.write(image);
+        body.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return body.toByteArray();
+    }
+}
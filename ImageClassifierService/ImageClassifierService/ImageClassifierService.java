@@ -7,50 +7,64 @@
 
 package com.devinroyal.imageclassifier;
 
-import ai.djl.Model;
-import ai.djl.ModelException;
-import ai.djl.inference.Predictor;
+import ai.djl.MalformedModelException;
 import ai.djl.modality.Classifications;
 import ai.djl.modality.cv.Image;
 import ai.djl.modality.cv.ImageFactory;
-import ai.djl.modality.cv.transform.Resize;
 import ai.djl.modality.cv.transform.ToTensor;
 import ai.djl.ndarray.NDList;
-import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
+import com.devinroyal.modelregistry.Deadline;
+import com.devinroyal.modelregistry.InferenceExecutor;
+import com.devinroyal.modelregistry.InferenceMetrics;
+import com.devinroyal.modelregistry.ModelRegistry;
+import com.devinroyal.modelregistry.ModelSpec;
+import com.devinroyal.modelregistry.PredictorPool;
 import io.javalin.Javalin;
+import io.javalin.http.Context;
 import io.javalin.http.UploadedFile;
-import io.prometheus.client.Gauge;
 import io.prometheus.client.exporter.HTTPServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 
 public class ImageClassifierService {
 
     private static final Logger logger = LoggerFactory.getLogger(ImageClassifierService.class);
     private static final String MODEL_DIR = "models/image-classifier";
-    private static ExecutorService executor = Executors.newCachedThreadPool();
+    private static final String MODEL_NAME = "image-classifier-model";
+    private static final String MODEL_VERSION = "1";
+    private static final int INFERENCE_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int PREPROCESS_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int IMAGE_SIZE = 224;
+    private static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(30);
 
     // Prometheus Metrics
-    private static final Gauge requestLatency = Gauge.build()
-        .name("image_classifier_request_latency")
-        .help("Time taken to process a request")
-        .register();
-    private static final Gauge errorCount = Gauge.build()
-        .name("image_classifier_error_count")
-        .help("Number of errors encountered")
-        .register();
-
-    public static void main(String[] args) {
+    private static final InferenceMetrics metrics = new InferenceMetrics("image_classifier");
+    private static final InferenceExecutor executor =
+            new InferenceExecutor("image-classifier", INFERENCE_THREADS, QUEUE_CAPACITY, metrics);
+    // Decoding and resizing run on their own pool so they never hold up an inference thread.
+    private static final InferenceExecutor preprocessor = new InferenceExecutor("image-preprocess",
+            PREPROCESS_THREADS, QUEUE_CAPACITY, new InferenceMetrics("image_classifier_preprocess"));
+
+    private static PredictorPool<Image, Classifications> predictors;
+
+    public static void main(String[] args) throws IOException, MalformedModelException {
         startMonitoring();
+        loadModel();
         startServer();
     }
 
@@ -63,6 +77,13 @@ public class ImageClassifierService {
         }
     }
 
+    /** Loads the model once, before traffic arrives, with one warm predictor per inference thread. */
+    private static void loadModel() throws IOException, MalformedModelException {
+        ModelSpec<Image, Classifications> spec = new ModelSpec<>(MODEL_NAME, MODEL_VERSION,
+                Paths.get(MODEL_DIR), new ClassifierTranslator(), INFERENCE_THREADS);
+        predictors = ModelRegistry.shared().load(spec);
+    }
+
     private static void startServer() {
         Javalin app = Javalin.create().start(7000);
         logger.info("Image Classifier Service started on port 7000");
@@ -74,44 +95,72 @@ public class ImageClassifierService {
                 return;
             }
 
-            executor.submit(() -> {
-                Gauge.Timer timer = requestLatency.startTimer(); // Start timing
-                try {
-                    String prediction = predictImage(file);
-                    ctx.result("Prediction: " + prediction);
-                } catch (Exception e) {
-                    errorCount.inc(); // Increment error counter
-                    logger.error("Prediction failed", e);
-                    ctx.result("Error processing image").status(500);
-                } finally {
-                    timer.close(); // End timing
-                }
-            });
+            Deadline deadline = Deadline.after(requestTimeout(ctx));
+            byte[] upload = file.getContent().readAllBytes();
+            CompletableFuture<Image> image;
+            try {
+                image = preprocessor.submit("preprocess", deadline, () -> preprocess(upload));
+            } catch (RejectedExecutionException e) {
+                ctx.result("Server busy, retry later").status(429);
+                return;
+            }
+            // The request stays open until this future completes, so the response is never lost.
+            ctx.future(() -> image
+                    .thenCompose(img -> executor.submit(predictors.getKey(), deadline, () -> predictors.predict(img)))
+                    .thenAccept(result -> ctx.result("Prediction: " + result.best().getClassName()))
+                    .exceptionally(failure -> {
+                        respondToFailure(ctx, failure);
+                        return null;
+                    }));
         });
     }
 
-    private static String predictImage(UploadedFile file) throws IOException, ModelException, TranslateException {
-        Path modelPath = Paths.get(MODEL_DIR);
-        try (Model model = Model.newInstance(modelPath, "image-classifier-model")) {
-            Image img = ImageFactory.getInstance().fromInputStream(file.getContent());
-            Translator<Image, Classifications> translator = new Translator<>() {
-                @Override
-                public NDList processInput(TranslatorContext ctx, Image input) {
-                    input.getTransform().add(new Resize(224, 224)).add(new ToTensor());
-                    return new NDList(input.toNDArray(ctx.getNDManager()));
-                }
-
-                @Override
-                public Classifications processOutput(TranslatorContext ctx, NDList list) {
-                    List<String> labels = List.of("Cat", "Dog", "Bird", "Other");
-                    return new Classifications(labels, list.singletonOrThrow());
-                }
-            };
-
-            try (Predictor<Image, Classifications> predictor = model.newPredictor(translator)) {
-                Classifications result = predictor.predict(img);
-                return result.best().getClassName();
-            }
+    /** Clients may shorten (never extend past MAX_TIMEOUT) the deadline with X-Request-Timeout-Ms. */
+    private static Duration requestTimeout(Context ctx) {
+        String header = ctx.header(TIMEOUT_HEADER);
+        if (header == null) {
+            return DEFAULT_TIMEOUT;
+        }
+        try {
+            Duration requested = Duration.ofMillis(Long.parseLong(header.trim()));
+            return requested.compareTo(MAX_TIMEOUT) > 0 ? MAX_TIMEOUT : requested;
+        } catch (NumberFormatException e) {
+            return DEFAULT_TIMEOUT;
+        }
+    }
+
+    private static void respondToFailure(Context ctx, Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        if (cause instanceof RejectedExecutionException) {
+            ctx.result("Server busy, retry later").status(429);
+        } else if (cause instanceof TimeoutException) {
+            ctx.result("Request deadline exceeded").status(504);
+        } else {
+            logger.error("Prediction failed", cause);
+            ctx.result("Error processing image").status(500);
+        }
+    }
+
+    private static Image preprocess(byte[] upload) throws IOException {
+        Image img = ImageFactory.getInstance().fromInputStream(new ByteArrayInputStream(upload));
+        return img.resize(IMAGE_SIZE, IMAGE_SIZE, false);
+    }
+
+    private static final class ClassifierTranslator implements Translator<Image, Classifications> {
+        private static final List<String> LABELS = List.of("Cat", "Dog", "Bird", "Other");
+
+        private final ToTensor toTensor = new ToTensor();
+
+        /** Images arrive already decoded and resized by {@link #preprocess}. */
+        @Override
+        public NDList processInput(TranslatorContext ctx, Image input) {
+            return new NDList(toTensor.transform(input.toNDArray(ctx.getNDManager())));
+        }
+
+        @Override
+        public Classifications processOutput(TranslatorContext ctx, NDList list) {
+            return new Classifications(LABELS, list.singletonOrThrow());
         }
     }
 }
@@ -128,10 +177,14 @@ public class ImageClassifierService {
  * Key Features in This Program
  *
  * Modular Design:
- * The prediction logic is isolated within predictImage() for better maintainability.
+ * The /predict handler only chains stages: preprocess() decodes the upload, then the shared PredictorPool runs the model.
  *
  * Optimized Input Handling:
- * Images are resized to 224x224, which is standard for many pre-trained models.
+ * Images are decoded and resized to 224x224 on a dedicated preprocessing pool, separate from inference.
+ *
+ * Asynchronous Responses:
+ * The handler returns a CompletableFuture through ctx.future, so each response is written before the request completes.
+ * Every request carries a deadline (X-Request-Timeout-Ms, default 5s); work still queued when it passes is dropped and the client gets a 504.
  *
  * Error Handling:
  * Provides proper HTTP status codes and logs detailed error messages.
@@ -141,12 +194,13 @@ public class ImageClassifierService {
  *
  * Logging Metrics:
  * Prometheus tracks:
- * - image_classifier_request_latency: Measures processing time per request.
- * - image_classifier_error_count: Counts prediction errors.
+ * - image_classifier_request_latency_seconds: Histogram of time per request from submission to result, including queue wait.
+ * - image_classifier_errors_total: Counts prediction errors.
+ * - image_classifier_rejected_total / image_classifier_queue_depth: Backpressure on the inference queue.
  *
  * Parallelized Requests:
- * Used Executors.newCachedThreadPool() for a flexible and scalable thread pool.
+ * A bounded InferenceExecutor runs predictions; when its queue is full requests get a 429.
  *
  * Advanced Model Management:
- * Supports dynamic loading of models by allowing seamless loading from the MODEL_DIR.
+ * The model is loaded once from MODEL_DIR through the shared ModelRegistry and served by a pool of warm predictors.
  */
@@ -0,0 +1,268 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Line-based chat server over TCP: each connection is one chat session, each line received is a
+ * message and is answered with one line from the {@link IntentEngine}. Sending "exit" or closing
+ * the connection ends the session. Try it with {@code nc localhost <port>}.
+ *
+ * <p>Every session runs on its own thread with plain blocking I/O. On Java 21 and later those are
+ * virtual threads, so tens of thousands of mostly idle sessions cost little more than their
+ * buffers; on older runtimes the server falls back to a cached pool of platform threads.
+ */
+public class ChatServer implements AutoCloseable {
+
+  private static final int MAX_LINE = 4096;
+  private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1000;
+
+  private final IntentEngine engine;
+  private final ServerSocket serverSocket;
+  private final ExecutorService sessions;
+  private final boolean virtualThreads;
+  private final Map<Integer, Session> active = new ConcurrentHashMap<>();
+  private final AtomicInteger sessionIds = new AtomicInteger();
+  private final AtomicLong messages = new AtomicLong();
+  private final Thread acceptor;
+  private volatile boolean closed;
+
+  /** One connected client. */
+  public static final class Session {
+    private final int id;
+    private final String remote;
+    private final Socket socket;
+    private final long openedAt = System.currentTimeMillis();
+    private volatile long messages;
+    private volatile String lastIntent;
+
+    Session(int id, Socket socket) {
+      this.id = id;
+      this.socket = socket;
+      this.remote = String.valueOf(socket.getRemoteSocketAddress());
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public String getRemote() {
+      return remote;
+    }
+
+    public long getOpenedAt() {
+      return openedAt;
+    }
+
+    public long getMessages() {
+      return messages;
+    }
+
+    /** Name of the intent that answered the last message, or null if it fell back. */
+    public String getLastIntent() {
+      return lastIntent;
+    }
+  }
+
+  /** Starts listening on {@code port} (0 picks a free port) on all interfaces. */
+  public ChatServer(IntentEngine engine, int port) throws IOException {
+    this(engine, new InetSocketAddress(port));
+  }
+
+  public ChatServer(IntentEngine engine, InetSocketAddress address) throws IOException {
+    this.engine = engine;
+    this.serverSocket = new ServerSocket();
+    serverSocket.setReuseAddress(true);
+    serverSocket.bind(address, 1024);
+    ExecutorService virtual = virtualThreadExecutor();
+    this.virtualThreads = virtual != null;
+    this.sessions = virtual != null ? virtual : Executors.newCachedThreadPool(daemonThreads("chat-session-"));
+    this.acceptor = daemonThreads("chat-acceptor-").newThread(this::acceptLoop);
+    acceptor.start();
+  }
+
+  public int getPort() {
+    return serverSocket.getLocalPort();
+  }
+
+  public boolean usesVirtualThreads() {
+    return virtualThreads;
+  }
+
+  /** Sessions currently connected. */
+  public Map<Integer, Session> getSessions() {
+    return Collections.unmodifiableMap(active);
+  }
+
+  /** Messages answered since the server started. */
+  public long getMessageCount() {
+    return messages.get();
+  }
+
+  /** Stops accepting, disconnects every session and waits briefly for their threads to finish. */
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      // Already closed.
+    }
+    sessions.shutdownNow();
+    // Blocking socket reads ignore interrupts; closing the sockets releases them.
+    for (Session session : active.values()) {
+      closeQuietly(session.socket);
+    }
+    try {
+      acceptor.join(1000);
+      sessions.awaitTermination(2, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void acceptLoop() {
+    long backoffMillis = 0;
+    while (!closed) {
+      Socket socket;
+      try {
+        socket = serverSocket.accept();
+      } catch (IOException e) {
+        if (closed) {
+          break;
+        }
+        System.err.println("Chat server accept failed: " + e.getMessage());
+        // Usually out of file descriptors: retrying at once would only spin until one is freed.
+        backoffMillis = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, Math.max(10, backoffMillis * 2));
+        try {
+          Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+          return;
+        }
+        continue;
+      }
+      backoffMillis = 0;
+      Session session = new Session(sessionIds.incrementAndGet(), socket);
+      active.put(session.id, session);
+      try {
+        sessions.execute(() -> handle(socket, session));
+      } catch (RuntimeException e) {
+        active.remove(session.id);
+        closeQuietly(socket);
+      }
+    }
+  }
+
+  private void handle(Socket socket, Session session) {
+    try (socket;
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+      socket.setTcpNoDelay(true);
+      StringBuilder buffer = new StringBuilder();
+      String line;
+      while ((line = readLine(in, buffer)) != null) {
+        if (line.trim().equalsIgnoreCase("exit")) {
+          out.write("Bot: Goodbye!\n");
+          out.flush();
+          break;
+        }
+        IntentEngine.Match match = engine.match(line);
+        session.lastIntent = match == null ? null : match.getIntent().getName();
+        session.messages++;
+        messages.incrementAndGet();
+        out.write("Bot: ");
+        out.write(match == null ? engine.getFallback() : match.getIntent().getResponse());
+        out.write('\n');
+        // Batch the replies to pipelined messages into one write.
+        if (!in.ready()) {
+          out.flush();
+        }
+      }
+      out.flush();
+    } catch (SocketException e) {
+      // Client went away or the server is closing.
+    } catch (IOException e) {
+      if (!closed) {
+        System.err.println("Chat session " + session.id + " failed: " + e.getMessage());
+      }
+    } finally {
+      active.remove(session.id);
+    }
+  }
+
+  /**
+   * The next line without its terminator, or null at end of stream. Only the first MAX_LINE
+   * characters are kept; the rest is discarded as it arrives, so a client that never sends a
+   * newline cannot make the session buffer without bound.
+   */
+  private static String readLine(Reader in, StringBuilder line) throws IOException {
+    line.setLength(0);
+    int c = in.read();
+    if (c == -1) {
+      return null;
+    }
+    for (; c != -1 && c != '\n'; c = in.read()) {
+      if (line.length() < MAX_LINE) {
+        line.append((char) c);
+      }
+    }
+    if (line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+      line.setLength(line.length() - 1);
+    }
+    return line.toString();
+  }
+
+  /** Executors.newVirtualThreadPerTaskExecutor() when the runtime has it, otherwise null. */
+  private static ExecutorService virtualThreadExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  private static ThreadFactory daemonThreads(String prefix) {
+    AtomicInteger count = new AtomicInteger();
+    return task -> {
+      Thread thread = new Thread(task, prefix + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // Nothing left to release.
+    }
+  }
+
+  /** Serves the given engine until the process is stopped; for local use only, binds to loopback. */
+  public static void serve(IntentEngine engine, int port) throws IOException, InterruptedException {
+    try (ChatServer server = new ChatServer(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+      System.out.println("Chat server listening on port " + server.getPort()
+          + (server.usesVirtualThreads() ? " (virtual threads)" : " (platform threads)"));
+      Thread.currentThread().join();
+    }
+  }
+}
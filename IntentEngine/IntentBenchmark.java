@@ -0,0 +1,199 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+// Messages/sec of IntentEngine with 50k synthetic intents, against the HashMap/contains loop the
+// chatbots used before, and end to end through ChatServer with many concurrent sessions.
+// Usage: java IntentBenchmark [intents] [sessions] [messagesPerSession]
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class IntentBenchmark {
+
+    private static final int MESSAGES = 100_000;
+    private static final int LEGACY_MESSAGES = 200;
+    private static final int TOKENS_PER_MESSAGE = 12;
+
+    public static void main(String[] args) throws Exception {
+        int intentCount = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int sessions = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int perSession = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        Random random = new Random(7);
+
+        Set<String> seen = new HashSet<>();
+        List<String> vocabulary = new ArrayList<>();
+        while (vocabulary.size() < intentCount * 3 / 5) {
+            String word = randomWord(random, 4, 10);
+            if (seen.add(word)) vocabulary.add(word);
+        }
+        List<String> filler = new ArrayList<>();
+        while (filler.size() < 5_000) {
+            String word = randomWord(random, 2, 8);
+            if (seen.add(word)) filler.add(word);
+        }
+
+        IntentEngine.Builder builder = IntentEngine.builder();
+        Map<String, String> legacy = new HashMap<>();
+        List<String> phrases = new ArrayList<>();
+        for (int i = 0; i < intentCount; i++) {
+            String[] keywords = new String[1 + random.nextInt(2)];
+            for (int k = 0; k < keywords.length; k++) {
+                StringBuilder phrase = new StringBuilder(vocabulary.get(random.nextInt(vocabulary.size())));
+                for (int t = random.nextInt(3); t > 0; t--) {
+                    phrase.append(' ').append(vocabulary.get(random.nextInt(vocabulary.size())));
+                }
+                keywords[k] = phrase.toString();
+                phrases.add(keywords[k]);
+                legacy.putIfAbsent(keywords[k], "response " + i);
+            }
+            builder.intent("intent" + i, "response " + i, random.nextInt(10), keywords);
+        }
+        long start = System.nanoTime();
+        IntentEngine engine = builder.build();
+        System.out.printf("%,d intents (%,d phrases) compiled in %.0f ms; %d CPU(s)%n",
+            intentCount, phrases.size(), (System.nanoTime() - start) / 1e6, Runtime.getRuntime().availableProcessors());
+
+        // Filler words around one or two keyword phrases; a tenth of the phrase words carry a typo.
+        String[] messages = new String[MESSAGES];
+        for (int m = 0; m < MESSAGES; m++) {
+            List<String> tokens = new ArrayList<>();
+            while (tokens.size() < TOKENS_PER_MESSAGE) {
+                if (random.nextInt(6) == 0) {
+                    for (String word : phrases.get(random.nextInt(phrases.size())).split(" ")) {
+                        tokens.add(random.nextInt(10) == 0 ? typo(random, word) : word);
+                    }
+                } else {
+                    tokens.add(filler.get(random.nextInt(filler.size())));
+                }
+            }
+            messages[m] = String.join(" ", tokens);
+        }
+
+        System.out.println("Legacy loop (contains() over every key):");
+        start = System.nanoTime();
+        int legacyHits = 0;
+        for (int m = 0; m < LEGACY_MESSAGES; m++) {
+            for (String key : legacy.keySet()) {
+                if (messages[m].contains(key)) {
+                    legacyHits++;
+                    break;
+                }
+            }
+        }
+        report("legacy", LEGACY_MESSAGES, System.nanoTime() - start);
+
+        System.out.println("IntentEngine.match, one thread:");
+        int matched = 0;
+        int corrected = 0;
+        for (int round = 0; round < 3; round++) {
+            matched = 0;
+            corrected = 0;
+            start = System.nanoTime();
+            for (String message : messages) {
+                IntentEngine.Match match = engine.match(message);
+                if (match != null) {
+                    matched++;
+                    if (match.isCorrected()) corrected++;
+                }
+            }
+            report("round " + (round + 1), MESSAGES, System.nanoTime() - start);
+        }
+        System.out.printf("  %,d of %,d messages matched (%,d through a spelling correction); legacy matched %d of %d%n",
+            matched, MESSAGES, corrected, legacyHits, LEGACY_MESSAGES);
+
+        System.out.println("ChatServer, " + sessions + " concurrent sessions over loopback:");
+        try (ChatServer server = new ChatServer(engine, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))) {
+            for (int round = 0; round < 2; round++) {
+                long nanos = runClients(server.getPort(), messages, engine, sessions, perSession);
+                report((server.usesVirtualThreads() ? "virtual" : "platform") + " threads, round " + (round + 1),
+                    (long) sessions * perSession, nanos);
+            }
+        }
+    }
+
+    private static long runClients(int port, String[] messages, IntentEngine engine, int sessions, int perSession)
+            throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(sessions);
+        AtomicLong wrong = new AtomicLong();
+        List<Thread> clients = new ArrayList<>();
+        for (int c = 0; c < sessions; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    socket.setTcpNoDelay(true);
+                    OutputStream out = socket.getOutputStream();
+                    BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                    ready.countDown();
+                    go.await();
+                    for (int i = 0; i < perSession; i++) {
+                        String message = messages[(client * perSession + i) % messages.length];
+                        out.write((message + "\n").getBytes(StandardCharsets.UTF_8));
+                        out.flush();
+                        String reply = in.readLine();
+                        if (!("Bot: " + engine.respond(message)).equals(reply)) {
+                            wrong.incrementAndGet();
+                        }
+                    }
+                    out.write("exit\n".getBytes(StandardCharsets.UTF_8));
+                } catch (IOException | InterruptedException e) {
+                    wrong.incrementAndGet();
+                    ready.countDown();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            clients.add(thread);
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        done.await();
+        long nanos = System.nanoTime() - start;
+        if (wrong.get() > 0) {
+            throw new IllegalStateException(wrong.get() + " replies were wrong or missing");
+        }
+        return nanos;
+    }
+
+    private static String randomWord(Random random, int min, int max) {
+        char[] letters = new char[min + random.nextInt(max - min + 1)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+
+    private static String typo(Random random, String word) {
+        int i = random.nextInt(word.length());
+        switch (random.nextInt(3)) {
+            case 0:
+                return word.substring(0, i) + word.substring(i + 1);
+            case 1:
+                return word.substring(0, i) + (char) ('a' + random.nextInt(26)) + word.substring(i);
+            default:
+                return word.substring(0, i) + (char) ('a' + random.nextInt(26)) + word.substring(i + 1);
+        }
+    }
+
+    private static void report(String label, long messages, long nanos) {
+        System.out.printf("  %-30s %,9d messages in %,9.1f ms  %,12.0f messages/sec%n",
+            label, messages, nanos / 1e6, messages / (nanos / 1e9));
+    }
+}
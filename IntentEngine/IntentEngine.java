@@ -0,0 +1,502 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyword intent matcher shared by the chatbots. Every intent has one or more keyword phrases,
+ * a response and a priority. Input and phrases are split into lowercase alphanumeric tokens and
+ * phrases match whole tokens only, so "help" matches "help me" but not "helpful".
+ *
+ * <p>Matching is one Aho-Corasick pass over the input tokens, so the cost depends on the input
+ * length and the number of matches, not on how many intents there are. Input tokens that are not
+ * in the keyword vocabulary are first corrected to a vocabulary word at edit distance one (an
+ * insertion, deletion, substitution or transposition of adjacent letters) when exactly one
+ * such word exists; only tokens of {@link #FUZZY_MIN_LENGTH} letters or more are corrected.
+ *
+ * <p>When several phrases match, the winner is chosen deterministically by, in order: higher
+ * priority, exact over corrected, more tokens, earlier position, earlier registration.
+ *
+ * <p>Instances are immutable and safe to share between threads.
+ */
+public final class IntentEngine {
+
+  public static final String DEFAULT_FALLBACK = "I'm sorry, I don't understand that. Can you please rephrase?";
+
+  static final int FUZZY_MIN_LENGTH = 4;
+
+  /** A named intent and the response given when one of its phrases matches. */
+  public static final class Intent {
+    private final String name;
+    private final String response;
+    private final int priority;
+    private final int order;
+
+    Intent(String name, String response, int priority, int order) {
+      this.name = name;
+      this.response = response;
+      this.priority = priority;
+      this.order = order;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public String getResponse() {
+      return response;
+    }
+
+    public int getPriority() {
+      return priority;
+    }
+
+    @Override
+    public String toString() {
+      return name;
+    }
+  }
+
+  /** A phrase found in the input; token positions are half-open. */
+  public static final class Match {
+    private final Intent intent;
+    private final String phrase;
+    private final int start;
+    private final int end;
+    private final boolean corrected;
+
+    Match(Intent intent, String phrase, int start, int end, boolean corrected) {
+      this.intent = intent;
+      this.phrase = phrase;
+      this.start = start;
+      this.end = end;
+      this.corrected = corrected;
+    }
+
+    public Intent getIntent() {
+      return intent;
+    }
+
+    public String getPhrase() {
+      return phrase;
+    }
+
+    public int getStart() {
+      return start;
+    }
+
+    public int getEnd() {
+      return end;
+    }
+
+    /** True if a spelling correction was needed for the phrase to match. */
+    public boolean isCorrected() {
+      return corrected;
+    }
+
+    @Override
+    public String toString() {
+      return intent.name + "[" + phrase + " @" + start + (corrected ? ", corrected" : "") + "]";
+    }
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /** Collects intents; {@link #build()} compiles them into an engine. */
+  public static final class Builder {
+    private final List<Intent> intents = new ArrayList<>();
+    private final List<String[]> phrases = new ArrayList<>();
+    private final List<Intent> phraseIntents = new ArrayList<>();
+    private String fallback = DEFAULT_FALLBACK;
+
+    private Builder() {}
+
+    /** Adds an intent with the default priority of zero. */
+    public Builder intent(String name, String response, String... keywords) {
+      return intent(name, response, 0, keywords);
+    }
+
+    /** Adds an intent matched by any of {@code keywords}; each keyword may be a phrase. */
+    public Builder intent(String name, String response, int priority, String... keywords) {
+      if (keywords.length == 0) {
+        throw new IllegalArgumentException("Intent " + name + " has no keywords");
+      }
+      Intent intent = new Intent(name, response, priority, intents.size());
+      intents.add(intent);
+      for (String keyword : keywords) {
+        String[] tokens = tokenize(keyword);
+        if (tokens.length == 0) {
+          throw new IllegalArgumentException("Intent " + name + " has a keyword without letters or digits: '" + keyword + "'");
+        }
+        phrases.add(tokens);
+        phraseIntents.add(intent);
+      }
+      return this;
+    }
+
+    /** Response when nothing matches. */
+    public Builder fallback(String fallback) {
+      this.fallback = fallback;
+      return this;
+    }
+
+    public IntentEngine build() {
+      return new IntentEngine(this);
+    }
+  }
+
+  private final List<Intent> intents;
+  private final String fallback;
+  private final Map<String, Integer> vocabulary = new HashMap<>();
+  private final String[] words;
+  // Deletion variants of every vocabulary word long enough to be corrected, to word ids.
+  private final Map<String, int[]> deletions = new HashMap<>();
+  private final TransitionTable transitions = new TransitionTable();
+  private final int[] failure;
+  // Phrase ids ending at each node, including those inherited through failure links.
+  private final int[][] output;
+  private final String[] phraseText;
+  private final int[] phraseLength;
+  private final Intent[] phraseIntent;
+
+  private IntentEngine(Builder builder) {
+    this.intents = Collections.unmodifiableList(new ArrayList<>(builder.intents));
+    this.fallback = builder.fallback;
+    int phraseCount = builder.phrases.size();
+    phraseText = new String[phraseCount];
+    phraseLength = new int[phraseCount];
+    phraseIntent = builder.phraseIntents.toArray(new Intent[0]);
+
+    List<String> wordList = new ArrayList<>();
+    List<int[]> nodeOutputs = new ArrayList<>();
+    nodeOutputs.add(null);
+    int nodes = 1;
+    for (int p = 0; p < phraseCount; p++) {
+      String[] tokens = builder.phrases.get(p);
+      phraseText[p] = String.join(" ", tokens);
+      phraseLength[p] = tokens.length;
+      int node = 0;
+      for (String token : tokens) {
+        Integer id = vocabulary.get(token);
+        if (id == null) {
+          id = wordList.size();
+          vocabulary.put(token, id);
+          wordList.add(token);
+        }
+        int next = transitions.get(node, id);
+        if (next < 0) {
+          next = nodes++;
+          transitions.put(node, id, next);
+          nodeOutputs.add(null);
+        }
+        node = next;
+      }
+      nodeOutputs.set(node, append(nodeOutputs.get(node), p));
+    }
+    words = wordList.toArray(new String[0]);
+    failure = new int[nodes];
+    output = nodeOutputs.toArray(new int[0][]);
+    buildFailureLinks(nodes);
+    for (int id = 0; id < words.length; id++) {
+      String word = words[id];
+      if (word.length() >= FUZZY_MIN_LENGTH - 1) {
+        for (int i = 0; i < word.length(); i++) {
+          deletions.merge(word.substring(0, i) + word.substring(i + 1), new int[] {id}, IntentEngine::concat);
+        }
+      }
+    }
+  }
+
+  public List<Intent> getIntents() {
+    return intents;
+  }
+
+  public String getFallback() {
+    return fallback;
+  }
+
+  /** The response of the best match, or the fallback response if nothing matches. */
+  public String respond(String input) {
+    Match match = match(input);
+    return match == null ? fallback : match.intent.response;
+  }
+
+  /** The best match in {@code input}, or null if nothing matches. */
+  public Match match(String input) {
+    Scan scan = scan(input);
+    int best = -1;
+    int bestEnd = 0;
+    boolean bestCorrected = false;
+    int node = 0;
+    for (int i = 0; i < scan.ids.length; i++) {
+      node = step(node, scan.ids[i]);
+      for (int p : output[node] == null ? NONE : output[node]) {
+        int end = i + 1;
+        boolean corrected = scan.correctedBefore[end] - scan.correctedBefore[end - phraseLength[p]] > 0;
+        if (best < 0 || better(p, end, corrected, best, bestEnd, bestCorrected)) {
+          best = p;
+          bestEnd = end;
+          bestCorrected = corrected;
+        }
+      }
+    }
+    if (best < 0) {
+      return null;
+    }
+    return new Match(phraseIntent[best], phraseText[best], bestEnd - phraseLength[best], bestEnd, bestCorrected);
+  }
+
+  /** Every phrase found in {@code input}, in the order they end. */
+  public List<Match> matchAll(String input) {
+    Scan scan = scan(input);
+    List<Match> matches = new ArrayList<>();
+    int node = 0;
+    for (int i = 0; i < scan.ids.length; i++) {
+      node = step(node, scan.ids[i]);
+      for (int p : output[node] == null ? NONE : output[node]) {
+        int end = i + 1;
+        int start = end - phraseLength[p];
+        matches.add(new Match(phraseIntent[p], phraseText[p], start, end,
+            scan.correctedBefore[end] - scan.correctedBefore[start] > 0));
+      }
+    }
+    return matches;
+  }
+
+  private static final int[] NONE = new int[0];
+
+  private boolean better(int p, int end, boolean corrected, int best, int bestEnd, boolean bestCorrected) {
+    Intent a = phraseIntent[p];
+    Intent b = phraseIntent[best];
+    if (a.priority != b.priority) return a.priority > b.priority;
+    if (corrected != bestCorrected) return !corrected;
+    if (phraseLength[p] != phraseLength[best]) return phraseLength[p] > phraseLength[best];
+    int start = end - phraseLength[p];
+    int bestStart = bestEnd - phraseLength[best];
+    if (start != bestStart) return start < bestStart;
+    return a.order < b.order || a.order == b.order && p < best;
+  }
+
+  private int step(int node, int id) {
+    if (id < 0) {
+      return 0;
+    }
+    while (true) {
+      int next = transitions.get(node, id);
+      if (next >= 0) return next;
+      if (node == 0) return 0;
+      node = failure[node];
+    }
+  }
+
+  private void buildFailureLinks(int nodes) {
+    // Children of each node, for the breadth-first walk.
+    int[][] children = new int[nodes][];
+    int[][] childWords = new int[nodes][];
+    transitions.forEach((parent, word, child) -> {
+      children[parent] = append(children[parent], child);
+      childWords[parent] = append(childWords[parent], word);
+    });
+    ArrayDeque<Integer> queue = new ArrayDeque<>();
+    for (int child : children[0] == null ? NONE : children[0]) {
+      failure[child] = 0;
+      queue.add(child);
+    }
+    while (!queue.isEmpty()) {
+      int node = queue.poll();
+      if (children[node] == null) continue;
+      for (int c = 0; c < children[node].length; c++) {
+        int child = children[node][c];
+        int word = childWords[node][c];
+        int f = failure[node];
+        int target;
+        while (true) {
+          target = transitions.get(f, word);
+          if (target >= 0 || f == 0) break;
+          f = failure[f];
+        }
+        failure[child] = Math.max(target, 0);
+        int[] inherited = output[failure[child]];
+        if (inherited != null) {
+          output[child] = output[child] == null ? inherited : concat(output[child], inherited);
+        }
+        queue.add(child);
+      }
+    }
+  }
+
+  /** Input tokens as vocabulary ids (-1 for unknown words) and a prefix count of corrected tokens. */
+  private static final class Scan {
+    int[] ids;
+    int[] correctedBefore;
+  }
+
+  private Scan scan(String input) {
+    String[] tokens = tokenize(input);
+    Scan scan = new Scan();
+    scan.ids = new int[tokens.length];
+    scan.correctedBefore = new int[tokens.length + 1];
+    for (int i = 0; i < tokens.length; i++) {
+      Integer id = vocabulary.get(tokens[i]);
+      boolean corrected = false;
+      if (id == null) {
+        int correction = correct(tokens[i]);
+        id = correction;
+        corrected = correction >= 0;
+      }
+      scan.ids[i] = id;
+      scan.correctedBefore[i + 1] = scan.correctedBefore[i] + (corrected ? 1 : 0);
+    }
+    return scan;
+  }
+
+  /** The single vocabulary word at edit distance one from {@code token}, or -1. */
+  private int correct(String token) {
+    if (token.length() < FUZZY_MIN_LENGTH) {
+      return -1;
+    }
+    int found = -1;
+    // Substitutions and transpositions share a deletion with the word; insertions in the token
+    // delete down to the word itself; deletions from the word are the token itself.
+    found = consider(found, deletions.get(token), token);
+    Integer exact;
+    for (int i = 0; i < token.length() && found != -2; i++) {
+      String deleted = token.substring(0, i) + token.substring(i + 1);
+      if ((exact = vocabulary.get(deleted)) != null && exact != found) {
+        found = found == -1 ? exact : -2;
+      }
+      found = consider(found, deletions.get(deleted), token);
+    }
+    return found < 0 ? -1 : found;
+  }
+
+  private int consider(int found, int[] candidates, String token) {
+    if (candidates == null || found == -2) {
+      return found;
+    }
+    for (int id : candidates) {
+      if (id != found && withinOneEdit(token, words[id])) {
+        if (found != -1) return -2;
+        found = id;
+      }
+    }
+    return found;
+  }
+
+  static boolean withinOneEdit(String a, String b) {
+    int la = a.length();
+    int lb = b.length();
+    if (Math.abs(la - lb) > 1) return false;
+    int i = 0;
+    while (i < la && i < lb && a.charAt(i) == b.charAt(i)) i++;
+    if (la == lb) {
+      if (i == la) return true;
+      if (a.regionMatches(i + 1, b, i + 1, la - i - 1)) return true;
+      return i + 1 < la && a.charAt(i) == b.charAt(i + 1) && a.charAt(i + 1) == b.charAt(i)
+          && a.regionMatches(i + 2, b, i + 2, la - i - 2);
+    }
+    return la > lb ? a.regionMatches(i + 1, b, i, lb - i) : b.regionMatches(i + 1, a, i, la - i);
+  }
+
+  /** Lowercase runs of letters and digits. */
+  static String[] tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    StringBuilder token = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (Character.isLetterOrDigit(c)) {
+        token.append(Character.toLowerCase(c));
+      } else if (c != '\'' && token.length() > 0) {
+        tokens.add(token.toString());
+        token.setLength(0);
+      }
+    }
+    if (token.length() > 0) {
+      tokens.add(token.toString());
+    }
+    return tokens.toArray(new String[0]);
+  }
+
+  private static int[] append(int[] values, int value) {
+    if (values == null) return new int[] {value};
+    int[] grown = Arrays.copyOf(values, values.length + 1);
+    grown[values.length] = value;
+    return grown;
+  }
+
+  private static int[] concat(int[] a, int[] b) {
+    int[] joined = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, joined, a.length, b.length);
+    return joined;
+  }
+
+  /** Open-addressing map from (node, word id) to child node. */
+  private static final class TransitionTable {
+    private long[] keys = new long[1024];
+    private int[] values = new int[1024];
+    private int size;
+
+    interface Visitor {
+      void visit(int parent, int word, int child);
+    }
+
+    int get(int node, int word) {
+      long key = key(node, word);
+      int mask = keys.length - 1;
+      for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+        long k = keys[i];
+        if (k == key) return values[i];
+        if (k == 0) return -1;
+      }
+    }
+
+    void put(int node, int word, int child) {
+      if (size * 2 >= keys.length) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+          if (oldKeys[i] != 0) insert(oldKeys[i], oldValues[i]);
+        }
+      }
+      insert(key(node, word), child);
+    }
+
+    void forEach(Visitor visitor) {
+      for (int i = 0; i < keys.length; i++) {
+        if (keys[i] != 0) {
+          long key = keys[i] - 1;
+          visitor.visit((int) (key >>> 32), (int) key, values[i]);
+        }
+      }
+    }
+
+    private void insert(long key, int value) {
+      int mask = keys.length - 1;
+      int i = hash(key) & mask;
+      while (keys[i] != 0) i = (i + 1) & mask;
+      keys[i] = key;
+      values[i] = value;
+      size++;
+    }
+
+    // Offset by one so that zero marks an empty slot.
+    private static long key(int node, int word) {
+      return ((long) node << 32 | word) + 1;
+    }
+
+    private static int hash(long key) {
+      long h = key * 0x9E3779B97F4A7C15L;
+      return (int) (h ^ (h >>> 32));
+    }
+  }
+}
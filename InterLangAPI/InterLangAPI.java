@@ -7,61 +7,81 @@
 import java.io.*;
 import java.util.*;
 import java.net.*;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 
 public class InterLangAPI {
 
+    // Content type HttpURLConnection sent for POST bodies
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    // Warm interpreter pools, started on first use and shared by every caller
+    private static ScriptWorkerPool pythonPool;
+    private static ScriptWorkerPool javaScriptPool;
+
     // Method to execute Python code
     public static void executePython(String script) throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("python", "-c", script);
-        Process process = pb.start();
-        printProcessOutput(process);
+        printScriptOutput(runPython(script));
     }
 
     // Method to execute JavaScript code via Node.js
     public static void executeJavaScript(String script) throws IOException {
-        ProcessBuilder pb = new ProcessBuilder("node", "-e", script);
-        Process process = pb.start();
-        printProcessOutput(process);
+        printScriptOutput(runJavaScript(script));
     }
 
-    // Method to make GET requests to web services/APIs
-    public static String sendGetRequest(String url) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-        connection.setRequestMethod("GET");
-        return readResponse(connection);
+    // Method to run Python code on a pooled interpreter and return its output
+    public static ScriptWorkerPool.Result runPython(String script) throws IOException {
+        return pythonPool().execute(script);
     }
 
-    // Method to make POST requests to web services/APIs
-    public static String sendPostRequest(String url, String data) throws IOException {
-        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
-        connection.setRequestMethod("POST");
-        connection.setDoOutput(true);
-        try (OutputStream os = connection.getOutputStream()) {
-            os.write(data.getBytes());
-        }
-        return readResponse(connection);
+    // Method to run JavaScript code on a pooled Node.js process and return its output
+    public static ScriptWorkerPool.Result runJavaScript(String script) throws IOException {
+        return javaScriptPool().execute(script);
     }
 
-    // Method to handle process output
-    private static void printProcessOutput(Process process) throws IOException {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println(line);
-            }
+    public static synchronized ScriptWorkerPool pythonPool() throws IOException {
+        if (pythonPool == null) {
+            pythonPool = ScriptWorkerPool.create(ScriptWorkerPool.Language.PYTHON);
         }
+        return pythonPool;
     }
 
-    // Method to read HTTP response
-    private static String readResponse(HttpURLConnection connection) throws IOException {
-        StringBuilder response = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                response.append(line);
-            }
+    public static synchronized ScriptWorkerPool javaScriptPool() throws IOException {
+        if (javaScriptPool == null) {
+            javaScriptPool = ScriptWorkerPool.create(ScriptWorkerPool.Language.JAVASCRIPT);
         }
-        return response.toString();
+        return javaScriptPool;
+    }
+
+    // Method to make GET requests to web services/APIs over the shared pooled client
+    public static String sendGetRequest(String url) throws IOException {
+        return SharedHttpClient.shared().get(url);
+    }
+
+    // Method to make POST requests to web services/APIs over the shared pooled client
+    public static String sendPostRequest(String url, String data) throws IOException {
+        return SharedHttpClient.shared().post(url, data, FORM_CONTENT_TYPE);
+    }
+
+    // Asynchronous GET; the future completes with the response whatever its status
+    public static CompletableFuture<HttpResponse<String>> sendGetRequestAsync(String url) {
+        return SharedHttpClient.shared().getAsync(url);
+    }
+
+    // Asynchronous POST; the future completes with the response whatever its status
+    public static CompletableFuture<HttpResponse<String>> sendPostRequestAsync(String url, String data) {
+        return SharedHttpClient.shared().postAsync(url, data, FORM_CONTENT_TYPE, Map.of());
+    }
+
+    // Method to GET many URLs concurrently, results in the order given
+    public static List<SharedHttpClient.Outcome<String>> sendGetRequests(Collection<String> urls) {
+        return SharedHttpClient.shared().getAll(urls, Map.of());
+    }
+
+    // Method to handle script output
+    private static void printScriptOutput(ScriptWorkerPool.Result result) {
+        System.out.print(result.getStdout());
+        System.err.print(result.getStderr());
     }
 
     // Main method for testing
@@ -0,0 +1,583 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Licensed under Devin B. Royal SOFTWARE AND DOCUMENT NOTICE AND LICENSE.
+ * Unauthorized use, distribution, or reproduction of this code and/or software is prohibited without written consent from the author.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pool of long-lived interpreter processes that run scripts sent from the JVM, so each call pays
+ * for a pipe round trip instead of an interpreter start.
+ *
+ * <p>Each worker runs a small bootstrap loop that reads framed requests from stdin and writes
+ * framed responses to stdout. A request is a header line {@code "<id> <length>\n"} followed by
+ * that many bytes of UTF-8 script; a response is {@code "<id> <status> <outLength> <errLength>\n"}
+ * followed by the script's captured stdout and stderr. Scripts run one at a time per worker, each
+ * in its own scope (fresh globals in Python, a function body in Node.js), while imported modules
+ * stay loaded between calls. Up to a pipeline depth of
+ * requests are written ahead to each worker and matched to their callers by id.
+ *
+ * <p>Requests go to the least busy worker. At most {@code workers × depth} calls are in flight;
+ * further callers wait for a slot. A call's timeout starts when its worker starts running it,
+ * that is when the worker answers the call before it, so time spent queued behind another
+ * script does not count. A call that runs past its timeout fails with
+ * {@link ScriptTimeoutException} and its worker is killed, since an interpreter cannot be
+ * interrupted safely from outside; calls queued behind it on that worker fail with an
+ * {@link IOException}. Workers that exit or crash are replaced, with a back-off if they keep
+ * failing, and their stderr is drained continuously so they can never block on it.
+ */
+public final class ScriptWorkerPool implements AutoCloseable {
+
+    /** Interpreters with a bootstrap loop. */
+    public enum Language {
+        PYTHON(System.getProperty("interlang.python", "python3"), "-u", "-c", PYTHON_WORKER),
+        // Node.js cannot duplicate file descriptors, so the shell moves the request pipe to fd 3
+        // and the response pipe to fd 4, and gives the interpreter /dev/null as stdin and its
+        // stderr as stdout.
+        JAVASCRIPT("sh", "-c", "exec 3<&0 4>&1 1>&2 </dev/null; exec \"$0\" -e \"$1\"",
+                System.getProperty("interlang.node", "node"), JAVASCRIPT_WORKER);
+
+        private final List<String> command;
+
+        Language(String... command) {
+            this.command = List.of(command);
+        }
+    }
+
+    /** Output of one script. */
+    public static final class Result {
+        private final boolean success;
+        private final String stdout;
+        private final String stderr;
+        private final long nanos;
+
+        Result(boolean success, String stdout, String stderr, long nanos) {
+            this.success = success;
+            this.stdout = stdout;
+            this.stderr = stderr;
+            this.nanos = nanos;
+        }
+
+        /** False if the script raised an uncaught error or exited with a non-zero code. */
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getStdout() {
+            return stdout;
+        }
+
+        /** The script's stderr, including the traceback or stack of an uncaught error. */
+        public String getStderr() {
+            return stderr;
+        }
+
+        /** Time from submission to response. */
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /** The script did not finish within its timeout; the worker running it was restarted. */
+    public static final class ScriptTimeoutException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        ScriptTimeoutException(String message) {
+            super(message);
+        }
+    }
+
+    private static final long MAX_RESPAWN_DELAY_MILLIS = 5000;
+    // How long a call waits for a replacement when no worker is running.
+    private static final Duration WORKER_WAIT = Duration.ofSeconds(10);
+
+    private final Language language;
+    private final Duration defaultTimeout;
+    private final AtomicReferenceArray<Worker> workers;
+    private final Semaphore slots;
+    private final AtomicLong ids = new AtomicLong();
+    private final AtomicInteger respawns = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor timer;
+    private final Object workerStarted = new Object();
+    private volatile boolean closed;
+
+    /**
+     * @param workers interpreter processes to keep running
+     * @param depth requests written ahead to one worker before it answers
+     * @param defaultTimeout timeout of calls that do not give their own
+     */
+    public ScriptWorkerPool(Language language, int workers, int depth, Duration defaultTimeout) throws IOException {
+        if (workers < 1 || depth < 1) {
+            throw new IllegalArgumentException("At least one worker and a depth of one are required");
+        }
+        this.language = language;
+        this.defaultTimeout = defaultTimeout;
+        this.workers = new AtomicReferenceArray<>(workers);
+        this.slots = new Semaphore(workers * depth, true);
+        this.timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, language.name().toLowerCase() + "-worker-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        try {
+            for (int i = 0; i < workers; i++) {
+                this.workers.set(i, new Worker(i, 0));
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /** Worker count from available processors, depth four, 30 second timeout. */
+    public static ScriptWorkerPool create(Language language) throws IOException {
+        return new ScriptWorkerPool(language, Math.max(2, Runtime.getRuntime().availableProcessors()), 4,
+                Duration.ofSeconds(30));
+    }
+
+    /** Runs {@code script} and waits for its result. */
+    public Result execute(String script) throws IOException {
+        return execute(script, defaultTimeout);
+    }
+
+    public Result execute(String script, Duration timeout) throws IOException {
+        try {
+            return submit(script, timeout).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the script", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<Result> submit(String script) {
+        return submit(script, defaultTimeout);
+    }
+
+    /**
+     * Sends {@code script} to a worker. Waits for a slot if the pool is saturated, then returns a
+     * future that completes with the result or fails with an {@link IOException}.
+     */
+    public CompletableFuture<Result> submit(String script, Duration timeout) {
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IOException("Worker pool is closed"));
+            return future;
+        }
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(new IOException("Interrupted while waiting for a worker", e));
+            return future;
+        }
+        Call call = new Call(ids.incrementAndGet(), script.getBytes(StandardCharsets.UTF_8), timeout, future);
+        future.whenComplete((result, error) -> {
+            slots.release();
+            if (call.timeoutTask != null) {
+                call.timeoutTask.cancel(false);
+            }
+        });
+        Worker worker = null;
+        try {
+            worker = awaitWorker(System.nanoTime() + WORKER_WAIT.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker == null) {
+            future.completeExceptionally(new IOException("No " + language + " worker is running"));
+            return future;
+        }
+        worker.send(call);
+        return future;
+    }
+
+    /** Workers replaced after a crash or timeout since the pool started. */
+    public int respawnCount() {
+        return respawns.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        timer.shutdownNow();
+        synchronized (workerStarted) {
+            workerStarted.notifyAll();
+        }
+        for (int i = 0; i < workers.length(); i++) {
+            Worker worker = workers.get(i);
+            if (worker != null) {
+                worker.stop(new IOException("Worker pool is closed"));
+            }
+        }
+    }
+
+    /** The least busy live worker, waiting until the deadline while every worker is being replaced. */
+    private Worker awaitWorker(long deadline) throws InterruptedException {
+        synchronized (workerStarted) {
+            while (true) {
+                Worker worker = pick();
+                long remaining = deadline - System.nanoTime();
+                if (worker != null || closed || remaining <= 0) {
+                    return worker;
+                }
+                TimeUnit.NANOSECONDS.timedWait(workerStarted, remaining);
+            }
+        }
+    }
+
+    private Worker pick() {
+        Worker best = null;
+        for (int i = 0; i < workers.length(); i++) {
+            Worker worker = workers.get(i);
+            if (worker != null && worker.alive && (best == null || worker.inFlight.size() < best.inFlight.size())) {
+                best = worker;
+            }
+        }
+        return best;
+    }
+
+    private void timedOut(Worker worker, Call call) {
+        // Whoever removes the call completes it; if the response won the race there is nothing to do.
+        if (worker.inFlight.remove(call.id) == null) {
+            return;
+        }
+        // Stop the worker before failing the call, so a caller that retries at once gets a new one.
+        worker.stop(new IOException(language + " worker restarted after a script timed out"));
+        call.future.completeExceptionally(new ScriptTimeoutException(
+                language + " script did not finish within " + call.timeout.toMillis() + " ms"));
+    }
+
+    /** Replaces a dead worker, immediately the first time and with a growing delay if it keeps dying. */
+    private void respawn(Worker dead) {
+        boolean shortLived = System.currentTimeMillis() - dead.startedAt < 1000;
+        respawns.incrementAndGet();
+        spawn(dead.slot, shortLived ? dead.failures + 1 : 0);
+    }
+
+    private void spawn(int slot, int failures) {
+        if (closed) {
+            return;
+        }
+        long delay = failures == 0 ? 0 : Math.min(MAX_RESPAWN_DELAY_MILLIS, 100L << Math.min(failures, 10));
+        try {
+            timer.schedule(() -> {
+                if (closed) {
+                    return;
+                }
+                try {
+                    workers.set(slot, new Worker(slot, failures));
+                    synchronized (workerStarted) {
+                        workerStarted.notifyAll();
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not restart " + language + " worker: " + e.getMessage());
+                    spawn(slot, failures + 1);
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // The pool is closing.
+        }
+    }
+
+    private static final class Call {
+        final long id;
+        final byte[] script;
+        final Duration timeout;
+        final CompletableFuture<Result> future;
+        final long submitted = System.nanoTime();
+        volatile ScheduledFuture<?> timeoutTask;
+
+        Call(long id, byte[] script, Duration timeout, CompletableFuture<Result> future) {
+            this.id = id;
+            this.script = script;
+            this.timeout = timeout;
+            this.future = future;
+        }
+    }
+
+    /** One interpreter process with a thread reading its responses and one draining its stderr. */
+    private final class Worker {
+        final int slot;
+        final Process process;
+        final OutputStream stdin;
+        final Map<Long, Call> inFlight = new ConcurrentHashMap<>();
+        // Calls in the order the worker runs them; the head is running. Guarded by this.
+        private final ArrayDeque<Call> order = new ArrayDeque<>();
+        volatile boolean alive = true;
+        final long startedAt = System.currentTimeMillis();
+        final int failures;
+
+        Worker(int slot, int failures) throws IOException {
+            this.slot = slot;
+            this.failures = failures;
+            this.process = new ProcessBuilder(language.command).start();
+            this.stdin = new BufferedOutputStream(process.getOutputStream());
+            String name = language.name().toLowerCase() + "-worker-" + slot;
+            Thread reader = new Thread(this::readResponses, name);
+            Thread drainer = new Thread(this::drainStderr, name + "-stderr");
+            reader.setDaemon(true);
+            drainer.setDaemon(true);
+            reader.start();
+            drainer.start();
+        }
+
+        void send(Call call) {
+            inFlight.put(call.id, call);
+            synchronized (this) {
+                order.add(call);
+                if (order.size() == 1) {
+                    startTimeout(call);
+                }
+            }
+            try {
+                synchronized (stdin) {
+                    stdin.write((call.id + " " + call.script.length + "\n").getBytes(StandardCharsets.US_ASCII));
+                    stdin.write(call.script);
+                    stdin.flush();
+                }
+            } catch (IOException e) {
+                stop(new IOException(language + " worker is not accepting scripts", e));
+            }
+            if (!alive) {
+                // Lost a race with a crash; the reader may already have failed the others.
+                fail(call, new IOException(language + " worker exited"));
+            }
+        }
+
+        void stop(IOException reason) {
+            if (alive) {
+                alive = false;
+                process.destroyForcibly();
+                failAll(reason);
+            }
+        }
+
+        private void readResponses() {
+            IOException reason = null;
+            try (InputStream in = new BufferedInputStream(process.getInputStream())) {
+                while (true) {
+                    String header = readLine(in);
+                    if (header == null) {
+                        break;
+                    }
+                    String[] parts = header.trim().split(" ");
+                    if (parts.length != 4) {
+                        throw new IOException("Malformed response header: " + header);
+                    }
+                    long id = Long.parseLong(parts[0]);
+                    byte[] out = readExactly(in, Integer.parseInt(parts[2]));
+                    byte[] err = readExactly(in, Integer.parseInt(parts[3]));
+                    Call call = inFlight.remove(id);
+                    dispatched(id);
+                    if (call != null) {
+                        call.future.complete(new Result("0".equals(parts[1]),
+                                new String(out, StandardCharsets.UTF_8), new String(err, StandardCharsets.UTF_8),
+                                System.nanoTime() - call.submitted));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                reason = new IOException(language + " worker protocol error: " + e.getMessage(), e);
+            }
+            boolean unexpected = alive;
+            alive = false;
+            process.destroyForcibly();
+            int exit = exitCode();
+            failAll(reason != null ? reason : new IOException(language + " worker exited with code " + exit));
+            if (unexpected && !closed) {
+                System.err.println(language + " worker " + slot + " exited unexpectedly (code " + exit + "); restarting");
+            }
+            respawn(this);
+        }
+
+        private void drainStderr() {
+            byte[] buffer = new byte[4096];
+            try (InputStream err = process.getErrorStream()) {
+                int n;
+                while ((n = err.read(buffer)) >= 0) {
+                    // Interpreter-level output only; a script's own stderr comes back in its Result.
+                    System.err.print(new String(buffer, 0, n, StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                // Process gone.
+            }
+        }
+
+        /** Called when call {@code id} is answered: the next call in order starts running. */
+        private synchronized void dispatched(long id) {
+            order.removeIf(call -> call.id == id);
+            Call next = order.peek();
+            if (next != null && next.timeoutTask == null) {
+                startTimeout(next);
+            }
+        }
+
+        private void startTimeout(Call call) {
+            try {
+                call.timeoutTask = timer.schedule(() -> timedOut(this, call), call.timeout.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // The pool is closing and will fail the call.
+            }
+            if (call.timeoutTask != null && call.future.isDone()) {
+                call.timeoutTask.cancel(false);
+            }
+        }
+
+        private void failAll(IOException reason) {
+            for (Call call : new ArrayList<>(inFlight.values())) {
+                fail(call, reason);
+            }
+        }
+
+        private void fail(Call call, IOException reason) {
+            inFlight.remove(call.id);
+            call.future.completeExceptionally(reason);
+        }
+
+        private int exitCode() {
+            try {
+                return process.waitFor(1, TimeUnit.SECONDS) ? process.exitValue() : -1;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return -1;
+            }
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(32);
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return line.size() == 0 ? null : line.toString(StandardCharsets.US_ASCII);
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] readExactly(InputStream in, int length) throws IOException {
+        byte[] data = in.readNBytes(length);
+        if (data.length != length) {
+            throw new IOException("Worker output ended mid-response");
+        }
+        return data;
+    }
+
+    // Moves the protocol to private copies of stdin and stdout, points fd 0 and sys.stdin at
+    // /dev/null and fd 1 at stderr, so a script can neither consume a request, even through
+    // sys.stdin.readline(), nor corrupt a response, even through os.write(1, ...).
+    private static final String PYTHON_WORKER = String.join("\n",
+            "import contextlib, io, os, sys, traceback",
+            "requests = os.fdopen(os.dup(0), 'rb')",
+            "proto = os.fdopen(os.dup(1), 'wb')",
+            "devnull = os.open(os.devnull, os.O_RDONLY)",
+            "os.dup2(devnull, 0)",
+            "os.close(devnull)",
+            "os.dup2(2, 1)",
+            "sys.stdin = open(os.devnull, 'r')",
+            "while True:",
+            "    header = requests.readline()",
+            "    if not header:",
+            "        break",
+            "    rid, length = header.split()",
+            "    source = requests.read(int(length)).decode('utf-8')",
+            "    out = io.TextIOWrapper(io.BytesIO(), encoding='utf-8', write_through=True)",
+            "    err = io.TextIOWrapper(io.BytesIO(), encoding='utf-8', write_through=True)",
+            "    status = 0",
+            "    with contextlib.redirect_stdout(out), contextlib.redirect_stderr(err):",
+            "        try:",
+            "            exec(compile(source, '<script>', 'exec'), {'__name__': '__main__'})",
+            "        except SystemExit as e:",
+            "            status = 0 if e.code in (None, 0) else 1",
+            "        except BaseException:",
+            "            traceback.print_exc()",
+            "            status = 1",
+            "    out.flush()",
+            "    err.flush()",
+            "    o, e = out.buffer.getvalue(), err.buffer.getvalue()",
+            "    proto.write(rid + b' %d %d %d\\n' % (status, len(o), len(e)) + o + e)",
+            "    proto.flush()",
+            "");
+
+    // Each script is compiled as the body of a function whose console, process.stdout and
+    // process.stderr capture output, so its declarations stay local to the call; a returned
+    // promise is awaited. Requests arrive on fd 3 and responses leave on fd 4 (see Language), so
+    // even globalThis.process.stdout only reaches the worker's stderr.
+    private static final String JAVASCRIPT_WORKER = String.join("\n",
+            "const vm = require('vm'), util = require('util'), net = require('net'), fs = require('fs');",
+            "let pending = Buffer.alloc(0); const queue = []; let busy = false;",
+            "const requests = new net.Socket({ fd: 3, readable: true, writable: false });",
+            "requests.on('data', chunk => { pending = Buffer.concat([pending, chunk]); parse(); });",
+            "requests.on('end', () => process.exit(0));",
+            "function parse() {",
+            "  for (;;) {",
+            "    const nl = pending.indexOf(10); if (nl < 0) break;",
+            "    const [id, length] = pending.subarray(0, nl).toString().split(' ');",
+            "    const end = nl + 1 + Number(length); if (pending.length < end) break;",
+            "    queue.push([id, pending.subarray(nl + 1, end).toString('utf8')]);",
+            "    pending = pending.subarray(end);",
+            "  }",
+            "  pump();",
+            "}",
+            "async function pump() {",
+            "  if (busy) return; busy = true;",
+            "  while (queue.length) { const [id, source] = queue.shift(); await run(id, source); }",
+            "  busy = false;",
+            "}",
+            "async function run(id, source) {",
+            "  let out = '', err = '', status = 0;",
+            "  const line = args => util.format(...args) + '\\n';",
+            "  const console = { log: (...a) => { out += line(a); }, info: (...a) => { out += line(a); },",
+            "    debug: (...a) => { out += line(a); }, warn: (...a) => { err += line(a); }, error: (...a) => { err += line(a); } };",
+            "  const stream = append => ({ write: (chunk, encoding, callback) => {",
+            "    append(Buffer.isBuffer(chunk) ? chunk.toString('utf8') : String(chunk));",
+            "    const done = typeof encoding === 'function' ? encoding : callback; if (done) process.nextTick(done);",
+            "    return true; }, isTTY: false });",
+            "  const stdout = stream(s => { out += s; }), stderr = stream(s => { err += s; });",
+            "  const proc = new Proxy(process, { get: (target, key) => key === 'stdout' ? stdout",
+            "    : key === 'stderr' ? stderr",
+            "    : typeof target[key] === 'function' ? target[key].bind(target) : target[key] });",
+            "  try {",
+            "    const body = vm.compileFunction(source, ['console', 'require', 'process'], { filename: 'script.js' });",
+            "    const result = body(console, require, proc);",
+            "    if (result && typeof result.then === 'function') await result;",
+            "  } catch (e) { err += (e && e.stack ? e.stack : String(e)) + '\\n'; status = 1; }",
+            "  const o = Buffer.from(out, 'utf8'), e = Buffer.from(err, 'utf8');",
+            "  respond(Buffer.concat([Buffer.from(`${id} ${status} ${o.length} ${e.length}\\n`), o, e]));",
+            "}",
+            "function respond(frame) {",
+            "  for (let off = 0; off < frame.length;) {",
+            "    try { off += fs.writeSync(4, frame, off); } catch (e) { if (e.code !== 'EAGAIN') throw e; }",
+            "  }",
+            "}",
+            "");
+}
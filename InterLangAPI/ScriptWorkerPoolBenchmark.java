@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Calls/sec and latency of ScriptWorkerPool against one interpreter process per call, as
+ * InterLangAPI.executePython/executeJavaScript used to do, plus timeout and crash recovery checks.
+ * Needs python3 and node on the PATH.
+ * Usage: java ScriptWorkerPoolBenchmark [pooledCalls] [callers]
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ScriptWorkerPoolBenchmark {
+
+    private static final int PROCESS_PER_CALL = 40;
+    private static final String PYTHON_SCRIPT = "import json\nprint(json.dumps({'n': sum(range(1000))}))";
+    private static final String JAVASCRIPT_SCRIPT =
+            "console.log(JSON.stringify({n: [...Array(1000).keys()].reduce((a, b) => a + b, 0)}))";
+    private static final String EXPECTED = "{\"n\": 499500}";
+
+    public static void main(String[] args) throws Exception {
+        int pooledCalls = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int callers = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " CPU(s)");
+        run(ScriptWorkerPool.Language.PYTHON, List.of("python3", "-c", PYTHON_SCRIPT), PYTHON_SCRIPT, pooledCalls, callers);
+        run(ScriptWorkerPool.Language.JAVASCRIPT, List.of("node", "-e", JAVASCRIPT_SCRIPT), JAVASCRIPT_SCRIPT, pooledCalls, callers);
+        recovery();
+    }
+
+    private static void run(ScriptWorkerPool.Language language, List<String> command, String script,
+            int pooledCalls, int callers) throws Exception {
+        System.out.println(language + ":");
+        long[] latencies = new long[PROCESS_PER_CALL];
+        long start = System.nanoTime();
+        for (int i = 0; i < PROCESS_PER_CALL; i++) {
+            long callStart = System.nanoTime();
+            Process process = new ProcessBuilder(command).start();
+            String out;
+            try (InputStream in = process.getInputStream()) {
+                out = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            process.waitFor();
+            latencies[i] = System.nanoTime() - callStart;
+            check(out);
+        }
+        report("process per call", latencies, System.nanoTime() - start);
+
+        try (ScriptWorkerPool pool = ScriptWorkerPool.create(language)) {
+            for (int i = 0; i < 200; i++) {
+                check(pool.execute(script).getStdout()); // warm-up
+            }
+            latencies = new long[pooledCalls];
+            start = System.nanoTime();
+            for (int i = 0; i < pooledCalls; i++) {
+                ScriptWorkerPool.Result result = pool.execute(script);
+                check(result.getStdout());
+                latencies[i] = result.getNanos();
+            }
+            report("pool, one caller", latencies, System.nanoTime() - start);
+
+            long[] concurrent = new long[pooledCalls];
+            ExecutorService threads = Executors.newFixedThreadPool(callers);
+            List<Future<?>> done = new ArrayList<>();
+            start = System.nanoTime();
+            for (int c = 0; c < callers; c++) {
+                int caller = c;
+                done.add(threads.submit(() -> {
+                    for (int i = caller; i < pooledCalls; i += callers) {
+                        ScriptWorkerPool.Result result = pool.execute(script);
+                        check(result.getStdout());
+                        concurrent[i] = result.getNanos();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+            report("pool, " + callers + " callers", concurrent, System.nanoTime() - start);
+            threads.shutdown();
+
+            // Fire-and-collect: every call is submitted before any result is read.
+            List<CompletableFuture<ScriptWorkerPool.Result>> futures = new ArrayList<>();
+            start = System.nanoTime();
+            for (int i = 0; i < pooledCalls; i++) {
+                futures.add(pool.submit(script));
+            }
+            for (int i = 0; i < pooledCalls; i++) {
+                ScriptWorkerPool.Result result = futures.get(i).get();
+                check(result.getStdout());
+                concurrent[i] = result.getNanos();
+            }
+            report("pool, async pipelined", concurrent, System.nanoTime() - start);
+        }
+    }
+
+    private static void recovery() throws IOException {
+        System.out.println("Recovery (python, 1 worker):");
+        try (ScriptWorkerPool pool = new ScriptWorkerPool(ScriptWorkerPool.Language.PYTHON, 1, 4, Duration.ofSeconds(5))) {
+            long start = System.nanoTime();
+            try {
+                pool.execute("while True:\n    pass", Duration.ofMillis(300));
+                throw new IllegalStateException("endless script was not stopped");
+            } catch (ScriptWorkerPool.ScriptTimeoutException e) {
+                System.out.printf("  endless loop: %s after %.0f ms%n", e.getMessage(), (System.nanoTime() - start) / 1e6);
+            }
+            start = System.nanoTime();
+            check(pool.execute(PYTHON_SCRIPT).getStdout());
+            System.out.printf("  next call succeeded %.0f ms later on a new worker%n", (System.nanoTime() - start) / 1e6);
+
+            try {
+                pool.execute("import os\nos._exit(3)");
+                throw new IllegalStateException("crash was not reported");
+            } catch (ScriptWorkerPool.ScriptTimeoutException e) {
+                throw e;
+            } catch (IOException e) {
+                System.out.println("  crashing script: " + e.getMessage());
+            }
+            check(pool.execute(PYTHON_SCRIPT).getStdout());
+
+            ScriptWorkerPool.Result failed = pool.execute("print('before')\nraise ValueError('bad input')");
+            String[] trace = failed.getStderr().trim().split("\n");
+            System.out.println("  raising script: success=" + failed.isSuccess() + ", stdout=" + failed.getStdout().trim()
+                    + ", last stderr line=" + trace[trace.length - 1]);
+            ScriptWorkerPool.Result noisy = pool.execute("import os\nos.write(1, b'raw write\\n')\nprint('kept')");
+            System.out.println("  raw fd write kept out of the protocol: stdout=" + noisy.getStdout().trim());
+            System.out.println("  respawns: " + pool.respawnCount());
+        }
+    }
+
+    private static void check(String out) {
+        if (!EXPECTED.equals(out.trim().replace(":", ": ").replace(":  ", ": "))) {
+            throw new IllegalStateException("Unexpected output: " + out);
+        }
+    }
+
+    private static void report(String label, long[] latencies, long totalNanos) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-24s %,6d calls %,10.0f calls/sec  p50 %,8.3f ms  p99 %,8.3f ms%n",
+                label, sorted.length, sorted.length / (totalNanos / 1e9),
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6);
+    }
+}
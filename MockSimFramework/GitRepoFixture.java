@@ -0,0 +1,190 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheBuilder;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.CommitBuilder;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.lib.Ref;
+import org.eclipse.jgit.lib.RefUpdate;
+import org.eclipse.jgit.lib.Repository;
+import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.treewalk.TreeWalk;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A bare git repository in a temporary directory, used in place of cloning from GitHub. Commits are
+ * written straight into the object database (no working tree, no checkout), so a fixture with a
+ * few commits is ready in milliseconds. Clone it with JGit or git through {@link #getUri()}.
+ *
+ * <p>Snapshots record only the refs: objects are immutable, so moving the refs back is enough to
+ * undo anything a test committed or pushed.
+ */
+public class GitRepoFixture implements AutoCloseable {
+
+    public static final String MAIN = Constants.R_HEADS + "main";
+
+    private static final PersonIdent AUTHOR = new PersonIdent("Fixture", "fixture@example.com",
+            Instant.EPOCH, ZoneOffset.UTC);
+
+    private final Path directory;
+    private final Repository repository;
+
+    public GitRepoFixture() throws IOException {
+        directory = Files.createTempDirectory("git-fixture-");
+        repository = new FileRepositoryBuilder().setGitDir(directory.toFile()).setBare().build();
+        repository.create(true);
+        RefUpdate head = repository.updateRef(Constants.HEAD);
+        head.disableRefLog();
+        head.link(MAIN);
+    }
+
+    public Repository getRepository() {
+        return repository;
+    }
+
+    public File getDirectory() {
+        return directory.toFile();
+    }
+
+    /** A file URI for the repository, accepted by JGit's clone command and by git. */
+    public String getUri() {
+        return directory.toUri().toString();
+    }
+
+    /**
+     * Commits {@code files} (path to UTF-8 content) on top of {@code branch}, replacing the paths
+     * given and keeping all others, and moves the branch to the new commit.
+     */
+    public ObjectId commit(String branch, String message, Map<String, String> files) throws IOException {
+        ObjectId parent = repository.resolve(branch);
+        Map<String, ObjectId> tree = parent == null ? new TreeMap<>() : readTree(parent);
+        try (ObjectInserter inserter = repository.newObjectInserter()) {
+            for (Map.Entry<String, String> file : files.entrySet()) {
+                byte[] content = file.getValue().getBytes(StandardCharsets.UTF_8);
+                tree.put(file.getKey(), inserter.insert(Constants.OBJ_BLOB, content));
+            }
+            DirCache index = DirCache.newInCore();
+            DirCacheBuilder builder = index.builder();
+            for (Map.Entry<String, ObjectId> file : tree.entrySet()) {
+                DirCacheEntry entry = new DirCacheEntry(file.getKey());
+                entry.setFileMode(FileMode.REGULAR_FILE);
+                entry.setObjectId(file.getValue());
+                builder.add(entry);
+            }
+            builder.finish();
+
+            CommitBuilder commit = new CommitBuilder();
+            commit.setTreeId(index.writeTree(inserter));
+            if (parent != null) {
+                commit.setParentId(parent);
+            }
+            commit.setAuthor(AUTHOR);
+            commit.setCommitter(AUTHOR);
+            commit.setMessage(message);
+            ObjectId id = inserter.insert(commit);
+            inserter.flush();
+            moveRef(branch, id);
+            return id;
+        }
+    }
+
+    /** Every ref and the commit it points to. */
+    public Map<String, ObjectId> snapshot() throws IOException {
+        Map<String, ObjectId> refs = new HashMap<>();
+        for (Ref ref : repository.getRefDatabase().getRefs()) {
+            if (!ref.isSymbolic() && ref.getObjectId() != null) {
+                refs.put(ref.getName(), ref.getObjectId());
+            }
+        }
+        return refs;
+    }
+
+    /** Points every ref back to where it was in {@code snapshot} and deletes refs created since. */
+    public void restore(Map<String, ObjectId> snapshot) throws IOException {
+        for (Ref ref : repository.getRefDatabase().getRefs()) {
+            if (!ref.isSymbolic() && !snapshot.containsKey(ref.getName())) {
+                RefUpdate delete = repository.updateRef(ref.getName());
+                delete.disableRefLog();
+                delete.setForceUpdate(true);
+                delete.delete();
+            }
+        }
+        for (Map.Entry<String, ObjectId> ref : snapshot.entrySet()) {
+            if (!ref.getValue().equals(repository.resolve(ref.getKey()))) {
+                moveRef(ref.getKey(), ref.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        repository.close();
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException e) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete " + directory, e);
+        }
+    }
+
+    private Map<String, ObjectId> readTree(ObjectId commit) throws IOException {
+        Map<String, ObjectId> files = new TreeMap<>();
+        try (TreeWalk walk = new TreeWalk(repository)) {
+            walk.addTree(repository.parseCommit(commit).getTree());
+            walk.setRecursive(true);
+            while (walk.next()) {
+                files.put(walk.getPathString(), walk.getObjectId(0));
+            }
+        }
+        return files;
+    }
+
+    private void moveRef(String name, ObjectId id) throws IOException {
+        RefUpdate update = repository.updateRef(name);
+        update.disableRefLog();
+        update.setNewObjectId(id);
+        update.setForceUpdate(true);
+        RefUpdate.Result result = update.update();
+        switch (result) {
+            case NEW:
+            case FORCED:
+            case FAST_FORWARD:
+            case NO_CHANGE:
+                return;
+            default:
+                throw new IOException("Could not move " + name + " to " + id.name() + ": " + result);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import org.eclipse.jgit.api.Git;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Startup, reset and throughput of the in-process fixtures; the startup target is 200 ms. The
+ * first harness in a JVM also pays once for loading JGit and the HTTP server classes, so it is
+ * reported separately as the cold start. The runner section compares one harness per worker with
+ * starting a fresh harness for every test.
+ *
+ * <p>Usage: java HarnessBenchmark [tests] [workers]
+ */
+public class HarnessBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int testCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        SimulationHarness cold = SimulationHarness.start();
+        System.out.printf("Cold start (first in JVM):   %5d ms%n", cold.getStartupMillis());
+
+        long total = 0;
+        int runs = 10;
+        for (int i = 0; i < runs; i++) {
+            try (SimulationHarness warm = SimulationHarness.start()) {
+                total += warm.getStartupMillis();
+            }
+        }
+        System.out.printf("Warm start (mean of %d):     %5.1f ms%n", runs, (double) total / runs);
+
+        try (SimulationHarness harness = cold) {
+            dirty(harness, 0);
+            long start = System.nanoTime();
+            int resets = 200;
+            for (int i = 0; i < resets; i++) {
+                dirty(harness, i);
+                harness.reset();
+            }
+            System.out.printf("Dirty + reset:               %5.2f ms each%n", (System.nanoTime() - start) / 1e6 / resets);
+
+            Path clone = Files.createTempDirectory("harness-clone-");
+            start = System.nanoTime();
+            try (Git git = Git.cloneRepository().setURI(harness.git().getUri()).setDirectory(clone.toFile()).call()) {
+                System.out.printf("JGit clone of fixture:       %5.1f ms (%s checked out)%n",
+                        (System.nanoTime() - start) / 1e6, git.getRepository().getBranch());
+            }
+
+            String url = harness.http().url("/api/test");
+            get(url);
+            int requests = 2000;
+            start = System.nanoTime();
+            for (int i = 0; i < requests; i++) {
+                get(url);
+            }
+            System.out.printf("Stub HTTP GET:               %,7.0f req/s%n", requests / ((System.nanoTime() - start) / 1e9));
+
+            try (MiniRedisServer.Client redis = new MiniRedisServer.Client(harness.redis().getPort())) {
+                int ops = 20000;
+                start = System.nanoTime();
+                for (int i = 0; i < ops; i++) {
+                    redis.call("SET", "key:" + (i % 100), "value");
+                }
+                System.out.printf("Redis SET, one at a time:    %,7.0f ops/s%n", ops / ((System.nanoTime() - start) / 1e9));
+                List<String[]> batch = new ArrayList<>();
+                for (int i = 0; i < 100; i++) {
+                    batch.add(new String[] {"INCR", "counter"});
+                }
+                start = System.nanoTime();
+                for (int i = 0; i < ops / batch.size(); i++) {
+                    redis.pipeline(batch);
+                }
+                System.out.printf("Redis INCR, pipelined x100:  %,7.0f ops/s%n", ops / ((System.nanoTime() - start) / 1e9));
+            }
+        }
+
+        HarnessTestRunner runner = new HarnessTestRunner(workers);
+        for (int i = 0; i < testCount; i++) {
+            int n = i;
+            runner.add("test-" + i, harness -> sampleTest(harness, n));
+        }
+        long start = System.nanoTime();
+        List<HarnessTestRunner.Result> results = runner.run();
+        long reused = System.nanoTime() - start;
+        long failed = results.stream().filter(r -> !r.isPassed()).count();
+        System.out.printf("Runner, %d tests on %d workers, harness per worker: %7.1f ms (%d harnesses, %d failed)%n",
+                testCount, workers, reused / 1e6, runner.getHarnessesStarted(), failed);
+
+        start = System.nanoTime();
+        for (int i = 0; i < testCount; i++) {
+            try (SimulationHarness harness = SimulationHarness.start()) {
+                sampleTest(harness, i);
+            }
+        }
+        System.out.printf("Same tests, harness per test:                      %7.1f ms%n",
+                (System.nanoTime() - start) / 1e6);
+    }
+
+    /** Touches every fixture the way a test would, leaving state for reset to undo. */
+    private static void sampleTest(SimulationHarness harness, int n) throws Exception {
+        MiniRedisServer redis = harness.redis();
+        if (!redis.execute("KEYS", "*").equals(List.of())) {
+            throw new AssertionError("Redis not reset: " + redis.execute("KEYS", "*"));
+        }
+        if (harness.git().snapshot().size() != 1) {
+            throw new AssertionError("Git refs not reset: " + harness.git().snapshot().keySet());
+        }
+        redis.execute("SET", "user:" + n, "name-" + n);
+        redis.execute("INCR", "visits");
+        harness.http().stubJson("GET", "/api/users/" + n, 200, "{\"id\": " + n + "}");
+        if (!get(harness.http().url("/api/users/" + n)).contains("\"id\": " + n)) {
+            throw new AssertionError("Stub not served");
+        }
+        if (harness.http().requestCount("GET", "/api/users/" + n) != 1) {
+            throw new AssertionError("Request counts not reset");
+        }
+        harness.git().commit("refs/heads/topic-" + n, "Change " + n, Map.of("data/" + n + ".txt", "value " + n));
+    }
+
+    private static void dirty(SimulationHarness harness, int i) throws IOException {
+        harness.redis().execute("SET", "k" + i, "v");
+        harness.redis().execute("RPUSH", "queue", "job-" + i);
+        harness.http().stubJson("POST", "/api/jobs", 201, "{}");
+        harness.git().commit("refs/heads/feature-" + (i % 3), "Work " + i, Map.of("work.txt", "step " + i));
+    }
+
+    private static String get(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs simulation tests on a fixed number of worker threads. Each worker starts one
+ * {@link SimulationHarness} the first time it picks up a test and resets it before every further
+ * test, so the fixtures are started once per worker rather than once per test, and tests on
+ * different workers never share state.
+ */
+public class HarnessTestRunner {
+
+    /** A test body; it passes by returning and fails by throwing. */
+    public interface SimulationTest {
+        void run(SimulationHarness harness) throws Exception;
+    }
+
+    /** Outcome of one test. */
+    public static final class Result {
+        private final String name;
+        private final Throwable failure;
+        private final long nanos;
+
+        private Result(String name, Throwable failure, long nanos) {
+            this.name = name;
+            this.failure = failure;
+            this.nanos = nanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPassed() {
+            return failure == null;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return (failure == null ? "PASS " : "FAIL ") + name
+                    + String.format(" (%.1f ms)", nanos / 1e6)
+                    + (failure == null ? "" : " - " + failure);
+        }
+    }
+
+    private final int workers;
+    private final Map<String, SimulationTest> tests = new LinkedHashMap<>();
+    private final AtomicInteger harnessesStarted = new AtomicInteger();
+
+    public HarnessTestRunner(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("At least one worker is needed: " + workers);
+        }
+        this.workers = workers;
+    }
+
+    public HarnessTestRunner add(String name, SimulationTest test) {
+        if (tests.putIfAbsent(name, test) != null) {
+            throw new IllegalArgumentException("Duplicate test name: " + name);
+        }
+        return this;
+    }
+
+    /** Harnesses started by the last {@link #run()}; at most one per worker. */
+    public int getHarnessesStarted() {
+        return harnessesStarted.get();
+    }
+
+    /** Runs every test and returns the results in the order the tests were added. */
+    public List<Result> run() throws InterruptedException {
+        harnessesStarted.set(0);
+        List<String> names = new ArrayList<>(tests.keySet());
+        Result[] results = new Result[names.size()];
+        AtomicInteger next = new AtomicInteger();
+        Queue<SimulationHarness> started = new ConcurrentLinkedQueue<>();
+        int threads = Math.min(workers, Math.max(1, names.size()));
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "harness-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int w = 0; w < threads; w++) {
+                pool.execute(() -> {
+                    try {
+                        SimulationHarness harness = null;
+                        int i;
+                        while ((i = next.getAndIncrement()) < names.size()) {
+                            String name = names.get(i);
+                            long start = System.nanoTime();
+                            Throwable failure = null;
+                            try {
+                                if (harness == null) {
+                                    harness = SimulationHarness.start();
+                                    started.add(harness);
+                                    harnessesStarted.incrementAndGet();
+                                } else {
+                                    harness.reset();
+                                }
+                                tests.get(name).run(harness);
+                            } catch (Throwable e) {
+                                // Any Error too (StackOverflowError, NoClassDefFoundError without
+                                // JGit, ...): it fails this test, not the worker and its results.
+                                failure = e;
+                            }
+                            results[i] = new Result(name, failure, System.nanoTime() - start);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+        } finally {
+            pool.shutdownNow();
+            for (SimulationHarness harness : started) {
+                harness.close();
+            }
+        }
+        List<Result> ordered = new ArrayList<>(results.length);
+        for (Result result : results) {
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    /** Prints one line per test and a summary; returns true if every test passed. */
+    public static boolean report(List<Result> results) {
+        int failed = 0;
+        for (Result result : results) {
+            System.out.println(result);
+            if (!result.isPassed()) {
+                failed++;
+            }
+        }
+        System.out.printf("%d tests, %d passed, %d failed%n", results.size(), results.size() - failed, failed);
+        return failed == 0;
+    }
+}
@@ -0,0 +1,773 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory server speaking the Redis protocol (RESP), used in place of a Redis container. It
+ * covers the commands tests normally touch: strings with expiry, counters, hashes, lists, key
+ * scans and flushing. Any Redis client can connect to {@link #getPort()}; {@link Client} is a
+ * minimal one for tests that do not want a driver.
+ *
+ * <p>Like Redis, commands run one at a time against a single data set, here by locking it. Values
+ * are kept as ISO-8859-1 strings so arbitrary bytes survive unchanged. Expired keys are removed
+ * when next touched.
+ */
+public class MiniRedisServer implements AutoCloseable {
+
+    /** A deep copy of the data set, taken by {@link #snapshot()}. */
+    public static final class Snapshot {
+        private final Map<String, Object> data;
+        private final Map<String, Long> expiry;
+
+        private Snapshot(Map<String, Object> data, Map<String, Long> expiry) {
+            this.data = data;
+            this.expiry = expiry;
+        }
+    }
+
+    /** Raised for an error reply, e.g. a wrong type or an unknown command. */
+    public static final class RedisException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public RedisException(String message) {
+            super(message);
+        }
+    }
+
+    private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+    private static final String NOT_INTEGER = "ERR value is not an integer or out of range";
+    private static final String SYNTAX = "ERR syntax error";
+    private static final Status OK = new Status("OK");
+    // Redis's own limits on a request's argument count and argument length.
+    private static final int MAX_ARGS = 1024 * 1024;
+    private static final int MAX_BULK = 512 * 1024 * 1024;
+
+    /** A simple-string reply such as +OK, as opposed to a bulk string. */
+    private static final class Status {
+        private final String text;
+
+        private Status(String text) {
+            this.text = text;
+        }
+    }
+
+    /** A request that cannot be parsed; the connection is out of step and is closed after the reply. */
+    private static final class ProtocolException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        private ProtocolException(String message) {
+            super("Protocol error: " + message);
+        }
+    }
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService threads;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, Object> data = new HashMap<>();
+    private final Map<String, Long> expiry = new HashMap<>();
+    private volatile boolean running = true;
+
+    public MiniRedisServer() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        AtomicInteger count = new AtomicInteger();
+        threads = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "mini-redis-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        threads.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(copy(data), new HashMap<>(expiry));
+    }
+
+    /** Replaces the data set with a copy of {@code snapshot}, which stays reusable. */
+    public synchronized void restore(Snapshot snapshot) {
+        data.clear();
+        data.putAll(copy(snapshot.data));
+        expiry.clear();
+        expiry.putAll(snapshot.expiry);
+    }
+
+    public synchronized void flushAll() {
+        data.clear();
+        expiry.clear();
+    }
+
+    /** Runs a command in-process, returning what a client would receive. */
+    public Object execute(String... command) {
+        List<String> args = new ArrayList<>(List.of(command));
+        Object reply = dispatch(args);
+        if (reply instanceof RedisException) {
+            throw (RedisException) reply;
+        }
+        return reply instanceof Status ? ((Status) reply).text : reply;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+        threads.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                threads.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    System.err.println("MiniRedis: accept failed - " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket) {
+            InputStream in = new BufferedInputStream(socket.getInputStream());
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            while (true) {
+                List<String> args;
+                try {
+                    args = readCommand(in);
+                } catch (ProtocolException e) {
+                    // After earlier pipelined replies, as Redis does; then close.
+                    writeReply(out, new RedisException("ERR " + e.getMessage()));
+                    out.flush();
+                    return;
+                }
+                if (args == null) {
+                    return;
+                }
+                if (args.isEmpty()) {
+                    continue;
+                }
+                boolean quit = args.get(0).equalsIgnoreCase("QUIT");
+                writeReply(out, quit ? OK : dispatch(args));
+                // Pipelined commands are answered together once the client stops sending.
+                if (quit || in.available() == 0) {
+                    out.flush();
+                }
+                if (quit) {
+                    return;
+                }
+            }
+        } catch (SocketException | EOFException e) {
+            // Client went away
+        } catch (IOException e) {
+            System.err.println("MiniRedis: connection failed - " + e.getMessage());
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private synchronized Object dispatch(List<String> args) {
+        String name = args.get(0).toUpperCase(Locale.ROOT);
+        try {
+            switch (name) {
+                case "PING":
+                    return args.size() > 1 ? args.get(1) : new Status("PONG");
+                case "ECHO":
+                    arity(args, 2);
+                    return args.get(1);
+                case "SELECT":
+                    arity(args, 2);
+                    if (!args.get(1).equals("0")) {
+                        return new RedisException("ERR DB index is out of range");
+                    }
+                    return OK;
+                case "CLIENT":
+                    return OK;
+                case "INFO":
+                    return "# Server\r\nredis_version:6.0.0\r\nredis_mode:standalone\r\n"
+                            + "# Keyspace\r\ndb0:keys=" + data.size() + "\r\n";
+                case "SET":
+                    return set(args);
+                case "GET":
+                    arity(args, 2);
+                    return string(args.get(1));
+                case "MGET": {
+                    List<Object> values = new ArrayList<>();
+                    for (int i = 1; i < args.size(); i++) {
+                        Object value = live(args.get(i));
+                        values.add(value instanceof String ? value : null);
+                    }
+                    return values;
+                }
+                case "MSET":
+                    if (args.size() < 3 || args.size() % 2 == 0) {
+                        return wrongArity(name);
+                    }
+                    for (int i = 1; i < args.size(); i += 2) {
+                        data.put(args.get(i), args.get(i + 1));
+                        expiry.remove(args.get(i));
+                    }
+                    return OK;
+                case "DEL": {
+                    long removed = 0;
+                    for (int i = 1; i < args.size(); i++) {
+                        if (live(args.get(i)) != null) {
+                            remove(args.get(i));
+                            removed++;
+                        }
+                    }
+                    return removed;
+                }
+                case "EXISTS": {
+                    long found = 0;
+                    for (int i = 1; i < args.size(); i++) {
+                        if (live(args.get(i)) != null) {
+                            found++;
+                        }
+                    }
+                    return found;
+                }
+                case "INCR":
+                    arity(args, 2);
+                    return incrementBy(args.get(1), 1);
+                case "DECR":
+                    arity(args, 2);
+                    return incrementBy(args.get(1), -1);
+                case "INCRBY":
+                    arity(args, 3);
+                    return incrementBy(args.get(1), parseLong(args.get(2)));
+                case "DECRBY":
+                    arity(args, 3);
+                    return incrementBy(args.get(1), -parseLong(args.get(2)));
+                case "EXPIRE":
+                    arity(args, 3);
+                    if (live(args.get(1)) == null) {
+                        return 0L;
+                    }
+                    expiry.put(args.get(1), System.currentTimeMillis() + parseLong(args.get(2)) * 1000);
+                    return 1L;
+                case "PERSIST":
+                    arity(args, 2);
+                    return live(args.get(1)) != null && expiry.remove(args.get(1)) != null ? 1L : 0L;
+                case "TTL":
+                case "PTTL": {
+                    arity(args, 2);
+                    if (live(args.get(1)) == null) {
+                        return -2L;
+                    }
+                    Long at = expiry.get(args.get(1));
+                    if (at == null) {
+                        return -1L;
+                    }
+                    long millis = at - System.currentTimeMillis();
+                    return name.equals("TTL") ? (millis + 999) / 1000 : millis;
+                }
+                case "TYPE": {
+                    arity(args, 2);
+                    Object value = live(args.get(1));
+                    String type = value == null ? "none"
+                            : value instanceof String ? "string" : value instanceof Map ? "hash" : "list";
+                    return new Status(type);
+                }
+                case "KEYS": {
+                    arity(args, 2);
+                    Pattern pattern = glob(args.get(1));
+                    List<Object> keys = new ArrayList<>();
+                    for (String key : liveKeys()) {
+                        if (pattern.matcher(key).matches()) {
+                            keys.add(key);
+                        }
+                    }
+                    return keys;
+                }
+                case "DBSIZE":
+                    return (long) liveKeys().size();
+                case "FLUSHALL":
+                case "FLUSHDB":
+                    data.clear();
+                    expiry.clear();
+                    return OK;
+                case "HSET":
+                case "HMSET": {
+                    if (args.size() < 4 || args.size() % 2 != 0) {
+                        return wrongArity(name);
+                    }
+                    Map<String, String> hash = hash(args.get(1), true);
+                    long added = 0;
+                    for (int i = 2; i < args.size(); i += 2) {
+                        if (hash.put(args.get(i), args.get(i + 1)) == null) {
+                            added++;
+                        }
+                    }
+                    return name.equals("HSET") ? (Object) added : OK;
+                }
+                case "HGET": {
+                    arity(args, 3);
+                    Map<String, String> hash = hash(args.get(1), false);
+                    return hash == null ? null : hash.get(args.get(2));
+                }
+                case "HGETALL": {
+                    arity(args, 2);
+                    List<Object> fields = new ArrayList<>();
+                    Map<String, String> hash = hash(args.get(1), false);
+                    if (hash != null) {
+                        hash.forEach((field, value) -> {
+                            fields.add(field);
+                            fields.add(value);
+                        });
+                    }
+                    return fields;
+                }
+                case "HDEL": {
+                    if (args.size() < 3) {
+                        return wrongArity(name);
+                    }
+                    Map<String, String> hash = hash(args.get(1), false);
+                    long removed = 0;
+                    for (int i = 2; hash != null && i < args.size(); i++) {
+                        if (hash.remove(args.get(i)) != null) {
+                            removed++;
+                        }
+                    }
+                    if (hash != null && hash.isEmpty()) {
+                        remove(args.get(1));
+                    }
+                    return removed;
+                }
+                case "LPUSH":
+                case "RPUSH": {
+                    if (args.size() < 3) {
+                        return wrongArity(name);
+                    }
+                    List<String> list = list(args.get(1), true);
+                    for (int i = 2; i < args.size(); i++) {
+                        if (name.equals("LPUSH")) {
+                            list.add(0, args.get(i));
+                        } else {
+                            list.add(args.get(i));
+                        }
+                    }
+                    return (long) list.size();
+                }
+                case "LPOP":
+                case "RPOP": {
+                    arity(args, 2);
+                    List<String> list = list(args.get(1), false);
+                    if (list == null) {
+                        return null;
+                    }
+                    String value = list.remove(name.equals("LPOP") ? 0 : list.size() - 1);
+                    if (list.isEmpty()) {
+                        remove(args.get(1));
+                    }
+                    return value;
+                }
+                case "LLEN": {
+                    arity(args, 2);
+                    List<String> list = list(args.get(1), false);
+                    return list == null ? 0L : (long) list.size();
+                }
+                case "LRANGE": {
+                    arity(args, 4);
+                    List<String> list = list(args.get(1), false);
+                    List<Object> range = new ArrayList<>();
+                    if (list != null) {
+                        int size = list.size();
+                        long start = parseLong(args.get(2));
+                        long stop = parseLong(args.get(3));
+                        start = Math.max(0, start < 0 ? size + start : start);
+                        stop = Math.min(size - 1, stop < 0 ? size + stop : stop);
+                        for (long i = start; i <= stop; i++) {
+                            range.add(list.get((int) i));
+                        }
+                    }
+                    return range;
+                }
+                default:
+                    return new RedisException("ERR unknown command '" + args.get(0) + "'");
+            }
+        } catch (RedisException e) {
+            return e;
+        }
+    }
+
+    private Object set(List<String> args) {
+        if (args.size() < 3) {
+            return wrongArity("SET");
+        }
+        String key = args.get(1);
+        long expiresAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        for (int i = 3; i < args.size(); i++) {
+            String option = args.get(i).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "NX":
+                    nx = true;
+                    break;
+                case "XX":
+                    xx = true;
+                    break;
+                case "EX":
+                case "PX":
+                    if (++i == args.size()) {
+                        return new RedisException(SYNTAX);
+                    }
+                    long amount = parseLong(args.get(i));
+                    expiresAt = System.currentTimeMillis() + (option.equals("EX") ? amount * 1000 : amount);
+                    break;
+                default:
+                    return new RedisException(SYNTAX);
+            }
+        }
+        boolean exists = live(key) != null;
+        if ((nx && exists) || (xx && !exists)) {
+            return null;
+        }
+        data.put(key, args.get(2));
+        if (expiresAt > 0) {
+            expiry.put(key, expiresAt);
+        } else {
+            expiry.remove(key);
+        }
+        return OK;
+    }
+
+    private Object incrementBy(String key, long delta) {
+        Object value = live(key);
+        long current = 0;
+        if (value != null) {
+            if (!(value instanceof String)) {
+                return new RedisException(WRONG_TYPE);
+            }
+            current = parseLong((String) value);
+        }
+        long next = current + delta;
+        data.put(key, Long.toString(next));
+        return next;
+    }
+
+    /** The value of {@code key}, or null if it is missing or has expired. */
+    private Object live(String key) {
+        Long at = expiry.get(key);
+        if (at != null && at <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return data.get(key);
+    }
+
+    private List<String> liveKeys() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> it = expiry.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (entry.getValue() <= now) {
+                data.remove(entry.getKey());
+                it.remove();
+            }
+        }
+        return new ArrayList<>(data.keySet());
+    }
+
+    private void remove(String key) {
+        data.remove(key);
+        expiry.remove(key);
+    }
+
+    private String string(String key) {
+        Object value = live(key);
+        if (value != null && !(value instanceof String)) {
+            throw new RedisException(WRONG_TYPE);
+        }
+        return (String) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> hash(String key, boolean create) {
+        Object value = live(key);
+        if (value == null && create) {
+            value = new LinkedHashMap<String, String>();
+            data.put(key, value);
+        }
+        if (value != null && !(value instanceof Map)) {
+            throw new RedisException(WRONG_TYPE);
+        }
+        return (Map<String, String>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> list(String key, boolean create) {
+        Object value = live(key);
+        if (value == null && create) {
+            value = new ArrayList<String>();
+            data.put(key, value);
+        }
+        if (value != null && !(value instanceof List)) {
+            throw new RedisException(WRONG_TYPE);
+        }
+        return (List<String>) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> copy(Map<String, Object> source) {
+        Map<String, Object> copy = new HashMap<>(source.size() * 2);
+        source.forEach((key, value) -> {
+            if (value instanceof Map) {
+                value = new LinkedHashMap<>((Map<String, String>) value);
+            } else if (value instanceof List) {
+                value = new ArrayList<>((List<String>) value);
+            }
+            copy.put(key, value);
+        });
+        return copy;
+    }
+
+    private static void arity(List<String> args, int expected) {
+        if (args.size() != expected) {
+            throw wrongArity(args.get(0));
+        }
+    }
+
+    private static RedisException wrongArity(String command) {
+        return new RedisException("ERR wrong number of arguments for '" + command.toLowerCase(Locale.ROOT) + "' command");
+    }
+
+    private static long parseLong(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new RedisException(NOT_INTEGER);
+        }
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    // RESP: arrays of bulk strings from clients, or inline commands typed by hand.
+
+    private static List<String> readCommand(InputStream in) throws IOException {
+        int first = in.read();
+        if (first == -1) {
+            return null;
+        }
+        if (first != '*') {
+            String line = (char) first + readLine(in);
+            List<String> args = new ArrayList<>();
+            for (String part : line.trim().split("\\s+")) {
+                if (!part.isEmpty()) {
+                    args.add(part);
+                }
+            }
+            return args;
+        }
+        int count = readLength(in, MAX_ARGS, "invalid multibulk length");
+        List<String> args = new ArrayList<>(Math.min(count, 64));
+        for (int i = 0; i < count; i++) {
+            int marker = in.read();
+            if (marker == -1) {
+                throw new EOFException();
+            }
+            if (marker != '$') {
+                throw new ProtocolException("expected '$', got '" + (char) marker + "'");
+            }
+            int length = readLength(in, MAX_BULK, "invalid bulk length");
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length < length) {
+                throw new EOFException();
+            }
+            if (in.read() != '\r' || in.read() != '\n') {
+                throw new ProtocolException("bulk string not terminated by CRLF");
+            }
+            args.add(new String(bytes, StandardCharsets.ISO_8859_1));
+        }
+        return args;
+    }
+
+    private static int readLength(InputStream in, int max, String error) throws IOException {
+        String line = readLine(in);
+        int length;
+        try {
+            length = Integer.parseInt(line);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException(error);
+        }
+        if (length < 0 || length > max) {
+            throw new ProtocolException(error);
+        }
+        return length;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != '\n') {
+            if (c == -1) {
+                throw new EOFException();
+            }
+            if (c != '\r') {
+                line.append((char) c);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void writeReply(OutputStream out, Object reply) throws IOException {
+        if (reply instanceof Status) {
+            out.write(("+" + ((Status) reply).text + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        } else if (reply == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        } else if (reply instanceof RedisException) {
+            out.write(("-" + ((RedisException) reply).getMessage() + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        } else if (reply instanceof Long) {
+            out.write((":" + reply + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        } else if (reply instanceof List) {
+            List<?> items = (List<?>) reply;
+            out.write(("*" + items.size() + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            for (Object item : items) {
+                writeReply(out, item);
+            }
+        } else {
+            byte[] bytes = ((String) reply).getBytes(StandardCharsets.ISO_8859_1);
+            out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.write(bytes);
+            out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    /**
+     * A blocking RESP client. Replies come back as String (simple and bulk strings), Long,
+     * List or null; error replies throw {@link RedisException}.
+     */
+    public static final class Client implements AutoCloseable {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        public Client(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedInputStream(socket.getInputStream());
+            out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        public Object call(String... command) throws IOException {
+            send(command);
+            out.flush();
+            return read();
+        }
+
+        /** Sends all commands before reading any reply, as Redis pipelining does. */
+        public List<Object> pipeline(List<String[]> commands) throws IOException {
+            for (String[] command : commands) {
+                send(command);
+            }
+            out.flush();
+            List<Object> replies = new ArrayList<>(commands.size());
+            for (int i = 0; i < commands.size(); i++) {
+                replies.add(read());
+            }
+            return replies;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+
+        private void send(String[] command) throws IOException {
+            out.write(("*" + command.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            for (String arg : command) {
+                byte[] bytes = arg.getBytes(StandardCharsets.ISO_8859_1);
+                out.write(("$" + bytes.length + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                out.write(bytes);
+                out.write("\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        private Object read() throws IOException {
+            int type = in.read();
+            String line = readLine(in);
+            switch (type) {
+                case '+':
+                    return line;
+                case '-':
+                    throw new RedisException(line);
+                case ':':
+                    return Long.parseLong(line);
+                case '$': {
+                    int length = Integer.parseInt(line);
+                    if (length < 0) {
+                        return null;
+                    }
+                    byte[] bytes = in.readNBytes(length);
+                    in.skipNBytes(2);
+                    return new String(bytes, StandardCharsets.ISO_8859_1);
+                }
+                case '*': {
+                    int count = Integer.parseInt(line);
+                    if (count < 0) {
+                        return null;
+                    }
+                    List<Object> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(read());
+                    }
+                    return items;
+                }
+                case -1:
+                    throw new EOFException("Connection closed");
+                default:
+                    throw new IOException("Protocol error: unexpected '" + (char) type + "'");
+            }
+        }
+    }
+}
@@ -2,10 +2,6 @@
  * Copyright © 2024 Devin B. Royal. All Rights Reserved.
  */
 
-import com.github.tomakehurst.wiremock.WireMockServer;
-import com.github.tomakehurst.wiremock.client.WireMock;
-import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
-
 import org.apache.commons.lang3.SerializationUtils;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -13,11 +9,14 @@ import org.eclipse.jgit.api.errors.GitAPIException;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
-import org.testcontainers.containers.GenericContainer;
 import org.mockito.Mockito;
 import static org.mockito.Mockito.*;
 
+import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 public class MockSimFramework {
 
@@ -61,53 +60,54 @@ public class MockSimFramework {
     public static void main(String[] args) throws Exception {
         System.out.println("Initializing Mock and Simulation Framework...");
 
-        // Mimicking functionality using WireMock
-        WireMockServer wireMockServer = new WireMockServer(options().port(8080));
-        wireMockServer.start();
-        WireMock.configureFor("localhost", 8080);
-
-        WireMock.stubFor(WireMock.get(WireMock.urlEqualTo("/api/test"))
-                .willReturn(WireMock.aResponse()
-                        .withBody("{\"message\": \"Hello, Mocked API!\"}")
-                        .withStatus(200)));
-
-        System.out.println("WireMock: Mock API started on http://localhost:8080/api/test");
-
-        // Replicating Git repository with JGit
-        try (Git git = Git.cloneRepository()
-                .setURI("https://github.com/example/example-repo.git")
-                .setDirectory(new java.io.File("./cloned-repo"))
-                .call()) {
-            System.out.println("JGit: Repository cloned successfully.");
-        } catch (GitAPIException e) {
-            System.err.println("JGit: Error cloning repository - " + e.getMessage());
-        }
+        // Mock API, git repository and Redis, all in-process
+        SimulationHarness harness = SimulationHarness.start();
+        System.out.println("Harness: fixtures started in " + harness.getStartupMillis() + " ms");
 
-        // Simulating database with TestContainers
-        GenericContainer<?> redisContainer = new GenericContainer<>("redis:6.0").withExposedPorts(6379);
-        redisContainer.start();
-        System.out.println("TestContainers: Redis started on port " + redisContainer.getMappedPort(6379));
+        try {
+            String apiUrl = harness.http().url("/api/test");
+            try (InputStream in = new URL(apiUrl).openStream()) {
+                System.out.println("Stub API: " + apiUrl + " returned " + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
 
-        // Deep cloning with Apache Commons Lang
-        SampleObject original = new SampleObject("Original", 42);
-        SampleObject deepClone = SerializationUtils.clone(original);
-        deepClone.setName("Deep Clone");
+            // Cloning the fixture repository with JGit
+            try (Git git = Git.cloneRepository()
+                    .setURI(harness.git().getUri())
+                    .setDirectory(Files.createTempDirectory("cloned-repo").toFile())
+                    .call()) {
+                System.out.println("JGit: Repository cloned successfully to " + git.getRepository().getWorkTree());
+            } catch (GitAPIException e) {
+                System.err.println("JGit: Error cloning repository - " + e.getMessage());
+            }
 
-        System.out.println("Original: " + original);
-        System.out.println("Deep Clone: " + deepClone);
+            // Using the Redis-protocol store
+            try (MiniRedisServer.Client redis = new MiniRedisServer.Client(harness.redis().getPort())) {
+                redis.call("SET", "greeting", "Hello, Redis!");
+                System.out.println("Redis: started on port " + harness.redis().getPort()
+                        + ", greeting = " + redis.call("GET", "greeting"));
+            }
+            harness.reset();
+
+            // Deep cloning with Apache Commons Lang
+            SampleObject original = new SampleObject("Original", 42);
+            SampleObject deepClone = SerializationUtils.clone(original);
+            deepClone.setName("Deep Clone");
 
-        // Mocking dependencies with Mockito
-        SampleObject mockedObject = mock(SampleObject.class);
-        when(mockedObject.getName()).thenReturn("Mocked Object");
+            System.out.println("Original: " + original);
+            System.out.println("Deep Clone: " + deepClone);
 
-        System.out.println("Mockito: Mocked object name - " + mockedObject.getName());
+            // Mocking dependencies with Mockito
+            SampleObject mockedObject = mock(SampleObject.class);
+            when(mockedObject.getName()).thenReturn("Mocked Object");
 
-        // Unit testing with JUnit
-        JUnitTests.runTests();
+            System.out.println("Mockito: Mocked object name - " + mockedObject.getName());
 
-        // Clean up resources
-        redisContainer.stop();
-        wireMockServer.stop();
+            // Unit testing with JUnit
+            JUnitTests.runTests();
+        } finally {
+            // Clean up resources
+            harness.close();
+        }
         System.out.println("Framework shutdown completed.");
     }
 
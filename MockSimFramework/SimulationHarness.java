@@ -0,0 +1,162 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import org.eclipse.jgit.lib.ObjectId;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * The fake services a simulation runs against, all in this JVM: a stub HTTP API, a bare git
+ * repository and a Redis-protocol store. The three start in parallel, and the state they hold
+ * right after startup is kept as a baseline that {@link #reset()} returns to, so one harness can
+ * be reused across many tests instead of restarting services between them.
+ *
+ * <p>{@link #snapshot()} and {@link #restore(State)} capture and return to any other point, e.g.
+ * after an expensive setup shared by several tests.
+ */
+public class SimulationHarness implements AutoCloseable {
+
+    /** State of every fixture at one moment. */
+    public static final class State {
+        private final Map<String, StubHttpServer.Stub> routes;
+        private final Map<String, ObjectId> refs;
+        private final MiniRedisServer.Snapshot redis;
+
+        private State(Map<String, StubHttpServer.Stub> routes, Map<String, ObjectId> refs,
+                MiniRedisServer.Snapshot redis) {
+            this.routes = routes;
+            this.refs = refs;
+            this.redis = redis;
+        }
+    }
+
+    private final StubHttpServer http;
+    private final GitRepoFixture git;
+    private final MiniRedisServer redis;
+    private State baseline;
+    private long startupMillis;
+
+    private SimulationHarness(StubHttpServer http, GitRepoFixture git, MiniRedisServer redis) {
+        this.http = http;
+        this.git = git;
+        this.redis = redis;
+    }
+
+    /** Starts the fixtures with the default data: {@code GET /api/test} and one commit on main. */
+    public static SimulationHarness start() throws IOException {
+        return start(SimulationHarness::preload);
+    }
+
+    /**
+     * Starts the fixtures and runs {@code setup} on the new harness before taking the baseline,
+     * so whatever it creates is restored by every {@link #reset()}.
+     */
+    public static SimulationHarness start(Consumer<SimulationHarness> setup) throws IOException {
+        long start = System.nanoTime();
+        CompletableFuture<StubHttpServer> http = CompletableFuture.supplyAsync(() -> open(StubHttpServer::new));
+        CompletableFuture<MiniRedisServer> redis = CompletableFuture.supplyAsync(() -> open(MiniRedisServer::new));
+        GitRepoFixture git = null;
+        try {
+            git = new GitRepoFixture();
+            SimulationHarness harness = new SimulationHarness(http.join(), git, redis.join());
+            setup.accept(harness);
+            harness.baseline = harness.snapshot();
+            harness.startupMillis = (System.nanoTime() - start) / 1_000_000;
+            return harness;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(git);
+            http.thenAccept(SimulationHarness::closeQuietly);
+            redis.thenAccept(SimulationHarness::closeQuietly);
+            if (e instanceof CompletionException && e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    public StubHttpServer http() {
+        return http;
+    }
+
+    public GitRepoFixture git() {
+        return git;
+    }
+
+    public MiniRedisServer redis() {
+        return redis;
+    }
+
+    /** Wall time from {@link #start} until the fixtures were ready and the baseline taken. */
+    public long getStartupMillis() {
+        return startupMillis;
+    }
+
+    public State snapshot() {
+        try {
+            return new State(http.snapshot(), git.snapshot(), redis.snapshot());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void restore(State state) {
+        http.restore(state.routes);
+        redis.restore(state.redis);
+        try {
+            git.restore(state.refs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns every fixture to the state it had right after startup. */
+    public void reset() {
+        restore(baseline);
+    }
+
+    @Override
+    public void close() {
+        closeQuietly(http);
+        closeQuietly(git);
+        closeQuietly(redis);
+    }
+
+    private static void preload(SimulationHarness harness) {
+        harness.http().stubJson("GET", "/api/test", 200, "{\"message\": \"Hello, Mocked API!\"}");
+        try {
+            harness.git().commit(GitRepoFixture.MAIN, "Initial commit",
+                    Map.of("README.md", "# example-repo\n\nFixture repository for simulations.\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface Opener<T> {
+        T open() throws IOException;
+    }
+
+    private static <T> T open(Opener<T> opener) {
+        try {
+            return opener.open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        if (resource == null) {
+            return;
+        }
+        try {
+            resource.close();
+        } catch (Exception e) {
+            System.err.println("Harness: error closing " + resource.getClass().getSimpleName() + " - " + e.getMessage());
+        }
+    }
+}
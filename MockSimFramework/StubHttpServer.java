@@ -0,0 +1,163 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for WireMock: an HTTP server on a free loopback port answering from a table
+ * of canned responses keyed by method and exact path. Unknown routes get a 404 with a JSON error.
+ * Every request is counted per route so tests can verify calls. Starts in a few milliseconds.
+ */
+public class StubHttpServer implements AutoCloseable {
+
+    /** A canned response. Immutable, so route tables can be copied for snapshots. */
+    public static final class Stub {
+        private final int status;
+        private final byte[] body;
+        private final String contentType;
+        private final Map<String, String> headers;
+
+        public Stub(int status, String body, String contentType, Map<String, String> headers) {
+            this.status = status;
+            this.body = body.getBytes(StandardCharsets.UTF_8);
+            this.contentType = contentType;
+            this.headers = Map.copyOf(headers);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    static {
+        // Without TCP_NODELAY every small response waits out the client's delayed ACK (~40 ms).
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static final byte[] NOT_FOUND = "{\"error\": \"No stub for this request\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService threads;
+    private final Map<String, Stub> routes = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger unmatched = new AtomicInteger();
+
+    public StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        AtomicInteger count = new AtomicInteger();
+        threads = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "stub-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(threads);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** The address of {@code path} on this server, e.g. {@code http://127.0.0.1:40123/api/test}. */
+    public String url(String path) {
+        return "http://127.0.0.1:" + getPort() + path;
+    }
+
+    /** Answers {@code method path} with the given status and JSON body. */
+    public StubHttpServer stubJson(String method, String path, int status, String json) {
+        return stub(method, path, new Stub(status, json, "application/json", Map.of()));
+    }
+
+    public StubHttpServer stub(String method, String path, Stub stub) {
+        routes.put(key(method, path), stub);
+        return this;
+    }
+
+    public void removeStub(String method, String path) {
+        routes.remove(key(method, path));
+    }
+
+    /** Requests received for {@code method path} since start or the last restore. */
+    public int requestCount(String method, String path) {
+        AtomicInteger count = hits.get(key(method, path));
+        return count == null ? 0 : count.get();
+    }
+
+    /** Requests that matched no stub. */
+    public int unmatchedCount() {
+        return unmatched.get();
+    }
+
+    /** A copy of the route table, for {@link #restore}. */
+    public Map<String, Stub> snapshot() {
+        return new HashMap<>(routes);
+    }
+
+    /** Replaces the route table with a snapshot and clears the request counts. */
+    public void restore(Map<String, Stub> snapshot) {
+        routes.clear();
+        routes.putAll(snapshot);
+        hits.clear();
+        unmatched.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        threads.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            String key = key(exchange.getRequestMethod(), exchange.getRequestURI().getPath());
+            Stub stub = routes.get(key);
+            if (stub == null) {
+                unmatched.incrementAndGet();
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                send(exchange, 404, NOT_FOUND);
+                return;
+            }
+            hits.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Type", stub.contentType);
+            stub.headers.forEach(exchange.getResponseHeaders()::set);
+            send(exchange, stub.status, stub.body);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        boolean empty = body.length == 0 || exchange.getRequestMethod().equalsIgnoreCase("HEAD");
+        exchange.sendResponseHeaders(status, empty ? -1 : body.length);
+        if (!empty) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String key(String method, String path) {
+        return method.toUpperCase(Locale.ROOT) + " " + path;
+    }
+}
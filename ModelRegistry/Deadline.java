@@ -0,0 +1,33 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import java.time.Duration;
+
+/**
+ * Absolute point in time by which a request must be answered, carried from the HTTP handler
+ * through every stage so work for a request that has already timed out is skipped.
+ */
+public final class Deadline {
+
+    private final long expiresAtNanos;
+
+    private Deadline(long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size inference pool with a bounded wait queue. When the queue is full {@link #submit}
+ * throws {@link RejectedExecutionException} immediately, which HTTP handlers should turn into a
+ * 429 so clients back off instead of piling up behind a saturated model.
+ */
+public final class InferenceExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor executor;
+    private final InferenceMetrics metrics;
+
+    public InferenceExecutor(String name, int threads, int queueCapacity, InferenceMetrics metrics) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.metrics = metrics;
+    }
+
+    /**
+     * Runs {@code task} on an inference thread, recording its latency and failures against
+     * {@code model}.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(String model, Callable<T> task) {
+        return execute(model, new CompletableFuture<>(), task);
+    }
+
+    /**
+     * Like {@link #submit(String, Callable)}, but the returned future fails with a
+     * {@link TimeoutException} once {@code deadline} passes, and a task still queued at that point
+     * is dropped without running.
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(String model, Deadline deadline, Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        long remaining = deadline.remainingNanos();
+        if (remaining <= 0) {
+            metrics.expired.inc();
+            result.completeExceptionally(new TimeoutException("Deadline passed before " + model + " was queued"));
+            return result;
+        }
+        result.orTimeout(remaining, TimeUnit.NANOSECONDS);
+        return execute(model, result, task);
+    }
+
+    private <T> CompletableFuture<T> execute(String model, CompletableFuture<T> result, Callable<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                metrics.queueDepth.set(executor.getQueue().size());
+                if (result.isDone()) {
+                    metrics.expired.inc();
+                    return;
+                }
+                try {
+                    result.complete(task.call());
+                } catch (Throwable t) {
+                    metrics.errors.labels(model).inc();
+                    result.completeExceptionally(t);
+                } finally {
+                    metrics.latency.labels(model).observe((System.nanoTime() - submitted) / 1e9);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            metrics.rejected.inc();
+            throw e;
+        }
+        metrics.queueDepth.set(executor.getQueue().size());
+        return result;
+    }
+
+    public int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
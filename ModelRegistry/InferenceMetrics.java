@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Histogram;
+
+/**
+ * Prometheus metrics for one inference service, registered under a service-specific prefix.
+ * Latency is a real {@link Histogram} so percentiles can be computed across requests; it runs
+ * from submission to the executor until the result, so time spent queued is included.
+ */
+public final class InferenceMetrics {
+
+    final Histogram latency;
+    final Counter errors;
+    final Counter rejected;
+    final Counter expired;
+    final Gauge queueDepth;
+
+    public InferenceMetrics(String prefix) {
+        this.latency = Histogram.build()
+                .name(prefix + "_request_latency_seconds")
+                .help("Time per request from submission to result, including queue wait")
+                .labelNames("model")
+                .buckets(0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10)
+                .register();
+        this.errors = Counter.build()
+                .name(prefix + "_errors_total")
+                .help("Requests that failed during inference")
+                .labelNames("model")
+                .register();
+        this.rejected = Counter.build()
+                .name(prefix + "_rejected_total")
+                .help("Requests rejected because the inference queue was full")
+                .register();
+        this.expired = Counter.build()
+                .name(prefix + "_deadline_exceeded_total")
+                .help("Requests dropped because their deadline passed while queued")
+                .register();
+        this.queueDepth = Gauge.build()
+                .name(prefix + "_queue_depth")
+                .help("Requests waiting for an inference thread")
+                .register();
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import ai.djl.Model;
+import ai.djl.MalformedModelException;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Process-wide registry of loaded models, keyed by name and version. Each version is loaded at
+ * most once: concurrent callers asking for a version that is still loading wait on the same
+ * in-flight load instead of starting their own. The version most recently passed to
+ * {@link #load(ModelSpec)}, whether newly loaded or already in memory, is the active one returned
+ * by {@link #get(String)}.
+ */
+public final class ModelRegistry implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRegistry.class);
+    private static final ModelRegistry SHARED = new ModelRegistry();
+
+    private final ConcurrentMap<String, CompletableFuture<PredictorPool<?, ?>>> models = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, PredictorPool<?, ?>> active = new ConcurrentHashMap<>();
+
+    public static ModelRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Loads {@code spec} if it is not loaded yet, makes it the active version, and returns its pool.
+     * A version that is already loaded, or still loading, becomes active again once it is ready.
+     */
+    @SuppressWarnings("unchecked")
+    public <I, O> PredictorPool<I, O> load(ModelSpec<I, O> spec) throws IOException, MalformedModelException {
+        CompletableFuture<PredictorPool<?, ?>> loading = new CompletableFuture<>();
+        CompletableFuture<PredictorPool<?, ?>> existing = models.putIfAbsent(spec.key(), loading);
+        if (existing != null) {
+            PredictorPool<?, ?> pool = await(existing);
+            active.put(spec.getName(), pool);
+            return (PredictorPool<I, O>) pool;
+        }
+        Model model = null;
+        try {
+            long start = System.nanoTime();
+            model = Model.newInstance(spec.getName());
+            if (spec.getModelPath() != null) {
+                model.load(spec.getModelPath());
+            }
+            PredictorPool<I, O> pool = new PredictorPool<>(spec.key(), model, spec);
+            active.put(spec.getName(), pool);
+            loading.complete(pool);
+            logger.info("Loaded model {} with {} predictors in {} ms", spec.key(), spec.getPredictors(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return pool;
+        } catch (Throwable e) {
+            // Errors too, or callers waiting on this load would block forever.
+            models.remove(spec.key(), loading);
+            loading.completeExceptionally(e);
+            if (model != null) {
+                try {
+                    model.close();
+                } catch (RuntimeException closeFailure) {
+                    e.addSuppressed(closeFailure);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /** Returns the active version of {@code name}, or null if none has been loaded. */
+    @SuppressWarnings("unchecked")
+    public <I, O> PredictorPool<I, O> get(String name) {
+        return (PredictorPool<I, O>) active.get(name);
+    }
+
+    /** Closes and forgets one version. Callers must have stopped routing requests to it. */
+    public void unload(String name, String version) {
+        CompletableFuture<PredictorPool<?, ?>> loaded = models.remove(name + "@" + version);
+        if (loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally()) {
+            PredictorPool<?, ?> pool = loaded.join();
+            active.remove(name, pool);
+            pool.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        for (CompletableFuture<PredictorPool<?, ?>> loaded : models.values()) {
+            if (loaded.isDone() && !loaded.isCompletedExceptionally()) {
+                loaded.join().close();
+            }
+        }
+        models.clear();
+        active.clear();
+    }
+
+    private static PredictorPool<?, ?> await(CompletableFuture<PredictorPool<?, ?>> loading)
+            throws IOException, MalformedModelException {
+        try {
+            return loading.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof MalformedModelException) {
+                throw (MalformedModelException) cause;
+            }
+            throw e;
+        }
+    }
+}
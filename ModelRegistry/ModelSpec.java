@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import ai.djl.translate.Translator;
+import java.nio.file.Path;
+
+/**
+ * Describes one version of a model: where to load it from, how to translate its inputs and
+ * outputs, and how many warm predictors to keep for it.
+ */
+public final class ModelSpec<I, O> {
+
+    private final String name;
+    private final String version;
+    private final Path modelPath;
+    private final Translator<I, O> translator;
+    private final int predictors;
+
+    public ModelSpec(String name, String version, Path modelPath, Translator<I, O> translator, int predictors) {
+        if (predictors <= 0) {
+            throw new IllegalArgumentException("At least one predictor is required: " + predictors);
+        }
+        this.name = name;
+        this.version = version;
+        this.modelPath = modelPath;
+        this.translator = translator;
+        this.predictors = predictors;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Path getModelPath() {
+        return modelPath;
+    }
+
+    public Translator<I, O> getTranslator() {
+        return translator;
+    }
+
+    public int getPredictors() {
+        return predictors;
+    }
+
+    String key() {
+        return name + "@" + version;
+    }
+}
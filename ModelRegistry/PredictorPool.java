@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+package com.devinroyal.modelregistry;
+
+import ai.djl.Model;
+import ai.djl.inference.Predictor;
+import ai.djl.translate.TranslateException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A loaded model plus a fixed set of warm predictors. DJL predictors are not thread-safe, so each
+ * call borrows one exclusively and hands it back afterwards; size the pool to the number of
+ * inference threads so borrowing never waits.
+ */
+public final class PredictorPool<I, O> implements AutoCloseable {
+
+    private final String key;
+    private final Model model;
+    private final BlockingQueue<Predictor<I, O>> idle;
+
+    PredictorPool(String key, Model model, ModelSpec<I, O> spec) {
+        this.key = key;
+        this.model = model;
+        this.idle = new ArrayBlockingQueue<>(spec.getPredictors());
+        try {
+            for (int i = 0; i < spec.getPredictors(); i++) {
+                idle.add(model.newPredictor(spec.getTranslator()));
+            }
+        } catch (RuntimeException e) {
+            // The caller closes the model; the predictors made so far are ours to release.
+            Predictor<I, O> predictor;
+            while ((predictor = idle.poll()) != null) {
+                predictor.close();
+            }
+            throw e;
+        }
+    }
+
+    /** Model name and version, e.g. {@code resnet50@1}. */
+    public String getKey() {
+        return key;
+    }
+
+    public O predict(I input) throws TranslateException, InterruptedException {
+        Predictor<I, O> predictor = idle.take();
+        try {
+            return predictor.predict(input);
+        } finally {
+            idle.add(predictor);
+        }
+    }
+
+    /** Releases the predictors and the model; call only once no request is using the pool. */
+    @Override
+    public void close() {
+        Predictor<I, O> predictor;
+        while ((predictor = idle.poll()) != null) {
+            predictor.close();
+        }
+        model.close();
+    }
+}
@@ -3,19 +3,18 @@
  */
 
 import java.util.List;
-import java.util.regex.Pattern;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class Order {
     private static final Logger LOGGER = Logger.getLogger(Order.class.getName());
     
-    private String orderId;
-    private String userId;
-    private String paymentMethod;
-    private String shippingAddress;
-    private String orderDate;
-    private List<String> orderItems;
+    private final String orderId;
+    private final String userId;
+    private final String paymentMethod;
+    private final String shippingAddress;
+    private final String orderDate;
+    private final List<String> orderItems;
 
     public Order(String orderId, String userId, String paymentMethod, String shippingAddress, String orderDate, List<String> orderItems) {
         this.orderId = orderId;
@@ -49,13 +48,33 @@ public class Order {
     }
 
     private boolean isValidPaymentMethod(String paymentMethod) {
-        return paymentMethod.equals("Credit Card") || paymentMethod.equals("PayPal") || paymentMethod.equals("Bank Transfer");
+        return PaymentMethod.match(paymentMethod, 0, paymentMethod.length()) != null;
     }
 
     private boolean isValidDate(String date) {
-        // Basic date validation pattern, format: YYYY-MM-DD
-        String datePattern = "^\\d{4}-\\d{2}-\\d{2}$";
-        return Pattern.matches(datePattern, date);
+        return packDate(date, 0, date.length()) >= 0;
+    }
+
+    /**
+     * Packs a YYYY-MM-DD date held in {@code text[start, end)} into a yyyymmdd int without
+     * allocating. Returns -1 when the range is not in that format.
+     */
+    static int packDate(CharSequence text, int start, int end) {
+        if (end - start != 10 || text.charAt(start + 4) != '-' || text.charAt(start + 7) != '-') {
+            return -1;
+        }
+        int packed = 0;
+        for (int i = start; i < end; i++) {
+            if (i == start + 4 || i == start + 7) {
+                continue;
+            }
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            packed = packed * 10 + digit;
+        }
+        return packed;
     }
 
     private void logAndThrow(String message) {
@@ -75,6 +94,10 @@ public class Order {
         return paymentMethod;
     }
 
+    public PaymentMethod getPaymentMethodType() {
+        return PaymentMethod.match(paymentMethod, 0, paymentMethod.length());
+    }
+
     public String getShippingAddress() {
         return shippingAddress;
     }
@@ -107,5 +130,7 @@ public class Order {
 Logging: Added Logger for structured error logging.
 Validation:orderItems now checks for null or empty.
 Error Handling: logAndThrow method to log errors and throw exceptions with detailed messages.
+Performance: Date and payment method checks no longer compile a regex or allocate per order; bulk
+ingestion goes through OrderIngestionPipeline into columnar OrderBatch chunks.
 This enhanced version of the Order class improves error handling and validation, making it more robust and production-ready..
  */
\ No newline at end of file
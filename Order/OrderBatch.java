@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed-capacity columnar chunk of validated orders. Users and items are stored as dictionary
+ * codes, dates as packed yyyymmdd ints and payment methods as enum ordinals, so aggregations run
+ * over primitive arrays. Items for order {@code i} live in
+ * {@code itemCodes[itemOffsets[i], itemOffsets[i + 1])}.
+ */
+public class OrderBatch {
+    private final OrderDictionary users;
+    private final OrderDictionary items;
+    private final String[] orderIds;
+    private final String[] shippingAddresses;
+    private final int[] userCodes;
+    private final byte[] paymentMethods;
+    private final int[] orderDates;
+    private final int[] itemOffsets;
+    private int[] itemCodes;
+    private int size;
+
+    OrderBatch(int capacity, OrderDictionary users, OrderDictionary items) {
+        this.users = users;
+        this.items = items;
+        this.orderIds = new String[capacity];
+        this.shippingAddresses = new String[capacity];
+        this.userCodes = new int[capacity];
+        this.paymentMethods = new byte[capacity];
+        this.orderDates = new int[capacity];
+        this.itemOffsets = new int[capacity + 1];
+        this.itemCodes = new int[capacity * 4];
+    }
+
+    boolean isFull() {
+        return size == orderIds.length;
+    }
+
+    /** Starts a new row; item codes are appended with {@link #addItem} before {@link #commit}. */
+    void begin(String orderId, int userCode, PaymentMethod paymentMethod, String shippingAddress, int orderDate) {
+        orderIds[size] = orderId;
+        userCodes[size] = userCode;
+        paymentMethods[size] = (byte) paymentMethod.ordinal();
+        shippingAddresses[size] = shippingAddress;
+        orderDates[size] = orderDate;
+    }
+
+    void addItem(int itemCode) {
+        int end = itemOffsets[size + 1];
+        if (end == itemCodes.length) {
+            itemCodes = Arrays.copyOf(itemCodes, itemCodes.length * 2);
+        }
+        itemCodes[end] = itemCode;
+        itemOffsets[size + 1] = end + 1;
+    }
+
+    void commit() {
+        size++;
+        if (size < orderIds.length) {
+            itemOffsets[size + 1] = itemOffsets[size];
+        }
+    }
+
+    /** Discards items appended since the last {@link #begin}. */
+    void rollback() {
+        itemOffsets[size + 1] = itemOffsets[size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getUserCode(int row) {
+        return userCodes[row];
+    }
+
+    public PaymentMethod getPaymentMethod(int row) {
+        return PaymentMethod.fromOrdinal(paymentMethods[row]);
+    }
+
+    public int getOrderDate(int row) {
+        return orderDates[row];
+    }
+
+    public String getOrderId(int row) {
+        return orderIds[row];
+    }
+
+    public OrderDictionary getUserDictionary() {
+        return users;
+    }
+
+    public OrderDictionary getItemDictionary() {
+        return items;
+    }
+
+    /** Adds the number of orders per payment method into {@code counts}, indexed by ordinal. */
+    public void countByPaymentMethod(long[] counts) {
+        for (int i = 0; i < size; i++) {
+            counts[paymentMethods[i]]++;
+        }
+    }
+
+    /**
+     * Adds item occurrences into {@code counts}, indexed by item code. The array must be at least
+     * {@code getItemDictionary().size()} long.
+     */
+    public void countItems(long[] counts) {
+        int end = itemOffsets[size];
+        for (int i = 0; i < end; i++) {
+            counts[itemCodes[i]]++;
+        }
+    }
+
+    /** Rebuilds row {@code row} as an {@link Order}, running the usual validation. */
+    public Order toOrder(int row) {
+        List<String> orderItems = new ArrayList<>(itemOffsets[row + 1] - itemOffsets[row]);
+        for (int i = itemOffsets[row]; i < itemOffsets[row + 1]; i++) {
+            orderItems.add(items.decode(itemCodes[i]));
+        }
+        int date = orderDates[row];
+        String orderDate = String.format("%04d-%02d-%02d", date / 10000, date / 100 % 100, date % 100);
+        return new Order(orderIds[row], users.decode(userCodes[row]), getPaymentMethod(row).getLabel(),
+                shippingAddresses[row], orderDate, orderItems);
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+import java.util.Arrays;
+
+/**
+ * Dictionary encoder mapping strings to dense int codes. Lookups hash a character range of the
+ * caller's buffer directly and compare against a packed char arena, so no String is allocated on
+ * the ingest path; {@link #decode} builds one on demand. Not thread-safe; each
+ * {@link OrderIngestionPipeline} owns its dictionaries.
+ */
+public class OrderDictionary {
+    private char[] arena = new char[1024];
+    private int[] offsets = new int[65];
+    private int[] hashes = new int[64];
+    private int[] slots = new int[128];
+    private int size;
+
+    public OrderDictionary() {
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Returns the code for {@code text[start, end)}, assigning the next free code if it is new.
+     */
+    public int encode(CharSequence text, int start, int end) {
+        int h = hash(text, start, end);
+        int mask = slots.length - 1;
+        int slot = h & mask;
+        while (true) {
+            int code = slots[slot];
+            if (code < 0) {
+                return insert(slot, h, text, start, end);
+            }
+            if (hashes[code] == h && equalsRange(code, text, start, end)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public String decode(int code) {
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown dictionary code: " + code);
+        }
+        return new String(arena, offsets[code], offsets[code + 1] - offsets[code]);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int insert(int slot, int h, CharSequence text, int start, int end) {
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            offsets = Arrays.copyOf(offsets, size * 2 + 1);
+        }
+        int from = offsets[size];
+        int to = from + end - start;
+        if (to > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(to, arena.length * 2));
+        }
+        for (int i = start; i < end; i++) {
+            arena[from++] = text.charAt(i);
+        }
+        int code = size++;
+        offsets[size] = to;
+        hashes[code] = h;
+        slots[slot] = code;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    private void rehash() {
+        int[] grown = new int[slots.length * 2];
+        Arrays.fill(grown, -1);
+        int mask = grown.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hashes[code] & mask;
+            while (grown[slot] >= 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = code;
+        }
+        slots = grown;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + text.charAt(i);
+        }
+        // Murmur3 finalizer: sequential ids hash to neighbouring ints, which would cluster under
+        // linear probing.
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+
+    private boolean equalsRange(int code, CharSequence text, int start, int end) {
+        int from = offsets[code];
+        if (offsets[code + 1] - from != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (arena[from++] != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
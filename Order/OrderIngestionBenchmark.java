@@ -0,0 +1,98 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ *
+ * Throughput benchmark comparing per-object Order construction with the columnar
+ * OrderIngestionPipeline on synthetic order lines. Each mode ingests every line, keeps the result
+ * in memory and then runs the same aggregation (orders per payment method, item frequencies), so
+ * the numbers cover both the load and the downstream scan.
+ * Usage: java OrderIngestionBenchmark [orders] [batchSize]
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OrderIngestionBenchmark {
+    private static final String[] METHODS = {"Credit Card", "PayPal", "Bank Transfer"};
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 8192;
+        String[] lines = generate(orders, new Random(42));
+
+        for (int round = 0; round < 3; round++) {
+            report("object", orders, runObjects(lines));
+            report("columnar", orders, runPipeline(lines, batchSize));
+        }
+    }
+
+    private static long runObjects(String[] lines) {
+        long start = System.nanoTime();
+        List<Order> orders = new ArrayList<>(lines.length);
+        for (String line : lines) {
+            String[] fields = line.split("\t");
+            List<String> items = Arrays.asList(fields[5].split("\\|"));
+            orders.add(new Order(fields[0], fields[1], fields[2], fields[3], fields[4], items));
+        }
+        Map<String, Long> methodCounts = new HashMap<>();
+        Map<String, Long> itemCounts = new HashMap<>();
+        for (Order order : orders) {
+            methodCounts.merge(order.getPaymentMethod(), 1L, Long::sum);
+            for (String item : order.getOrderItems()) {
+                itemCounts.merge(item, 1L, Long::sum);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("  by method " + methodCounts + ", distinct items " + itemCounts.size());
+        return elapsed;
+    }
+
+    private static long runPipeline(String[] lines, int batchSize) {
+        long start = System.nanoTime();
+        List<OrderBatch> batches = new ArrayList<>();
+        OrderIngestionPipeline pipeline = new OrderIngestionPipeline(batchSize, batches::add);
+        for (String line : lines) {
+            pipeline.accept(line);
+        }
+        pipeline.flush();
+        long[] methodCounts = new long[PaymentMethod.values().length];
+        long[] itemCounts = new long[pipeline.getItemDictionary().size()];
+        for (OrderBatch batch : batches) {
+            batch.countByPaymentMethod(methodCounts);
+            batch.countItems(itemCounts);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println("  by method " + Arrays.toString(methodCounts) + ", distinct items " + itemCounts.length);
+        return elapsed;
+    }
+
+    private static String[] generate(int count, Random random) {
+        String[] lines = new String[count];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.setLength(0);
+            sb.append(i).append('\t')
+              .append("user").append(random.nextInt(100_000)).append('\t')
+              .append(METHODS[random.nextInt(METHODS.length)]).append('\t')
+              .append(random.nextInt(9999)).append(" Main St, City, Country").append('\t')
+              .append(String.format("2024-%02d-%02d", 1 + random.nextInt(12), 1 + random.nextInt(28))).append('\t');
+            int itemCount = 1 + random.nextInt(5);
+            for (int j = 0; j < itemCount; j++) {
+                if (j > 0) {
+                    sb.append('|');
+                }
+                sb.append("SKU-").append(random.nextInt(50_000));
+            }
+            lines[i] = sb.toString();
+        }
+        return lines;
+    }
+
+    private static void report(String mode, int orders, long nanos) {
+        System.out.printf("%-9s %,d orders in %d ms (%,.0f orders/sec)%n",
+                mode, orders, nanos / 1_000_000, orders / (nanos / 1e9));
+    }
+}
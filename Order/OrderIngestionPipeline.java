@@ -0,0 +1,154 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Streaming order ingestion. Each input line is tab separated:
+ * {@code orderId, userId, paymentMethod, shippingAddress, orderDate, items}, with items separated
+ * by {@code '|'}. Lines are validated in place by the same rules as {@link Order} and appended to
+ * columnar {@link OrderBatch} chunks, which are handed to the sink as they fill up.
+ *
+ * <p>Invalid lines are counted and skipped rather than thrown, so one bad record does not abort a
+ * bulk load. Not thread-safe; run one pipeline per input stream.
+ */
+public class OrderIngestionPipeline {
+    private static final Logger LOGGER = Logger.getLogger(OrderIngestionPipeline.class.getName());
+    private static final char FIELD_SEPARATOR = '\t';
+    private static final char ITEM_SEPARATOR = '|';
+
+    private final int batchSize;
+    private final Consumer<OrderBatch> sink;
+    private final OrderDictionary users = new OrderDictionary();
+    private final OrderDictionary items = new OrderDictionary();
+    private final int[] fieldEnds = new int[6];
+    private OrderBatch current;
+    private long accepted;
+    private long rejected;
+
+    public OrderIngestionPipeline(int batchSize, Consumer<OrderBatch> sink) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.sink = sink;
+        this.current = new OrderBatch(batchSize, users, items);
+    }
+
+    /** Reads lines until end of stream, then flushes the partially filled batch. */
+    public void ingest(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            accept(line);
+        }
+        flush();
+    }
+
+    /** Validates and stores one line. Returns false if the line was rejected. */
+    public boolean accept(String line) {
+        if (!splitFields(line)) {
+            return reject(line, "wrong field count");
+        }
+        int userEnd = fieldEnds[1];
+        int paymentEnd = fieldEnds[2];
+        int addressEnd = fieldEnds[3];
+        int dateEnd = fieldEnds[4];
+        int itemsEnd = fieldEnds[5];
+        if (fieldEnds[0] == 0) {
+            return reject(line, "Order ID cannot be null or empty");
+        }
+        if (userEnd == fieldEnds[0] + 1) {
+            return reject(line, "User ID cannot be null or empty");
+        }
+        PaymentMethod method = PaymentMethod.match(line, userEnd + 1, paymentEnd);
+        if (method == null) {
+            return reject(line, "Invalid payment method");
+        }
+        if (addressEnd == paymentEnd + 1) {
+            return reject(line, "Shipping address cannot be null or empty");
+        }
+        int date = Order.packDate(line, addressEnd + 1, dateEnd);
+        if (date < 0) {
+            return reject(line, "Invalid order date format");
+        }
+        if (itemsEnd == dateEnd + 1) {
+            return reject(line, "Order items cannot be null or empty");
+        }
+
+        current.begin(line.substring(0, fieldEnds[0]), users.encode(line, fieldEnds[0] + 1, userEnd), method,
+                line.substring(paymentEnd + 1, addressEnd), date);
+        int itemStart = dateEnd + 1;
+        for (int i = itemStart; i <= itemsEnd; i++) {
+            if (i == itemsEnd || line.charAt(i) == ITEM_SEPARATOR) {
+                if (i == itemStart) {
+                    current.rollback();
+                    return reject(line, "Order items cannot contain empty entries");
+                }
+                current.addItem(items.encode(line, itemStart, i));
+                itemStart = i + 1;
+            }
+        }
+        current.commit();
+        accepted++;
+        if (current.isFull()) {
+            emit();
+        }
+        return true;
+    }
+
+    /** Hands the current batch to the sink if it holds any orders. */
+    public void flush() {
+        if (current.size() > 0) {
+            emit();
+        }
+    }
+
+    public long getAcceptedCount() {
+        return accepted;
+    }
+
+    public long getRejectedCount() {
+        return rejected;
+    }
+
+    public OrderDictionary getUserDictionary() {
+        return users;
+    }
+
+    public OrderDictionary getItemDictionary() {
+        return items;
+    }
+
+    private void emit() {
+        sink.accept(current);
+        current = new OrderBatch(batchSize, users, items);
+    }
+
+    private boolean splitFields(String line) {
+        int field = 0;
+        int length = line.length();
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == FIELD_SEPARATOR) {
+                if (field == fieldEnds.length - 1) {
+                    return false;
+                }
+                fieldEnds[field++] = i;
+            }
+        }
+        fieldEnds[field] = length;
+        return field == fieldEnds.length - 1;
+    }
+
+    private boolean reject(String line, String reason) {
+        rejected++;
+        if (LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine(reason + ": " + line);
+        }
+        return false;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+/**
+ * Payment methods accepted by {@link Order}. Matching works on a character range so the ingestion
+ * pipeline can validate a field in place without cutting a substring out of the input line.
+ */
+public enum PaymentMethod {
+    CREDIT_CARD("Credit Card"),
+    PAYPAL("PayPal"),
+    BANK_TRANSFER("Bank Transfer");
+
+    private static final PaymentMethod[] VALUES = values();
+
+    private final String label;
+
+    PaymentMethod(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static PaymentMethod fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * Returns the method whose label equals {@code text[start, end)}, or null if none does.
+     */
+    public static PaymentMethod match(CharSequence text, int start, int end) {
+        int length = end - start;
+        for (PaymentMethod method : VALUES) {
+            String candidate = method.label;
+            if (candidate.length() != length) {
+                continue;
+            }
+            int i = 0;
+            while (i < length && candidate.charAt(i) == text.charAt(start + i)) {
+                i++;
+            }
+            if (i == length) {
+                return method;
+            }
+        }
+        return null;
+    }
+}
@@ -5,15 +5,26 @@ import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.regions.Regions;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import java.io.IOException;
+import java.nio.file.Paths;
 
+/**
+ * Uploads a file to S3 through the shared {@link TransferManager} in ../CloudTransfer: parallel
+ * 8 MB parts, resumable after a failure by simply running again. Compile with that directory on
+ * the source path.
+ */
 public class S3Integration {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         BasicAWSCredentials awsCreds = new BasicAWSCredentials("access_key_id", "secret_key");
         AmazonS3 s3Client = AmazonS3ClientBuilder.standard()
                 .withRegion(Regions.US_EAST_1)
                 .withCredentials(new AWSStaticCredentialsProvider(awsCreds))
                 .build();
-        s3Client.putObject("my-bucket", "my-object", new File("file_path"));
+        try (TransferManager transfers = new TransferManager(new S3ObjectStore(s3Client), 8L * 1024 * 1024, 8)) {
+            transfers.upload(Paths.get("file_path"), "my-bucket", "my-object",
+                    (done, total) -> System.out.printf("\rUploaded %d of %d bytes", done, total));
+        }
+        System.out.println();
         System.out.println("File uploaded to S3.");
     }
 }
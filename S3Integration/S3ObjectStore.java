@@ -0,0 +1,114 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link ObjectStore} backed by S3 multipart uploads and ranged GETs. Works against any
+ * S3-compatible endpoint the client is built for. Part sizes below 5 MB are rejected by S3 for
+ * every part but the last.
+ */
+public class S3ObjectStore implements ObjectStore {
+    private final AmazonS3 s3Client;
+
+    public S3ObjectStore(AmazonS3 s3Client) {
+        this.s3Client = s3Client;
+    }
+
+    @Override
+    public String createMultipartUpload(String bucket, String key) {
+        return s3Client.initiateMultipartUpload(new InitiateMultipartUploadRequest(bucket, key)).getUploadId();
+    }
+
+    @Override
+    public String uploadPart(String bucket, String key, String uploadId, int partNumber, ByteBuffer data, long crc32c) {
+        // The SDK computes and checks an MD5 per part itself, so the CRC is not sent.
+        UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucket)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(partNumber)
+                .withPartSize(data.remaining())
+                .withInputStream(new ByteBufferInputStream(data.duplicate()));
+        return s3Client.uploadPart(request).getETag();
+    }
+
+    @Override
+    public void completeMultipartUpload(String bucket, String key, String uploadId, List<String> partTags) {
+        List<PartETag> etags = new ArrayList<>(partTags.size());
+        for (int i = 0; i < partTags.size(); i++) {
+            etags.add(new PartETag(i + 1, partTags.get(i)));
+        }
+        s3Client.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, etags));
+    }
+
+    @Override
+    public void abortMultipartUpload(String bucket, String key, String uploadId) {
+        s3Client.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+    }
+
+    @Override
+    public long objectSize(String bucket, String key) {
+        return s3Client.getObjectMetadata(bucket, key).getContentLength();
+    }
+
+    @Override
+    public void readRange(String bucket, String key, long offset, ByteBuffer target) throws IOException {
+        if (!target.hasRemaining()) {
+            return;
+        }
+        GetObjectRequest request = new GetObjectRequest(bucket, key)
+                .withRange(offset, offset + target.remaining() - 1);
+        try (S3Object object = s3Client.getObject(request);
+             ReadableByteChannel in = Channels.newChannel(object.getObjectContent())) {
+            while (target.hasRemaining()) {
+                if (in.read(target) < 0) {
+                    throw new EOFException("Short read of " + bucket + "/" + key + " at " + offset);
+                }
+            }
+        }
+    }
+
+    /** Feeds a (typically memory-mapped) part to the SDK without materialising it as one array. */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
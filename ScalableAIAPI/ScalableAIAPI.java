@@ -5,35 +5,42 @@
 
 package com.royal.ai;
 
-import ai.djl.Model;
-import ai.djl.ModelException;
-import ai.djl.inference.Predictor;
+import ai.djl.MalformedModelException;
 import ai.djl.modality.Classifications;
 import ai.djl.modality.cv.Image;
-import ai.djl.modality.cv.transform.Resize;
-import ai.djl.modality.cv.transform.ToTensor;
-import ai.djl.modality.cv.transform.Normalize;
+import ai.djl.translate.TranslateException;
 import ai.djl.translate.Translator;
 import ai.djl.translate.TranslatorContext;
-import ai.djl.translate.TranslatorFactory;
-import ai.djl.translate.TranslateException;
 import ai.djl.translate.Batchifier;
-import ai.djl.translate.TranslatorOptions;
 import ai.djl.util.Utils;
+import com.devinroyal.modelregistry.InferenceExecutor;
+import com.devinroyal.modelregistry.InferenceMetrics;
+import com.devinroyal.modelregistry.ModelRegistry;
+import com.devinroyal.modelregistry.ModelSpec;
+import com.devinroyal.modelregistry.PredictorPool;
 import io.javalin.Javalin;
 import io.javalin.http.UploadedFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 public class ScalableAIAPI {
 
     private static final Logger logger = LoggerFactory.getLogger(ScalableAIAPI.class);
+    private static final int INFERENCE_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final InferenceExecutor executor = new InferenceExecutor("scalable-ai", INFERENCE_THREADS, 64,
+            new InferenceMetrics("scalable_ai"));
+
+    public static void main(String[] args) throws IOException, MalformedModelException {
+        // Loaded once with a warm predictor per inference thread, instead of per request.
+        PredictorPool<Image, Classifications> predictors = ModelRegistry.shared().load(
+                new ModelSpec<>("resnet50", "1", Paths.get("models/resnet50"), new CustomTranslator(), INFERENCE_THREADS));
 
-    public static void main(String[] args) {
         Javalin app = Javalin.create().start(7000);
         
         app.post("/predict", ctx -> {
@@ -43,25 +50,30 @@ public class ScalableAIAPI {
                 return;
             }
             
+            byte[] imageData = file.getContent().readAllBytes();
+            CompletableFuture<String> prediction;
             try {
-                byte[] imageData = file.getContent().readAllBytes();
-                String prediction = predict(imageData);
-                ctx.json(prediction);
-            } catch (IOException | ModelException | TranslateException e) {
-                logger.error("Error processing image", e);
-                ctx.status(500).result("Error processing image");
+                prediction = executor.submit(predictors.getKey(), () -> predict(predictors, imageData));
+            } catch (RejectedExecutionException e) {
+                ctx.status(429).result("Server busy, retry later");
+                return;
             }
+            // The request thread is released here; the response is written when inference finishes.
+            ctx.future(() -> prediction
+                    .thenAccept(ctx::json)
+                    .exceptionally(failure -> {
+                        logger.error("Error processing image", failure);
+                        ctx.status(500).result("Error processing image");
+                        return null;
+                    }));
         });
     }
     
-    private static String predict(byte[] imageData) throws IOException, ModelException, TranslateException {
-        Model model = Model.newInstance("resnet50");
-        Translator<Image, Classifications> translator = new CustomTranslator();
-        try (Predictor<Image, Classifications> predictor = model.newPredictor(translator)) {
-            Image img = Image.fromInputStream(Utils.toInputStream(imageData));
-            Classifications classifications = predictor.predict(img);
-            return classifications.toString();
-        }
+    private static String predict(PredictorPool<Image, Classifications> predictors, byte[] imageData)
+            throws IOException, TranslateException, InterruptedException {
+        Image img = Image.fromInputStream(Utils.toInputStream(imageData));
+        Classifications classifications = predictors.predict(img);
+        return classifications.toString();
     }
 }
 
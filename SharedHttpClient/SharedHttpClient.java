@@ -0,0 +1,327 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Shared asynchronous HTTP client for InterLangAPI, ThreatDataFetcher and similar callers.
+ * Compile callers with: javac -sourcepath ../SharedHttpClient <Caller>.java
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * One {@link HttpClient} shared by every caller, so connections are pooled and reused instead of
+ * opened per request. HTTP/2 is preferred and multiplexes concurrent requests over one connection
+ * per host where the server supports it; HTTP/1.1 servers get a pool of keep-alive connections.
+ *
+ * <p>Every request has a timeout, the client a connect timeout. At most {@code maxConcurrency}
+ * requests are outstanding at once; further requests queue without blocking the caller, which
+ * keeps bulk fan-out from opening hundreds of connections to one server. Bodies can be taken as a
+ * string, streamed as lines or an {@link InputStream}, or written straight to a file, so large
+ * responses need not be held in memory.
+ *
+ * <p>The blocking helpers throw an {@link IOException} for 4xx and 5xx responses, as
+ * HttpURLConnection did; the asynchronous methods return every response and leave the status to
+ * the caller.
+ */
+public final class SharedHttpClient {
+
+    private static final SharedHttpClient SHARED = builder().build();
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final int maxConcurrency;
+    private final AtomicInteger active = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    /** A bulk request outcome: the response, or the error that prevented one. */
+    public static final class Outcome<T> {
+        private final String url;
+        private final HttpResponse<T> response;
+        private final Throwable error;
+
+        Outcome(String url, HttpResponse<T> response, Throwable error) {
+            this.url = url;
+            this.response = response;
+            this.error = error;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /** The response, or null if the request failed. */
+        public HttpResponse<T> getResponse() {
+            return response;
+        }
+
+        /** Why the request failed, or null if a response arrived. */
+        public Throwable getError() {
+            return error;
+        }
+
+        /** True if a response arrived with a 2xx status. */
+        public boolean isSuccess() {
+            return response != null && response.statusCode() / 100 == 2;
+        }
+    }
+
+    /** Settings of a client; the defaults suit the programs in this repository. */
+    public static final class Builder {
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration requestTimeout = Duration.ofSeconds(30);
+        private int maxConcurrency = 64;
+        private HttpClient.Version version = HttpClient.Version.HTTP_2;
+        private HttpClient.Redirect redirect = HttpClient.Redirect.NORMAL;
+
+        private Builder() {}
+
+        public Builder connectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        /** Time allowed from sending a request until the response headers arrive. */
+        public Builder requestTimeout(Duration requestTimeout) {
+            this.requestTimeout = requestTimeout;
+            return this;
+        }
+
+        /** Requests outstanding at once; more are queued. */
+        public Builder maxConcurrency(int maxConcurrency) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("maxConcurrency must be positive");
+            }
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        public Builder version(HttpClient.Version version) {
+            this.version = version;
+            return this;
+        }
+
+        public Builder followRedirects(HttpClient.Redirect redirect) {
+            this.redirect = redirect;
+            return this;
+        }
+
+        public SharedHttpClient build() {
+            return new SharedHttpClient(this);
+        }
+    }
+
+    private SharedHttpClient(Builder builder) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(builder.connectTimeout)
+                .version(builder.version)
+                .followRedirects(builder.redirect)
+                .build();
+        this.requestTimeout = builder.requestTimeout;
+        this.maxConcurrency = builder.maxConcurrency;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** The process-wide client with default settings. */
+    public static SharedHttpClient shared() {
+        return SHARED;
+    }
+
+    public HttpClient getHttpClient() {
+        return client;
+    }
+
+    /** A request builder for {@code url} with this client's request timeout and the given headers. */
+    public HttpRequest.Builder request(String url, Map<String, String> headers) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).timeout(requestTimeout);
+        headers.forEach(request::header);
+        return request;
+    }
+
+    /** Sends a request once a concurrency slot is free. */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return limited(() -> client.sendAsync(request, handler));
+    }
+
+    /** Sends a request and waits for the response headers, whatever the status. */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        return await(sendAsync(request, handler));
+    }
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String url) {
+        return getAsync(url, Map.of());
+    }
+
+    public CompletableFuture<HttpResponse<String>> getAsync(String url, Map<String, String> headers) {
+        return sendAsync(request(url, headers).GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public CompletableFuture<HttpResponse<String>> postAsync(String url, String body, String contentType,
+            Map<String, String> headers) {
+        HttpRequest request = request(url, headers)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Streams the response body line by line as it arrives. The stream must be closed, which
+     * releases the connection back to the pool.
+     */
+    public CompletableFuture<HttpResponse<Stream<String>>> getLinesAsync(String url, Map<String, String> headers) {
+        return sendAsync(request(url, headers).GET().build(), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    /** Streams the response body into {@code file} without buffering it in memory. */
+    public CompletableFuture<HttpResponse<Path>> downloadAsync(String url, Path file, Map<String, String> headers) {
+        return sendAsync(request(url, headers).GET().build(), HttpResponse.BodyHandlers.ofFile(file));
+    }
+
+    /** GET returning the body; throws for error statuses, like HttpURLConnection. */
+    public String get(String url) throws IOException {
+        return get(url, Map.of());
+    }
+
+    public String get(String url, Map<String, String> headers) throws IOException {
+        return checked(url, await(getAsync(url, headers))).body();
+    }
+
+    /** POST of a text body, returning the response body; throws for error statuses. */
+    public String post(String url, String body, String contentType) throws IOException {
+        return post(url, body, contentType, Map.of());
+    }
+
+    public String post(String url, String body, String contentType, Map<String, String> headers) throws IOException {
+        return checked(url, await(postAsync(url, body, contentType, headers))).body();
+    }
+
+    /** GET streaming the body to {@code file}; returns the number of bytes written. */
+    public long download(String url, Path file) throws IOException {
+        HttpResponse<Path> response = checked(url, await(downloadAsync(url, file, Map.of())));
+        return response.body().toFile().length();
+    }
+
+    /**
+     * GETs every URL concurrently, within the concurrency limit, and returns the outcomes in the
+     * order of {@code urls}. Failed requests are reported in their outcome rather than thrown.
+     */
+    public List<Outcome<String>> getAll(Collection<String> urls, Map<String, String> headers) {
+        List<String> order = new ArrayList<>(urls);
+        List<CompletableFuture<Outcome<String>>> futures = new ArrayList<>(order.size());
+        for (String url : order) {
+            CompletableFuture<HttpResponse<String>> response;
+            try {
+                response = getAsync(url, headers);
+            } catch (IllegalArgumentException e) {
+                response = CompletableFuture.failedFuture(e);
+            }
+            futures.add(response.handle((r, error) -> new Outcome<>(url, r, unwrap(error))));
+        }
+        List<Outcome<String>> outcomes = new ArrayList<>(futures.size());
+        for (CompletableFuture<Outcome<String>> future : futures) {
+            outcomes.add(future.join());
+        }
+        return outcomes;
+    }
+
+    /** Requests currently sent and not yet answered. */
+    public int activeRequests() {
+        return active.get();
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> limited(Supplier<CompletableFuture<HttpResponse<T>>> send) {
+        CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            CompletableFuture<HttpResponse<T>> sent;
+            try {
+                sent = send.get();
+            } catch (RuntimeException e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            sent.whenComplete((response, error) -> {
+                active.decrementAndGet();
+                drain();
+                if (error != null) {
+                    result.completeExceptionally(unwrap(error));
+                } else {
+                    result.complete(response);
+                }
+            });
+        });
+        drain();
+        return result;
+    }
+
+    /** Starts queued requests while slots are free. */
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = active.get();
+            if (current >= maxConcurrency) {
+                return;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                Runnable next = waiting.poll();
+                if (next == null) {
+                    active.decrementAndGet();
+                    // Another thread took it; recheck in case work arrived meanwhile.
+                    continue;
+                }
+                next.run();
+            }
+        }
+    }
+
+    private static <T> HttpResponse<T> checked(String url, HttpResponse<T> response) throws IOException {
+        if (response.statusCode() >= 400) {
+            throw new IOException("Server returned HTTP response code: " + response.statusCode() + " for URL: " + url);
+        }
+        return response;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the response", e);
+        } catch (ExecutionException e) {
+            Throwable cause = unwrap(e.getCause());
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException) && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+}
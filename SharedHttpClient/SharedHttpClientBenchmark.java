@@ -0,0 +1,256 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Requests/sec and connections opened by SharedHttpClient against the HttpURLConnection code
+ * InterLangAPI.sendGetRequest/sendPostRequest used before, on a local com.sun.net.httpserver
+ * server. That server speaks HTTP/1.1 only, so this measures pooling and fan-out, not HTTP/2.
+ * Usage: java SharedHttpClientBenchmark [requests] [serverLatencyMillis]
+ */
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class SharedHttpClientBenchmark {
+
+    private static final byte[] SMALL = ("{\"status\":\"ok\",\"items\":[" + "\"item\",".repeat(120) + "\"last\"]}\n")
+            .getBytes(StandardCharsets.UTF_8);
+    private static final int LARGE_LINES = 400_000;
+
+    private static final Set<String> connections = ConcurrentHashMap.newKeySet();
+    private static volatile int latencyMillis;
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        latencyMillis = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        System.out.println(Runtime.getRuntime().availableProcessors() + " CPU(s), " + latencyMillis
+                + " ms simulated server latency");
+
+        // Without this the server's separate header and body writes stall on delayed ACKs.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(128);
+        server.setExecutor(serverThreads);
+        server.createContext("/small", exchange -> respond(exchange, SMALL, true));
+        server.createContext("/echo", exchange -> respond(exchange, exchange.getRequestBody().readAllBytes(), true));
+        server.createContext("/large", SharedHttpClientBenchmark::large);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        try {
+            SharedHttpClient client = SharedHttpClient.shared();
+            for (int i = 0; i < 200; i++) {
+                legacyGet(base + "/small");
+                client.get(base + "/small");
+            }
+
+            int sequential = Math.min(requests, 500);
+            long[] latencies = new long[sequential];
+            connections.clear();
+            long start = System.nanoTime();
+            for (int i = 0; i < sequential; i++) {
+                long callStart = System.nanoTime();
+                check(legacyGet(base + "/small").length() == SMALL.length - 1);
+                latencies[i] = System.nanoTime() - callStart;
+            }
+            report("legacy GET, sequential", latencies, System.nanoTime() - start);
+
+            connections.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < sequential; i++) {
+                long callStart = System.nanoTime();
+                check(client.get(base + "/small").length() == SMALL.length);
+                latencies[i] = System.nanoTime() - callStart;
+            }
+            report("shared GET, sequential", latencies, System.nanoTime() - start);
+
+            connections.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < sequential; i++) {
+                long callStart = System.nanoTime();
+                check(legacyPost(base + "/echo", "data=Hello" + i).equals("data=Hello" + i));
+                latencies[i] = System.nanoTime() - callStart;
+            }
+            report("legacy POST, sequential", latencies, System.nanoTime() - start);
+
+            connections.clear();
+            start = System.nanoTime();
+            for (int i = 0; i < sequential; i++) {
+                long callStart = System.nanoTime();
+                check(client.post(base + "/echo", "data=Hello" + i, "application/x-www-form-urlencoded")
+                        .equals("data=Hello" + i));
+                latencies[i] = System.nanoTime() - callStart;
+            }
+            report("shared POST, sequential", latencies, System.nanoTime() - start);
+
+            // The old API blocks, so concurrency meant one thread per outstanding request.
+            int threads = 64;
+            ExecutorService callers = Executors.newFixedThreadPool(threads);
+            long[] concurrent = new long[requests];
+            List<Future<?>> done = new ArrayList<>();
+            connections.clear();
+            start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                int caller = t;
+                done.add(callers.submit(() -> {
+                    for (int i = caller; i < requests; i += threads) {
+                        long callStart = System.nanoTime();
+                        check(legacyGet(base + "/small").length() == SMALL.length - 1);
+                        concurrent[i] = System.nanoTime() - callStart;
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get();
+            }
+            report("legacy GET, " + threads + " threads", concurrent, System.nanoTime() - start);
+            callers.shutdown();
+
+            List<String> urls = Collections.nCopies(requests, base + "/small");
+            connections.clear();
+            start = System.nanoTime();
+            List<SharedHttpClient.Outcome<String>> outcomes = client.getAll(urls, Map.of());
+            long total = System.nanoTime() - start;
+            for (SharedHttpClient.Outcome<String> outcome : outcomes) {
+                check(outcome.isSuccess());
+            }
+            System.out.printf("  %-26s %,6d reqs %,9.0f reqs/sec  %26s  %3d connections, 1 calling thread%n",
+                    "shared getAll fan-out", requests, requests / (total / 1e9), "", connections.size());
+
+            latencyMillis = 0;
+            Runtime runtime = Runtime.getRuntime();
+            System.out.printf("Large body: %,d lines%n", LARGE_LINES);
+            System.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            start = System.nanoTime();
+            String buffered = legacyGet(base + "/large");
+            long peak = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+            System.out.printf("  %-26s %,6.0f ms  %,7d KB held, newlines lost: %s%n", "legacy readLine buffer",
+                    (System.nanoTime() - start) / 1e6, peak / 1024, buffered.indexOf('\n') < 0);
+            buffered = null;
+
+            System.gc();
+            heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            start = System.nanoTime();
+            long matched;
+            HttpResponse<Stream<String>> lines = client.getLinesAsync(base + "/large", Map.of()).get();
+            try (Stream<String> body = lines.body()) {
+                matched = body.filter(line -> line.endsWith("7")).count();
+            }
+            check(matched == LARGE_LINES / 10);
+            System.out.printf("  %-26s %,6.0f ms  %,7d KB held%n", "shared getLines stream",
+                    (System.nanoTime() - start) / 1e6, Math.max(0, runtime.totalMemory() - runtime.freeMemory() - heapBefore) / 1024);
+
+            Path file = Files.createTempFile("shared-http", ".txt");
+            try {
+                start = System.nanoTime();
+                long bytes = client.download(base + "/large", file);
+                System.out.printf("  %-26s %,6.0f ms  %,7d KB written to file%n", "shared download",
+                        (System.nanoTime() - start) / 1e6, bytes / 1024);
+            } finally {
+                Files.delete(file);
+            }
+        } finally {
+            server.stop(0);
+            serverThreads.shutdown();
+        }
+    }
+
+    // The request code InterLangAPI used before SharedHttpClient
+    private static String legacyGet(String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("GET");
+        return legacyRead(connection);
+    }
+
+    private static String legacyPost(String url, String data) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream os = connection.getOutputStream()) {
+            os.write(data.getBytes());
+        }
+        return legacyRead(connection);
+    }
+
+    private static String legacyRead(HttpURLConnection connection) throws IOException {
+        StringBuilder response = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                response.append(line);
+            }
+        }
+        return response.toString();
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body, boolean delay) throws IOException {
+        connections.add(exchange.getRemoteAddress().toString());
+        if (delay && latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void large(HttpExchange exchange) throws IOException {
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream out = exchange.getResponseBody()) {
+            byte[] chunk = new byte[64 * 1024];
+            int used = 0;
+            for (int i = 0; i < LARGE_LINES; i++) {
+                byte[] line = ("{\"line\":" + i + ",\"payload\":\"abcdefghijklmnopqrstuvwxyz\"}" + (i % 10) + "\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+                if (used + line.length > chunk.length) {
+                    out.write(chunk, 0, used);
+                    used = 0;
+                }
+                System.arraycopy(line, 0, chunk, used, line.length);
+                used += line.length;
+            }
+            out.write(chunk, 0, used);
+        }
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Unexpected response");
+        }
+    }
+
+    private static void report(String label, long[] latencies, long totalNanos) {
+        long[] sorted = latencies.clone();
+        Arrays.sort(sorted);
+        System.out.printf("  %-26s %,6d reqs %,9.0f reqs/sec  p50 %,7.3f ms  p99 %,7.3f ms  %3d connections%n",
+                label, sorted.length, sorted.length / (totalNanos / 1e9),
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6, connections.size());
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Hierarchical namespace keyed by slash-separated paths ("docs/2024/report.txt"). Each path
+ * segment is one node with a hash map of children, so lookups, inserts and deletes cost one hash
+ * probe per segment regardless of how many entries exist, and listing a directory only visits that
+ * directory's subtree. Children keep insertion order, so listings come out in creation order.
+ */
+public class PathTrie<V> {
+
+  private final Node<V> root = new Node<>(null, null);
+  private int size;
+
+  public int size() {
+    return size;
+  }
+
+  public V get(String path) {
+    Node<V> node = find(path);
+    return node == null ? null : node.value;
+  }
+
+  public boolean contains(String path) {
+    return get(path) != null;
+  }
+
+  /** Stores {@code value} at {@code path} unless an entry already exists there. */
+  public boolean putIfAbsent(String path, V value) {
+    if (value == null) {
+      throw new IllegalArgumentException("Value cannot be null");
+    }
+    Node<V> node = root;
+    for (String segment : segments(path)) {
+      Node<V> child = node.children == null ? null : node.children.get(segment);
+      if (child == null) {
+        if (node.children == null) {
+          node.children = new LinkedHashMap<>(4);
+        }
+        child = new Node<>(segment, node);
+        node.children.put(segment, child);
+      }
+      node = child;
+    }
+    if (node.value != null) {
+      return false;
+    }
+    node.value = value;
+    size++;
+    return true;
+  }
+
+  /** Removes the entry at {@code path}, pruning directories left empty. */
+  public V remove(String path) {
+    Node<V> node = find(path);
+    if (node == null || node.value == null) {
+      return null;
+    }
+    V removed = node.value;
+    node.value = null;
+    size--;
+    while (node.parent != null && node.value == null && (node.children == null || node.children.isEmpty())) {
+      node.parent.children.remove(node.segment);
+      node = node.parent;
+    }
+    return removed;
+  }
+
+  /** Entries directly inside {@code directory} ("" for the root), not descending further. */
+  public List<V> listChildren(String directory) {
+    List<V> values = new ArrayList<>();
+    Node<V> node = find(directory);
+    if (node != null && node.children != null) {
+      for (Node<V> child : node.children.values()) {
+        if (child.value != null) {
+          values.add(child.value);
+        }
+      }
+    }
+    return values;
+  }
+
+  /** Visits every entry at or below {@code prefix} ("" for everything) with its full path. */
+  public void forEachUnder(String prefix, BiConsumer<String, V> visitor) {
+    Node<V> node = find(prefix);
+    if (node != null) {
+      StringBuilder path = new StringBuilder(String.join("/", segments(prefix)));
+      walk(node, path, visitor);
+    }
+  }
+
+  /** All entries at or below {@code prefix}, in creation order within each directory. */
+  public List<V> listUnder(String prefix) {
+    List<V> values = new ArrayList<>();
+    forEachUnder(prefix, (path, value) -> values.add(value));
+    return values;
+  }
+
+  private void walk(Node<V> node, StringBuilder path, BiConsumer<String, V> visitor) {
+    if (node.value != null) {
+      visitor.accept(path.toString(), node.value);
+    }
+    if (node.children == null) {
+      return;
+    }
+    int length = path.length();
+    for (Node<V> child : node.children.values()) {
+      if (length > 0) {
+        path.append('/');
+      }
+      path.append(child.segment);
+      walk(child, path, visitor);
+      path.setLength(length);
+    }
+  }
+
+  private Node<V> find(String path) {
+    Node<V> node = root;
+    for (String segment : segments(path)) {
+      if (node.children == null || (node = node.children.get(segment)) == null) {
+        return null;
+      }
+    }
+    return node;
+  }
+
+  /** Splits on '/', ignoring leading, trailing and repeated separators. */
+  static List<String> segments(String path) {
+    List<String> segments = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i <= path.length(); i++) {
+      if (i == path.length() || path.charAt(i) == '/') {
+        if (i > start) {
+          segments.add(path.substring(start, i));
+        }
+        start = i + 1;
+      }
+    }
+    return segments;
+  }
+
+  private static final class Node<V> {
+    final String segment;
+    final Node<V> parent;
+    Map<String, Node<V>> children;
+    V value;
+
+    Node(String segment, Node<V> parent) {
+      this.segment = segment;
+      this.parent = parent;
+    }
+  }
+}
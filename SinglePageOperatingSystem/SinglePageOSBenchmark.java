@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2024 Devin B. Royal.
+ * All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Scripted, non-interactive driver: creates, lists and deletes files and users through the
+ * SinglePageOperatingSystem API (1M operations by default), then times the same create workload
+ * against the old ArrayList + stream().anyMatch storage at a size it can still finish.
+ * Usage: java SinglePageOSBenchmark [operations] [legacyOperations]
+ */
+public class SinglePageOSBenchmark {
+
+  public static void main(String[] args) {
+    int operations = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+    int legacyOperations = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+
+    for (int round = 1; round <= 2; round++) { // the first round warms up the JIT
+      System.out.println("-- round " + round);
+      SinglePageOperatingSystem os = new SinglePageOperatingSystem();
+      int files = operations / 2;
+      int users = operations - files;
+
+      long start = System.nanoTime();
+      for (int i = 0; i < files; i++) {
+        check(os.createFile(path(i), SinglePageOperatingSystem.Permission.values()[i % 3]));
+      }
+      check(!os.createFile(path(0), SinglePageOperatingSystem.Permission.READ));
+      report("create files", files, System.nanoTime() - start);
+
+      start = System.nanoTime();
+      for (int i = 0; i < users; i++) {
+        check(os.addUser("user" + i));
+      }
+      check(!os.addUser("user0"));
+      report("add users", users, System.nanoTime() - start);
+
+      int directories = 1000;
+      start = System.nanoTime();
+      long listed = 0;
+      for (int i = 0; i < directories; i++) {
+        listed += os.listFiles("home/u" + i).size();
+      }
+      report("list directory", directories, System.nanoTime() - start);
+      check(listed == files);
+
+      start = System.nanoTime();
+      for (int i = 0; i < files; i += 2) {
+        check(os.deleteFile(path(i)));
+      }
+      for (int i = 0; i < users; i += 2) {
+        check(os.removeUser("user" + i));
+      }
+      report("delete", files / 2 + users / 2, System.nanoTime() - start);
+      check(os.fileCount() == files / 2 && os.userCount() == users - (users + 1) / 2);
+      check(os.listFiles("").size() == files / 2);
+    }
+
+    // Old storage: every create scans everything created so far.
+    List<SinglePageOperatingSystem.File> legacy = new ArrayList<>();
+    long start = System.nanoTime();
+    for (int i = 0; i < legacyOperations; i++) {
+      String name = path(i);
+      if (legacy.stream().noneMatch(file -> file.getName().equals(name))) {
+        legacy.add(new SinglePageOperatingSystem.File(name, SinglePageOperatingSystem.Permission.READ));
+      }
+    }
+    report("legacy create", legacyOperations, System.nanoTime() - start);
+  }
+
+  // 1000 home directories with a couple of levels below each
+  private static String path(int i) {
+    return "home/u" + (i % 1000) + "/projects/p" + (i / 1000 % 50) + "/file" + i + ".txt";
+  }
+
+  private static void check(boolean condition) {
+    if (!condition) {
+      throw new IllegalStateException("Unexpected result");
+    }
+  }
+
+  private static void report(String phase, int count, long nanos) {
+    System.out.printf("%-15s %,10d ops in %,7d ms (%,.0f ops/sec)%n",
+        phase, count, nanos / 1_000_000, count / (nanos / 1e9));
+  }
+}
@@ -8,9 +8,9 @@ import java.util.*;
 
 public class SinglePageOperatingSystem {
 
-  // Core components
-  private final List<User> users = new ArrayList<>();
-  private final List<File> files = new ArrayList<>();
+  // Core components: users indexed by name, files by path
+  private final Map<String, User> users = new LinkedHashMap<>();
+  private final PathTrie<File> files = new PathTrie<>();
 
   // System status
   private boolean isRunning = false;
@@ -33,17 +33,19 @@ public class SinglePageOperatingSystem {
           System.out.println("1. Add User");
           System.out.println("2. Create File");
           System.out.println("3. List Files");
-          System.out.println("4. Execute Program");
-          System.out.println("5. Shutdown");
+          System.out.println("4. Delete File");
+          System.out.println("5. Execute Program");
+          System.out.println("6. Shutdown");
           System.out.print("Enter your choice: ");
           int choice = Integer.parseInt(scanner.nextLine());
 
           switch (choice) {
             case 1 -> addUser(scanner);
             case 2 -> createFile(scanner);
-            case 3 -> listFiles();
-            case 4 -> executeProgram(scanner);
-            case 5 -> shutdown();
+            case 3 -> listFiles(scanner);
+            case 4 -> deleteFile(scanner);
+            case 5 -> executeProgram(scanner);
+            case 6 -> shutdown();
             default -> System.out.println("Invalid choice. Please try again.");
           }
         } catch (NumberFormatException e) {
@@ -67,19 +69,33 @@ public class SinglePageOperatingSystem {
       return;
     }
 
-    if (users.stream().anyMatch(user -> user.getName().equals(name))) {
+    if (!addUser(name)) {
       System.out.println("[Error] A user with this name already exists.");
       return;
     }
-
-    User user = new User(name);
-    users.add(user);
     System.out.println("User added: " + name);
   }
 
+  // Add a user; false if the name is taken
+  public boolean addUser(String name) {
+    return users.putIfAbsent(name, new User(name)) == null;
+  }
+
+  public User getUser(String name) {
+    return users.get(name);
+  }
+
+  public boolean removeUser(String name) {
+    return users.remove(name) != null;
+  }
+
+  public int userCount() {
+    return users.size();
+  }
+
   // Create a new file
   private void createFile(Scanner scanner) {
-    System.out.print("Enter file name: ");
+    System.out.print("Enter file path (e.g. docs/notes.txt): ");
     String fileName = scanner.nextLine().trim();
 
     if (fileName.isEmpty()) {
@@ -87,7 +103,7 @@ public class SinglePageOperatingSystem {
       return;
     }
 
-    if (files.stream().anyMatch(file -> file.getName().equals(fileName))) {
+    if (files.contains(fileName)) {
       System.out.println("[Error] A file with this name already exists.");
       return;
     }
@@ -97,11 +113,44 @@ public class SinglePageOperatingSystem {
       return;
     }
 
-    File file = new File(fileName, permission);
-    files.add(file);
+    createFile(fileName, permission);
     System.out.println("File created: " + fileName + " with " + permission + " permission.");
   }
 
+  // Create a file at a slash-separated path; false if one already exists there
+  public boolean createFile(String path, Permission permission) {
+    return files.putIfAbsent(path, new File(path, permission));
+  }
+
+  public File getFile(String path) {
+    return files.get(path);
+  }
+
+  public boolean deleteFile(String path) {
+    return files.remove(path) != null;
+  }
+
+  // Files at or below a directory ("" for all), without scanning the rest of the tree
+  public List<File> listFiles(String directory) {
+    return files.listUnder(directory);
+  }
+
+  public int fileCount() {
+    return files.size();
+  }
+
+  // Delete a file
+  private void deleteFile(Scanner scanner) {
+    System.out.print("Enter file path to delete: ");
+    String path = scanner.nextLine().trim();
+
+    if (deleteFile(path)) {
+      System.out.println("File deleted: " + path);
+    } else {
+      System.out.println("[Error] No such file: " + path);
+    }
+  }
+
   // Select a permission for the file
   private Permission selectPermission(Scanner scanner) {
     System.out.println("Select permission:");
@@ -126,13 +175,15 @@ public class SinglePageOperatingSystem {
     return null;
   }
 
-  // List all files
-  private void listFiles() {
-    if (files.isEmpty()) {
+  // List files, optionally only those under a directory
+  private void listFiles(Scanner scanner) {
+    System.out.print("Enter directory (blank for all): ");
+    List<File> listed = listFiles(scanner.nextLine().trim());
+    if (listed.isEmpty()) {
       System.out.println("No files available.");
     } else {
       System.out.println("Files:");
-      for (File file : files) {
+      for (File file : listed) {
         System.out.println("- " + file.getName() + " (" + file.getPermission() + ")");
       }
     }
@@ -203,11 +254,16 @@ public class SinglePageOperatingSystem {
  * ==========
  * User Management:
  * - Add users with unique names.
- * - Store user details in a list for retrieval.
+ * - Store user details in a name-indexed map for constant-time lookup.
  *
  * File Management:
  * - Create files with specific permissions (READ, WRITE, EXECUTE).
- * - List all created files with details.
+ * - Files live in a path trie: slash-separated paths form directories.
+ * - List all files, or only those under a directory, and delete files.
+ *
+ * Scripted Use:
+ * - addUser/createFile/deleteFile/listFiles are also callable without the menu;
+ *   SinglePageOSBenchmark drives them non-interactively.
  *
  * Program Execution:
  * - Simulate executing a named program.
@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+/**
+ * PHOLD-style load for SimulationKernel: 100 services each start with a population of events, and
+ * every delivered event schedules one more to a random service at least the lookahead ahead. The
+ * run is sized to about 10M events; it is timed sequentially and with one partition per core,
+ * and both runs must leave identical per-service checksums.
+ * Usage: java SimulationBenchmark [events] [services] [partitions]
+ */
+public class SimulationBenchmark {
+
+  private static final long LOOKAHEAD = 1000;
+  private static final long MEAN_EXTRA_DELAY = 100;
+  private static final int EVENTS_PER_SERVICE = 128;
+
+  public static void main(String[] args) {
+    long events = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+    int services = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    int partitions = args.length > 2 ? Integer.parseInt(args[2])
+        : Math.max(2, Runtime.getRuntime().availableProcessors());
+    // The population stays constant, so deliveries per time unit are population / mean delay.
+    long population = (long) services * EVENTS_PER_SERVICE;
+    long endTime = events * (LOOKAHEAD + MEAN_EXTRA_DELAY) / population;
+
+    run("warm-up", 1, services, endTime / 10);
+    long[] sequential = run("sequential", 1, services, endTime);
+    run("warm-up", partitions, services, endTime / 10);
+    long[] parallel = run(partitions + " partitions", partitions, services, endTime);
+    System.out.println(java.util.Arrays.equals(sequential, parallel)
+        ? "checksums match: parallel run delivered the same events in the same order"
+        : "CHECKSUM MISMATCH between sequential and parallel runs");
+  }
+
+  private static long[] run(String label, int partitions, int services, long endTime) {
+    long[] checksums = new long[services];
+    try (SimulationKernel kernel = new SimulationKernel(partitions, LOOKAHEAD)) {
+      for (int i = 0; i < services; i++) {
+        kernel.register("service-" + i, new PholdService(i, services, checksums));
+      }
+      for (int i = 0; i < services; i++) {
+        for (int j = 0; j < EVENTS_PER_SERVICE; j++) {
+          kernel.schedule(j * 7L % LOOKAHEAD, i, 0, (long) i * EVENTS_PER_SERVICE + j);
+        }
+      }
+      long start = System.nanoTime();
+      long delivered = kernel.run(endTime);
+      long elapsed = System.nanoTime() - start;
+      if (!label.equals("warm-up")) {
+        System.out.printf("%-14s %,d events across %d services in %,d ms (%,.0f events/sec)%n",
+            label, delivered, services, elapsed / 1_000_000, delivered / (elapsed / 1e9));
+      }
+    }
+    return checksums;
+  }
+
+  /** Forwards each event to a random service; owns its random state so runs are reproducible. */
+  private static final class PholdService implements SimulationKernel.EventHandler {
+    private final int id;
+    private final int services;
+    private final long[] checksums;
+    private long random;
+
+    PholdService(int id, int services, long[] checksums) {
+      this.id = id;
+      this.services = services;
+      this.checksums = checksums;
+      this.random = 0x9E3779B97F4A7C15L * (id + 1);
+    }
+
+    @Override
+    public void onEvent(SimulationKernel.Context context, int type, long payload) {
+      checksums[id] = checksums[id] * 31 + context.now() * 17 + payload;
+      random ^= random << 13;
+      random ^= random >>> 7;
+      random ^= random << 17;
+      int target = (int) ((random >>> 33) % services);
+      // Exponentially distributed extra delay on top of the lookahead
+      double uniform = ((random >>> 11) + 1) * 0x1.0p-53;
+      long delay = LOOKAHEAD + (long) (-Math.log(uniform) * MEAN_EXTRA_DELAY);
+      context.schedule(delay, target, type, payload);
+    }
+  }
+}
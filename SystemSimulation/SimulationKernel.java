@@ -0,0 +1,384 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All rights reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Discrete-event simulation kernel. Services register an {@link EventHandler}; events carry a
+ * virtual time, a target service, a type and a payload, and are delivered in virtual-time order.
+ * Events with equal times are ordered by the service that scheduled them and then by the order
+ * it scheduled them in, so a run is fully deterministic.
+ *
+ * <p>With more than one partition, services are spread round-robin over partitions that run on
+ * separate threads, using conservative time windows: every partition processes the events earlier
+ * than the global minimum event time plus the lookahead, then all partitions exchange the events
+ * they sent each other and the next window starts. That is safe because an event sent to a
+ * service in another partition must be at least the lookahead in the future. Handlers may only
+ * touch their own service's state; given that, parallel and sequential runs deliver every
+ * service exactly the same events in the same order.
+ */
+public class SimulationKernel implements AutoCloseable {
+
+  /** Reacts to one event delivered to the service it was registered for. */
+  public interface EventHandler {
+    void onEvent(Context context, int type, long payload);
+  }
+
+  // Tie-break layout: scheduling service (+1, 0 = outside the simulation) above a per-service count.
+  private static final int SEQUENCE_BITS = 40;
+
+  private final int partitionCount;
+  private final long lookahead;
+  private final List<String> names = new ArrayList<>();
+  private final List<EventHandler> handlers = new ArrayList<>();
+  private EventHandler[] handlerArray;
+  private int[] partitionOf;
+  private long[] scheduledBy;
+  private long externalScheduled;
+  private Partition[] partitions;
+  private ExecutorService workers;
+  private long processed;
+  // Parity of the current window; selects which outbox set is written and which is drained.
+  private int window;
+
+  /** Sequential kernel: one partition on the calling thread. */
+  public SimulationKernel() {
+    this(1, 0);
+  }
+
+  /**
+   * @param partitions parallel partitions (threads); 1 runs on the calling thread
+   * @param lookahead minimum delay of an event sent to a service in another partition; required
+   *     to be positive when running more than one partition
+   */
+  public SimulationKernel(int partitions, long lookahead) {
+    if (partitions < 1) {
+      throw new IllegalArgumentException("At least one partition is required");
+    }
+    if (partitions > 1 && lookahead <= 0) {
+      throw new IllegalArgumentException("Parallel runs need a positive lookahead");
+    }
+    this.partitionCount = partitions;
+    this.lookahead = lookahead;
+  }
+
+  /** Registers a service and returns its id. Services must be registered before the first run. */
+  public int register(String name, EventHandler handler) {
+    if (partitions != null) {
+      throw new IllegalStateException("Services must be registered before the simulation starts");
+    }
+    names.add(name);
+    handlers.add(handler);
+    return names.size() - 1;
+  }
+
+  public String serviceName(int service) {
+    return names.get(service);
+  }
+
+  public int serviceCount() {
+    return names.size();
+  }
+
+  /** Schedules an event from outside the simulation, e.g. the initial population. */
+  public void schedule(long time, int service, int type, long payload) {
+    build();
+    checkService(service);
+    long order = ++externalScheduled;
+    partitions[partitionOf[service]].heap.push(time, order, service, type, payload);
+  }
+
+  /**
+   * Delivers every event earlier than {@code endTime} (Long.MAX_VALUE to run until no events are
+   * left) and returns how many were delivered. Later events stay queued for the next call.
+   */
+  public long run(long endTime) {
+    build();
+    long before = processed;
+    while (true) {
+      long next = Long.MAX_VALUE;
+      for (Partition partition : partitions) {
+        next = Math.min(next, Math.min(partition.heap.minTime(), partition.sentMin));
+      }
+      if (next >= endTime || next == Long.MAX_VALUE) {
+        break;
+      }
+      long windowEnd = partitionCount == 1 ? endTime : Math.min(endTime, saturatedAdd(next, lookahead));
+      for (Partition partition : partitions) {
+        partition.windowEnd = windowEnd;
+        partition.sentMin = Long.MAX_VALUE;
+      }
+      if (partitionCount == 1) {
+        partitions[0].call();
+      } else {
+        window ^= 1;
+        runWindow();
+      }
+      for (Partition partition : partitions) {
+        processed += partition.processedInWindow;
+      }
+    }
+    return processed - before;
+  }
+
+  /** Total events delivered since the kernel was created. */
+  public long processedEvents() {
+    return processed;
+  }
+
+  @Override
+  public void close() {
+    if (workers != null) {
+      workers.shutdownNow();
+    }
+  }
+
+  private void runWindow() {
+    List<Future<Void>> results;
+    try {
+      results = workers.invokeAll(Arrays.asList(partitions));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Simulation interrupted", e);
+    }
+    for (Future<Void> result : results) {
+      try {
+        result.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new IllegalStateException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IllegalStateException("Simulation interrupted", e);
+      }
+    }
+  }
+
+  private void build() {
+    if (partitions != null) {
+      return;
+    }
+    if (names.size() >= 1 << (63 - SEQUENCE_BITS)) {
+      throw new IllegalStateException("Too many services");
+    }
+    handlerArray = handlers.toArray(new EventHandler[0]);
+    partitionOf = new int[handlerArray.length];
+    scheduledBy = new long[handlerArray.length];
+    for (int service = 0; service < partitionOf.length; service++) {
+      partitionOf[service] = service % partitionCount;
+    }
+    partitions = new Partition[partitionCount];
+    for (int i = 0; i < partitionCount; i++) {
+      partitions[i] = new Partition(i);
+    }
+    if (partitionCount > 1) {
+      AtomicInteger count = new AtomicInteger();
+      workers = Executors.newFixedThreadPool(partitionCount, task -> {
+        Thread thread = new Thread(task, "simulation-partition-" + count.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private void checkService(int service) {
+    if (service < 0 || service >= handlerArray.length) {
+      throw new IllegalArgumentException("Unknown service: " + service);
+    }
+  }
+
+  private static long saturatedAdd(long a, long b) {
+    long sum = a + b;
+    return sum < a ? Long.MAX_VALUE : sum;
+  }
+
+  /** What a handler sees while it processes an event. */
+  public final class Context {
+    private final Partition partition;
+    private long now;
+    private int service;
+
+    private Context(Partition partition) {
+      this.partition = partition;
+    }
+
+    /** Virtual time of the event being processed. */
+    public long now() {
+      return now;
+    }
+
+    /** Id of the service the event was delivered to. */
+    public int self() {
+      return service;
+    }
+
+    public String serviceName() {
+      return names.get(service);
+    }
+
+    /** Schedules an event {@code delay} time units from now. */
+    public void schedule(long delay, int target, int type, long payload) {
+      if (delay < 0) {
+        throw new IllegalArgumentException("Events cannot be scheduled in the past");
+      }
+      checkService(target);
+      long time = saturatedAdd(now, delay);
+      long order = ((long) (service + 1) << SEQUENCE_BITS) | ++scheduledBy[service];
+      int targetPartition = partitionOf[target];
+      if (targetPartition == partition.index) {
+        partition.heap.push(time, order, target, type, payload);
+        return;
+      }
+      if (delay < lookahead) {
+        throw new IllegalArgumentException("Event from " + names.get(service) + " to " + names.get(target)
+            + " crosses partitions with delay " + delay + " below the lookahead " + lookahead);
+      }
+      partition.outboxes[window][targetPartition].push(time, order, target, type, payload);
+      partition.sentMin = Math.min(partition.sentMin, time);
+    }
+  }
+
+  /**
+   * A set of services, their pending events and the events they sent other partitions. Outboxes
+   * are double-buffered: events sent during one window are drained by their targets at the start
+   * of the next, while the sender is already filling the other set.
+   */
+  private final class Partition implements Callable<Void> {
+    final int index;
+    final EventHeap heap = new EventHeap();
+    final EventHeap[][] outboxes = new EventHeap[2][partitionCount];
+    final Context context = new Context(this);
+    long windowEnd;
+    long sentMin = Long.MAX_VALUE;
+    long processedInWindow;
+
+    Partition(int index) {
+      this.index = index;
+      for (int i = 0; i < partitionCount; i++) {
+        outboxes[0][i] = i == index ? null : new EventHeap();
+        outboxes[1][i] = i == index ? null : new EventHeap();
+      }
+    }
+
+    @Override
+    public Void call() {
+      // Every other partition finished the previous window, so what it sent then is stable.
+      for (Partition source : partitions) {
+        if (source != this) {
+          source.outboxes[window ^ 1][index].drainInto(heap);
+        }
+      }
+      long count = 0;
+      EventHeap events = heap;
+      while (events.size > 0 && events.time[0] < windowEnd) {
+        int target = events.target[0];
+        int type = events.type[0];
+        long payload = events.payload[0];
+        context.now = events.time[0];
+        context.service = target;
+        events.pop();
+        handlerArray[target].onEvent(context, type, payload);
+        count++;
+      }
+      processedInWindow = count;
+      return null;
+    }
+  }
+
+  /**
+   * Binary min-heap over parallel primitive arrays, ordered by time and then tie-break order. Also
+   * used unordered as a partition outbox.
+   */
+  private static final class EventHeap {
+    long[] time = new long[256];
+    long[] order = new long[256];
+    int[] target = new int[256];
+    int[] type = new int[256];
+    long[] payload = new long[256];
+    int size;
+
+    long minTime() {
+      return size == 0 ? Long.MAX_VALUE : time[0];
+    }
+
+    void push(long t, long o, int s, int ty, long p) {
+      if (size == time.length) {
+        int capacity = size * 2;
+        time = Arrays.copyOf(time, capacity);
+        order = Arrays.copyOf(order, capacity);
+        target = Arrays.copyOf(target, capacity);
+        type = Arrays.copyOf(type, capacity);
+        payload = Arrays.copyOf(payload, capacity);
+      }
+      int i = size++;
+      while (i > 0) {
+        int parent = (i - 1) >>> 1;
+        if (time[parent] < t || time[parent] == t && order[parent] < o) {
+          break;
+        }
+        move(parent, i);
+        i = parent;
+      }
+      set(i, t, o, s, ty, p);
+    }
+
+    void pop() {
+      int last = --size;
+      if (last == 0) {
+        return;
+      }
+      long t = time[last];
+      long o = order[last];
+      int i = 0;
+      int half = last >>> 1;
+      while (i < half) {
+        int child = 2 * i + 1;
+        int right = child + 1;
+        if (right < last && (time[right] < time[child] || time[right] == time[child] && order[right] < order[child])) {
+          child = right;
+        }
+        if (t < time[child] || t == time[child] && o < order[child]) {
+          break;
+        }
+        move(child, i);
+        i = child;
+      }
+      set(i, t, o, target[last], type[last], payload[last]);
+    }
+
+    /** Moves every entry into {@code heap}, leaving this one empty. */
+    void drainInto(EventHeap heap) {
+      for (int i = 0; i < size; i++) {
+        heap.push(time[i], order[i], target[i], type[i], payload[i]);
+      }
+      size = 0;
+    }
+
+    private void move(int from, int to) {
+      time[to] = time[from];
+      order[to] = order[from];
+      target[to] = target[from];
+      type[to] = type[from];
+      payload[to] = payload[from];
+    }
+
+    private void set(int i, long t, long o, int s, int ty, long p) {
+      time[i] = t;
+      order[i] = o;
+      target[i] = s;
+      type[i] = ty;
+      payload[i] = p;
+    }
+  }
+}
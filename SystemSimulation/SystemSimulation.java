@@ -4,9 +4,15 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Properties;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 
 public class SystemSimulation {
 
@@ -32,40 +38,57 @@ public class SystemSimulation {
         serviceManager.runSimulation();
 
         Logger.log("System simulation completed.");
+        Logger.flush();
     }
 
     // Service Manager that coordinates all services
     static class ServiceManager {
 
+        // Virtual time between one stage of the scenario and the next
+        private static final long STAGE_DELAY = 10;
+
         private final ReplicationService replicationService = new ReplicationService();
         private final SimulationService simulationService = new SimulationService();
         private final MimicService mimicService = new MimicService();
         private final MockService mockService = new MockService();
+        private final SimulationKernel kernel = new SimulationKernel();
+        private int mimicId;
+        private int simulationId;
+        private int replicationId;
+        private int mockId;
 
-        // Set up all services
+        // Set up all services and register them with the event kernel
         public void setupServices() {
             Logger.log("Setting up all services...");
             replicationService.setup();
             simulationService.setup();
             mimicService.setup();
             mockService.setup();
+
+            // Each stage hands the scenario on to the next one
+            mimicId = kernel.register("mimic", (context, type, payload) -> {
+                mimicService.mimicRealWorldScenario();
+                context.schedule(STAGE_DELAY, simulationId, type, payload);
+            });
+            simulationId = kernel.register("simulation", (context, type, payload) -> {
+                simulationService.runSimulation();
+                context.schedule(STAGE_DELAY, replicationId, type, payload);
+            });
+            replicationId = kernel.register("replication", (context, type, payload) -> {
+                replicationService.replicateData();
+                context.schedule(STAGE_DELAY, mockId, type, payload);
+            });
+            mockId = kernel.register("mock", (context, type, payload) -> mockService.mockExternalSystem());
         }
 
         // Run the simulation using all services
         public void runSimulation() {
             Logger.log("Executing system processes...");
 
-            // Mimic real-world scenarios
-            mimicService.mimicRealWorldScenario();
-
-            // Simulate complex processes
-            simulationService.runSimulation();
-
-            // Replicate data for analysis
-            replicationService.replicateData();
-
-            // Mock external dependencies
-            mockService.mockExternalSystem();
+            // Mimic real-world scenarios, then simulate, replicate and mock in virtual-time order
+            kernel.schedule(0, mimicId, 0, 0);
+            long events = kernel.run(Long.MAX_VALUE);
+            Logger.log("Processed " + events + " simulation events.");
         }
     }
 
@@ -140,14 +163,95 @@ public class SystemSimulation {
         }
     }
 
-    // Logger class to handle logging with timestamps
+    // Logger class to handle logging with timestamps. Callers only claim a slot in a lock-free
+    // ring buffer; a daemon thread formats and prints the entries. When the ring is full new
+    // entries are dropped and counted rather than blocking the caller.
     static class Logger {
 
-        private static final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        private static final DateTimeFormatter FORMAT =
+                DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss").withZone(ZoneId.systemDefault());
+        private static final int CAPACITY = 1 << 14;
+        private static final int MASK = CAPACITY - 1;
+
+        private static final long[] stamps = new long[CAPACITY];
+        private static final String[] messages = new String[CAPACITY];
+        // Slot i is free for position p when sequences[i] == p, and readable when it is p + 1.
+        private static final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+        private static final AtomicLong head = new AtomicLong();
+        private static final LongAdder dropped = new LongAdder();
+        private static volatile long tail;
+        private static final Thread writer;
+
+        static {
+            for (int i = 0; i < CAPACITY; i++) {
+                sequences.set(i, i);
+            }
+            writer = new Thread(Logger::drain, "simulation-log");
+            writer.setDaemon(true);
+            writer.start();
+        }
 
         public static void log(String message) {
-            String timestamp = dateFormat.format(new Date());
-            System.out.println("[" + timestamp + "] " + message);
+            long stamp = System.currentTimeMillis();
+            while (true) {
+                long position = head.get();
+                int slot = (int) position & MASK;
+                long difference = sequences.get(slot) - position;
+                if (difference == 0) {
+                    if (head.compareAndSet(position, position + 1)) {
+                        stamps[slot] = stamp;
+                        messages[slot] = message;
+                        sequences.set(slot, position + 1);
+                        LockSupport.unpark(writer);
+                        return;
+                    }
+                } else if (difference < 0) {
+                    dropped.increment();
+                    return;
+                }
+            }
+        }
+
+        // Waits (up to five seconds) until everything logged so far has been printed
+        public static void flush() {
+            long target = head.get();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (tail < target && System.nanoTime() < deadline) {
+                LockSupport.unpark(writer);
+                LockSupport.parkNanos(100_000);
+            }
+            long lost = dropped.sumThenReset();
+            if (lost > 0) {
+                System.out.println("[" + FORMAT.format(Instant.now()) + "] " + lost + " log messages dropped");
+            }
+            System.out.flush();
+        }
+
+        private static void drain() {
+            StringBuilder batch = new StringBuilder();
+            long position = tail;
+            while (true) {
+                int slot = (int) position & MASK;
+                if (sequences.get(slot) != position + 1) {
+                    if (batch.length() > 0) {
+                        System.out.print(batch);
+                        batch.setLength(0);
+                        tail = position;
+                    }
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                    continue;
+                }
+                batch.append('[').append(FORMAT.format(Instant.ofEpochMilli(stamps[slot]))).append("] ")
+                        .append(messages[slot]).append(System.lineSeparator());
+                messages[slot] = null;
+                sequences.set(slot, position + CAPACITY);
+                position++;
+                if (batch.length() > 8192) {
+                    System.out.print(batch);
+                    batch.setLength(0);
+                    tail = position;
+                }
+            }
         }
     }
 }
@@ -162,7 +266,14 @@ public class SystemSimulation {
  *
  * Service Manager (ServiceManager):
  * - Coordinates and orchestrates the different services (ReplicationService, SimulationService, MimicService, MockService).
- * - Sets up and sequentially runs these services to simulate system operations.
+ * - Registers the services as event handlers with a discrete-event SimulationKernel and runs the
+ *   scenario in virtual-time order: each stage schedules the next one.
+ *
+ * Simulation Kernel (SimulationKernel):
+ * - Priority event queue keyed by virtual time, with deterministic ordering of simultaneous events.
+ * - Optional parallel mode: services are partitioned across threads and synchronized conservatively
+ *   in lookahead-sized time windows, giving the same results as a sequential run.
+ * - SimulationBenchmark reports events/sec for 10M events across 100 services.
  *
  * Services:
  * ---------
@@ -184,6 +295,8 @@ public class SystemSimulation {
  *
  * Logger:
  * - Provides a logging mechanism that includes timestamps for traceability.
+ * - Callers write into a lock-free ring buffer; a background thread formats entries with a
+ *   thread-safe DateTimeFormatter and prints them in batches.
  * - Tracks and logs every major step and activity during the simulation.
  *
  * Key Features:
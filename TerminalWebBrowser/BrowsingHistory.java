@@ -0,0 +1,169 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Visited URLs, most recent last, with each address recorded once and the oldest dropped beyond a
+ * fixed capacity. Prefix search runs against a sorted index of the words of each URL: the full
+ * address, the address without scheme and "www.", the host, and every path segment. So "exam",
+ * "example.com/do" and "docs" all find https://www.example.com/docs/intro.
+ */
+public class BrowsingHistory {
+
+    private final int capacity;
+    private final LinkedHashMap<String, Long> visits = new LinkedHashMap<>();
+    // Word -> URLs under that word keyed by visit sequence, so the newest come first when merged
+    private final TreeMap<String, TreeMap<Long, String>> index = new TreeMap<>();
+    private final Map<String, List<String>> keysByUrl = new HashMap<>();
+    private long sequence;
+
+    public BrowsingHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /** Records a visit; revisiting moves the URL to the most recent position. */
+    public synchronized void add(String url) {
+        Long previous = visits.remove(url);
+        long visit = ++sequence;
+        visits.put(url, visit);
+        if (previous == null) {
+            List<String> keys = keys(url);
+            keysByUrl.put(url, keys);
+            for (String key : keys) {
+                index.computeIfAbsent(key, k -> new TreeMap<>()).put(visit, url);
+            }
+        } else {
+            for (String key : keysByUrl.get(url)) {
+                TreeMap<Long, String> postings = index.get(key);
+                postings.remove(previous);
+                postings.put(visit, url);
+            }
+        }
+        Iterator<Map.Entry<String, Long>> eldest = visits.entrySet().iterator();
+        while (visits.size() > capacity) {
+            Map.Entry<String, Long> dropped = eldest.next();
+            eldest.remove();
+            unindex(dropped.getKey(), dropped.getValue());
+        }
+    }
+
+    public synchronized boolean contains(String url) {
+        return visits.containsKey(url);
+    }
+
+    public synchronized int size() {
+        return visits.size();
+    }
+
+    /** Every URL, oldest visit first. */
+    public synchronized List<String> list() {
+        return new ArrayList<>(visits.keySet());
+    }
+
+    /**
+     * URLs with a word starting with {@code prefix}, ignoring case, most recently visited first,
+     * at most {@code limit} of them. Merges the matching words' lists newest first and stops at
+     * {@code limit}, so the cost depends on the number of matching words, not matching URLs.
+     */
+    public synchronized List<String> search(String prefix, int limit) {
+        String from = prefix.trim().toLowerCase(Locale.ROOT);
+        Set<String> results = new LinkedHashSet<>();
+        if (from.isEmpty() || limit <= 0) {
+            return new ArrayList<>(results);
+        }
+        PriorityQueue<Cursor> newest = new PriorityQueue<>();
+        for (TreeMap<Long, String> postings : index.subMap(from, true, from + Character.MAX_VALUE, false).values()) {
+            Cursor cursor = new Cursor(postings.descendingMap().entrySet().iterator());
+            if (cursor.advance()) {
+                newest.add(cursor);
+            }
+        }
+        while (results.size() < limit && !newest.isEmpty()) {
+            Cursor cursor = newest.poll();
+            results.add(cursor.url);
+            if (cursor.advance()) {
+                newest.add(cursor);
+            }
+        }
+        return new ArrayList<>(results);
+    }
+
+    private void unindex(String url, long visit) {
+        for (String key : keysByUrl.remove(url)) {
+            TreeMap<Long, String> postings = index.get(key);
+            postings.remove(visit);
+            if (postings.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /** Position in one word's URLs, ordered so the most recent visit is polled first. */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Iterator<Map.Entry<Long, String>> postings;
+        private long visit;
+        private String url;
+
+        Cursor(Iterator<Map.Entry<Long, String>> postings) {
+            this.postings = postings;
+        }
+
+        boolean advance() {
+            if (!postings.hasNext()) {
+                return false;
+            }
+            Map.Entry<Long, String> next = postings.next();
+            visit = next.getKey();
+            url = next.getValue();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return Long.compare(other.visit, visit);
+        }
+    }
+
+    private static List<String> keys(String url) {
+        String lower = url.toLowerCase(Locale.ROOT);
+        Set<String> keys = new HashSet<>();
+        keys.add(lower);
+        String bare = lower.replaceFirst("^[a-z][a-z0-9+.-]*://", "").replaceFirst("^www\\.", "");
+        keys.add(bare);
+        try {
+            URI uri = URI.create(url);
+            if (uri.getHost() != null) {
+                String host = uri.getHost().toLowerCase(Locale.ROOT);
+                keys.add(host);
+                for (String label : host.split("\\.")) {
+                    keys.add(label);
+                }
+            }
+            if (uri.getPath() != null) {
+                for (String segment : uri.getPath().toLowerCase(Locale.ROOT).split("[/._-]+")) {
+                    if (!segment.isEmpty()) {
+                        keys.add(segment);
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a URI; the full address and its bare form are still searchable.
+        }
+        return new ArrayList<>(keys);
+    }
+}
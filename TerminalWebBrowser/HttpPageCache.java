@@ -0,0 +1,334 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+
+/**
+ * On-disk HTTP cache for fetched pages, validated with ETag and Last-Modified and bounded by a
+ * total size. Each page is a body file plus a small properties file. The least recently used pages
+ * are evicted first; recency survives restarts through the body files' modification times.
+ *
+ * <p>Only responses carrying a validator or a max-age are stored, and never those marked
+ * {@code no-store}. All methods are thread-safe.
+ */
+public class HttpPageCache {
+
+    private static final String BODY = ".body";
+    private static final String META = ".meta";
+
+    /** One stored response. Immutable; revalidation replaces the entry. */
+    public static final class Entry {
+        private final String url;
+        private final String finalUrl;
+        private final String key;
+        private final String etag;
+        private final String lastModified;
+        private final String contentType;
+        private final long validatedAt;
+        private final long maxAgeMillis;
+        private final long size;
+        private final Path body;
+
+        Entry(String url, String finalUrl, String key, String etag, String lastModified, String contentType,
+                long validatedAt, long maxAgeMillis, long size, Path body) {
+            this.url = url;
+            this.finalUrl = finalUrl;
+            this.key = key;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.validatedAt = validatedAt;
+            this.maxAgeMillis = maxAgeMillis;
+            this.size = size;
+            this.body = body;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        /** The address the page was served from after redirects; relative links resolve against it. */
+        public String getFinalUrl() {
+            return finalUrl;
+        }
+
+        /** The ETag to send as If-None-Match, or null. */
+        public String getEtag() {
+            return etag;
+        }
+
+        /** The Last-Modified date to send as If-Modified-Since, or null. */
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public Path getBody() {
+            return body;
+        }
+
+        /**
+         * True if the page may be used without asking the server: it is within its max-age, or it
+         * was validated less than {@code graceMillis} ago and not marked no-cache.
+         */
+        public boolean isFresh(long now, long graceMillis) {
+            return maxAgeMillis >= 0 && now - validatedAt < Math.max(maxAgeMillis, graceMillis);
+        }
+
+        Entry validated(long now, long maxAge) {
+            return new Entry(url, finalUrl, key, etag, lastModified, contentType, now, maxAge, size, body);
+        }
+    }
+
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    /** Opens, or creates, the cache in {@code directory}, evicting down to {@code maxBytes}. */
+    public HttpPageCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.directory = Files.createDirectories(directory);
+        this.maxBytes = maxBytes;
+        load();
+    }
+
+    /** The stored page for {@code url}, or null. */
+    public synchronized Entry get(String url) {
+        Entry entry = entries.get(key(url));
+        if (entry != null) {
+            try {
+                Files.setLastModifiedTime(entry.body, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException e) {
+                // Recency is only a hint for the next start.
+            }
+        }
+        return entry;
+    }
+
+    /** A file in the cache directory to write a response into before {@link #put}. */
+    public Path newTempFile() throws IOException {
+        return Files.createTempFile(directory, "fetch", ".tmp");
+    }
+
+    /**
+     * Whether a response with these headers may be stored: it has a validator or a max-age and is
+     * not marked no-store.
+     */
+    public static boolean isCacheable(HttpHeaders headers) {
+        String cacheControl = headers.firstValue("Cache-Control").orElse("").toLowerCase(Locale.ROOT);
+        if (cacheControl.contains("no-store")) {
+            return false;
+        }
+        return headers.firstValue("ETag").isPresent() || headers.firstValue("Last-Modified").isPresent()
+                || maxAge(headers) > 0;
+    }
+
+    /**
+     * Stores the response body written to {@code tempFile}, which is moved into the cache under the
+     * requested {@code url}; {@code finalUrl} is where it was served from after redirects. Returns
+     * the new entry, or null if the body alone exceeds the size cap, in which case it is deleted.
+     */
+    public synchronized Entry put(String url, String finalUrl, HttpHeaders headers, Path tempFile)
+            throws IOException {
+        long size = Files.size(tempFile);
+        if (size > maxBytes) {
+            Files.deleteIfExists(tempFile);
+            return null;
+        }
+        String key = key(url);
+        remove(key);
+        Path body = directory.resolve(key + BODY);
+        Files.move(tempFile, body, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Entry entry = new Entry(url, finalUrl, key, headers.firstValue("ETag").orElse(null),
+                headers.firstValue("Last-Modified").orElse(null), headers.firstValue("Content-Type").orElse(null),
+                System.currentTimeMillis(), maxAge(headers), size, body);
+        writeMeta(entry);
+        entries.put(key, entry);
+        totalBytes += size;
+        evict();
+        return entry;
+    }
+
+    /** Records that the server confirmed {@code entry} with 304 Not Modified. */
+    public synchronized Entry revalidated(Entry entry, HttpHeaders headers) throws IOException {
+        Entry updated = entry.validated(System.currentTimeMillis(), maxAge(headers));
+        if (entries.containsKey(entry.key)) {
+            entries.put(entry.key, updated);
+            writeMeta(updated);
+        }
+        return updated;
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** Deletes every stored page. */
+    public synchronized void clear() {
+        for (String key : new ArrayList<>(entries.keySet())) {
+            remove(key);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Entry entry = eldest.next().getValue();
+            eldest.remove();
+            totalBytes -= entry.size;
+            deleteFiles(entry.key);
+        }
+    }
+
+    private void remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            totalBytes -= entry.size;
+            deleteFiles(key);
+        }
+    }
+
+    private void deleteFiles(String key) {
+        try {
+            Files.deleteIfExists(directory.resolve(key + BODY));
+            Files.deleteIfExists(directory.resolve(key + META));
+        } catch (IOException e) {
+            // A reader may still hold the file open on some platforms; it is replaced on next store.
+        }
+    }
+
+    private void writeMeta(Entry entry) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("url", entry.url);
+        meta.setProperty("finalUrl", entry.finalUrl);
+        setIfPresent(meta, "etag", entry.etag);
+        setIfPresent(meta, "lastModified", entry.lastModified);
+        setIfPresent(meta, "contentType", entry.contentType);
+        meta.setProperty("validatedAt", Long.toString(entry.validatedAt));
+        meta.setProperty("maxAge", Long.toString(entry.maxAgeMillis));
+        Path temp = Files.createTempFile(directory, entry.key, ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            meta.store(out, null);
+        }
+        Files.move(temp, directory.resolve(entry.key + META), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void setIfPresent(Properties meta, String name, String value) {
+        if (value != null) {
+            meta.setProperty(name, value);
+        }
+    }
+
+    /** Reads the index, oldest access first, and drops leftovers of interrupted writes. */
+    private void load() throws IOException {
+        List<Entry> found = new ArrayList<>();
+        List<Long> accessed = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.deleteIfExists(file);
+                } else if (name.endsWith(META)) {
+                    String key = name.substring(0, name.length() - META.length());
+                    Path body = directory.resolve(key + BODY);
+                    Properties meta = new Properties();
+                    try (InputStream in = Files.newInputStream(file)) {
+                        meta.load(in);
+                    }
+                    // Pages stored without their final address cannot resolve relative links; refetch them.
+                    if (!Files.exists(body) || meta.getProperty("url") == null || meta.getProperty("finalUrl") == null) {
+                        Files.deleteIfExists(file);
+                        Files.deleteIfExists(body);
+                        continue;
+                    }
+                    found.add(new Entry(meta.getProperty("url"), meta.getProperty("finalUrl"), key, meta.getProperty("etag"),
+                            meta.getProperty("lastModified"), meta.getProperty("contentType"),
+                            Long.parseLong(meta.getProperty("validatedAt", "0")),
+                            Long.parseLong(meta.getProperty("maxAge", "0")), Files.size(body), body));
+                    accessed.add(Files.getLastModifiedTime(body).toMillis());
+                }
+            }
+        }
+        Integer[] order = new Integer[found.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(accessed.get(a), accessed.get(b)));
+        for (int i : order) {
+            Entry entry = found.get(i);
+            entries.put(entry.key, entry);
+            totalBytes += entry.size;
+        }
+        evict();
+    }
+
+    /** Cache-Control max-age in milliseconds, 0 if absent, or -1 for no-cache. */
+    static long maxAge(HttpHeaders headers) {
+        Optional<String> cacheControl = headers.firstValue("Cache-Control");
+        if (cacheControl.isEmpty()) {
+            return 0;
+        }
+        long maxAge = 0;
+        for (String directive : cacheControl.get().toLowerCase(Locale.ROOT).split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-cache")) {
+                return -1;
+            }
+            if (directive.startsWith("max-age=")) {
+                try {
+                    maxAge = Math.max(0, Long.parseLong(directive.substring(8).trim())) * 1000;
+                } catch (NumberFormatException e) {
+                    maxAge = 0;
+                }
+            }
+        }
+        return maxAge;
+    }
+
+    private static String key(String url) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(40);
+            for (int i = 0; i < 20; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16)).append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is always available", e);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fetches pages for TerminalWebBrowser through {@link HttpPageCache} and renders them with
+ * {@link StreamingHtmlRenderer} while the body is still arriving, so the first lines appear after
+ * the first network read rather than after the whole document.
+ *
+ * <p>A cached page is used without a request while fresh, otherwise revalidated with
+ * If-None-Match / If-Modified-Since and replayed from disk on 304. After a page is shown,
+ * {@link #prefetch} loads its same-site links into the cache in the background, on virtual threads
+ * where the runtime has them. Navigating cancels prefetches that have not started, and waits for
+ * one already fetching the requested page instead of fetching it twice.
+ */
+public class PageLoader implements AutoCloseable {
+
+    /** Where a page's body came from. */
+    public enum Source { NETWORK, REVALIDATED, CACHE }
+
+    /** What was learned while rendering a page. */
+    public static final class Page {
+        private final String url;
+        private final String title;
+        private final List<String> links;
+        private final String css;
+        private final Source source;
+        private final int lineCount;
+        private final long bytes;
+        private final long firstLineNanos;
+        private final long totalNanos;
+
+        Page(String url, StreamingHtmlRenderer renderer, Source source, long bytes, long firstLineNanos,
+                long totalNanos) {
+            this.url = url;
+            this.title = renderer.getTitle();
+            this.links = renderer.getLinks();
+            this.css = renderer.getCss();
+            this.source = source;
+            this.lineCount = renderer.getLineCount();
+            this.bytes = bytes;
+            this.firstLineNanos = firstLineNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        /** The address after redirects. */
+        public String getUrl() {
+            return url;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public List<String> getLinks() {
+            return links;
+        }
+
+        public String getCss() {
+            return css;
+        }
+
+        public Source getSource() {
+            return source;
+        }
+
+        public int getLineCount() {
+            return lineCount;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        /** Time from the start of the load to the first text line, or -1 if the page had none. */
+        public long getFirstLineNanos() {
+            return firstLineNanos;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+    }
+
+    private static final int PREFETCH_CONCURRENCY = 4;
+    private static final long IN_FLIGHT_WAIT_SECONDS = 10;
+
+    private final SharedHttpClient client;
+    private final HttpPageCache cache;
+    private final int width;
+    private final long graceMillis;
+    private final ExecutorService prefetchThreads;
+    private final Semaphore prefetchSlots = new Semaphore(PREFETCH_CONCURRENCY);
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger prefetched = new AtomicInteger();
+
+    /**
+     * @param width the column at which text is wrapped
+     * @param graceMillis how long a page validated by the server, or prefetched, is shown without
+     *     asking again; Cache-Control max-age extends this
+     */
+    public PageLoader(SharedHttpClient client, HttpPageCache cache, int width, long graceMillis) {
+        this.client = client;
+        this.cache = cache;
+        this.width = width;
+        this.graceMillis = graceMillis;
+        ExecutorService virtual = virtualThreadExecutor();
+        this.prefetchThreads = virtual != null
+                ? virtual
+                : Executors.newFixedThreadPool(PREFETCH_CONCURRENCY, daemonThreads("prefetch-"));
+    }
+
+    /**
+     * Loads and renders {@code url}, passing the title and each line to {@code listener} as soon
+     * as they are parsed. Throws for error statuses and non-HTML content, as Jsoup.connect did.
+     */
+    public Page load(String url, String userAgent, StreamingHtmlRenderer.Listener listener) throws IOException {
+        long start = System.nanoTime();
+        generation.incrementAndGet();
+        CompletableFuture<Void> pending = inFlight.get(url);
+        if (pending != null) {
+            try {
+                pending.get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for a prefetch of " + url, e);
+            } catch (ExecutionException | TimeoutException e) {
+                // Fetch it here instead.
+            }
+        }
+        long[] firstLine = {-1};
+        StreamingHtmlRenderer.Listener timed = new StreamingHtmlRenderer.Listener() {
+            @Override
+            public void onTitle(String title) {
+                listener.onTitle(title);
+            }
+
+            @Override
+            public void onLine(String line) {
+                if (firstLine[0] < 0) {
+                    firstLine[0] = System.nanoTime() - start;
+                }
+                listener.onLine(line);
+            }
+        };
+        Fetched fetched = fetch(url, userAgent, timed);
+        return new Page(fetched.url, fetched.renderer, fetched.source, fetched.bytes, firstLine[0],
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Starts loading up to {@code limit} of the page's links on the same host into the cache.
+     * Returns at once; failures are ignored, since they only mean the later visit fetches itself.
+     */
+    public void prefetch(Page page, String userAgent, int limit) {
+        long current = generation.incrementAndGet();
+        String host = URI.create(page.getUrl()).getHost();
+        int queued = 0;
+        for (String link : page.getLinks()) {
+            if (queued == limit) {
+                break;
+            }
+            if (link.equals(page.getUrl()) || host == null || !host.equalsIgnoreCase(URI.create(link).getHost())) {
+                continue;
+            }
+            HttpPageCache.Entry entry = cache.get(link);
+            if (entry != null && entry.isFresh(System.currentTimeMillis(), graceMillis)) {
+                continue;
+            }
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            if (inFlight.putIfAbsent(link, done) != null) {
+                continue;
+            }
+            queued++;
+            prefetchThreads.execute(() -> {
+                try {
+                    prefetchSlots.acquire();
+                    try {
+                        if (generation.get() == current && fetch(link, userAgent, null).stored) {
+                            prefetched.incrementAndGet();
+                        }
+                    } finally {
+                        prefetchSlots.release();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException | RuntimeException e) {
+                    // Not worth reporting; the page is fetched normally if visited.
+                } finally {
+                    inFlight.remove(link, done);
+                    done.complete(null);
+                }
+            });
+        }
+    }
+
+    /** Pages loaded into the cache by {@link #prefetch} so far; pages it could not store do not count. */
+    public int getPrefetchCount() {
+        return prefetched.get();
+    }
+
+    public HttpPageCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public void close() {
+        generation.incrementAndGet();
+        prefetchThreads.shutdownNow();
+    }
+
+    private static final class Fetched {
+        String url;
+        StreamingHtmlRenderer renderer;
+        Source source;
+        long bytes;
+        boolean stored; // the page is in the cache now
+    }
+
+    /**
+     * Fetches {@code url} through the cache, rendering to {@code listener} unless it is null. Without
+     * a listener (a prefetch) a response the cache would not keep is abandoned unread.
+     */
+    private Fetched fetch(String url, String userAgent, StreamingHtmlRenderer.Listener listener) throws IOException {
+        HttpPageCache.Entry entry = cache.get(url);
+        if (entry != null && entry.isFresh(System.currentTimeMillis(), graceMillis)) {
+            return replay(entry, Source.CACHE, listener);
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("User-Agent", userAgent);
+        headers.put("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8");
+        if (entry != null && entry.getEtag() != null) {
+            headers.put("If-None-Match", entry.getEtag());
+        }
+        if (entry != null && entry.getLastModified() != null) {
+            headers.put("If-Modified-Since", entry.getLastModified());
+        }
+        HttpRequest request = client.request(url, headers).GET().build();
+        HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        try (InputStream body = response.body()) {
+            int status = response.statusCode();
+            if (status == 304 && entry != null) {
+                entry = cache.revalidated(entry, response.headers());
+                return replay(entry, Source.REVALIDATED, listener);
+            }
+            if (status >= 400) {
+                throw new IOException("HTTP error fetching URL. Status=" + status + ", URL=" + url);
+            }
+            String contentType = response.headers().firstValue("Content-Type").orElse("text/html");
+            if (!isHtml(contentType)) {
+                throw new IOException("Unhandled content type " + contentType + " for URL " + url);
+            }
+            boolean store = HttpPageCache.isCacheable(response.headers());
+            if (!store && listener == null) {
+                Fetched skipped = new Fetched();
+                skipped.url = response.uri().toString();
+                skipped.source = Source.NETWORK;
+                return skipped;
+            }
+            Path temp = store ? cache.newTempFile() : null;
+            Fetched fetched;
+            try {
+                try (OutputStream copy = temp == null ? OutputStream.nullOutputStream() : Files.newOutputStream(temp)) {
+                    fetched = render(response.uri().toString(), new TeeInputStream(body, copy), contentType, listener);
+                }
+                if (store) {
+                    fetched.stored = cache.put(url, response.uri().toString(), response.headers(), temp) != null;
+                    temp = null;
+                }
+            } finally {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            fetched.source = Source.NETWORK;
+            return fetched;
+        }
+    }
+
+    /** Renders a stored page against the address it was served from, not the one requested. */
+    private Fetched replay(HttpPageCache.Entry entry, Source source, StreamingHtmlRenderer.Listener listener)
+            throws IOException {
+        try (InputStream in = Files.newInputStream(entry.getBody())) {
+            String contentType = entry.getContentType() != null ? entry.getContentType() : "text/html";
+            Fetched fetched = render(entry.getFinalUrl(), in, contentType, listener);
+            fetched.source = source;
+            fetched.stored = true;
+            return fetched;
+        }
+    }
+
+    private Fetched render(String url, InputStream in, String contentType, StreamingHtmlRenderer.Listener listener)
+            throws IOException {
+        Fetched fetched = new Fetched();
+        fetched.url = url;
+        if (listener == null) {
+            // Prefetch: only the bytes matter.
+            fetched.bytes = in.transferTo(OutputStream.nullOutputStream());
+            return fetched;
+        }
+        CountingInputStream counted = new CountingInputStream(in);
+        StreamingHtmlRenderer renderer = new StreamingHtmlRenderer(URI.create(url), width, listener);
+        Reader reader = new InputStreamReader(counted, charset(contentType));
+        char[] chars = new char[8192];
+        int n;
+        while ((n = reader.read(chars)) > 0) {
+            renderer.feed(chars, 0, n);
+        }
+        renderer.finish();
+        fetched.renderer = renderer;
+        fetched.bytes = counted.count;
+        return fetched;
+    }
+
+    private static boolean isHtml(String contentType) {
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.startsWith("application/xml") || type.contains("+xml");
+    }
+
+    private static Charset charset(String contentType) {
+        for (String part : contentType.split(";")) {
+            part = part.trim();
+            if (part.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                try {
+                    return Charset.forName(part.substring(8).replace("\"", "").trim());
+                } catch (IllegalArgumentException e) {
+                    break;
+                }
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    /** Copies everything read into a second stream, here the cache file. */
+    private static final class TeeInputStream extends FilterInputStream {
+        private final OutputStream copy;
+
+        TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                copy.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                copy.write(buffer, offset, n);
+            }
+            return n;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /** Executors.newVirtualThreadPerTaskExecutor() when the runtime has it, otherwise null. */
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
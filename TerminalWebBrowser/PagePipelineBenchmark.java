@@ -0,0 +1,299 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+// Time to first line of text for TerminalWebBrowser on a local test site that sends its pages in
+// slow chunks, as a remote server would: the old Jsoup.connect().get() path against PageLoader
+// cold, revalidated with 304, fresh from the cache, and after prefetch. Also times history search.
+// Usage: java PagePipelineBenchmark [pageKilobytes] [chunkDelayMillis]
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class PagePipelineBenchmark {
+
+    private static final String USER_AGENT = "PagePipelineBenchmark";
+    private static final int CHUNK = 16 * 1024;
+    private static final int SUBPAGES = 8;
+    private static final int RUNS = 5;
+
+    private static byte[][] pages;
+    private static int chunkDelayMillis;
+    private static final AtomicInteger requests = new AtomicInteger();
+    private static final AtomicInteger notModified = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        int pageKilobytes = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        chunkDelayMillis = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        pages = new byte[SUBPAGES + 1][];
+        Random random = new Random(7);
+        for (int i = 0; i <= SUBPAGES; i++) {
+            pages[i] = page(i, i == 0 ? pageKilobytes : pageKilobytes / 4, random);
+        }
+        System.out.printf("Page %d KB sent in %d KB chunks every %d ms (about %.1f MB/s)%n",
+                pages[0].length / 1024, CHUNK / 1024, chunkDelayMillis,
+                chunkDelayMillis == 0 ? Double.POSITIVE_INFINITY : CHUNK / 1024.0 / chunkDelayMillis);
+
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 64);
+        ExecutorService serverThreads = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverThreads);
+        server.createContext("/", PagePipelineBenchmark::serve);
+        server.start();
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        Path cacheDir = Files.createTempDirectory("page-cache");
+        try {
+            for (int i = 0; i < 3; i++) {
+                legacy(base + "/");
+            }
+            long[] times = new long[RUNS];
+            long total = 0;
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                times[i] = legacy(base + "/");
+                total += System.nanoTime() - start;
+            }
+            report("Jsoup.connect().get()", times, total / RUNS);
+
+            HttpPageCache cache = new HttpPageCache(cacheDir, 64L * 1024 * 1024);
+            try (PageLoader revalidating = new PageLoader(SharedHttpClient.shared(), cache, 100, 0);
+                    PageLoader caching = new PageLoader(SharedHttpClient.shared(), cache, 100, 60_000)) {
+                for (int i = 0; i < 3; i++) {
+                    cache.clear();
+                    revalidating.load(base + "/", USER_AGENT, firstScreen());
+                }
+                PageLoader.Page page = null;
+                total = 0;
+                for (int i = 0; i < RUNS; i++) {
+                    cache.clear();
+                    page = revalidating.load(base + "/", USER_AGENT, firstScreen());
+                    check(page.getSource() == PageLoader.Source.NETWORK);
+                    times[i] = page.getFirstLineNanos();
+                    total += page.getTotalNanos();
+                }
+                report("PageLoader, cold", times, total / RUNS);
+                System.out.printf("    %d lines, %d links, title \"%s\"%n", page.getLineCount(), page.getLinks().size(),
+                        page.getTitle());
+
+                notModified.set(0);
+                total = 0;
+                for (int i = 0; i < RUNS; i++) {
+                    page = revalidating.load(base + "/", USER_AGENT, firstScreen());
+                    check(page.getSource() == PageLoader.Source.REVALIDATED);
+                    times[i] = page.getFirstLineNanos();
+                    total += page.getTotalNanos();
+                }
+                report("PageLoader, 304 revalidated", times, total / RUNS);
+                check(notModified.get() == RUNS);
+
+                total = 0;
+                int before = requests.get();
+                for (int i = 0; i < RUNS; i++) {
+                    page = caching.load(base + "/", USER_AGENT, firstScreen());
+                    check(page.getSource() == PageLoader.Source.CACHE);
+                    times[i] = page.getFirstLineNanos();
+                    total += page.getTotalNanos();
+                }
+                report("PageLoader, fresh in cache", times, total / RUNS);
+                check(requests.get() == before);
+
+                System.out.println("Following a link:");
+                long[] cold = new long[SUBPAGES];
+                long[] prefetched = new long[SUBPAGES];
+                long coldTotal = 0;
+                for (int i = 1; i <= SUBPAGES; i++) {
+                    cache.clear();
+                    PageLoader.Page sub = caching.load(base + "/page" + i, USER_AGENT, firstScreen());
+                    check(sub.getSource() == PageLoader.Source.NETWORK);
+                    cold[i - 1] = sub.getFirstLineNanos();
+                    coldTotal += sub.getTotalNanos();
+                }
+                report("  not prefetched", cold, coldTotal / SUBPAGES);
+
+                cache.clear();
+                PageLoader.Page index = caching.load(base + "/", USER_AGENT, firstScreen());
+                caching.prefetch(index, USER_AGENT, SUBPAGES);
+                long waitStart = System.nanoTime();
+                while (caching.getPrefetchCount() < SUBPAGES && System.nanoTime() - waitStart < 30_000_000_000L) {
+                    Thread.sleep(5);
+                }
+                System.out.printf("    %d pages prefetched in the background within %.0f ms%n",
+                        caching.getPrefetchCount(), (System.nanoTime() - waitStart) / 1e6);
+                long prefetchedTotal = 0;
+                for (int i = 1; i <= SUBPAGES; i++) {
+                    PageLoader.Page sub = caching.load(base + "/page" + i, USER_AGENT, firstScreen());
+                    check(sub.getSource() == PageLoader.Source.CACHE);
+                    prefetched[i - 1] = sub.getFirstLineNanos();
+                    prefetchedTotal += sub.getTotalNanos();
+                }
+                report("  prefetched", prefetched, prefetchedTotal / SUBPAGES);
+            }
+
+            history();
+        } finally {
+            server.stop(0);
+            serverThreads.shutdown();
+            try (var files = Files.list(cacheDir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(cacheDir);
+        }
+    }
+
+    /** The old navigation path: nothing can be printed until the whole document is parsed. */
+    private static long legacy(String url) throws IOException {
+        long start = System.nanoTime();
+        Document doc = Jsoup.connect(url).userAgent(USER_AGENT).maxBodySize(0).get();
+        doc.title();
+        String body = doc.body().text();
+        check(!body.isEmpty());
+        return System.nanoTime() - start;
+    }
+
+    private static void history() {
+        int visits = 10_000;
+        List<String> urls = new ArrayList<>();
+        Random random = new Random(3);
+        String[] words = {"docs", "news", "blog", "shop", "wiki", "api", "guide", "forum", "status", "help"};
+        for (int i = 0; i < visits; i++) {
+            urls.add("https://www." + words[random.nextInt(words.length)] + random.nextInt(500) + ".example.com/"
+                    + words[random.nextInt(words.length)] + "/" + i);
+        }
+        List<String> list = new ArrayList<>(urls);
+        BrowsingHistory history = new BrowsingHistory(visits);
+        for (String url : urls) {
+            history.add(url);
+        }
+        String[] queries = {"docs42", "news1", "guide", "forum3", "status49"};
+        int rounds = 2000;
+        long found = 0;
+        long start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            String query = queries[r % queries.length];
+            for (String url : list) {
+                if (url.contains(query)) {
+                    found++;
+                }
+            }
+        }
+        double scan = (System.nanoTime() - start) / 1e3 / rounds;
+        start = System.nanoTime();
+        for (int r = 0; r < rounds; r++) {
+            found += history.search(queries[r % queries.length], 50).size();
+        }
+        double indexed = (System.nanoTime() - start) / 1e3 / rounds;
+        System.out.printf("History of %,d URLs: list contains scan %.1f us/search, prefix index %.1f us/search"
+                + " (%,d results in all)%n", visits, scan, indexed, found);
+    }
+
+    private static StreamingHtmlRenderer.Listener firstScreen() {
+        return new StreamingHtmlRenderer.Listener() {
+            @Override
+            public void onTitle(String title) {}
+
+            @Override
+            public void onLine(String line) {}
+        };
+    }
+
+    private static void serve(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        int index = path.equals("/") ? 0 : path.startsWith("/page") ? parse(path.substring(5)) : -1;
+        if (index < 0 || index > SUBPAGES) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        String etag = "\"page-" + index + "-" + pages[index].length + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = pages[index];
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            for (int offset = 0; offset < body.length; offset += CHUNK) {
+                pause();
+                out.write(body, offset, Math.min(CHUNK, body.length - offset));
+                out.flush();
+            }
+        }
+    }
+
+    private static int parse(String number) {
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void pause() {
+        if (chunkDelayMillis > 0) {
+            try {
+                Thread.sleep(chunkDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static byte[] page(int index, int kilobytes, Random random) {
+        String[] words = {"terminal", "browser", "stream", "cache", "render", "network", "parser", "screen",
+                "history", "prefetch", "latency", "document", "request", "response", "header", "line"};
+        StringBuilder html = new StringBuilder("<!DOCTYPE html>\n<html><head><title>Test page " + index
+                + " &amp; friends</title>\n<style>body { font-family: monospace; }\np { margin: 0 }</style>\n"
+                + "<script>var ignored = '<p>not text</p>';</script></head>\n<body>\n<h1>Test page " + index + "</h1>\n<nav>");
+        for (int i = 1; i <= SUBPAGES; i++) {
+            html.append("<a href=\"/page").append(i).append("\">Page ").append(i).append("</a> ");
+        }
+        html.append("</nav>\n");
+        while (html.length() < kilobytes * 1024) {
+            html.append("<p>");
+            int count = 20 + random.nextInt(60);
+            for (int w = 0; w < count; w++) {
+                html.append(words[random.nextInt(words.length)]).append(w % 9 == 8 ? ". " : " ");
+            }
+            html.append("<!-- comment --><b>bold</b> &lt;tag&gt;</p>\n");
+        }
+        html.append("</body></html>\n");
+        return html.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void check(boolean condition) {
+        if (!condition) {
+            throw new IllegalStateException("Unexpected result");
+        }
+    }
+
+    private static void report(String label, long[] firstLine, long averageTotal) {
+        long sum = 0;
+        long best = Long.MAX_VALUE;
+        for (long t : firstLine) {
+            sum += t;
+            best = Math.min(best, t);
+        }
+        System.out.printf("  %-28s first line %8.2f ms (best %8.2f)   whole page %8.2f ms%n", label,
+                sum / 1e6 / firstLine.length, best / 1e6, averageTotal / 1e6);
+    }
+}
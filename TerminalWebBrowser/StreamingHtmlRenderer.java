@@ -0,0 +1,326 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import org.jsoup.parser.Parser;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Turns HTML into wrapped text lines as it arrives, so the first screen can be shown while the rest
+ * of the document is still downloading. Text is emitted at the end of every block element; the
+ * title, the {@code <style>} blocks and the links are collected on the way for the caller.
+ *
+ * <p>This is a tolerant tokenizer, not a DOM builder: it needs no lookahead beyond the current tag
+ * and keeps nothing but the paragraph being assembled, so memory does not grow with the page.
+ * Contents of script, style, template and similar elements never appear as text.
+ */
+public class StreamingHtmlRenderer {
+
+    /** Receives output as soon as it is known. Called on the thread feeding the renderer. */
+    public interface Listener {
+        void onTitle(String title);
+
+        void onLine(String line);
+    }
+
+    private static final Set<String> BLOCKS = Set.of(
+            "address", "article", "aside", "blockquote", "body", "br", "dd", "details", "div", "dl", "dt",
+            "fieldset", "figcaption", "figure", "footer", "form", "h1", "h2", "h3", "h4", "h5", "h6", "header",
+            "hr", "li", "main", "nav", "ol", "p", "pre", "section", "summary", "table", "td", "th", "tr", "ul");
+    private static final Set<String> RAW_TEXT = Set.of(
+            "script", "style", "template", "noscript", "textarea", "iframe", "noembed", "noframes", "svg", "title");
+
+    private enum State { TEXT, TAG, COMMENT, RAW }
+
+    private final Listener listener;
+    private final int width;
+    private URI base;
+
+    private State state = State.TEXT;
+    private final StringBuilder text = new StringBuilder();
+    private final StringBuilder tag = new StringBuilder();
+    private final StringBuilder raw = new StringBuilder();
+    private final StringBuilder css = new StringBuilder();
+    private String rawElement;
+    private String rawEnd;
+    private boolean rawClosing;
+    private boolean keepRaw;
+    private int dashes;
+    private char quote;
+    private boolean pendingSpace;
+    private String title;
+    private final Set<String> links = new LinkedHashSet<>();
+    private int lineCount;
+
+    /**
+     * @param base the page address, against which relative links are resolved
+     * @param width the column at which lines are wrapped
+     */
+    public StreamingHtmlRenderer(URI base, int width, Listener listener) {
+        if (width < 20) {
+            throw new IllegalArgumentException("width must be at least 20");
+        }
+        this.base = base;
+        this.width = width;
+        this.listener = listener;
+    }
+
+    /** Processes the next piece of the document. Tags and entities may be split across calls. */
+    public void feed(char[] chars, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            char c = chars[i];
+            switch (state) {
+                case TEXT:
+                    if (c == '<') {
+                        state = State.TAG;
+                        tag.setLength(0);
+                        quote = 0;
+                    } else {
+                        appendText(c);
+                    }
+                    break;
+                case TAG:
+                    tagChar(c);
+                    break;
+                case COMMENT:
+                    if (c == '>' && dashes >= 2) {
+                        state = State.TEXT;
+                    }
+                    dashes = c == '-' ? dashes + 1 : 0;
+                    break;
+                case RAW:
+                    rawChar(c);
+                    break;
+                default:
+                    throw new IllegalStateException(state.toString());
+            }
+        }
+    }
+
+    /** Flushes the last paragraph; call once after the final {@link #feed}. */
+    public void finish() {
+        flushParagraph();
+    }
+
+    public String getTitle() {
+        return title == null ? "" : title;
+    }
+
+    /** Absolute http(s) links in document order, without duplicates or fragments. */
+    public List<String> getLinks() {
+        return new ArrayList<>(links);
+    }
+
+    /** Contents of every {@code <style>} element, one block per line. */
+    public String getCss() {
+        return css.toString();
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    private void tagChar(char c) {
+        if (quote != 0) {
+            if (c == quote) {
+                quote = 0;
+            }
+            tag.append(c);
+            return;
+        }
+        if (c == '>') {
+            handleTag();
+            return;
+        }
+        if ((c == '"' || c == '\'') && tag.indexOf("=") >= 0) {
+            quote = c;
+        }
+        tag.append(c);
+        if (tag.length() == 3 && tag.charAt(0) == '!' && tag.charAt(1) == '-' && tag.charAt(2) == '-') {
+            state = State.COMMENT;
+            dashes = 0;
+        } else if (tag.length() == 1 && !(Character.isLetter(c) || c == '/' || c == '!' || c == '?')) {
+            // A bare '<' in text, as in "a < b".
+            state = State.TEXT;
+            appendText('<');
+            appendText(c);
+        }
+    }
+
+    private void rawChar(char c) {
+        if (rawClosing) {
+            if (c == '>') {
+                endRaw();
+            }
+            return;
+        }
+        raw.append(c);
+        if (raw.length() >= rawEnd.length() && endsWithIgnoreCase(raw, rawEnd)) {
+            raw.setLength(raw.length() - rawEnd.length());
+            rawClosing = true;
+        } else if (raw.length() > 256 && !keepRaw) {
+            // Only the end tag matters for scripts and the like; keep a short tail.
+            raw.delete(0, raw.length() - rawEnd.length());
+        }
+    }
+
+    private void handleTag() {
+        state = State.TEXT;
+        if (tag.length() == 0 || tag.charAt(0) == '!' || tag.charAt(0) == '?') {
+            return;
+        }
+        boolean closing = tag.charAt(0) == '/';
+        int start = closing ? 1 : 0;
+        int end = start;
+        while (end < tag.length() && !Character.isWhitespace(tag.charAt(end)) && tag.charAt(end) != '/') {
+            end++;
+        }
+        String name = tag.substring(start, end).toLowerCase(Locale.ROOT);
+        if (BLOCKS.contains(name)) {
+            flushParagraph();
+        }
+        if (closing) {
+            return;
+        }
+        if (name.equals("a")) {
+            String href = attribute("href");
+            if (href != null) {
+                addLink(href);
+            }
+        } else if (name.equals("base")) {
+            String href = attribute("href");
+            if (href != null) {
+                try {
+                    base = base.resolve(href.trim());
+                } catch (IllegalArgumentException e) {
+                    // Keep the page address.
+                }
+            }
+        }
+        if (RAW_TEXT.contains(name) && tag.charAt(tag.length() - 1) != '/') {
+            state = State.RAW;
+            rawElement = name;
+            rawEnd = "</" + name;
+            rawClosing = false;
+            keepRaw = name.equals("style") || name.equals("title");
+            raw.setLength(0);
+        }
+    }
+
+    private void endRaw() {
+        state = State.TEXT;
+        if (rawElement.equals("style")) {
+            css.append(raw).append('\n');
+        } else if (rawElement.equals("title") && title == null) {
+            title = collapse(Parser.unescapeEntities(raw.toString(), false)).trim();
+            listener.onTitle(title);
+        }
+        raw.setLength(0);
+        rawElement = null;
+    }
+
+    private void appendText(char c) {
+        if (c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f') {
+            pendingSpace = text.length() > 0;
+            return;
+        }
+        if (pendingSpace) {
+            text.append(' ');
+            pendingSpace = false;
+        }
+        text.append(c);
+    }
+
+    private void flushParagraph() {
+        pendingSpace = false;
+        if (text.length() == 0) {
+            return;
+        }
+        String paragraph = Parser.unescapeEntities(text.toString(), false);
+        text.setLength(0);
+        int from = 0;
+        while (from < paragraph.length()) {
+            int to = Math.min(paragraph.length(), from + width);
+            if (to < paragraph.length()) {
+                int space = paragraph.lastIndexOf(' ', to);
+                if (space > from) {
+                    to = space;
+                }
+            }
+            String line = paragraph.substring(from, to).trim();
+            if (!line.isEmpty()) {
+                lineCount++;
+                listener.onLine(line);
+            }
+            from = to;
+            while (from < paragraph.length() && paragraph.charAt(from) == ' ') {
+                from++;
+            }
+        }
+    }
+
+    private void addLink(String href) {
+        try {
+            URI uri = base.resolve(Parser.unescapeEntities(href.trim(), true).replace(" ", "%20"));
+            String scheme = uri.getScheme();
+            if (scheme != null && (scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                links.add(new URI(uri.getScheme(), uri.getRawSchemeSpecificPart(), null).toString());
+            }
+        } catch (Exception e) {
+            // Not a usable address; ignore it as a browser would.
+        }
+    }
+
+    /** The value of an attribute of the current tag, or null. */
+    private String attribute(String name) {
+        String lower = tag.toString().toLowerCase(Locale.ROOT);
+        int at = 0;
+        while ((at = lower.indexOf(name, at)) >= 0) {
+            int after = at + name.length();
+            boolean startsWord = at > 0 && Character.isWhitespace(lower.charAt(at - 1));
+            int eq = after;
+            while (eq < lower.length() && Character.isWhitespace(lower.charAt(eq))) {
+                eq++;
+            }
+            if (startsWord && eq < lower.length() && lower.charAt(eq) == '=') {
+                int valueStart = eq + 1;
+                while (valueStart < tag.length() && Character.isWhitespace(tag.charAt(valueStart))) {
+                    valueStart++;
+                }
+                if (valueStart >= tag.length()) {
+                    return "";
+                }
+                char open = tag.charAt(valueStart);
+                if (open == '"' || open == '\'') {
+                    int close = tag.indexOf(String.valueOf(open), valueStart + 1);
+                    return tag.substring(valueStart + 1, close < 0 ? tag.length() : close);
+                }
+                int valueEnd = valueStart;
+                while (valueEnd < tag.length() && !Character.isWhitespace(tag.charAt(valueEnd))) {
+                    valueEnd++;
+                }
+                return tag.substring(valueStart, valueEnd);
+            }
+            at = after;
+        }
+        return null;
+    }
+
+    private static boolean endsWithIgnoreCase(StringBuilder buffer, String suffix) {
+        int offset = buffer.length() - suffix.length();
+        for (int i = 0; i < suffix.length(); i++) {
+            if (Character.toLowerCase(buffer.charAt(offset + i)) != suffix.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String collapse(String value) {
+        return value.replaceAll("\\s+", " ");
+    }
+}
@@ -4,27 +4,37 @@ import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
-import org.jsoup.Jsoup;
-import org.jsoup.nodes.Document;
-import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 public class TerminalWebBrowser {
-    private static List<String> history = new ArrayList<>();
+    private static final int HISTORY_CAPACITY = 10_000;
+    private static final long CACHE_BYTES = 64L * 1024 * 1024;
+    private static final long REVALIDATE_AFTER_MILLIS = 60_000;
+    private static final int PREFETCH_LINKS = 8;
+
+    private static BrowsingHistory history = new BrowsingHistory(HISTORY_CAPACITY);
     private static List<String> bookmarks = new ArrayList<>();
     private static String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/91.0.4472.124 Safari/537.36";
 
+    // The page on screen: lines not yet shown and its style sheets
+    private static ScreenPrinter screen;
+    private static PageLoader.Page page;
+
     public static void main(String[] args) {
-        try {
+        try (PageLoader loader = new PageLoader(SharedHttpClient.shared(),
+                new HttpPageCache(Paths.get(System.getProperty("user.home"), ".terminalwebbrowser", "cache"), CACHE_BYTES),
+                100, REVALIDATE_AFTER_MILLIS)) {
             Terminal terminal = TerminalBuilder.builder().system(true).build();
             LineReader reader = LineReaderBuilder.builder().terminal(terminal).build();
 
             while (true) {
-                String input = reader.readLine("Enter URL (or 'exit' to quit, 'history' to view history, 'bookmarks' to view bookmarks, 'search' to search text, 'useragent' to set User-Agent): ");
+                String input = reader.readLine("Enter URL (or 'exit' to quit, 'more' to page, 'css' to view styles, 'history' to view history, 'bookmarks' to view bookmarks, 'search' to search history, 'useragent' to set User-Agent): ");
                 if (input.equalsIgnoreCase("exit")) {
                     break;
                 } else if (input.equalsIgnoreCase("history")) {
@@ -39,20 +49,25 @@ public class TerminalWebBrowser {
                 } else if (input.equalsIgnoreCase("useragent")) {
                     setUserAgent(reader, terminal);
                     continue;
+                } else if (input.equalsIgnoreCase("more")) {
+                    showMore(terminal);
+                    continue;
+                } else if (input.equalsIgnoreCase("css")) {
+                    terminal.writer().println("CSS: " + (page == null ? "" : page.getCss()));
+                    continue;
                 }
 
                 try {
-                    Document doc = Jsoup.connect(input).userAgent(userAgent).get();
-                    String title = doc.title();
-                    String body = doc.body().text();
-                    String css = parseCSS(doc);
-
-                    terminal.writer().println("Title: " + title);
-                    terminal.writer().println("Content: " + body);
-                    terminal.writer().println("CSS: " + css);
+                    screen = new ScreenPrinter(terminal.writer(), screenLines(terminal));
+                    page = loader.load(input, userAgent, screen);
+                    terminal.writer().printf("[%s, %d KB, first line after %d ms, %d more lines%s]%n",
+                            page.getSource().toString().toLowerCase(Locale.ROOT), page.getBytes() / 1024,
+                            page.getFirstLineNanos() / 1_000_000, screen.remaining(),
+                            page.getCss().isEmpty() ? "" : ", styles under 'css'");
 
                     history.add(input);
-                } catch (IOException e) {
+                    loader.prefetch(page, userAgent, PREFETCH_LINKS);
+                } catch (IOException | IllegalArgumentException e) {
                     terminal.writer().println("Failed to retrieve content from the URL: " + e.getMessage());
                 }
             }
@@ -63,7 +78,7 @@ public class TerminalWebBrowser {
 
     private static void displayHistory(Terminal terminal) {
         terminal.writer().println("Browsing History:");
-        for (String url : history) {
+        for (String url : history.list()) {
             terminal.writer().println(url);
         }
     }
@@ -76,12 +91,10 @@ public class TerminalWebBrowser {
     }
 
     private static void searchInHistory(LineReader reader, Terminal terminal) {
-        String searchTerm = reader.readLine("Enter search term: ");
+        String searchTerm = reader.readLine("Enter the start of a URL, host or path word: ");
         terminal.writer().println("Search Results:");
-        for (String url : history) {
-            if (url.contains(searchTerm)) {
-                terminal.writer().println(url);
-            }
+        for (String url : history.search(searchTerm, 50)) {
+            terminal.writer().println(url);
         }
     }
 
@@ -90,12 +103,63 @@ public class TerminalWebBrowser {
         terminal.writer().println("User-Agent set to: " + userAgent);
     }
 
-    private static String parseCSS(Document doc) {
-        Elements styles = doc.select("style");
-        StringBuilder css = new StringBuilder();
-        for (Element style : styles) {
-            css.append(style.html()).append("\n");
+    private static void showMore(Terminal terminal) {
+        if (screen == null || screen.remaining() == 0) {
+            terminal.writer().println("No more content.");
+            return;
+        }
+        screen.next(screenLines(terminal));
+        terminal.writer().printf("[%d more lines]%n", screen.remaining());
+    }
+
+    private static int screenLines(Terminal terminal) {
+        int height = terminal.getHeight();
+        return Math.max(10, (height > 0 ? height : 24) - 4);
+    }
+
+    // Prints the title and the first screen of text as they are parsed and keeps the rest for 'more'
+    private static final class ScreenPrinter implements StreamingHtmlRenderer.Listener {
+        private final PrintWriter out;
+        private final List<String> rest = new ArrayList<>();
+        private int shown;
+        private final int firstScreen;
+        private int next;
+
+        ScreenPrinter(PrintWriter out, int firstScreen) {
+            this.out = out;
+            this.firstScreen = firstScreen;
+        }
+
+        @Override
+        public void onTitle(String title) {
+            out.println("Title: " + title);
+            out.flush();
+        }
+
+        @Override
+        public void onLine(String line) {
+            if (shown < firstScreen) {
+                if (shown == 0) {
+                    out.println("Content:");
+                }
+                out.println(line);
+                out.flush();
+                shown++;
+            } else {
+                rest.add(line);
+            }
+        }
+
+        int remaining() {
+            return rest.size() - next;
+        }
+
+        void next(int lines) {
+            int end = Math.min(rest.size(), next + lines);
+            for (; next < end; next++) {
+                out.println(rest.get(next));
+            }
+            out.flush();
         }
-        return css.toString();
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,10 @@
  * Copyright © 2024 Devin B. Royal. All Rights Reserved.
  */
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 
@@ -21,10 +21,11 @@ public class ThreatDataFetcher {
             String url = "http://example.com";  // Example URL
             String ipAddress = "192.168.1.1";  // Example IP address
             
-            // Fetch threat data for each entity
-            fetchThreatDataFromVirusTotal(fileHash);
-            fetchThreatDataFromIBMXForce(url);
-            fetchThreatDataFromThreatMiner(ipAddress);
+            // Fetch threat data for each entity; the three providers are queried concurrently
+            CompletableFuture.allOf(
+                    fetchThreatDataFromVirusTotalAsync(fileHash),
+                    fetchThreatDataFromIBMXForceAsync(url),
+                    fetchThreatDataFromThreatMinerAsync(ipAddress)).join();
         } catch (Exception e) {
             System.err.println("Error in fetching threat data: " + e.getMessage());
         }
@@ -32,69 +33,60 @@ public class ThreatDataFetcher {
 
     // Fetch data from VirusTotal API (simulated)
     public static void fetchThreatDataFromVirusTotal(String fileHash) {
-        System.out.println("Fetching threat data from VirusTotal...");
-        
-        try {
-            String apiUrl = "https://www.virustotal.com/api/v3/files/" + fileHash;
-            HttpURLConnection connection = createHttpConnection(apiUrl, VIRUSTOTAL_API_KEY);
-            String response = getResponse(connection);
-            parseAndPrintResponse(response, "VirusTotal");
-        } catch (Exception e) {
-            System.err.println("Error fetching data from VirusTotal: " + e.getMessage());
-        }
+        fetchThreatDataFromVirusTotalAsync(fileHash).join();
+    }
+
+    public static CompletableFuture<Void> fetchThreatDataFromVirusTotalAsync(String fileHash) {
+        String apiUrl = "https://www.virustotal.com/api/v3/files/" + fileHash;
+        return fetch(apiUrl, VIRUSTOTAL_API_KEY, "VirusTotal", "VirusTotal");
     }
 
     // Fetch data from IBM X-Force Exchange (simulated)
     public static void fetchThreatDataFromIBMXForce(String url) {
-        System.out.println("Fetching threat data from IBM X-Force Exchange...");
-        
-        try {
-            String apiUrl = "https://api.xforce.ibmcloud.com/url/" + url;
-            HttpURLConnection connection = createHttpConnection(apiUrl, IBM_XFORCE_API_KEY);
-            String response = getResponse(connection);
-            parseAndPrintResponse(response, "IBM X-Force");
-        } catch (Exception e) {
-            System.err.println("Error fetching data from IBM X-Force Exchange: " + e.getMessage());
-        }
+        fetchThreatDataFromIBMXForceAsync(url).join();
+    }
+
+    public static CompletableFuture<Void> fetchThreatDataFromIBMXForceAsync(String url) {
+        String apiUrl = "https://api.xforce.ibmcloud.com/url/" + url;
+        return fetch(apiUrl, IBM_XFORCE_API_KEY, "IBM X-Force Exchange", "IBM X-Force");
     }
 
     // Fetch data from ThreatMiner (simulated)
     public static void fetchThreatDataFromThreatMiner(String ipAddress) {
-        System.out.println("Fetching threat data from ThreatMiner...");
-        
-        try {
-            String apiUrl = "https://api.threatminer.org/v2/ip/" + ipAddress + "/json";
-            HttpURLConnection connection = createHttpConnection(apiUrl, THREATMINER_API_KEY);
-            String response = getResponse(connection);
-            parseAndPrintResponse(response, "ThreatMiner");
-        } catch (Exception e) {
-            System.err.println("Error fetching data from ThreatMiner: " + e.getMessage());
-        }
+        fetchThreatDataFromThreatMinerAsync(ipAddress).join();
     }
 
-    // Helper function to create an HTTP connection with API key
-    private static HttpURLConnection createHttpConnection(String apiUrl, String apiKey) throws Exception {
-        URL url = new URL(apiUrl);
-        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-        connection.setRequestMethod("GET");
-        connection.setRequestProperty("Authorization", "Bearer " + apiKey);
-        return connection;
+    public static CompletableFuture<Void> fetchThreatDataFromThreatMinerAsync(String ipAddress) {
+        String apiUrl = "https://api.threatminer.org/v2/ip/" + ipAddress + "/json";
+        return fetch(apiUrl, THREATMINER_API_KEY, "ThreatMiner", "ThreatMiner");
     }
 
-    // Helper function to get the response from the API
-    private static String getResponse(HttpURLConnection connection) throws Exception {
-        BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-        StringBuilder response = new StringBuilder();
-        String inputLine;
-        while ((inputLine = in.readLine()) != null) {
-            response.append(inputLine);
+    // Helper function to send an authenticated GET over the shared pooled client; never completes exceptionally
+    private static CompletableFuture<Void> fetch(String apiUrl, String apiKey, String service, String provider) {
+        System.out.println("Fetching threat data from " + service + "...");
+        CompletableFuture<HttpResponse<String>> response;
+        try {
+            response = SharedHttpClient.shared().getAsync(apiUrl, Map.of("Authorization", "Bearer " + apiKey));
+        } catch (IllegalArgumentException e) {
+            response = CompletableFuture.failedFuture(e);
         }
-        in.close();
-        return response.toString();
+        return response.handle((r, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                String message = cause.getMessage() != null ? cause.getMessage() : cause.toString();
+                System.err.println("Error fetching data from " + service + ": " + message);
+            } else if (r.statusCode() >= 400) {
+                System.err.println("Error fetching data from " + service + ": Server returned HTTP response code: "
+                        + r.statusCode() + " for URL: " + apiUrl);
+            } else {
+                parseAndPrintResponse(r.body(), provider);
+            }
+            return null;
+        });
     }
 
     // Helper function to parse and print the response
-    private static void parseAndPrintResponse(String response, String provider) {
+    private static synchronized void parseAndPrintResponse(String response, String provider) {
         try {
             // Parse the JSON response
             JSONParser parser = new JSONParser();
@@ -0,0 +1,673 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+// Compiled multi-pattern matcher for regex threat signatures. Each signature's regex is analysed
+// for the longest literal that every match must contain; all those literals go into one
+// Aho-Corasick automaton (a full DFA over a compressed, ASCII case-folded alphabet), so a line is
+// scanned once no matter how many signatures there are. Only signatures whose literal was seen are
+// confirmed with their regex. Signatures without a usable literal are combined into a single
+// alternation, tried only on lines containing a character that can start one of them, and checked
+// one by one only when it matches.
+// Immutable and safe to share between scanning threads.
+public final class SignatureMatcher {
+
+  // Shorter literals would pass too many lines to be worth filtering on.
+  private static final int MIN_LITERAL = 3;
+
+  private final String[] names;
+  private final Pattern[] patterns;
+  private final int[] charClass; // ASCII char -> alphabet symbol; everything else is symbol 0
+  private final int symbols;
+  // Transition table; a negative entry ~s means state s has matches ending there.
+  private final int[] delta;
+  private final int[] outputStart; // per state, into outputIds (CSR)
+  private final int[] outputIds;
+  // Signatures without a literal: those that can share one alternation, and the rest.
+  private final int[] combined;
+  private final Pattern combinedAny;
+  private final int[] uncombined;
+  // Characters that can start a match of any signature without a literal; null if unknown.
+  private final long[] unfilteredStarts;
+
+  private SignatureMatcher(
+      String[] names,
+      Pattern[] patterns,
+      int[] charClass,
+      int symbols,
+      int[] delta,
+      int[] outputStart,
+      int[] outputIds,
+      int[] combined,
+      Pattern combinedAny,
+      int[] uncombined,
+      long[] unfilteredStarts) {
+    this.names = names;
+    this.patterns = patterns;
+    this.charClass = charClass;
+    this.symbols = symbols;
+    this.delta = delta;
+    this.outputStart = outputStart;
+    this.outputIds = outputIds;
+    this.combined = combined;
+    this.combinedAny = combinedAny;
+    this.uncombined = uncombined;
+    this.unfilteredStarts = unfilteredStarts;
+  }
+
+  // Compiles signatures given as name -> regex, in map iteration order.
+  public static SignatureMatcher compile(Map<String, String> signatures) {
+    int count = signatures.size();
+    String[] names = new String[count];
+    Pattern[] patterns = new Pattern[count];
+    String[] literals = new String[count];
+    int index = 0;
+    for (Map.Entry<String, String> signature : signatures.entrySet()) {
+      names[index] = signature.getKey();
+      patterns[index] = Pattern.compile(signature.getValue());
+      String literal = requiredLiteral(signature.getValue());
+      literals[index] = literal != null && literal.length() >= MIN_LITERAL ? fold(literal) : null;
+      index++;
+    }
+
+    // Alphabet: one symbol per distinct (folded) ASCII character used by any literal.
+    int[] charClass = new int[128];
+    int symbols = 1;
+    for (String literal : literals) {
+      if (literal == null) {
+        continue;
+      }
+      for (int i = 0; i < literal.length(); i++) {
+        char c = literal.charAt(i);
+        if (c < 128 && charClass[c] == 0) {
+          charClass[c] = symbols++;
+        }
+      }
+    }
+    for (char c = 'A'; c <= 'Z'; c++) {
+      charClass[c] = charClass[c + ('a' - 'A')];
+    }
+
+    // Trie of literals.
+    List<int[]> children = new ArrayList<>();
+    List<List<Integer>> ends = new ArrayList<>();
+    children.add(new int[symbols]);
+    ends.add(null);
+    List<Integer> unfilteredList = new ArrayList<>();
+    for (int id = 0; id < count; id++) {
+      String literal = literals[id];
+      if (literal == null) {
+        unfilteredList.add(id);
+        continue;
+      }
+      int state = 0;
+      for (int i = 0; i < literal.length(); i++) {
+        char c = literal.charAt(i);
+        int symbol = c < 128 ? charClass[c] : 0;
+        int next = children.get(state)[symbol];
+        if (next == 0) {
+          next = children.size();
+          children.add(new int[symbols]);
+          ends.add(null);
+          children.get(state)[symbol] = next;
+        }
+        state = next;
+      }
+      if (ends.get(state) == null) {
+        ends.set(state, new ArrayList<>(1));
+      }
+      ends.get(state).add(id);
+    }
+
+    // Breadth-first: failure links, full transitions and merged outputs.
+    int states = children.size();
+    int[] delta = new int[states * symbols];
+    int[] fail = new int[states];
+    List<int[]> outputs = new ArrayList<>(states);
+    for (int s = 0; s < states; s++) {
+      outputs.add(null);
+    }
+    ArrayDeque<Integer> bfs = new ArrayDeque<>();
+    for (int symbol = 0; symbol < symbols; symbol++) {
+      int child = children.get(0)[symbol];
+      delta[symbol] = child; // depth-one states keep the root (0) as their failure link
+      if (child != 0) {
+        bfs.add(child);
+      }
+    }
+    outputs.set(0, new int[0]);
+    int[] order = new int[states];
+    int visited = 0;
+    while (!bfs.isEmpty()) {
+      int s = bfs.poll();
+      order[visited++] = s;
+      int[] own = children.get(s);
+      for (int symbol = 0; symbol < symbols; symbol++) {
+        int child = own[symbol];
+        int fallback = delta[fail[s] * symbols + symbol];
+        if (child != 0) {
+          fail[child] = fallback;
+          delta[s * symbols + symbol] = child;
+          bfs.add(child);
+        } else {
+          delta[s * symbols + symbol] = fallback;
+        }
+      }
+    }
+    // Outputs in BFS order, so each failure target is merged before the states that use it.
+    for (int i = 0; i < visited; i++) {
+      int s = order[i];
+      int[] inherited = outputs.get(fail[s]);
+      List<Integer> own = ends.get(s);
+      if (own == null) {
+        outputs.set(s, inherited);
+      } else {
+        int[] merged = Arrays.copyOf(inherited, inherited.length + own.size());
+        for (int k = 0; k < own.size(); k++) {
+          merged[inherited.length + k] = own.get(k);
+        }
+        outputs.set(s, merged);
+      }
+    }
+    int[] outputStart = new int[states + 1];
+    for (int s = 0; s < states; s++) {
+      outputStart[s + 1] = outputStart[s] + outputs.get(s).length;
+    }
+    int[] outputIds = new int[outputStart[states]];
+    for (int s = 0; s < states; s++) {
+      int[] ids = outputs.get(s);
+      System.arraycopy(ids, 0, outputIds, outputStart[s], ids.length);
+    }
+    for (int i = 0; i < delta.length; i++) {
+      if (outputs.get(delta[i]).length > 0) {
+        delta[i] = ~delta[i];
+      }
+    }
+
+    List<Integer> combined = new ArrayList<>();
+    List<Integer> uncombined = new ArrayList<>();
+    StringBuilder alternation = new StringBuilder();
+    for (int id : unfilteredList) {
+      String regex = patterns[id].pattern();
+      // Back-references are numbered per pattern and would break inside a combined one, and a
+      // group name may be defined only once in it.
+      if (regex.matches("(?s).*\\\\[1-9k].*") || regex.matches("(?s).*\\(\\?<[a-zA-Z].*")) {
+        uncombined.add(id);
+        continue;
+      }
+      combined.add(id);
+      alternation.append(alternation.length() == 0 ? "" : "|").append("(?:").append(regex).append(')');
+    }
+    Pattern any = combined.isEmpty() ? null : Pattern.compile(alternation.toString());
+    long[] starts = new long[1024];
+    for (int id : unfilteredList) {
+      if (!firstChars(patterns[id].pattern(), starts)) {
+        starts = null;
+        break;
+      }
+    }
+    return new SignatureMatcher(
+        names,
+        patterns,
+        charClass,
+        symbols,
+        delta,
+        outputStart,
+        outputIds,
+        combined.stream().mapToInt(Integer::intValue).toArray(),
+        any,
+        uncombined.stream().mapToInt(Integer::intValue).toArray(),
+        starts);
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  public String name(int signature) {
+    return names[signature];
+  }
+
+  // True if any signature matches somewhere in the text.
+  public boolean matchesAny(CharSequence text) {
+    return scan(text, true).length > 0;
+  }
+
+  // Names of every signature that matches somewhere in the text.
+  public List<String> matchingNames(CharSequence text) {
+    int[] ids = scan(text, false);
+    List<String> result = new ArrayList<>(ids.length);
+    for (int id : ids) {
+      result.add(names[id]);
+    }
+    return result;
+  }
+
+  // Ids of matching signatures, ascending; stops after the first one if firstOnly is set.
+  public int[] scan(CharSequence text, boolean firstOnly) {
+    Hits candidates = null;
+    long[] starts = unfilteredStarts;
+    boolean startSeen = starts == null;
+    int state = 0;
+    for (int i = 0, n = text.length(); i < n; i++) {
+      char c = text.charAt(i);
+      if (!startSeen && (starts[c >>> 6] & (1L << c)) != 0) {
+        startSeen = true;
+      }
+      int next = delta[state * symbols + (c < 128 ? charClass[c] : 0)];
+      if (next < 0) {
+        next = ~next;
+        if (candidates == null) {
+          candidates = new Hits();
+        }
+        for (int k = outputStart[next]; k < outputStart[next + 1]; k++) {
+          candidates.add(outputIds[k]);
+        }
+      }
+      state = next;
+    }
+
+    Hits matches = new Hits();
+    if (candidates != null) {
+      Arrays.sort(candidates.ids, 0, candidates.count);
+      for (int k = 0; k < candidates.count; k++) {
+        int id = candidates.ids[k];
+        if ((k == 0 || candidates.ids[k - 1] != id) && confirm(id, text, matches) && firstOnly) {
+          return matches.toArray();
+        }
+      }
+    }
+    if (startSeen && combinedAny != null && combinedAny.matcher(text).find()) {
+      for (int id : combined) {
+        if (confirm(id, text, matches) && firstOnly) {
+          return matches.toArray();
+        }
+      }
+    }
+    for (int id : startSeen ? uncombined : new int[0]) {
+      if (confirm(id, text, matches) && firstOnly) {
+        return matches.toArray();
+      }
+    }
+    int[] result = matches.toArray();
+    Arrays.sort(result);
+    return result;
+  }
+
+  private boolean confirm(int id, CharSequence text, Hits matches) {
+    if (patterns[id].matcher(text).find()) {
+      matches.add(id);
+      return true;
+    }
+    return false;
+  }
+
+  // Longest literal that must appear in every match of the regex, or null if none can be proved.
+  // Conservative: groups, classes, escapes other than quoted punctuation, and anything optional
+  // end a literal run; top-level alternation, comments mode, Unicode case folding, or an escape
+  // whose length is not simply known (octal, control characters, named references) gives up
+  // entirely.
+  static String requiredLiteral(String regex) {
+    if (hasFlag(regex, 'x') || hasFlag(regex, 'u') || hasFlag(regex, 'U') || regex.contains("\\Q")
+        || hasTopLevelAlternation(regex)) {
+      return null;
+    }
+    String best = "";
+    StringBuilder run = new StringBuilder();
+    int i = 0;
+    int n = regex.length();
+    while (i < n) {
+      char c = regex.charAt(i);
+      boolean literal = false;
+      switch (c) {
+        case '\\':
+          int escape = escape(regex, i);
+          if (escape >= 0) {
+            run.append((char) escape);
+            literal = true;
+            i += escape >>> 16;
+          } else if (hasVariableLengthEscape(regex, i)) {
+            return null;
+          } else if (regex.startsWith("\\p", i) || regex.startsWith("\\P", i)) {
+            // \p{Name}, or \pL with a one-letter name
+            i = regex.startsWith("{", i + 2) ? Math.max(regex.indexOf('}', i), i) + 1 : i + 3;
+          } else {
+            i += 2;
+          }
+          break;
+        case '[':
+          i = skipClass(regex, i);
+          break;
+        case '(':
+          i = skipGroup(regex, i);
+          break;
+        case '.':
+        case '^':
+        case '$':
+          i++;
+          break;
+        default:
+          run.append(c);
+          literal = true;
+          i++;
+      }
+      if (i < n && "*?{+".indexOf(regex.charAt(i)) >= 0) {
+        char quantifier = regex.charAt(i);
+        if (literal && quantifier != '+') {
+          run.setLength(run.length() - 1); // the atom may occur zero times
+        }
+        i = quantifier == '{' ? Math.max(regex.indexOf('}', i), i) + 1 : i + 1;
+        if (i < n && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+          i++; // lazy or possessive
+        }
+        literal = false;
+      }
+      if (!literal) {
+        if (run.length() > best.length()) {
+          best = run.toString();
+        }
+        run.setLength(0);
+      }
+    }
+    if (run.length() > best.length()) {
+      best = run.toString();
+    }
+    return best.isEmpty() ? null : best;
+  }
+
+  // Adds every character that can start a match of the regex to bits; false if that cannot be
+  // narrowed down (the first atom is optional, a group, a negated class, a property, ...). With
+  // Unicode classes or case folding on, \d, \w, \s and caseless letters reach beyond ASCII, so
+  // those patterns are not narrowed either.
+  static boolean firstChars(String regex, long[] bits) {
+    if (hasFlag(regex, 'x') || hasFlag(regex, 'u') || hasFlag(regex, 'U') || hasTopLevelAlternation(regex)) {
+      return false;
+    }
+    int n = regex.length();
+    int i = 0;
+    boolean caseless = false;
+    while (i < n) {
+      if (regex.charAt(i) == '^') {
+        i++;
+      } else if (regex.startsWith("(?", i) && regex.indexOf(')', i) > 0
+          && regex.substring(i + 2, regex.indexOf(')', i)).matches("[a-zA-Z]*(-[a-zA-Z]*)?")) {
+        String flags = regex.substring(i + 2, regex.indexOf(')', i)).split("-", -1)[0];
+        caseless |= flags.indexOf('i') >= 0;
+        i = regex.indexOf(')', i) + 1;
+      } else {
+        break;
+      }
+    }
+    if (i >= n) {
+      return false;
+    }
+    long[] atom = new long[1024];
+    int end;
+    char c = regex.charAt(i);
+    if (c == '\\') {
+      end = addEscape(regex, i, atom);
+      if (end < 0) {
+        return false;
+      }
+    } else if (c == '[') {
+      int j = i + 1;
+      if (j < n && regex.charAt(j) == '^') {
+        return false;
+      }
+      boolean first = true;
+      while (j < n && (regex.charAt(j) != ']' || first)) {
+        char from = regex.charAt(j);
+        if (from == '[' || regex.startsWith("&&", j)) {
+          return false;
+        }
+        if (from == '\\') {
+          int escape = escape(regex, j);
+          if (escape < 0) {
+            j = addEscape(regex, j, atom);
+            if (j < 0) {
+              return false;
+            }
+            first = false;
+            continue;
+          }
+          from = (char) escape;
+          j += escape >>> 16;
+        } else {
+          j++;
+        }
+        char to = from;
+        if (j + 1 < n && regex.charAt(j) == '-' && regex.charAt(j + 1) != ']') {
+          to = regex.charAt(j + 1);
+          if (to == '\\' || to == '[') {
+            return false;
+          }
+          j += 2;
+        }
+        for (char x = from; x <= to && x >= from; x++) {
+          set(atom, x);
+        }
+        first = false;
+      }
+      if (j >= n) {
+        return false;
+      }
+      end = j + 1;
+    } else if ("().|*+?{$".indexOf(c) >= 0) {
+      return false;
+    } else {
+      set(atom, c);
+      end = i + 1;
+    }
+    if (end < n && "*?{".indexOf(regex.charAt(end)) >= 0) {
+      return false; // the first atom may be skipped
+    }
+    for (int w = 0; w < atom.length; w++) {
+      for (long word = atom[w]; word != 0; word &= word - 1) {
+        char x = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+        set(bits, x);
+        if (caseless) {
+          set(bits, Character.toUpperCase(x));
+          set(bits, Character.toLowerCase(x));
+        }
+      }
+    }
+    return true;
+  }
+
+  // Adds the characters of a \d, \w or \s class, or of a single escaped character; returns the
+  // index after the escape, or -1 for anything else (\b, \p{...}, back-references, ...).
+  private static int addEscape(String regex, int i, long[] bits) {
+    int escape = escape(regex, i);
+    if (escape >= 0) {
+      set(bits, (char) escape);
+      return i + (escape >>> 16);
+    }
+    if (i + 1 >= regex.length()) {
+      return -1;
+    }
+    switch (regex.charAt(i + 1)) {
+      case 'd':
+        for (char x = '0'; x <= '9'; x++) {
+          set(bits, x);
+        }
+        return i + 2;
+      case 'w':
+        for (char x = 0; x < 128; x++) {
+          if (Character.isLetterOrDigit(x) || x == '_') {
+            set(bits, x);
+          }
+        }
+        return i + 2;
+      case 's':
+        for (char x : new char[] {' ', '\t', '\n', '\u000B', '\f', '\r'}) {
+          set(bits, x);
+        }
+        return i + 2;
+      default:
+        return -1;
+    }
+  }
+
+  // Decodes an escape that stands for one literal character: quoted punctuation, \t \n \r \f \a
+  // \e, \xhh or a four-digit unicode escape. Returns (length << 16) | char, or -1 otherwise.
+  private static int escape(String regex, int i) {
+    if (i + 1 >= regex.length()) {
+      return -1;
+    }
+    char c = regex.charAt(i + 1);
+    if (!Character.isLetterOrDigit(c)) {
+      return (2 << 16) | c;
+    }
+    switch (c) {
+      case 't':
+        return (2 << 16) | '\t';
+      case 'n':
+        return (2 << 16) | '\n';
+      case 'r':
+        return (2 << 16) | '\r';
+      case 'f':
+        return (2 << 16) | '\f';
+      case 'a':
+        return (2 << 16) | 7;
+      case 'e':
+        return (2 << 16) | 27;
+      case 'x':
+        return hex(regex, i + 2, 2);
+      case 'u':
+        return hex(regex, i + 2, 4);
+      default:
+        return -1;
+    }
+  }
+
+  // True for escapes longer than two characters that are not decoded: octal \0nn, control \cX,
+  // named back-references \k<name>, named characters \N{name}, \x{h...h}, and back-references
+  // of more than one digit, whose length depends on the groups in the pattern.
+  private static boolean hasVariableLengthEscape(String regex, int i) {
+    if (i + 1 >= regex.length()) {
+      return false;
+    }
+    char c = regex.charAt(i + 1);
+    if ("0ckN".indexOf(c) >= 0 || (c == 'x' && regex.startsWith("{", i + 2))) {
+      return true;
+    }
+    return c >= '1' && c <= '9' && i + 2 < regex.length() && Character.isDigit(regex.charAt(i + 2));
+  }
+
+  // True if any inline flag group turns the flag on, e.g. (?x) or (?ix:...) for comments mode.
+  private static boolean hasFlag(String regex, char flag) {
+    return regex.matches("(?s).*\\(\\?[a-zA-Z]*" + flag + "[a-zA-Z]*(-[a-zA-Z]*)?[:)].*");
+  }
+
+  private static int hex(String regex, int start, int digits) {
+    if (start + digits > regex.length()) {
+      return -1;
+    }
+    int value = 0;
+    for (int k = start; k < start + digits; k++) {
+      int digit = Character.digit(regex.charAt(k), 16);
+      if (digit < 0) {
+        return -1;
+      }
+      value = value * 16 + digit;
+    }
+    return ((digits + 2) << 16) | value;
+  }
+
+  private static void set(long[] bits, char c) {
+    bits[c >>> 6] |= 1L << c;
+  }
+
+  private static boolean hasTopLevelAlternation(String regex) {
+    int depth = 0;
+    for (int i = 0; i < regex.length(); i++) {
+      char c = regex.charAt(i);
+      if (c == '\\') {
+        i++;
+      } else if (c == '[') {
+        i = skipClass(regex, i) - 1;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')') {
+        depth--;
+      } else if (c == '|' && depth == 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // Index just past the character class starting at i.
+  private static int skipClass(String regex, int i) {
+    int depth = 0;
+    for (int j = i; j < regex.length(); j++) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j++;
+      } else if (c == '[') {
+        depth++;
+        if (j + 1 < regex.length() && regex.charAt(j + 1) == '^') {
+          j++;
+        }
+        if (j + 1 < regex.length() && regex.charAt(j + 1) == ']') {
+          j++; // a leading ']' is literal
+        }
+      } else if (c == ']' && --depth == 0) {
+        return j + 1;
+      }
+    }
+    return regex.length();
+  }
+
+  // Index just past the group starting at i.
+  private static int skipGroup(String regex, int i) {
+    int depth = 0;
+    for (int j = i; j < regex.length(); j++) {
+      char c = regex.charAt(j);
+      if (c == '\\') {
+        j++;
+      } else if (c == '[') {
+        j = skipClass(regex, j) - 1;
+      } else if (c == '(') {
+        depth++;
+      } else if (c == ')' && --depth == 0) {
+        return j + 1;
+      }
+    }
+    return regex.length();
+  }
+
+  private static String fold(String literal) {
+    char[] chars = literal.toCharArray();
+    for (int i = 0; i < chars.length; i++) {
+      if (chars[i] >= 'A' && chars[i] <= 'Z') {
+        chars[i] += 'a' - 'A';
+      }
+    }
+    return new String(chars);
+  }
+
+  // Growable int list for the few ids a scan produces.
+  private static final class Hits {
+    int[] ids = new int[4];
+    int count;
+
+    void add(int id) {
+      if (count == ids.length) {
+        ids = Arrays.copyOf(ids, count * 2);
+      }
+      ids[count++] = id;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(ids, count);
+    }
+  }
+}
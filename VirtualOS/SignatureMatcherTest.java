@@ -0,0 +1,150 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+// Checks that the literal pre-filter never rejects a line its signature's regex matches: every
+// signature is run through SignatureMatcher, alone and together, and compared with Pattern.find.
+public class SignatureMatcherTest {
+
+  private static final String[] SIGNATURES = {
+    // ThreatDatabase defaults
+    "SELECT .* FROM .*",
+    "<script>.*</script>",
+    // Escapes whose length is not two characters
+    "\\0101BCD",
+    "\\cAabc",
+    "(?<quote>['\"])abc\\k<quote>",
+    "\\N{LATIN SMALL LETTER A}bcd",
+    "\\x{41}BCDE",
+    "(a)(b)(c)(d)(e)(f)(g)(h)(i)(j)\\10xyz",
+    "\\tTAB\\u0041BC",
+    "abc\\Qd.e\\Efgh",
+    "\\pLabc",
+    "\\p{L}abc",
+    // Comments mode turned on by a flag group
+    "(?ix) evil \\s payload",
+    "(?x)a b c",
+    "(?sx:union select)",
+    // Unicode classes and case folding turned on by a flag group
+    "(?U)\\d+",
+    "(?iu)kelvin",
+    // Named groups that would clash in the combined alternation
+    "(?<ip>\\d+)[xy]",
+    "(?<ip>\\d+)[yz]",
+    // Quantifiers, groups and case
+    "evil_\\w+\\.exe",
+    "(?i)dropper-abc\\s+stage\\d",
+    "cmd(?:exec)?_[0-9]+_payload",
+    "x+yzw",
+    "ab?cde",
+    "foo{2}bar",
+  };
+
+  private static final String[] SAMPLES = {
+    "SELECT name FROM users",
+    "<script>alert(1)</script>",
+    "ABCD",
+    "101BCD",
+    "\u0001abc",
+    "Aabc",
+    "'abc'",
+    "<quote>abc",
+    "abcd",
+    "ABCDE",
+    "abcdefghijjxyz",
+    "abcdefghij0xyz",
+    "\tTABABC",
+    "abcd.efgh",
+    "xabc",
+    "\u0663\u0664",
+    "\u212Aelvin",
+    "12y",
+    "EVIL PAYLOAD",
+    "evilpayload",
+    " evil \\s payload",
+    "abc",
+    "a b c",
+    "unionselect",
+    "evil_tool.exe",
+    "DROPPER-ABC  stage7",
+    "cmd_42_payload",
+    "cmdexec_1_payload",
+    "xxyzw",
+    "acde",
+    "foooobar",
+    "fooobar",
+    "",
+  };
+
+  @Test
+  public void testEachSignatureAgreesWithItsRegex() {
+    for (String regex : SIGNATURES) {
+      Pattern pattern = Pattern.compile(regex);
+      SignatureMatcher matcher = SignatureMatcher.compile(Map.of("sig", regex));
+      String literal = SignatureMatcher.requiredLiteral(regex);
+      for (String sample : SAMPLES) {
+        boolean expected = pattern.matcher(sample).find();
+        assertEquals(expected, matcher.matchesAny(sample), regex + " on " + sample);
+        if (expected && literal != null) {
+          assertTrue(
+              sample.toLowerCase(Locale.ROOT).contains(literal.toLowerCase(Locale.ROOT)),
+              regex + " requires " + literal + " but matches " + sample);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAllSignaturesTogetherAgreeWithTheirRegexes() {
+    Map<String, String> signatures = new LinkedHashMap<>();
+    for (int i = 0; i < SIGNATURES.length; i++) {
+      signatures.put("sig-" + i, SIGNATURES[i]);
+    }
+    SignatureMatcher matcher = SignatureMatcher.compile(signatures);
+    for (String sample : SAMPLES) {
+      List<String> expected = new ArrayList<>();
+      for (int i = 0; i < SIGNATURES.length; i++) {
+        if (Pattern.compile(SIGNATURES[i]).matcher(sample).find()) {
+          expected.add("sig-" + i);
+        }
+      }
+      assertEquals(expected, matcher.matchingNames(sample), "signatures matching " + sample);
+    }
+  }
+
+  @Test
+  public void testReportedMissesAreFound() {
+    assertNull(SignatureMatcher.requiredLiteral("\\0101BCD"));
+    assertNull(SignatureMatcher.requiredLiteral("\\cAabc"));
+    assertNull(SignatureMatcher.requiredLiteral("(?<quote>['\"])abc\\k<quote>"));
+    assertNull(SignatureMatcher.requiredLiteral("(?ix) evil \\s payload"));
+    assertTrue(SignatureMatcher.compile(Map.of("octal", "\\0101BCD")).matchesAny("ABCD"));
+    assertTrue(SignatureMatcher.compile(Map.of("control", "\\cAabc")).matchesAny("\u0001abc"));
+    assertTrue(SignatureMatcher.compile(Map.of("named", "(?<q>['\"])abc\\k<q>")).matchesAny("\"abc\""));
+    assertTrue(SignatureMatcher.compile(Map.of("comments", "(?ix) evil \\s payload")).matchesAny("Evil payload"));
+    assertEquals("abc", SignatureMatcher.requiredLiteral("\\pLabc"));
+    assertTrue(SignatureMatcher.compile(Map.of("property", "\\pLabc")).matchesAny("xabc"));
+    assertTrue(SignatureMatcher.compile(Map.of("unicode", "(?U)\\d+")).matchesAny("\u0663\u0664"));
+  }
+
+  @Test
+  public void testSignaturesSharingAGroupNameCompileTogether() {
+    Map<String, String> signatures = new LinkedHashMap<>();
+    signatures.put("a", "(?<ip>\\d+)[xy]");
+    signatures.put("b", "(?<ip>\\d+)[yz]");
+    signatures.put("c", "(?<ip>\\d+)\\.\\k<ip>");
+    SignatureMatcher matcher = SignatureMatcher.compile(signatures);
+    assertEquals(List.of("a", "b"), matcher.matchingNames("12y"));
+    assertEquals(List.of("c"), matcher.matchingNames("7.7"));
+  }
+}
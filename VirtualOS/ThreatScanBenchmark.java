@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Scans synthetic logs against 10k synthetic signatures (literal, regex, case-insensitive and 0.2%
+// with no usable literal, which cost a combined regex pass per line) and reports throughput for the compiled matcher on one thread, on
+// all cores, and through ThreatScanService; a small sample is cross-checked against running every
+// regex on every line, which is also timed for comparison.
+// Usage: java ThreatScanBenchmark [signatures] [lines]
+public class ThreatScanBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int signatureCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int lineCount = args.length > 1 ? Integer.parseInt(args[1]) : 400_000;
+    Random random = new Random(42);
+
+    Map<String, String> signatures = new LinkedHashMap<>();
+    List<String> samples = new ArrayList<>();
+    for (int i = 0; i < signatureCount; i++) {
+      String token = word(random) + i;
+      String regex;
+      String sample;
+      switch (i % 500 == 0 ? 0 : 1 + i % 19) {
+        case 0:
+          regex = "\\x07[a-z]+" + i % 97 + "[0-9]{3}"; // no literal long enough to filter on
+          sample = "\u0007" + word(random) + i % 97 + "123";
+          break;
+        case 1:
+        case 2:
+          regex = "(?i)dropper-" + token + "\\s+stage\\d";
+          sample = "DROPPER-" + token.toUpperCase() + " stage2";
+          break;
+        case 3:
+        case 4:
+        case 5:
+        case 6:
+        case 7:
+          regex = "cmd(?:exec)?_[0-9]+_payload_" + token;
+          sample = "cmdexec_77_payload_" + token;
+          break;
+        default:
+          regex = "evil_" + token + "\\.exe";
+          sample = "evil_" + token + ".exe";
+      }
+      signatures.put("sig-" + i, regex);
+      samples.add(sample);
+    }
+
+    long start = System.nanoTime();
+    SignatureMatcher matcher = SignatureMatcher.compile(signatures);
+    System.out.printf("compiled %,d signatures in %d ms%n", matcher.size(), millis(start));
+
+    String[] vocabulary = new String[2000];
+    for (int i = 0; i < vocabulary.length; i++) {
+      vocabulary[i] = word(random);
+    }
+    String[] lines = new String[lineCount];
+    long bytes = 0;
+    int injected = 0;
+    for (int i = 0; i < lineCount; i++) {
+      StringBuilder line = new StringBuilder(160);
+      line.append("2024-06-01T12:").append(10 + i % 50).append(":00Z INFO host-").append(i % 64);
+      while (line.length() < 120) {
+        line.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+      }
+      if (random.nextInt(1000) == 0) {
+        line.append(' ').append(samples.get(random.nextInt(samples.size())));
+        injected++;
+      }
+      lines[i] = line.toString();
+      bytes += lines[i].length();
+    }
+    System.out.printf("%,d lines, %,.1f MB, %,d injected threats%n", lineCount, bytes / 1e6, injected);
+
+    // Correctness against the naive scan, and the naive scan's speed.
+    Pattern[] patterns = signatures.values().stream().map(Pattern::compile).toArray(Pattern[]::new);
+    int sample = Math.min(lineCount, 300);
+    long sampleBytes = 0;
+    start = System.nanoTime();
+    for (int i = 0; i < sample; i++) {
+      List<Integer> expected = new ArrayList<>();
+      for (int id = 0; id < patterns.length; id++) {
+        if (patterns[id].matcher(lines[i]).find()) {
+          expected.add(id);
+        }
+      }
+      sampleBytes += lines[i].length();
+      int[] actual = matcher.scan(lines[i], false);
+      if (!Arrays.equals(actual, expected.stream().mapToInt(Integer::intValue).toArray())) {
+        throw new IllegalStateException("Mismatch on line " + i + ": " + lines[i]);
+      }
+    }
+    report("naive regex loop", sampleBytes, System.nanoTime() - start);
+    for (String threat : samples.subList(0, 200)) {
+      if (!matcher.matchesAny("prefix " + threat + " suffix")) {
+        throw new IllegalStateException("Missed sample: " + threat);
+      }
+    }
+
+    for (int round = 0; round < 3; round++) {
+      start = System.nanoTime();
+      int hits = 0;
+      for (String line : lines) {
+        hits += matcher.scan(line, false).length > 0 ? 1 : 0;
+      }
+      report("matcher x1 (" + hits + " hits)", bytes, System.nanoTime() - start);
+    }
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    for (int round = 0; round < 3; round++) {
+      start = System.nanoTime();
+      long hits =
+          IntStream.range(0, lineCount)
+              .parallel()
+              .filter(i -> matcher.scan(lines[i], true).length > 0)
+              .count();
+      report("matcher x" + threads + " (" + hits + " hits)", bytes, System.nanoTime() - start);
+    }
+
+    ThreatDatabase database = new ThreatDatabase();
+    database.addThreats(signatures);
+    start = System.nanoTime();
+    ThreatScanService service = new ThreatScanService(database, threads, 65_536, (s, l, n) -> {});
+    ThreatStream stream = service.stream("benchmark");
+    StringBuilder chunk = new StringBuilder(64 * 1024);
+    for (String line : lines) {
+      chunk.append(line).append('\n');
+      if (chunk.length() >= 60 * 1024) {
+        stream.feed(chunk);
+        chunk.setLength(0);
+      }
+    }
+    stream.feed(chunk);
+    stream.flush();
+    service.close();
+    report("service x" + threads + " (" + service.threatsFound() + " hits)", bytes, System.nanoTime() - start);
+  }
+
+  private static String word(Random random) {
+    char[] chars = new char[4 + random.nextInt(6)];
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) ('a' + random.nextInt(26));
+    }
+    return new String(chars);
+  }
+
+  private static long millis(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  private static void report(String name, long bytes, long nanos) {
+    System.out.printf(
+        "%-28s %,8d ms  %,10.2f MB/s%n", name, nanos / 1_000_000, bytes / 1e6 / (nanos / 1e9));
+  }
+}
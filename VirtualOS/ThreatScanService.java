@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Continuous threat scanning. Monitors hand lines (singly or a chunk's worth at a time) to the
+// service from any thread; worker threads drain the bounded queue in batches and scan each line against the database's current compiled
+// signatures, so signature updates apply to the very next batch. Matches go to a listener.
+public final class ThreatScanService implements AutoCloseable {
+
+  // Receives every line that matched at least one signature.
+  public interface Listener {
+    void onThreat(String source, String line, List<String> signatures);
+  }
+
+  private static final int BATCH = 256;
+  private static final Event STOP = new Event(null, null);
+
+  private final ThreatDatabase database;
+  private final Listener listener;
+  private final BlockingQueue<Event> queue;
+  private final Thread[] workers;
+  private final LongAdder lines = new LongAdder();
+  private final LongAdder chars = new LongAdder();
+  private final LongAdder threats = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private volatile boolean closed;
+
+  public ThreatScanService(ThreatDatabase database, int workers, int capacity, Listener listener) {
+    this.database = database;
+    this.listener = listener;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.workers = new Thread[workers];
+    for (int i = 0; i < workers; i++) {
+      this.workers[i] = new Thread(this::drain, "threat-scan-" + (i + 1));
+      this.workers[i].setDaemon(true);
+      this.workers[i].start();
+    }
+  }
+
+  // Queues a line, waiting for space if the scanners are behind.
+  public void submit(String source, String line) throws InterruptedException {
+    if (closed) {
+      throw new IllegalStateException("Threat scan service is closed");
+    }
+    queue.put(new Event(source, Collections.singletonList(line)));
+  }
+
+  // Queues several lines from one source as a single entry, waiting for space if necessary.
+  public void submitAll(String source, List<String> lines) throws InterruptedException {
+    if (closed) {
+      throw new IllegalStateException("Threat scan service is closed");
+    }
+    if (!lines.isEmpty()) {
+      queue.put(new Event(source, lines));
+    }
+  }
+
+  // Queues a line if there is space; otherwise counts it as dropped and returns false.
+  public boolean offer(String source, String line) {
+    if (!closed && queue.offer(new Event(source, Collections.singletonList(line)))) {
+      return true;
+    }
+    dropped.increment();
+    return false;
+  }
+
+  // A line splitter for one producer's raw data, e.g. packet payloads split across reads.
+  public ThreatStream stream(String source) {
+    return new ThreatStream(this, source);
+  }
+
+  public long scannedLines() {
+    return lines.sum();
+  }
+
+  public long scannedChars() {
+    return chars.sum();
+  }
+
+  public long threatsFound() {
+    return threats.sum();
+  }
+
+  public long droppedLines() {
+    return dropped.sum();
+  }
+
+  // Stops accepting lines, scans everything already queued and waits for the workers.
+  @Override
+  public void close() throws InterruptedException {
+    closed = true;
+    for (int i = 0; i < workers.length; i++) {
+      queue.put(STOP);
+    }
+    for (Thread worker : workers) {
+      worker.join(TimeUnit.SECONDS.toMillis(30));
+    }
+  }
+
+  private void drain() {
+    List<Event> batch = new ArrayList<>(BATCH);
+    try {
+      while (true) {
+        batch.add(queue.take());
+        queue.drainTo(batch, BATCH - 1);
+        SignatureMatcher matcher = database.matcher();
+        for (Event event : batch) {
+          if (event == STOP) {
+            // Put back any other workers' stop markers drained along with ours.
+            for (Event rest : batch.subList(batch.indexOf(event) + 1, batch.size())) {
+              if (rest == STOP) {
+                queue.put(STOP);
+              } else {
+                scan(matcher, rest);
+              }
+            }
+            return;
+          }
+          scan(matcher, event);
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void scan(SignatureMatcher matcher, Event event) {
+    long scannedChars = 0;
+    for (String line : event.lines) {
+      scannedChars += line.length();
+      int[] ids = matcher.scan(line, false);
+      if (ids.length == 0) {
+        continue;
+      }
+      threats.increment();
+      List<String> names = new ArrayList<>(ids.length);
+      for (int id : ids) {
+        names.add(matcher.name(id));
+      }
+      try {
+        listener.onThreat(event.source, line, names);
+      } catch (RuntimeException e) {
+        System.err.println("Threat listener failed: " + e.getMessage());
+      }
+    }
+    lines.add(event.lines.size());
+    chars.add(scannedChars);
+  }
+
+  private static final class Event {
+    final String source;
+    final List<String> lines;
+
+    Event(String source, List<String> lines) {
+      this.source = source;
+      this.lines = lines;
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Turns one producer's stream of raw chunks into lines for a ThreatScanService, carrying a partial
+// last line over to the next chunk. Not thread-safe: use one stream per producer.
+public final class ThreatStream {
+
+  // A partial line this long is submitted as it is instead of waiting for its newline, so a
+  // producer that never sends one cannot grow the buffer without limit.
+  static final int MAX_LINE = 1 << 20;
+
+  private final ThreatScanService service;
+  private final String source;
+  private final StringBuilder partial = new StringBuilder();
+
+  ThreatStream(ThreatScanService service, String source) {
+    this.service = service;
+    this.source = source;
+  }
+
+  // Submits every complete line in the chunk as one queue entry.
+  public void feed(CharSequence chunk) throws InterruptedException {
+    List<String> lines = new ArrayList<>();
+    int start = 0;
+    for (int i = 0; i < chunk.length(); i++) {
+      if (chunk.charAt(i) == '\n') {
+        String line;
+        if (partial.length() > 0) {
+          line = partial.append(chunk, start, i).toString();
+          partial.setLength(0);
+        } else {
+          line = chunk.subSequence(start, i).toString();
+        }
+        lines.add(line);
+        start = i + 1;
+      }
+    }
+    partial.append(chunk, start, chunk.length());
+    if (partial.length() >= MAX_LINE) {
+      lines.add(partial.toString());
+      partial.setLength(0);
+    }
+    service.submitAll(source, lines);
+  }
+
+  // Submits whatever is left after the last newline.
+  public void flush() throws InterruptedException {
+    if (partial.length() > 0) {
+      service.submit(source, partial.toString());
+      partial.setLength(0);
+    }
+  }
+}
@@ -6,6 +6,8 @@ import java.io.*;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
@@ -20,19 +22,29 @@ public class VirtualOS {
 
       // Initialize threat database
       ThreatDatabase threatDB = new ThreatDatabase();
-
-      // Security and monitoring
-      NetworkMonitor networkMonitor = new NetworkMonitor(threatDB);
-      Thread networkMonitorThread = new Thread(networkMonitor);
-      networkMonitorThread.start();
-
-      LogAnalyzer logAnalyzer = new LogAnalyzer(threatDB);
-      Thread logAnalyzerThread = new Thread(logAnalyzer);
-      logAnalyzerThread.start();
-
-      ThreatDetector threatDetector = new ThreatDetector(threatDB);
-      Thread threatDetectorThread = new Thread(threatDetector);
-      threatDetectorThread.start();
+      ThreatScanService scanService =
+          new ThreatScanService(
+              threatDB,
+              2,
+              10_000,
+              (source, line, signatures) ->
+                  System.out.println(
+                      "Potential threat detected in " + source + ": " + line + " " + signatures));
+
+      // Security and monitoring: each monitor streams its input into the shared scanners
+      NetworkMonitor networkMonitor = new NetworkMonitor(scanService);
+      LogAnalyzer logAnalyzer = new LogAnalyzer(scanService);
+      ThreatDetector threatDetector = new ThreatDetector(scanService);
+      List<Thread> monitorThreads = new ArrayList<>();
+      for (StreamMonitor monitor : Arrays.asList(networkMonitor, logAnalyzer, threatDetector)) {
+        Thread thread = new Thread(monitor, monitor.getClass().getSimpleName());
+        thread.start();
+        monitorThreads.add(thread);
+      }
+      networkMonitor.offer("GET /index.html HTTP/1.1\nSELECT * FR");
+      networkMonitor.offer("OM users\n");
+      logAnalyzer.offer("<script>alert('XSS')</script>");
+      threatDetector.offer("SELECT .* FROM .*");
 
       Encryption encryption = new Encryption();
       encryption.encryptData();
@@ -69,6 +81,21 @@ public class VirtualOS {
       fileSystem.readFile("sample.txt");
       fileSystem.deleteFile("sample.txt");
 
+      // Stop monitoring once the queued input has been scanned
+      networkMonitor.stop();
+      logAnalyzer.stop();
+      threatDetector.stop();
+      for (Thread thread : monitorThreads) {
+        thread.join();
+      }
+      scanService.close();
+      System.out.println(
+          "Scanned "
+              + scanService.scannedLines()
+              + " lines, "
+              + scanService.threatsFound()
+              + " threats found.");
+
     } catch (Exception e) {
       System.err.println("Critical error: " + e.getMessage());
       e.printStackTrace();
@@ -113,43 +140,89 @@ class UserManager {
 
 // Process Management
 class ProcessManager {
-  private final List<String> processes;
+  // Running processes keyed by pid; a name index finds a process to terminate by name in O(1).
+  private final Map<Integer, String> processes;
+  private final Map<String, ArrayDeque<Integer>> pidsByName;
+  private int nextPid = 1;
 
   public ProcessManager() {
-    processes = new ArrayList<>();
+    processes = new LinkedHashMap<>();
+    pidsByName = new HashMap<>();
   }
 
-  public void createProcess(String processName) {
+  public int createProcess(String processName) {
     try {
       if (processName == null || processName.isEmpty()) {
         throw new IllegalArgumentException("Process name cannot be null or empty");
       }
-      processes.add(processName);
-      System.out.println("Process created: " + processName);
+      int pid = nextPid++;
+      processes.put(pid, processName);
+      pidsByName.computeIfAbsent(processName, name -> new ArrayDeque<>(1)).addLast(pid);
+      System.out.println("Process created: " + processName + " (pid " + pid + ")");
+      return pid;
     } catch (IllegalArgumentException e) {
       System.err.println("Error creating process: " + e.getMessage());
+      return -1;
     }
   }
 
+  // Terminates the oldest process with this name
   public void terminateProcess(String processName) {
     try {
-      if (!processes.contains(processName)) {
+      ArrayDeque<Integer> pids = pidsByName.get(processName);
+      if (pids == null) {
         throw new NoSuchElementException("Process not found: " + processName);
       }
-      processes.remove(processName);
-      System.out.println("Process terminated: " + processName);
+      int pid = pids.pollFirst();
+      if (pids.isEmpty()) {
+        pidsByName.remove(processName);
+      }
+      processes.remove(pid);
+      System.out.println("Process terminated: " + processName + " (pid " + pid + ")");
+    } catch (NoSuchElementException e) {
+      System.err.println("Error terminating process: " + e.getMessage());
+    }
+  }
+
+  public void terminateProcess(int pid) {
+    try {
+      String processName = processes.remove(pid);
+      if (processName == null) {
+        throw new NoSuchElementException("Process not found: pid " + pid);
+      }
+      ArrayDeque<Integer> pids = pidsByName.get(processName);
+      pids.remove(pid);
+      if (pids.isEmpty()) {
+        pidsByName.remove(processName);
+      }
+      System.out.println("Process terminated: " + processName + " (pid " + pid + ")");
     } catch (NoSuchElementException e) {
       System.err.println("Error terminating process: " + e.getMessage());
     }
   }
+
+  public boolean isRunning(String processName) {
+    return pidsByName.containsKey(processName);
+  }
+
+  public int processCount() {
+    return processes.size();
+  }
 }
 
 // File System Operations
 class FileSystem {
-  private final HashMap<String, String> files;
+  // Sorted by name so files sharing a path prefix are one contiguous range.
+  private final TreeMap<String, String> files;
 
   public FileSystem() {
-    files = new HashMap<>();
+    files = new TreeMap<>();
+  }
+
+  // Names starting with the prefix, e.g. "logs/"; visits only the matching range
+  public SortedSet<String> listFiles(String prefix) {
+    return Collections.unmodifiableSortedSet(
+        files.subMap(prefix, true, prefix + Character.MAX_VALUE, false).navigableKeySet());
   }
 
   public void createFile(String filename, String content) {
@@ -188,72 +261,145 @@ class FileSystem {
   }
 }
 
-// Threat Database
+// Threat Database: named regex signatures, compiled together into a SignatureMatcher that is
+// rebuilt on every change and swapped in atomically for the scanners
 class ThreatDatabase {
-  private final HashMap<String, String> threats;
+  private final Map<String, String> threats;
+  private volatile SignatureMatcher matcher;
 
   public ThreatDatabase() {
-    threats = new HashMap<>();
+    threats = new LinkedHashMap<>();
     threats.put("SQL Injection", "SELECT .* FROM .*");
     threats.put("Cross-Site Scripting", "<script>.*</script>");
+    matcher = SignatureMatcher.compile(threats);
+  }
+
+  public synchronized void addThreat(String name, String regex) {
+    addThreats(Collections.singletonMap(name, regex));
   }
 
-  public boolean isThreat(String signature) {
-    return threats.containsValue(signature);
+  public synchronized void addThreats(Map<String, String> signatures) {
+    Map<String, String> updated = new LinkedHashMap<>(threats);
+    updated.putAll(signatures);
+    matcher = SignatureMatcher.compile(updated); // throws before changing anything if invalid
+    threats.clear();
+    threats.putAll(updated);
+  }
+
+  public SignatureMatcher matcher() {
+    return matcher;
+  }
+
+  // True if the data matches any signature.
+  public boolean isThreat(String data) {
+    return matcher.matchesAny(data);
+  }
+
+  // Names of all signatures the data matches.
+  public List<String> detect(String data) {
+    return matcher.matchingNames(data);
   }
 }
 
-// Network Monitoring (Simulated with Threading)
-class NetworkMonitor implements Runnable {
-  private final ThreatDatabase threatDB;
+// Feeds data from its own queue into the shared scan service until stopped
+abstract class StreamMonitor implements Runnable {
+  private static final String STOP = new String("STOP");
+  private final BlockingQueue<String> input = new LinkedBlockingQueue<>(10_000);
+  protected final ThreatScanService scanner;
 
-  public NetworkMonitor(ThreatDatabase threatDB) {
-    this.threatDB = threatDB;
+  protected StreamMonitor(ThreatScanService scanner) {
+    this.scanner = scanner;
+  }
+
+  // Queues data for scanning; false if the monitor is too far behind to accept it.
+  public boolean offer(String data) {
+    return input.offer(data);
+  }
+
+  public void stop() throws InterruptedException {
+    input.put(STOP);
   }
 
   @Override
   public void run() {
-    System.out.println("Network monitoring started...");
-    String simulatedPacketData = "SELECT * FROM users";
-    if (threatDB.isThreat(simulatedPacketData)) {
-      System.out.println("Potential threat detected in network traffic: " + simulatedPacketData);
+    System.out.println(startMessage());
+    try {
+      while (true) {
+        String data = input.take();
+        if (data == STOP) {
+          break;
+        }
+        process(data);
+      }
+      finish();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
     }
   }
+
+  protected abstract String startMessage();
+
+  protected abstract void process(String data) throws InterruptedException;
+
+  protected void finish() throws InterruptedException {}
 }
 
-// Log Analysis (Simulated with Threading)
-class LogAnalyzer implements Runnable {
-  private final ThreatDatabase threatDB;
+// Network Monitoring: raw traffic chunks, split into lines across packet boundaries
+class NetworkMonitor extends StreamMonitor {
+  private final ThreatStream traffic;
 
-  public LogAnalyzer(ThreatDatabase threatDB) {
-    this.threatDB = threatDB;
+  public NetworkMonitor(ThreatScanService scanner) {
+    super(scanner);
+    this.traffic = scanner.stream("network traffic");
   }
 
   @Override
-  public void run() {
-    System.out.println("Log analysis started...");
-    String simulatedLogEntry = "<script>alert('XSS')</script>";
-    if (threatDB.isThreat(simulatedLogEntry)) {
-      System.out.println("Potential threat detected in system log: " + simulatedLogEntry);
-    }
+  protected String startMessage() {
+    return "Network monitoring started...";
+  }
+
+  @Override
+  protected void process(String data) throws InterruptedException {
+    traffic.feed(data);
+  }
+
+  @Override
+  protected void finish() throws InterruptedException {
+    traffic.flush();
   }
 }
 
-// Threat Detection (Simulated with Threading)
-class ThreatDetector implements Runnable {
-  private final ThreatDatabase threatDB;
+// Log Analysis: one log entry per item
+class LogAnalyzer extends StreamMonitor {
+  public LogAnalyzer(ThreatScanService scanner) {
+    super(scanner);
+  }
 
-  public ThreatDetector(ThreatDatabase threatDB) {
-    this.threatDB = threatDB;
+  @Override
+  protected String startMessage() {
+    return "Log analysis started...";
   }
 
   @Override
-  public void run() {
-    System.out.println("Threat detection started...");
-    String simulatedSignature = "SELECT .* FROM .*";
-    if (threatDB.isThreat(simulatedSignature)) {
-      System.out.println("Potential threat detected: " + simulatedSignature);
-    }
+  protected void process(String data) throws InterruptedException {
+    scanner.submit("system log", data);
+  }
+}
+
+// Threat Detection: one captured signature per item
+class ThreatDetector extends StreamMonitor {
+  public ThreatDetector(ThreatScanService scanner) {
+    super(scanner);
+  }
+
+  @Override
+  protected String startMessage() {
+    return "Threat detection started...";
+  }
+
+  @Override
+  protected void process(String data) throws InterruptedException {
+    scanner.submit("captured signature", data);
   }
 }
 
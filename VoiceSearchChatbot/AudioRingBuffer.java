@@ -0,0 +1,142 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size byte ring between the audio capture thread and the processing thread. For a live
+ * line the capture side never blocks, since the line keeps producing whether or not anyone keeps
+ * up: when the ring is full the oldest audio is overwritten and counted as dropped. For a file,
+ * which can wait, the writer blocks until there is room instead. Positions are absolute byte
+ * offsets since the stream started, which also lets the reader estimate when a byte was captured.
+ */
+final class AudioRingBuffer {
+
+    private final byte[] data;
+    private final int mask;
+    private final int sampleBytes;
+    private final double bytesPerNano;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Condition space = lock.newCondition();
+    private final boolean overwrite;
+    private long written;
+    private long read;
+    private long dropped;
+    private long lastWriteNanos;
+    private boolean closed;
+
+    /**
+     * @param minCapacity bytes to hold at least; rounded up to a power of two
+     * @param sampleBytes bytes per sample frame; overruns skip whole samples
+     * @param bytesPerSecond data rate of the stream, used for capture-time estimates
+     * @param overwrite drop the oldest audio when full rather than block the writer
+     */
+    AudioRingBuffer(int minCapacity, int sampleBytes, int bytesPerSecond, boolean overwrite) {
+        int capacity = Integer.highestOneBit(Math.max(64, minCapacity - 1)) << 1;
+        this.data = new byte[capacity];
+        this.mask = capacity - 1;
+        this.sampleBytes = sampleBytes;
+        this.overwrite = overwrite;
+        this.bytesPerNano = bytesPerSecond / 1e9;
+    }
+
+    int capacity() {
+        return data.length;
+    }
+
+    /**
+     * Appends audio. If the reader has fallen behind, either overwrites the oldest unread bytes or
+     * waits for room, depending on how the ring was created.
+     */
+    void write(byte[] src, int offset, int length) throws InterruptedException {
+        lock.lock();
+        try {
+            while (!overwrite && !closed && written - read + length > data.length) {
+                space.await(100, TimeUnit.MILLISECONDS);
+            }
+            if (closed) {
+                return;
+            }
+            if (length > data.length) {
+                offset += length - data.length;
+                dropped += length - data.length;
+                written += length - data.length;
+                length = data.length;
+            }
+            int start = (int) (written & mask);
+            int first = Math.min(length, data.length - start);
+            System.arraycopy(src, offset, data, start, first);
+            System.arraycopy(src, offset + first, data, 0, length - first);
+            written += length;
+            long overrun = written - read - data.length;
+            if (overrun > 0) {
+                overrun = (overrun + sampleBytes - 1) / sampleBytes * sampleBytes;
+                dropped += overrun;
+                read += overrun;
+            }
+            lastWriteNanos = System.nanoTime();
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until {@code frame.length} bytes are available and copies them out. Returns the
+     * absolute position just past the frame, or -1 once the ring is closed and fewer bytes remain.
+     */
+    long readFully(byte[] frame) throws InterruptedException {
+        lock.lock();
+        try {
+            while (written - read < frame.length) {
+                if (closed) {
+                    return -1;
+                }
+                available.await(100, TimeUnit.MILLISECONDS);
+            }
+            int start = (int) (read & mask);
+            int first = Math.min(frame.length, data.length - start);
+            System.arraycopy(data, start, frame, 0, first);
+            System.arraycopy(data, 0, frame, first, frame.length - first);
+            read += frame.length;
+            space.signal();
+            return read;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Estimated System.nanoTime() at which the byte before {@code position} was captured. */
+    long captureNanos(long position) {
+        lock.lock();
+        try {
+            return lastWriteNanos - (long) ((written - position) / bytesPerNano);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Bytes lost to overruns so far. */
+    long dropped() {
+        lock.lock();
+        try {
+            return dropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** No more writes; the reader drains what is left and then sees end of stream. */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            available.signalAll();
+            space.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import com.google.api.gax.rpc.ClientStream;
+import com.google.api.gax.rpc.ResponseObserver;
+import com.google.api.gax.rpc.StreamController;
+import com.google.cloud.speech.v1.RecognitionConfig;
+import com.google.cloud.speech.v1.SpeechClient;
+import com.google.cloud.speech.v1.StreamingRecognitionConfig;
+import com.google.cloud.speech.v1.StreamingRecognitionResult;
+import com.google.cloud.speech.v1.StreamingRecognizeRequest;
+import com.google.cloud.speech.v1.StreamingRecognizeResponse;
+import com.google.protobuf.ByteString;
+
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Google Cloud Speech-to-Text over its bidirectional streaming API with interim results, so
+ * partial transcripts arrive while the user is still talking. One client is shared by every
+ * utterance; credentials come from the usual GOOGLE_APPLICATION_CREDENTIALS setup.
+ */
+public class GoogleStreamingRecognizer implements StreamingRecognizer {
+
+    private final SpeechClient client;
+    private final String languageCode;
+
+    public GoogleStreamingRecognizer(String languageCode) throws IOException {
+        this.client = SpeechClient.create();
+        this.languageCode = languageCode;
+    }
+
+    @Override
+    public Stream open(AudioFormat format, Listener listener) {
+        ResponseObserver<StreamingRecognizeResponse> observer = new ResponseObserver<StreamingRecognizeResponse>() {
+            @Override
+            public void onStart(StreamController controller) {}
+
+            @Override
+            public void onResponse(StreamingRecognizeResponse response) {
+                for (StreamingRecognitionResult result : response.getResultsList()) {
+                    if (result.getAlternativesCount() > 0) {
+                        listener.onResult(result.getAlternatives(0).getTranscript(), result.getIsFinal());
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                listener.onError(t);
+            }
+
+            @Override
+            public void onComplete() {}
+        };
+        ClientStream<StreamingRecognizeRequest> requests = client.streamingRecognizeCallable().splitCall(observer);
+        RecognitionConfig config = RecognitionConfig.newBuilder()
+                .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
+                .setSampleRateHertz((int) format.getSampleRate())
+                .setLanguageCode(languageCode)
+                .build();
+        requests.send(StreamingRecognizeRequest.newBuilder()
+                .setStreamingConfig(StreamingRecognitionConfig.newBuilder()
+                        .setConfig(config)
+                        .setInterimResults(true)
+                        .setSingleUtterance(false)
+                        .build())
+                .build());
+        return new Stream() {
+            @Override
+            public void send(byte[] audio, int offset, int length) {
+                requests.send(StreamingRecognizeRequest.newBuilder()
+                        .setAudioContent(ByteString.copyFrom(audio, offset, length))
+                        .build());
+            }
+
+            @Override
+            public void finish() {
+                requests.closeSend();
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
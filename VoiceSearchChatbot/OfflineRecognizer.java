@@ -0,0 +1,55 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * Local stand-in for a speech service, so the pipeline runs without network access or
+ * credentials. It does not recognize words: partial results report how much speech has arrived,
+ * and the final result of each utterance is the next line of a script (for example the known text
+ * of a test recording), or a description of the utterance once the script runs out.
+ */
+public class OfflineRecognizer implements StreamingRecognizer {
+
+    private static final long PARTIAL_EVERY_MILLIS = 100;
+
+    private final Deque<String> script;
+    private int utterances;
+
+    public OfflineRecognizer() {
+        this(List.of());
+    }
+
+    public OfflineRecognizer(List<String> script) {
+        this.script = new ArrayDeque<>(script);
+    }
+
+    @Override
+    public Stream open(AudioFormat format, Listener listener) {
+        int number = ++utterances;
+        String transcript = script.poll();
+        long bytesPerSecond = (long) (format.getFrameRate() * format.getFrameSize());
+        return new Stream() {
+            private long bytes;
+            private long reportedMillis = -PARTIAL_EVERY_MILLIS;
+
+            @Override
+            public void send(byte[] audio, int offset, int length) {
+                bytes += length;
+                long millis = bytes * 1000 / bytesPerSecond;
+                if (millis - reportedMillis >= PARTIAL_EVERY_MILLIS) {
+                    reportedMillis = millis;
+                    listener.onResult(String.format("(listening, %.1f s)", millis / 1000.0), false);
+                }
+            }
+
+            @Override
+            public void finish() {
+                listener.onResult(transcript != null ? transcript
+                        : String.format("(utterance %d, %.1f s of speech)", number, bytes / (double) bytesPerSecond), true);
+            }
+        };
+    }
+}
@@ -0,0 +1,373 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.TargetDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+
+/**
+ * Streaming speech input: a capture thread copies audio from a microphone line or WAV file into
+ * an {@link AudioRingBuffer}; a processing thread cuts it into 20 ms frames, runs
+ * {@link VoiceActivityDetector} over them and streams each utterance to a
+ * {@link StreamingRecognizer} in 100 ms chunks, starting with a short pre-roll so the first
+ * syllable is not clipped. Memory stays bounded however long the pipeline runs: the ring,
+ * pre-roll and chunk buffers are fixed, utterances are never collected in full, and one utterance
+ * is cut after {@link #MAX_UTTERANCE_MILLIS}.
+ *
+ * <p>The end of an utterance is detected {@link #HANGOVER_MILLIS} after the last loud frame and
+ * the recognizer is told straight away, so a local recognizer answers within roughly that time
+ * of the speaker stopping.
+ */
+public class SpeechPipeline implements AutoCloseable {
+
+    /** Format fed to the recognizer: 16 kHz, 16-bit signed little-endian mono PCM. */
+    public static final AudioFormat FORMAT = new AudioFormat(16000, 16, 1, true, false);
+
+    static final int FRAME_MILLIS = 20;
+    static final int CHUNK_MILLIS = 100;
+    static final int START_MILLIS = 60;
+    static final int HANGOVER_MILLIS = 200;
+    static final int PRE_ROLL_MILLIS = 200;
+    static final int RING_MILLIS = 2000;
+    static final int MAX_UTTERANCE_MILLIS = 15_000;
+    private static final int CAPTURE_MILLIS = 10;
+
+    /** Receives utterance boundaries and results; results may arrive on recognizer threads. */
+    public interface Listener {
+        default void onSpeechStart(int utterance) {}
+
+        default void onSpeechEnd(int utterance) {}
+
+        void onPartial(int utterance, String transcript);
+
+        void onFinal(int utterance, String transcript);
+    }
+
+    private final AudioInputStream input;
+    private final TargetDataLine line;
+    private final boolean realTime;
+    private final StreamingRecognizer recognizer;
+    private final Listener listener;
+    private final AudioFormat format;
+    private final int bytesPerSecond;
+    private final AudioRingBuffer ring;
+    private final Thread capture;
+    private final Thread processing;
+    private volatile boolean stopped;
+
+    private final AtomicInteger utterances = new AtomicInteger();
+    private final Latency startToPartial = new Latency();
+    private final Latency endToResult = new Latency();
+
+    private SpeechPipeline(AudioInputStream input, TargetDataLine line, boolean realTime,
+            StreamingRecognizer recognizer, Listener listener) {
+        this.input = input;
+        this.line = line;
+        this.realTime = realTime;
+        this.recognizer = recognizer;
+        this.listener = listener;
+        this.format = input.getFormat();
+        this.bytesPerSecond = (int) (format.getFrameRate() * format.getFrameSize());
+        this.ring = new AudioRingBuffer(bytes(RING_MILLIS), format.getFrameSize(), bytesPerSecond, line != null || realTime);
+        this.capture = new Thread(this::captureLoop, "speech-capture");
+        this.processing = new Thread(this::processLoop, "speech-processing");
+        capture.setDaemon(true);
+        processing.setDaemon(true);
+    }
+
+    /** Listens to the default microphone until {@link #close()}. */
+    public static SpeechPipeline fromMicrophone(StreamingRecognizer recognizer, Listener listener) throws IOException {
+        try {
+            TargetDataLine line = AudioSystem.getTargetDataLine(FORMAT);
+            // A small line buffer: the ring absorbs hiccups, the line only needs to cover one read.
+            line.open(FORMAT, (int) (FORMAT.getFrameRate() * FORMAT.getFrameSize() / 10));
+            line.start();
+            return new SpeechPipeline(new AudioInputStream(line), line, false, recognizer, listener).start();
+        } catch (LineUnavailableException | IllegalArgumentException e) {
+            throw new IOException("Microphone not available", e);
+        }
+    }
+
+    /**
+     * Plays a WAV file through the pipeline in place of the microphone. With {@code realTime} the
+     * file is fed at its natural rate, so latencies are those a live line would see.
+     */
+    public static SpeechPipeline fromWav(Path wav, boolean realTime, StreamingRecognizer recognizer, Listener listener)
+            throws IOException {
+        try {
+            AudioInputStream stream = AudioSystem.getAudioInputStream(wav.toFile());
+            AudioFormat source = stream.getFormat();
+            if (source.getChannels() != 1) {
+                stream.close();
+                throw new IOException("Expected a mono recording, got " + source.getChannels() + " channels: " + wav);
+            }
+            AudioFormat target = new AudioFormat(source.getSampleRate(), 16, 1, true, false);
+            if (!source.matches(target)) {
+                stream = AudioSystem.getAudioInputStream(target, stream);
+            }
+            return new SpeechPipeline(stream, null, realTime, recognizer, listener).start();
+        } catch (UnsupportedAudioFileException | IllegalArgumentException e) {
+            throw new IOException("Unsupported audio file: " + wav, e);
+        }
+    }
+
+    private SpeechPipeline start() {
+        processing.start();
+        capture.start();
+        return this;
+    }
+
+    /** Waits until the input has ended and every utterance has been handed to the recognizer. */
+    public void awaitEnd() throws InterruptedException {
+        processing.join();
+    }
+
+    /** Stops capturing; an utterance in progress is finished with the audio received so far. */
+    @Override
+    public void close() {
+        stopped = true;
+        if (line != null) {
+            line.stop();
+            line.close();
+        }
+        ring.close();
+        try {
+            capture.join(1000);
+            processing.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int utteranceCount() {
+        return utterances.get();
+    }
+
+    /** Audio lost because processing fell behind capture by more than the ring holds. */
+    public long droppedMillis() {
+        return ring.dropped() * 1000 / bytesPerSecond;
+    }
+
+    /** From the first loud frame of an utterance to its first partial result. */
+    public Latency startToFirstPartial() {
+        return startToPartial;
+    }
+
+    /** From the last loud frame of an utterance to the first result after it. */
+    public Latency endToFirstResult() {
+        return endToResult;
+    }
+
+    private int bytes(int millis) {
+        return bytesPerSecond * millis / 1000 / format.getFrameSize() * format.getFrameSize();
+    }
+
+    private void captureLoop() {
+        byte[] buffer = new byte[bytes(CAPTURE_MILLIS)];
+        long started = System.nanoTime();
+        long total = 0;
+        try (InputStream in = input) {
+            while (!stopped) {
+                int n = in.read(buffer);
+                if (n < 0) {
+                    break;
+                }
+                if (n == 0) {
+                    continue;
+                }
+                total += n;
+                if (realTime) {
+                    long due = started + total * 1_000_000_000L / bytesPerSecond;
+                    for (long wait; (wait = due - System.nanoTime()) > 0 && !stopped; ) {
+                        LockSupport.parkNanos(wait);
+                    }
+                }
+                ring.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            if (!stopped) {
+                System.err.println("Audio capture failed: " + e.getMessage());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            ring.close();
+        }
+    }
+
+    private void processLoop() {
+        int frameBytes = bytes(FRAME_MILLIS);
+        int chunkBytes = bytes(CHUNK_MILLIS);
+        int startFrames = START_MILLIS / FRAME_MILLIS;
+        int hangoverFrames = HANGOVER_MILLIS / FRAME_MILLIS;
+        VoiceActivityDetector vad = new VoiceActivityDetector(startFrames, hangoverFrames);
+        ArrayDeque<byte[]> preRoll = new ArrayDeque<>();
+        int preRollFrames = PRE_ROLL_MILLIS / FRAME_MILLIS;
+        byte[] frame = new byte[frameBytes];
+        Utterance current = null;
+        long position;
+        try {
+            while ((position = ring.readFully(frame)) >= 0) {
+                VoiceActivityDetector.Event event = vad.process(frame, frameBytes);
+                if (event == VoiceActivityDetector.Event.SILENCE) {
+                    byte[] kept = preRoll.size() == preRollFrames ? preRoll.poll() : new byte[frameBytes];
+                    System.arraycopy(frame, 0, kept, 0, frameBytes);
+                    preRoll.add(kept);
+                    continue;
+                }
+                if (event == VoiceActivityDetector.Event.SPEECH_START) {
+                    current = begin(ring.captureNanos(position - (long) startFrames * frameBytes), chunkBytes);
+                    if (current == null) {
+                        vad.reset();
+                        continue;
+                    }
+                    for (byte[] early : preRoll) {
+                        current.append(early, frameBytes);
+                    }
+                    preRoll.clear();
+                }
+                if (current == null) {
+                    continue;
+                }
+                current.append(frame, frameBytes);
+                if (event == VoiceActivityDetector.Event.SPEECH_END) {
+                    current.end(ring.captureNanos(position - (long) hangoverFrames * frameBytes));
+                    current = null;
+                } else if (current.bytes >= bytes(MAX_UTTERANCE_MILLIS)) {
+                    current.end(ring.captureNanos(position));
+                    current = null;
+                    vad.reset();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (current != null) {
+                current.end(System.nanoTime());
+            }
+        }
+    }
+
+    private Utterance begin(long startNanos, int chunkBytes) {
+        Utterance utterance = new Utterance(utterances.incrementAndGet(), startNanos, chunkBytes);
+        listener.onSpeechStart(utterance.number);
+        try {
+            utterance.stream = recognizer.open(format, utterance);
+            return utterance;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not start speech recognition: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** One utterance being streamed to the recognizer, and the recognizer's results for it. */
+    private final class Utterance implements StreamingRecognizer.Listener {
+        final int number;
+        final long startNanos;
+        final int chunkBytes;
+        StreamingRecognizer.Stream stream;
+        byte[] chunk;
+        int chunkLength;
+        long bytes;
+        volatile long endNanos;
+        volatile boolean partialSeen;
+        volatile boolean resultAfterEndSeen;
+
+        Utterance(int number, long startNanos, int chunkBytes) {
+            this.number = number;
+            this.startNanos = startNanos;
+            this.chunkBytes = chunkBytes;
+            this.chunk = new byte[chunkBytes];
+        }
+
+        void append(byte[] frame, int length) {
+            System.arraycopy(frame, 0, chunk, chunkLength, length);
+            chunkLength += length;
+            bytes += length;
+            if (chunkLength + length > chunkBytes) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunkLength > 0) {
+                // The recognizer may keep the chunk, so the next one goes into a fresh array.
+                byte[] full = chunk;
+                int length = chunkLength;
+                chunk = new byte[chunkBytes];
+                chunkLength = 0;
+                stream.send(full, 0, length);
+            }
+        }
+
+        void end(long lastSpeechNanos) {
+            flush();
+            endNanos = lastSpeechNanos;
+            listener.onSpeechEnd(number);
+            stream.finish();
+        }
+
+        @Override
+        public void onResult(String transcript, boolean isFinal) {
+            long now = System.nanoTime();
+            if (!partialSeen) {
+                partialSeen = true;
+                startToPartial.record(now - startNanos);
+            }
+            if (endNanos != 0 && !resultAfterEndSeen) {
+                resultAfterEndSeen = true;
+                endToResult.record(now - endNanos);
+            }
+            if (isFinal) {
+                listener.onFinal(number, transcript);
+            } else {
+                listener.onPartial(number, transcript);
+            }
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            System.err.println("Speech recognition failed for utterance " + number + ": " + error.getMessage());
+        }
+    }
+
+    /** Running count, mean and maximum of a latency, in constant space. */
+    public static final class Latency {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long count() {
+            return count.get();
+        }
+
+        public double meanMillis() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / 1e6 / n;
+        }
+
+        public double maxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("n=%d mean=%.1f ms max=%.1f ms", count(), meanMillis(), maxMillis());
+        }
+    }
+}
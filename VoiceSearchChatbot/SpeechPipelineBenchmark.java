@@ -0,0 +1,180 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+// Runs SpeechPipeline offline over synthesized recordings with known utterance boundaries: once in
+// real time to measure result latency, once as fast as possible over a long recording to check
+// throughput and that memory stays flat. Needs no microphone, network or speech credentials.
+// Usage: java SpeechPipelineBenchmark [longRecordingMinutes]
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+
+public class SpeechPipelineBenchmark {
+
+    private static final int RATE = 16000;
+
+    public static void main(String[] args) throws Exception {
+        int longMinutes = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Path dir = Files.createTempDirectory("speech-bench");
+        try {
+            List<String> script = new ArrayList<>();
+            List<double[]> truth = new ArrayList<>();
+            Path shortWav = dir.resolve("utterances.wav");
+            writeRecording(shortWav, 12, new Random(1), truth);
+            for (int i = 0; i < truth.size(); i++) {
+                script.add("utterance " + (i + 1));
+            }
+
+            System.out.printf("Real-time run: %d utterances, %.1f s of audio%n", truth.size(), duration(shortWav));
+            List<String> finals = new ArrayList<>();
+            AtomicInteger partials = new AtomicInteger();
+            List<Double> detected = new ArrayList<>();
+            long startNanos = System.nanoTime();
+            SpeechPipeline pipeline = SpeechPipeline.fromWav(shortWav, true, new OfflineRecognizer(script),
+                    new SpeechPipeline.Listener() {
+                        @Override
+                        public void onSpeechStart(int utterance) {
+                            detected.add((System.nanoTime() - startNanos) / 1e9);
+                        }
+
+                        @Override
+                        public void onPartial(int utterance, String transcript) {
+                            partials.incrementAndGet();
+                        }
+
+                        @Override
+                        public void onFinal(int utterance, String transcript) {
+                            synchronized (finals) {
+                                finals.add(transcript);
+                            }
+                        }
+                    });
+            pipeline.awaitEnd();
+            pipeline.close();
+            System.out.printf("  detected %d utterances (%d partial and %d final results), %d ms dropped%n",
+                    pipeline.utteranceCount(), partials.get(), finals.size(), pipeline.droppedMillis());
+            for (int i = 0; i < Math.min(truth.size(), detected.size()); i++) {
+                System.out.printf("    utterance %2d: speech %5.2f-%5.2f s, detected at %5.2f s%n",
+                        i + 1, truth.get(i)[0], truth.get(i)[1], detected.get(i));
+            }
+            System.out.println("  speech start -> first partial: " + pipeline.startToFirstPartial());
+            System.out.println("  speech end   -> first result:  " + pipeline.endToFirstResult());
+
+            System.out.printf("Accelerated run: %d minutes of audio%n", longMinutes);
+            Path longWav = dir.resolve("long.wav");
+            writeRecording(longWav, longMinutes * 30, new Random(2), new ArrayList<>());
+            Runtime runtime = Runtime.getRuntime();
+            System.gc();
+            long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+            AtomicInteger longFinals = new AtomicInteger();
+            long start = System.nanoTime();
+            pipeline = SpeechPipeline.fromWav(longWav, false, new OfflineRecognizer(), new SpeechPipeline.Listener() {
+                @Override
+                public void onPartial(int utterance, String transcript) {}
+
+                @Override
+                public void onFinal(int utterance, String transcript) {
+                    longFinals.incrementAndGet();
+                }
+            });
+            pipeline.awaitEnd();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            pipeline.close();
+            System.gc();
+            long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+            System.out.printf("  %d utterances in %.2f s (%.0fx real time), %d ms dropped, heap %+d KB%n",
+                    longFinals.get(), seconds, duration(longWav) / seconds, pipeline.droppedMillis(),
+                    (heapAfter - heapBefore) / 1024);
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    /**
+     * Writes a recording of background hiss with {@code utterances} bursts of syllable-modulated
+     * noise and tone, 0.5-2.5 s long and separated by 0.5-1.5 s pauses. Appends each burst's start
+     * and end in seconds to {@code truth}. Written in one-second blocks so long recordings do not
+     * need to fit in memory.
+     */
+    private static void writeRecording(Path wav, int utterances, Random random, List<double[]> truth) throws IOException {
+        List<double[]> segments = new ArrayList<>();
+        double t = 0.5 + random.nextDouble();
+        for (int i = 0; i < utterances; i++) {
+            double length = 0.5 + 2 * random.nextDouble();
+            segments.add(new double[] {t, t + length});
+            t += length + 0.5 + random.nextDouble();
+        }
+        truth.addAll(segments);
+        long totalSamples = (long) (t * RATE);
+        InputStream samples = new InputStream() {
+            private long sample;
+            private byte[] block = new byte[0];
+            private int index;
+            private int segment;
+
+            @Override
+            public int read() {
+                if (index == block.length && !fill()) {
+                    return -1;
+                }
+                return block[index++] & 0xff;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                if (index == block.length && !fill()) {
+                    return -1;
+                }
+                int n = Math.min(len, block.length - index);
+                System.arraycopy(block, index, b, off, n);
+                index += n;
+                return n;
+            }
+
+            private boolean fill() {
+                int n = (int) Math.min(RATE, totalSamples - sample);
+                if (n <= 0) {
+                    return false;
+                }
+                block = new byte[n * 2];
+                index = 0;
+                for (int i = 0; i < n; i++, sample++) {
+                    double time = sample / (double) RATE;
+                    while (segment < segments.size() && time >= segments.get(segment)[1]) {
+                        segment++;
+                    }
+                    double value = 0.002 * random.nextGaussian();
+                    if (segment < segments.size() && time >= segments.get(segment)[0]) {
+                        double envelope = 0.4 + 0.6 * Math.abs(Math.sin(Math.PI * 4 * time));
+                        value += envelope * (0.08 * random.nextGaussian() + 0.1 * Math.sin(2 * Math.PI * 180 * time));
+                    }
+                    short pcm = (short) Math.max(-32768, Math.min(32767, Math.round(value * 32767)));
+                    block[2 * i] = (byte) pcm;
+                    block[2 * i + 1] = (byte) (pcm >> 8);
+                }
+                return true;
+            }
+        };
+        try (AudioInputStream stream = new AudioInputStream(samples, SpeechPipeline.FORMAT, totalSamples)) {
+            AudioSystem.write(stream, AudioFileFormat.Type.WAVE, wav.toFile());
+        }
+    }
+
+    private static double duration(Path wav) throws Exception {
+        try (AudioInputStream stream = AudioSystem.getAudioInputStream(wav.toFile())) {
+            return stream.getFrameLength() / (double) stream.getFormat().getFrameRate();
+        }
+    }
+}
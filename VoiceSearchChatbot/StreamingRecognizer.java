@@ -0,0 +1,34 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+import java.io.IOException;
+import javax.sound.sampled.AudioFormat;
+
+/**
+ * A speech recognizer that accepts an utterance as a stream of audio chunks and reports partial
+ * transcripts while it arrives. {@link SpeechPipeline} opens one stream per utterance.
+ */
+public interface StreamingRecognizer extends AutoCloseable {
+
+    /** Starts recognizing one utterance of 16-bit little-endian mono PCM in {@code format}. */
+    Stream open(AudioFormat format, Listener listener) throws IOException;
+
+    @Override
+    default void close() {}
+
+    /** The audio of one utterance. Chunks must not be modified after they are sent. */
+    interface Stream {
+        void send(byte[] audio, int offset, int length);
+
+        /** No more audio; the final result follows. */
+        void finish();
+    }
+
+    /** Receives results; may be called from the recognizer's own threads. */
+    interface Listener {
+        void onResult(String transcript, boolean isFinal);
+
+        default void onError(Throwable error) {
+            System.err.println("Speech recognition failed: " + error.getMessage());
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+
+/**
+ * Energy-based voice activity detector over fixed-length frames of 16-bit little-endian PCM.
+ * Each frame's level in dBFS is compared against an adaptive noise floor: speech starts after a
+ * few consecutive frames well above the floor and ends after a hangover of frames back near it.
+ * The floor follows quiet frames quickly downwards and slowly upwards, so steady background noise
+ * such as a fan is learned within a second or two without swallowing the start of speech.
+ */
+final class VoiceActivityDetector {
+
+    enum Event { SILENCE, SPEECH_START, SPEECH, SPEECH_END }
+
+    private static final double SILENT_DB = -100;
+    // Speech must be this far above the floor to start, and stay this far above it to continue.
+    private static final double START_MARGIN_DB = 12;
+    private static final double CONTINUE_MARGIN_DB = 8;
+    // Never treat anything quieter than this as speech, however quiet the room.
+    private static final double MIN_SPEECH_DB = -50;
+
+    private final int startFrames;
+    private final int hangoverFrames;
+    private double noiseFloorDb = -60;
+    private boolean speaking;
+    private int loudRun;
+    private int quietRun;
+    private double lastLevelDb = SILENT_DB;
+
+    /**
+     * @param startFrames consecutive loud frames before speech is reported
+     * @param hangoverFrames consecutive quiet frames before the end of speech is reported
+     */
+    VoiceActivityDetector(int startFrames, int hangoverFrames) {
+        this.startFrames = startFrames;
+        this.hangoverFrames = hangoverFrames;
+    }
+
+    /** Classifies the next frame. */
+    Event process(byte[] frame, int length) {
+        double level = levelDb(frame, length);
+        lastLevelDb = level;
+        if (!speaking) {
+            if (level > Math.max(noiseFloorDb + START_MARGIN_DB, MIN_SPEECH_DB)) {
+                if (++loudRun >= startFrames) {
+                    speaking = true;
+                    quietRun = 0;
+                    return Event.SPEECH_START;
+                }
+            } else {
+                loudRun = 0;
+                adaptFloor(level);
+            }
+            return Event.SILENCE;
+        }
+        if (level > Math.max(noiseFloorDb + CONTINUE_MARGIN_DB, MIN_SPEECH_DB)) {
+            quietRun = 0;
+        } else if (++quietRun >= hangoverFrames) {
+            speaking = false;
+            loudRun = 0;
+            return Event.SPEECH_END;
+        }
+        return Event.SPEECH;
+    }
+
+    /** Forces the current utterance to end, e.g. when it reaches its maximum length. */
+    void reset() {
+        speaking = false;
+        loudRun = 0;
+        quietRun = 0;
+    }
+
+    boolean isSpeaking() {
+        return speaking;
+    }
+
+    /** Quiet frames seen since the last loud one while speaking. */
+    int quietFrames() {
+        return quietRun;
+    }
+
+    double noiseFloorDb() {
+        return noiseFloorDb;
+    }
+
+    double lastLevelDb() {
+        return lastLevelDb;
+    }
+
+    private void adaptFloor(double level) {
+        double rate = level < noiseFloorDb ? 0.2 : 0.02;
+        noiseFloorDb += rate * (level - noiseFloorDb);
+    }
+
+    /** RMS level of 16-bit little-endian samples in dB relative to full scale. */
+    static double levelDb(byte[] frame, int length) {
+        long sumSquares = 0;
+        int samples = length / 2;
+        for (int i = 0; i < samples * 2; i += 2) {
+            int sample = (short) ((frame[i] & 0xff) | (frame[i + 1] << 8));
+            sumSquares += (long) sample * sample;
+        }
+        if (sumSquares == 0) {
+            return SILENT_DB;
+        }
+        double rms = Math.sqrt((double) sumSquares / samples);
+        return Math.max(SILENT_DB, 20 * Math.log10(rms / 32768.0));
+    }
+}
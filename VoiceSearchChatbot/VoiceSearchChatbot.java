@@ -1,27 +1,28 @@
 /** Copyright © 2024 Devin B. Royal. All Rights Reserved. */
+// Uses the shared intent engine: javac -sourcepath ../IntentEngine:. VoiceSearchChatbot.java
 
-import com.google.cloud.speech.v1.*;
-import com.google.protobuf.ByteString;
 import org.jline.reader.LineReader;
 import org.jline.reader.LineReaderBuilder;
 import org.jline.terminal.Terminal;
 import org.jline.terminal.TerminalBuilder;
 
-import javax.sound.sampled.*;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class VoiceSearchChatbot {
-    private static Map<String, String> responses = new HashMap<>();
+    // Keywords match anywhere in the transcript, with single-typo tolerance, not just the whole input.
+    private static final IntentEngine ENGINE = IntentEngine.builder()
+            .intent("greeting", "Hello! How can I assist you today?", "hello")
+            .intent("help", "Sure, I'm here to help. What do you need assistance with?", 1, "help")
+            .intent("search", "You can use our search engine to find information. Just type your query.", 2, "search")
+            // Add more intents as needed
+            .build();
 
-    static {
-        responses.put("hello", "Hello! How can I assist you today?");
-        responses.put("help", "Sure, I'm here to help. What do you need assistance with?");
-        responses.put("search", "You can use our search engine to find information. Just type your query.");
-        // Add more responses as needed
-    }
+    private static final int VOICE_TIMEOUT_SECONDS = 30;
 
     public static void main(String[] args) {
         try {
@@ -29,12 +30,13 @@ public class VoiceSearchChatbot {
             LineReader reader = LineReaderBuilder.builder().terminal(terminal).build();
 
             while (true) {
-                String input = reader.readLine("Enter 'voice' for voice search or type your query (or 'exit' to quit): ");
+                String input = reader.readLine("Enter 'voice' (or 'voice <file.wav>') for voice search or type your query (or 'exit' to quit): ");
                 if (input.equalsIgnoreCase("exit")) {
                     break;
                 }
-                if (input.equalsIgnoreCase("voice")) {
-                    String voiceInput = getVoiceInput();
+                if (input.equalsIgnoreCase("voice") || input.toLowerCase().matches("voice .+\\.wav")) {
+                    String file = input.substring(5).trim();
+                    String voiceInput = getVoiceInput(terminal, file.isEmpty() ? null : Paths.get(file));
                     terminal.writer().println("You said: " + voiceInput);
                     respond(voiceInput, terminal);
                 } else {
@@ -46,39 +48,53 @@ public class VoiceSearchChatbot {
         }
     }
 
-    private static String getVoiceInput() throws IOException {
-        try (TargetDataLine microphone = AudioSystem.getTargetDataLine(new AudioFormat(16000, 16, 1, true, false))) {
-            microphone.open();
-            microphone.start();
-
-            ByteArrayOutputStream out = new ByteArrayOutputStream();
-            byte[] buffer = new byte[1024];
-            int bytesRead;
-
-            while ((bytesRead = microphone.read(buffer, 0, buffer.length)) != -1) {
-                out.write(buffer, 0, bytesRead);
+    /**
+     * Streams the microphone (or a WAV file standing in for it) through the speech pipeline and
+     * returns the first complete utterance, printing partial transcripts as they arrive.
+     */
+    private static String getVoiceInput(Terminal terminal, Path wav) throws IOException {
+        BlockingQueue<String> finals = new ArrayBlockingQueue<>(16);
+        SpeechPipeline.Listener listener = new SpeechPipeline.Listener() {
+            @Override
+            public void onPartial(int utterance, String transcript) {
+                terminal.writer().print("\r... " + transcript);
+                terminal.flush();
             }
 
-            ByteString audioBytes = ByteString.copyFrom(out.toByteArray());
-
-            try (SpeechClient speechClient = SpeechClient.create()) {
-                RecognitionConfig config = RecognitionConfig.newBuilder()
-                        .setEncoding(RecognitionConfig.AudioEncoding.LINEAR16)
-                        .setSampleRateHertz(16000)
-                        .setLanguageCode("en-US")
-                        .build();
-                RecognitionAudio audio = RecognitionAudio.newBuilder().setContent(audioBytes).build();
-
-                RecognizeResponse response = speechClient.recognize(config, audio);
-                return response.getResultsList().get(0).getAlternativesList().get(0).getTranscript();
+            @Override
+            public void onFinal(int utterance, String transcript) {
+                terminal.writer().print("\r");
+                finals.offer(transcript);
             }
-        } catch (LineUnavailableException e) {
-            throw new IOException("Microphone not available", e);
+        };
+        try (StreamingRecognizer recognizer = createRecognizer()) {
+            SpeechPipeline pipeline = wav != null
+                    ? SpeechPipeline.fromWav(wav, true, recognizer, listener)
+                    : SpeechPipeline.fromMicrophone(recognizer, listener);
+            terminal.writer().println("Listening...");
+            terminal.flush();
+            try {
+                String transcript = finals.poll(VOICE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                return transcript != null ? transcript : "";
+            } finally {
+                pipeline.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "";
+        }
+    }
+
+    // Google Speech-to-Text when credentials are configured, otherwise the offline stand-in.
+    private static StreamingRecognizer createRecognizer() throws IOException {
+        if (System.getenv("GOOGLE_APPLICATION_CREDENTIALS") != null) {
+            return new GoogleStreamingRecognizer("en-US");
         }
+        return new OfflineRecognizer();
     }
 
     private static void respond(String input, Terminal terminal) {
-        String response = responses.getOrDefault(input.toLowerCase(), "I'm sorry, I don't understand that. Can you please rephrase?");
+        String response = ENGINE.respond(input);
         terminal.writer().println("Bot: " + response);
     }
 }
\ No newline at end of file
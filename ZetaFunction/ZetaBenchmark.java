@@ -0,0 +1,78 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Digits-per-second comparison of ZetaFunction against the direct 1/n^s loops previously used by
+ * AdvancedMath.zetaFunction and BitcoinDenomination.riemannZetaFunction. Correct digits are
+ * counted against ζ(2) = π²/6.
+ * Usage: java ZetaBenchmark [maxDigits]
+ */
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+public class ZetaBenchmark {
+
+  private static final int[] PRECISIONS = {20, 50, 100, 300, 1000, 3000};
+
+  public static void main(String[] args) {
+    int maxDigits = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    MathContext referenceContext = new MathContext(maxDigits + 20);
+    BigDecimal reference = ZetaFunction.pi(referenceContext).pow(2).divide(BigDecimal.valueOf(6), referenceContext);
+
+    System.out.println("Legacy loop (double Math.pow, BigDecimal division at 20 digits):");
+    for (int terms = 1000; terms <= 1_000_000; terms *= 10) {
+      legacyZeta(2.0, terms); // warm-up
+      long start = System.nanoTime();
+      BigDecimal value = legacyZeta(2.0, terms);
+      report("terms=" + terms, correctDigits(value, reference), System.nanoTime() - start);
+    }
+
+    System.out.println("ZetaFunction (Euler-Maclaurin, cached Bernoulli numbers):");
+    for (int i = 0; i < 3; i++) {
+      ZetaFunction.zeta(2.5, 100); // warm-up
+    }
+    for (int digits : PRECISIONS) {
+      if (digits > maxDigits) break;
+      long start = System.nanoTime();
+      BigDecimal value = ZetaFunction.zeta(2, digits);
+      report("s=2 digits=" + digits, correctDigits(value, reference), System.nanoTime() - start);
+    }
+    for (int digits : PRECISIONS) {
+      if (digits > Math.min(maxDigits, 300)) break;
+      long start = System.nanoTime();
+      ZetaFunction.zeta(2.5, digits);
+      report("s=2.5 digits=" + digits, digits, System.nanoTime() - start);
+    }
+    for (int digits : PRECISIONS) {
+      if (digits > Math.min(maxDigits, 300)) break;
+      long start = System.nanoTime();
+      ZetaFunction.zeta(ZetaFunction.Complex.of("0.5", "14.134725141734693790457251983562"), digits);
+      report("s=1/2+14.13i digits=" + digits, digits, System.nanoTime() - start);
+    }
+  }
+
+  /** The loop previously in AdvancedMath.zetaFunction and BitcoinDenomination.riemannZetaFunction. */
+  private static BigDecimal legacyZeta(double s, int terms) {
+    BigDecimal sum = BigDecimal.ZERO;
+    MathContext mc = new MathContext(20);
+    for (int n = 1; n <= terms; n++) {
+      BigDecimal term = BigDecimal.ONE.divide(BigDecimal.valueOf(Math.pow(n, s)), mc);
+      sum = sum.add(term);
+    }
+    return sum;
+  }
+
+  private static int correctDigits(BigDecimal value, BigDecimal reference) {
+    BigDecimal error = value.subtract(reference).abs();
+    if (error.signum() == 0) {
+      return value.precision();
+    }
+    // Agreeing digits after the point, plus the integer digits of the reference.
+    int integerDigits = reference.precision() - reference.scale();
+    return Math.max(0, error.scale() - error.precision() + integerDigits);
+  }
+
+  private static void report(String label, int digits, long nanos) {
+    System.out.printf("  %-26s %5d correct digits in %,9.2f ms  %,12.0f digits/sec%n",
+        label, digits, nanos / 1e6, digits / (nanos / 1e9));
+  }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ * Shared arbitrary-precision Riemann zeta evaluator used by AdvancedMath and BitcoinDenomination.
+ * Compile those programs with this directory on the source path, e.g.
+ *   javac -sourcepath ../ZetaFunction AdvancedMath.java
+ */
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public final class ZetaFunction {
+
+  // Working precision at or above which independent terms are evaluated on all cores.
+  static final int PARALLEL_DIGITS = 300;
+
+  private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+  // Exact Bernoulli numbers B_2, B_4, ... as {numerator, denominator}, grown on demand.
+  private static final List<BigInteger[]> bernoulli = new ArrayList<>();
+
+  private static BigDecimal cachedPi = BigDecimal.ZERO;
+
+  private ZetaFunction() {}
+
+  // === Riemann Zeta Function ===
+  /**
+   * Computes ζ(s) for real s ≠ 1 to the requested number of significant digits.
+   *
+   * <p>What It Does: - Evaluates the Euler-Maclaurin form of the zeta function, whose error falls
+   * off geometrically instead of as 1/terms. - Picks the number of direct terms and correction
+   * terms from the requested precision.
+   *
+   * @param s the argument; any real value except the pole at 1.
+   * @param digits significant digits wanted (absolute accuracy 10^-digits for |ζ(s)| < 1).
+   * @return ζ(s) rounded to {@code digits} significant digits.
+   */
+  public static BigDecimal zeta(double s, int digits) {
+    return zeta(new BigDecimal(s), digits);
+  }
+
+  /** As {@link #zeta(double, int)}, for an exact decimal argument. */
+  public static BigDecimal zeta(BigDecimal s, int digits) {
+    return zeta(new Complex(s, BigDecimal.ZERO), digits).re;
+  }
+
+  /**
+   * Computes ζ(s) for complex s ≠ 1, e.g. on the critical line s = 1/2 + it.
+   *
+   * @param s the argument.
+   * @param digits significant digits wanted in each component (absolute accuracy 10^-digits for
+   *     components smaller than 1, as near the non-trivial zeros).
+   * @return ζ(s) with both components rounded to {@code digits} significant digits.
+   */
+  public static Complex zeta(Complex s, int digits) {
+    if (digits <= 0) throw new IllegalArgumentException("Number of digits must be positive.");
+    if (s.re.compareTo(BigDecimal.ONE) == 0 && s.im.signum() == 0) {
+      throw new IllegalArgumentException("ζ(s) has a pole at s = 1.");
+    }
+    double sigma = s.re.doubleValue();
+    double modulus = Math.hypot(sigma, s.im.doubleValue());
+    int n = (int) Math.ceil(0.75 * digits + modulus / 2 + 10);
+    while (true) {
+      // Terms grow like N^(1-sigma) for negative sigma; carry the digits that cancel out.
+      int guard = 12 + (int) Math.ceil(Math.max(0, 1 - sigma) * Math.log10(n) + Math.log10(1 + modulus));
+      Complex result = eulerMaclaurin(s, n, new MathContext(digits + guard, RoundingMode.HALF_EVEN), digits);
+      if (result != null) {
+        MathContext out = new MathContext(digits, RoundingMode.HALF_EVEN);
+        return new Complex(round(result.re, out, digits), round(result.im, out, digits));
+      }
+      n *= 2; // correction terms diverged before converging; more direct terms shrink them
+    }
+  }
+
+  /**
+   * Returns the Bernoulli number B_n as an exact fraction {numerator, denominator}. Values are
+   * cached, so repeated high-precision evaluations only pay for them once.
+   */
+  public static BigInteger[] bernoulliNumber(int n) {
+    if (n < 0) throw new IllegalArgumentException("n must be non-negative.");
+    if (n == 0) return new BigInteger[] {BigInteger.ONE, BigInteger.ONE};
+    if (n == 1) return new BigInteger[] {BigInteger.ONE.negate(), TWO.toBigInteger()};
+    if (n % 2 == 1) return new BigInteger[] {BigInteger.ZERO, BigInteger.ONE};
+    return evenBernoulli(n / 2);
+  }
+
+  /** π to the given precision (Machin's formula), cached at the highest precision computed. */
+  public static BigDecimal pi(MathContext mc) {
+    synchronized (ZetaFunction.class) {
+      if (cachedPi.precision() < mc.getPrecision() + 2) {
+        MathContext work = new MathContext(mc.getPrecision() + 10);
+        cachedPi =
+            arctanInverse(5, work).multiply(BigDecimal.valueOf(16))
+                .subtract(arctanInverse(239, work).multiply(BigDecimal.valueOf(4)), work);
+      }
+      return cachedPi.round(mc);
+    }
+  }
+
+  // === Euler-Maclaurin Summation ===
+  /**
+   * ζ(s) = Σ_{n<N} n^-s + N^(1-s)/(s-1) + N^-s/2 + Σ_k B_2k/(2k)! s(s+1)..(s+2k-2) N^(-s-2k+1).
+   * Returns null if the correction series starts growing before it reaches the target accuracy.
+   */
+  private static Complex eulerMaclaurin(Complex s, int n, MathContext mc, int digits) {
+    Complex[] powers = negativePowers(s, n, mc);
+    Complex sum = Complex.ZERO;
+    for (int k = 1; k < n; k++) {
+      sum = sum.add(powers[k], mc);
+    }
+    Complex nPower = powers[n];
+    Complex sMinusOne = new Complex(s.re.subtract(BigDecimal.ONE), s.im);
+    sum = sum.add(nPower.multiply(BigDecimal.valueOf(n), mc).divide(sMinusOne, mc), mc);
+    sum = sum.add(nPower.divide(TWO, mc), mc);
+
+    // Stop once a correction is below 10^-digits relative to the larger of |sum| and 1.
+    BigDecimal scale = sum.magnitudeBound().max(BigDecimal.ONE);
+    BigDecimal epsilon = scale.movePointLeft(digits + 4);
+    BigDecimal nSquared = BigDecimal.valueOf(n).pow(2);
+    BigDecimal factorial = BigDecimal.ONE; // (2k)!
+    Complex rising = s.multiply(nPower, mc).divide(BigDecimal.valueOf(n), mc); // s N^(-s-1)
+    BigDecimal previous = null;
+    for (int k = 1; ; k++) {
+      factorial = factorial.multiply(BigDecimal.valueOf((2L * k - 1) * (2L * k)));
+      BigInteger[] b = evenBernoulli(k);
+      BigDecimal coefficient =
+          new BigDecimal(b[0]).divide(new BigDecimal(b[1]).multiply(factorial), mc);
+      Complex term = rising.multiply(coefficient, mc);
+      sum = sum.add(term, mc);
+      BigDecimal size = term.magnitudeBound();
+      if (size.compareTo(epsilon) < 0) {
+        return sum;
+      }
+      if (previous != null && size.compareTo(previous) > 0) {
+        return null;
+      }
+      previous = size;
+      // (s)_{2k+1} N^(-s-2k-1) = (s)_{2k-1} N^(-s-2k+1) (s+2k-1)(s+2k) / N^2
+      Complex a = new Complex(s.re.add(BigDecimal.valueOf(2L * k - 1)), s.im);
+      Complex c = new Complex(s.re.add(BigDecimal.valueOf(2L * k)), s.im);
+      rising = rising.multiply(a, mc).multiply(c, mc).divide(nSquared, mc);
+    }
+  }
+
+  /**
+   * n^-s for n = 0..N (index 0 unused). For integer real s each power is one exact integer power
+   * and a division. Otherwise n^-s is completely multiplicative, so only primes need exp, log and
+   * trigonometric evaluation; composites are products of smaller entries. Independent terms are
+   * evaluated in parallel at high precision.
+   */
+  private static Complex[] negativePowers(Complex s, int n, MathContext mc) {
+    Complex[] powers = new Complex[n + 1];
+    boolean parallel = mc.getPrecision() >= PARALLEL_DIGITS;
+    if (s.im.signum() == 0 && isSmallInteger(s.re)) {
+      int exponent = s.re.intValueExact();
+      IntStream range = IntStream.rangeClosed(1, n);
+      (parallel ? range.parallel() : range).forEach(k -> {
+        BigDecimal base = BigDecimal.valueOf(k);
+        BigDecimal value = exponent >= 0
+            ? BigDecimal.ONE.divide(base.pow(exponent), mc)
+            : base.pow(-exponent, mc);
+        powers[k] = new Complex(value, BigDecimal.ZERO);
+      });
+      return powers;
+    }
+
+    int[] smallestFactor = smallestPrimeFactors(n);
+    int[] primes = IntStream.rangeClosed(2, n).filter(k -> smallestFactor[k] == k).toArray();
+    BigDecimal[] logs = primeLogs(primes, smallestFactor, mc, parallel);
+    MathContext trig = new MathContext(mc.getPrecision() + 5);
+    IntStream indices = IntStream.range(0, primes.length);
+    (parallel ? indices.parallel() : indices).forEach(i -> {
+      BigDecimal log = logs[primes[i]];
+      BigDecimal magnitude = exp(s.re.multiply(log).negate(), mc);
+      if (s.im.signum() == 0) {
+        powers[primes[i]] = new Complex(magnitude, BigDecimal.ZERO);
+      } else {
+        BigDecimal angle = s.im.multiply(log);
+        BigDecimal[] cosSin = cosSin(angle, trig);
+        powers[primes[i]] =
+            new Complex(magnitude.multiply(cosSin[0], mc), magnitude.multiply(cosSin[1], mc).negate());
+      }
+    });
+    powers[1] = new Complex(BigDecimal.ONE, BigDecimal.ZERO);
+    for (int k = 4; k <= n; k++) {
+      int p = smallestFactor[k];
+      if (p != k) {
+        powers[k] = powers[p].multiply(powers[k / p], mc);
+      }
+    }
+    return powers;
+  }
+
+  /**
+   * ln p for every prime p, via ln p = ln(p-1) + 2 atanh(1/(2p-1)). The atanh series converge
+   * faster the larger p is and are independent of each other; ln(p-1) is then a sum of logs of
+   * smaller primes from the factorization of p-1.
+   */
+  private static BigDecimal[] primeLogs(
+      int[] primes, int[] smallestFactor, MathContext mc, boolean parallel) {
+    BigDecimal[] increments = new BigDecimal[primes.length];
+    IntStream indices = IntStream.range(0, primes.length);
+    (parallel ? indices.parallel() : indices).forEach(i -> {
+      int p = primes[i];
+      // ln 2 = 2 atanh(1/3); for odd p, ln p - ln(p-1) = 2 atanh(1/(2p-1))
+      increments[i] = arctanhInverse(p == 2 ? 3 : 2L * p - 1, mc).multiply(TWO);
+    });
+    BigDecimal[] logs = new BigDecimal[smallestFactor.length];
+    for (int i = 0; i < primes.length; i++) {
+      int p = primes[i];
+      BigDecimal log = increments[i];
+      if (p > 2) {
+        for (int m = p - 1; m > 1; m /= smallestFactor[m]) {
+          log = log.add(logs[smallestFactor[m]], mc);
+        }
+      }
+      logs[p] = log;
+    }
+    return logs;
+  }
+
+  private static int[] smallestPrimeFactors(int n) {
+    int[] factor = new int[n + 1];
+    for (int i = 2; i <= n; i++) {
+      if (factor[i] == 0) {
+        for (int j = i; j <= n; j += i) {
+          if (factor[j] == 0) factor[j] = i;
+        }
+      }
+    }
+    return factor;
+  }
+
+  // === Bernoulli Numbers ===
+  /**
+   * B_2k from the tangent numbers T_k (Brent-Harvey), which are integers:
+   * B_2k = (-1)^(k-1) 2k T_k / (4^k (4^k - 1)).
+   */
+  private static BigInteger[] evenBernoulli(int k) {
+    synchronized (bernoulli) {
+      if (bernoulli.size() < k) {
+        int count = Math.max(k, 2 * bernoulli.size());
+        BigInteger[] tangent = tangentNumbers(count);
+        for (int j = bernoulli.size() + 1; j <= count; j++) {
+          BigInteger fourPower = BigInteger.ONE.shiftLeft(2 * j);
+          BigInteger numerator = tangent[j].multiply(BigInteger.valueOf(2L * j));
+          BigInteger denominator = fourPower.multiply(fourPower.subtract(BigInteger.ONE));
+          BigInteger gcd = numerator.gcd(denominator);
+          numerator = numerator.divide(gcd);
+          if (j % 2 == 0) numerator = numerator.negate();
+          bernoulli.add(new BigInteger[] {numerator, denominator.divide(gcd)});
+        }
+      }
+      return bernoulli.get(k - 1);
+    }
+  }
+
+  private static BigInteger[] tangentNumbers(int n) {
+    BigInteger[] t = new BigInteger[n + 1];
+    t[1] = BigInteger.ONE;
+    for (int k = 2; k <= n; k++) {
+      t[k] = t[k - 1].multiply(BigInteger.valueOf(k - 1));
+    }
+    for (int k = 2; k <= n; k++) {
+      for (int j = k; j <= n; j++) {
+        t[j] = t[j - 1].multiply(BigInteger.valueOf(j - k)).add(t[j].multiply(BigInteger.valueOf(j - k + 2)));
+      }
+    }
+    return t;
+  }
+
+  // === Elementary Functions ===
+  /** atan(1/x) = Σ (-1)^k / ((2k+1) x^(2k+1)). */
+  private static BigDecimal arctanInverse(long x, MathContext mc) {
+    return inverseSeries(x, true, mc);
+  }
+
+  /** atanh(1/x) = Σ 1 / ((2k+1) x^(2k+1)). */
+  private static BigDecimal arctanhInverse(long x, MathContext mc) {
+    return inverseSeries(x, false, mc);
+  }
+
+  private static BigDecimal inverseSeries(long x, boolean alternating, MathContext mc) {
+    BigDecimal xSquared = BigDecimal.valueOf(x).pow(2);
+    BigDecimal power = BigDecimal.ONE.divide(BigDecimal.valueOf(x), mc); // 1 / x^(2k+1)
+    BigDecimal sum = power;
+    BigDecimal epsilon = BigDecimal.ONE.movePointLeft(mc.getPrecision() + 2);
+    for (int k = 1; power.compareTo(epsilon) > 0; k++) {
+      power = power.divide(xSquared, mc);
+      BigDecimal term = power.divide(BigDecimal.valueOf(2L * k + 1), mc);
+      sum = alternating && k % 2 == 1 ? sum.subtract(term, mc) : sum.add(term, mc);
+    }
+    return sum;
+  }
+
+  /** e^x: halve the argument until it is small, sum the Taylor series, then square back. */
+  private static BigDecimal exp(BigDecimal x, MathContext mc) {
+    if (x.signum() == 0) return BigDecimal.ONE;
+    int halvings = Math.max(0, (int) Math.ceil(Math.log(Math.abs(x.doubleValue()) + 1) / Math.log(2)) + 8);
+    MathContext work = new MathContext(mc.getPrecision() + halvings / 3 + 5);
+    BigDecimal r = x.divide(TWO.pow(halvings), work);
+    BigDecimal sum = BigDecimal.ONE;
+    BigDecimal term = BigDecimal.ONE;
+    BigDecimal epsilon = BigDecimal.ONE.movePointLeft(work.getPrecision() + 1);
+    for (int k = 1; term.abs().compareTo(epsilon) > 0; k++) {
+      term = term.multiply(r, work).divide(BigDecimal.valueOf(k), work);
+      sum = sum.add(term, work);
+    }
+    for (int i = 0; i < halvings; i++) {
+      sum = sum.multiply(sum, work);
+    }
+    return sum.round(mc);
+  }
+
+  /** {cos x, sin x}: reduce modulo 2π, evaluate both series at x/2^j, then double j times. */
+  private static BigDecimal[] cosSin(BigDecimal x, MathContext mc) {
+    int extra = (int) Math.max(0, Math.ceil(Math.log10(Math.abs(x.doubleValue()) + 1)));
+    MathContext work = new MathContext(mc.getPrecision() + extra + 8);
+    BigDecimal twoPi = pi(work).multiply(TWO);
+    BigDecimal turns = x.divide(twoPi, 0, RoundingMode.HALF_EVEN);
+    BigDecimal r = x.subtract(twoPi.multiply(turns), work);
+    int doublings = 8;
+    r = r.divide(TWO.pow(doublings), work);
+    BigDecimal rSquared = r.multiply(r, work);
+    BigDecimal cos = BigDecimal.ONE;
+    BigDecimal sin = r;
+    BigDecimal cosTerm = BigDecimal.ONE;
+    BigDecimal sinTerm = r;
+    BigDecimal epsilon = BigDecimal.ONE.movePointLeft(work.getPrecision() + 1);
+    for (int k = 1; sinTerm.abs().compareTo(epsilon) > 0 || cosTerm.abs().compareTo(epsilon) > 0; k++) {
+      cosTerm = cosTerm.multiply(rSquared, work).divide(BigDecimal.valueOf((2L * k - 1) * (2L * k)), work).negate();
+      sinTerm = sinTerm.multiply(rSquared, work).divide(BigDecimal.valueOf((2L * k) * (2L * k + 1)), work).negate();
+      cos = cos.add(cosTerm, work);
+      sin = sin.add(sinTerm, work);
+    }
+    for (int i = 0; i < doublings; i++) {
+      BigDecimal nextSin = sin.multiply(cos, work).multiply(TWO);
+      cos = cos.multiply(cos, work).multiply(TWO).subtract(BigDecimal.ONE, work);
+      sin = nextSin;
+    }
+    return new BigDecimal[] {cos.round(mc), sin.round(mc)};
+  }
+
+  private static boolean isSmallInteger(BigDecimal value) {
+    return value.stripTrailingZeros().scale() <= 0 && value.abs().compareTo(BigDecimal.valueOf(100_000)) <= 0;
+  }
+
+  /** Rounds to significant digits, but to absolute 10^-digits for values below 1. */
+  private static BigDecimal round(BigDecimal value, MathContext mc, int digits) {
+    if (value.abs().compareTo(BigDecimal.ONE) < 0) {
+      return value.setScale(digits, RoundingMode.HALF_EVEN).stripTrailingZeros();
+    }
+    return value.round(mc);
+  }
+
+  // === Complex Numbers ===
+  /** Immutable complex number with BigDecimal components. */
+  public static final class Complex {
+    static final Complex ZERO = new Complex(BigDecimal.ZERO, BigDecimal.ZERO);
+
+    public final BigDecimal re;
+    public final BigDecimal im;
+
+    public Complex(BigDecimal re, BigDecimal im) {
+      this.re = re;
+      this.im = im;
+    }
+
+    public static Complex of(String re, String im) {
+      return new Complex(new BigDecimal(re), new BigDecimal(im));
+    }
+
+    Complex add(Complex other, MathContext mc) {
+      return new Complex(re.add(other.re, mc), im.add(other.im, mc));
+    }
+
+    Complex multiply(Complex other, MathContext mc) {
+      if (im.signum() == 0 && other.im.signum() == 0) {
+        return new Complex(re.multiply(other.re, mc), BigDecimal.ZERO);
+      }
+      return new Complex(
+          re.multiply(other.re).subtract(im.multiply(other.im), mc),
+          re.multiply(other.im).add(im.multiply(other.re), mc));
+    }
+
+    Complex multiply(BigDecimal factor, MathContext mc) {
+      return new Complex(re.multiply(factor, mc), im.multiply(factor, mc));
+    }
+
+    Complex divide(BigDecimal divisor, MathContext mc) {
+      return new Complex(re.divide(divisor, mc), im.divide(divisor, mc));
+    }
+
+    Complex divide(Complex other, MathContext mc) {
+      if (other.im.signum() == 0) {
+        return divide(other.re, mc);
+      }
+      BigDecimal denominator = other.re.multiply(other.re).add(other.im.multiply(other.im), mc);
+      return new Complex(
+          re.multiply(other.re).add(im.multiply(other.im)).divide(denominator, mc),
+          im.multiply(other.re).subtract(re.multiply(other.im)).divide(denominator, mc));
+    }
+
+    /** |re| + |im|, an upper bound on the modulus that needs no square root. */
+    BigDecimal magnitudeBound() {
+      return re.abs().add(im.abs());
+    }
+
+    @Override
+    public String toString() {
+      return im.signum() < 0
+          ? re.toPlainString() + " - " + im.negate().toPlainString() + "i"
+          : re.toPlainString() + " + " + im.toPlainString() + "i";
+    }
+  }
+}
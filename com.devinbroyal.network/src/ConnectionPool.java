@@ -0,0 +1,156 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+package com.devinroyal.security;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A fixed set of JDBC connections opened up front and handed out one caller at a time.
+ * Connections from {@link #getConnection()} are meant for try-with-resources: closing one
+ * returns it to the pool instead of closing the underlying connection, rolling back anything
+ * left uncommitted and restoring auto-commit first.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /** Runs once on each new physical connection, e.g. to set pragmas. */
+    public interface ConnectionInitializer {
+        void initialize(Connection connection) throws SQLException;
+    }
+
+    private final BlockingQueue<Connection> idle;
+    private final List<Connection> connections;
+    private final long timeoutMillis;
+    private volatile boolean closed;
+
+    public ConnectionPool(String url, int size, ConnectionInitializer initializer, long timeoutMillis) throws SQLException {
+        if (size < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1: " + size);
+        }
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.connections = new ArrayList<>(size);
+        this.timeoutMillis = timeoutMillis;
+        try {
+            for (int i = 0; i < size; i++) {
+                Connection connection = DriverManager.getConnection(url);
+                connections.add(connection);
+                initializer.initialize(connection);
+                idle.add(connection);
+            }
+        } catch (SQLException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the pool timeout for one to be returned. Close it to
+     * give it back.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        Connection connection;
+        try {
+            connection = idle.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        }
+        if (connection == null) {
+            throw new SQLException("No connection available after " + timeoutMillis + " ms.");
+        }
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Lease(connection));
+    }
+
+    /** Connections not currently borrowed. */
+    public int available() {
+        return idle.size();
+    }
+
+    public int size() {
+        return connections.size();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Connection connection : connections) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOGGER.log(Level.WARNING, "Error closing pooled connection", e);
+            }
+        }
+        idle.clear();
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error resetting pooled connection", e);
+        }
+        if (!closed) {
+            idle.add(connection);
+        }
+    }
+
+    /** One borrowing of a connection; everything but close is passed through until then. */
+    private final class Lease implements InvocationHandler {
+        private Connection connection;
+
+        Lease(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (connection != null) {
+                        Connection returned = connection;
+                        connection = null;
+                        release(returned);
+                    }
+                    return null;
+                case "isClosed":
+                    return connection == null || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + connection;
+                default:
+                    if (connection == null) {
+                        throw new SQLException("Connection has been returned to the pool.");
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -3,39 +3,65 @@
  */
 package com.devinroyal.security;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.Properties;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 
-public class DatabaseManager {
+public class DatabaseManager implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(DatabaseManager.class.getName());
     private static final String DB_URL = "jdbc:sqlite:./private_database.db";
     private static final String CONFIG_PATH = "./src/resources/config/application.properties";
-    private Connection connection;
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final long POOL_TIMEOUT_MILLIS = 10_000;
+    private ConnectionPool pool;
 
     public void initializeDatabase() {
         try {
             Properties props = new Properties();
-            props.load(Files.newInputStream(Paths.get(CONFIG_PATH)));
-            String encryptionKey = props.getProperty("db.encryption.key");
-
-            if (encryptionKey == null || encryptionKey.isEmpty()) {
-                throw new IllegalStateException("Encryption key not found in configuration file.");
+            try (InputStream in = Files.newInputStream(Paths.get(CONFIG_PATH))) {
+                props.load(in);
             }
+            String encryptionKey = props.getProperty("db.encryption.key");
+            int poolSize = Integer.parseInt(props.getProperty("db.pool.size", String.valueOf(DEFAULT_POOL_SIZE)));
+            initializeDatabase(DB_URL, encryptionKey, poolSize);
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.log(Level.SEVERE, "Error reading database configuration", e);
+            throw new RuntimeException("Database initialization failed.", e);
+        }
+    }
 
-            connection = DriverManager.getConnection(DB_URL);
-            try (PreparedStatement stmt = connection.prepareStatement("PRAGMA key = ?")) {
-                stmt.setString(1, encryptionKey);
-                stmt.execute();
-            }
+    /**
+     * Opens a pool of {@code poolSize} connections to {@code dbUrl}, each unlocked with the
+     * encryption key, and creates the schema.
+     */
+    public void initializeDatabase(String dbUrl, String encryptionKey, int poolSize) {
+        if (encryptionKey == null || encryptionKey.isEmpty()) {
+            throw new IllegalStateException("Encryption key not found in configuration file.");
+        }
+        try {
+            pool = new ConnectionPool(dbUrl, poolSize, connection -> {
+                try (PreparedStatement stmt = connection.prepareStatement("PRAGMA key = ?")) {
+                    stmt.setString(1, encryptionKey);
+                    stmt.execute();
+                }
+                try (Statement stmt = connection.createStatement()) {
+                    // WAL lets readers on other pooled connections proceed while one writes;
+                    // NORMAL sync is safe with WAL and avoids an fsync per commit.
+                    stmt.execute("PRAGMA busy_timeout = 10000");
+                    stmt.execute("PRAGMA journal_mode = WAL");
+                    stmt.execute("PRAGMA synchronous = NORMAL");
+                }
+            }, POOL_TIMEOUT_MILLIS);
             createUserTable();
-        } catch (Exception e) {
+        } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error initializing database", e);
             throw new RuntimeException("Database initialization failed.", e);
         }
@@ -50,14 +76,29 @@ public class DatabaseManager {
             )
         """;
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.execute();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error creating user table", e);
         }
     }
 
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Borrows a connection from the pool. Close it when done, preferably with
+     * try-with-resources; that returns it to the pool.
+     */
+    public Connection getConnection() throws SQLException {
+        if (pool == null) {
+            throw new SQLException("Database has not been initialized.");
+        }
+        return pool.getConnection();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
     }
 }
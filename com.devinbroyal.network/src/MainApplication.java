@@ -6,22 +6,26 @@ package com.devinroyal;
 import com.devinroyal.security.DatabaseManager;
 import com.devinroyal.security.PasswordManager;
 import com.devinroyal.security.UserManager;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class MainApplication {
+    private static final int IMPORT_BATCH_SIZE = 5000;
+
     public static void main(String[] args) {
         try (Scanner scanner = new Scanner(System.in)) {
             DatabaseManager dbManager = new DatabaseManager();
             dbManager.initializeDatabase();
 
-            UserManager userManager = new UserManager(dbManager);
             PasswordManager passwordManager = new PasswordManager();
+            UserManager userManager = new UserManager(dbManager, passwordManager);
 
             System.out.println("Welcome to the Secure User Management System");
             System.out.println("1. Add User");
             System.out.println("2. Delete Password");
             System.out.println("3. Reset Password");
-            System.out.println("4. Exit");
+            System.out.println("4. Import Users from CSV");
+            System.out.println("5. Exit");
 
             while (true) {
                 System.out.print("Choose an option: ");
@@ -50,7 +54,14 @@ public class MainApplication {
                         break;
 
                     case "4":
+                        System.out.print("Enter path of CSV file (username,password per line): ");
+                        String csvPath = scanner.nextLine();
+                        userManager.importUsers(Paths.get(csvPath), IMPORT_BATCH_SIZE);
+                        break;
+
+                    case "5":
                         System.out.println("Exiting...");
+                        dbManager.close();
                         return;
 
                     default:
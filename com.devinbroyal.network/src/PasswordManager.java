@@ -10,16 +10,34 @@ import java.security.SecureRandom;
 public class PasswordManager {
 
     private static final String ALLOWED_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*()-_=+";
+    /** BCrypt's own default work factor: 2^10 rounds. */
+    public static final int DEFAULT_LOG_ROUNDS = 10;
 
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final int logRounds;
+
+    public PasswordManager() {
+        this(DEFAULT_LOG_ROUNDS);
+    }
+
+    /** @param logRounds BCrypt work factor, 4 to 31; each step doubles the cost of a hash */
+    public PasswordManager(int logRounds) {
+        if (logRounds < 4 || logRounds > 31) {
+            throw new IllegalArgumentException("BCrypt log rounds must be between 4 and 31: " + logRounds);
+        }
+        this.logRounds = logRounds;
+    }
+
+    /** Safe to call from several threads at once. */
     public String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(logRounds, RANDOM));
     }
 
     public String generateRandomPassword() {
-        SecureRandom random = new SecureRandom();
         StringBuilder password = new StringBuilder();
         for (int i = 0; i < 12; i++) {
-            int index = random.nextInt(ALLOWED_CHARS.length());
+            int index = RANDOM.nextInt(ALLOWED_CHARS.length());
             password.append(ALLOWED_CHARS.charAt(index));
         }
         return password.toString();
@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+package com.devinroyal.security;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+
+/**
+ * Imports 1M users into a SQLite file and compares that with inserting users one statement and
+ * one auto-committed transaction at a time, as UserManager.addUser used to. BCrypt dominates any
+ * real import, so it is measured on its own: the big import reads passwords already hashed, and a
+ * sample of plain passwords is hashed on one thread and on every processor to estimate a full
+ * import with hashing.
+ *
+ * <p>Usage: java com.devinroyal.security.UserImportBenchmark [users] [batchSize] [logRounds] [dbFile]
+ */
+public class UserImportBenchmark {
+    private static final int LEGACY_USERS = 10_000;
+    private static final int HASH_SAMPLE = 400;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int logRounds = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        Path dbFile = Paths.get(args.length > 3 ? args[3] : "./user_import_benchmark.db");
+        PasswordManager passwordManager = new PasswordManager(logRounds);
+
+        Path csv = Files.createTempFile("users-", ".csv");
+        try {
+            writeCsv(csv, users, passwordManager.hashPassword("benchmark-password"));
+            System.out.printf("%,d users, batches of %,d, %,d KB of CSV%n", users, batchSize, Files.size(csv) / 1024);
+
+            try (DatabaseManager db = open(dbFile)) {
+                UserRepository repository = new UserRepository(db);
+                UserImporter.Result result = new UserImporter(repository, passwordManager)
+                        .batchSize(batchSize)
+                        .passwordsHashed(true)
+                        .importCsv(csv);
+                System.out.printf("Bulk import:        %s, %,.0f users/s%n", result, rate(result.getImported(), result.getMillis()));
+                System.out.printf("Users in table:     %,d%n", repository.count());
+
+                UserImporter.Result again = new UserImporter(repository, passwordManager)
+                        .batchSize(batchSize)
+                        .passwordsHashed(true)
+                        .importCsv(csv);
+                System.out.printf("Re-import:          %s%n", again);
+            }
+
+            try (DatabaseManager db = open(dbFile)) {
+                UserRepository repository = new UserRepository(db);
+                String hash = passwordManager.hashPassword("benchmark-password");
+                long start = System.nanoTime();
+                for (int i = 0; i < LEGACY_USERS; i++) {
+                    repository.insert("legacy" + i, hash);
+                }
+                long millis = (System.nanoTime() - start) / 1_000_000;
+                double perSecond = rate(LEGACY_USERS, millis);
+                System.out.printf("One per statement:  %,d users in %,d ms, %,.0f users/s, %,.0f s for %,d users%n",
+                        LEGACY_USERS, millis, perSecond, users / perSecond, users);
+            }
+
+            int threads = Runtime.getRuntime().availableProcessors();
+            hashRate(passwordManager, threads); // warm-up
+            double serial = hashRate(passwordManager, 1);
+            double parallel = hashRate(passwordManager, threads);
+            System.out.printf("BCrypt, 2^%d rounds: %,.0f hashes/s on 1 thread, %,.0f on %d; %,.0f s to hash %,d users%n",
+                    logRounds, serial, parallel, threads, users / parallel, users);
+        } finally {
+            Files.deleteIfExists(csv);
+        }
+    }
+
+    private static DatabaseManager open(Path dbFile) throws IOException {
+        for (String suffix : new String[] {"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Paths.get(dbFile + suffix));
+        }
+        DatabaseManager db = new DatabaseManager();
+        db.initializeDatabase("jdbc:sqlite:" + dbFile, "benchmark-key", 4);
+        return db;
+    }
+
+    /** Times importing plain passwords, which is all hashing, into a throwaway database. */
+    private static double hashRate(PasswordManager passwordManager, int threads) throws IOException, SQLException {
+        Path csv = Files.createTempFile("users-plain-", ".csv");
+        Path dbFile = Files.createTempFile("users-hash-", ".db");
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < HASH_SAMPLE; i++) {
+                out.write("user" + i + ",password" + i + "\n");
+            }
+        }
+        try (DatabaseManager db = open(dbFile)) {
+            UserImporter.Result result = new UserImporter(new UserRepository(db), passwordManager)
+                    .batchSize(HASH_SAMPLE / 4)
+                    .hashThreads(threads)
+                    .importCsv(csv);
+            return rate(result.getImported(), result.getMillis());
+        } finally {
+            Files.deleteIfExists(csv);
+            for (String suffix : new String[] {"", "-wal", "-shm"}) {
+                Files.deleteIfExists(Paths.get(dbFile + suffix));
+            }
+        }
+    }
+
+    private static void writeCsv(Path csv, int users, String hash) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("username,password\n");
+            for (int i = 0; i < users; i++) {
+                out.write("user");
+                out.write(Integer.toString(i));
+                out.write(',');
+                out.write(hash);
+                out.write('\n');
+            }
+        }
+    }
+
+    private static double rate(long count, long millis) {
+        return count * 1000.0 / Math.max(1, millis);
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+package com.devinroyal.security;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk import of users from CSV with {@code username,password} per line; a header line with those
+ * names is skipped and fields may be quoted. The file is streamed one batch at a time, so memory
+ * use depends on the batch size, not the file size. Passwords in a batch are hashed on several
+ * threads while the previous batch is written in a single transaction, so hashing and inserting
+ * overlap. Usernames that already exist are skipped.
+ *
+ * <pre>
+ * UserImporter.Result result = new UserImporter(repository, passwordManager)
+ *         .batchSize(5000)
+ *         .importCsv(Path.of("users.csv"));
+ * </pre>
+ */
+public class UserImporter {
+    private static final Logger LOGGER = Logger.getLogger(UserImporter.class.getName());
+
+    /** Counts from one import. */
+    public static final class Result {
+        private final long read;
+        private final long imported;
+        private final long invalid;
+        private final long millis;
+
+        private Result(long read, long imported, long invalid, long millis) {
+            this.read = read;
+            this.imported = imported;
+            this.invalid = invalid;
+            this.millis = millis;
+        }
+
+        /** Data lines read, excluding the header. */
+        public long getRead() {
+            return read;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        /** Valid lines whose username already existed, in the table or earlier in the file. */
+        public long getDuplicates() {
+            return read - invalid - imported;
+        }
+
+        /** Lines without a username and a password. */
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d users imported, %,d duplicates, %,d invalid lines, in %,d ms",
+                    imported, getDuplicates(), invalid, millis);
+        }
+    }
+
+    private final UserRepository repository;
+    private final PasswordManager passwordManager;
+    private int batchSize = 1000;
+    private int hashThreads = Runtime.getRuntime().availableProcessors();
+    private boolean passwordsHashed;
+
+    public UserImporter(UserRepository repository, PasswordManager passwordManager) {
+        this.repository = repository;
+        this.passwordManager = passwordManager;
+    }
+
+    /** Users inserted per transaction. */
+    public UserImporter batchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1: " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    /** Threads hashing passwords; defaults to one per processor. */
+    public UserImporter hashThreads(int hashThreads) {
+        if (hashThreads < 1) {
+            throw new IllegalArgumentException("Hash threads must be at least 1: " + hashThreads);
+        }
+        this.hashThreads = hashThreads;
+        return this;
+    }
+
+    /**
+     * Whether the password column already holds BCrypt hashes, e.g. when moving users between
+     * databases. They are then stored as they are.
+     */
+    public UserImporter passwordsHashed(boolean passwordsHashed) {
+        this.passwordsHashed = passwordsHashed;
+        return this;
+    }
+
+    public Result importCsv(Path csv) throws IOException, SQLException {
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return importCsv(reader);
+        }
+    }
+
+    public Result importCsv(Reader csv) throws IOException, SQLException {
+        long start = System.nanoTime();
+        BufferedReader reader = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService hashers = Executors.newFixedThreadPool(hashThreads, task -> {
+            Thread thread = new Thread(task, "user-import-hash-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long read = 0;
+        long imported = 0;
+        long invalid = 0;
+        long lineNumber = 0;
+        try {
+            Batch pending = null;
+            Batch batch = new Batch(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] fields = parseLine(line);
+                if (read == 0 && isHeader(fields)) {
+                    continue;
+                }
+                read++;
+                if (fields == null || fields.length < 2 || fields[0].isBlank() || fields[1].isEmpty()) {
+                    invalid++;
+                    LOGGER.log(Level.FINE, "Skipping invalid CSV line {0}", lineNumber);
+                    continue;
+                }
+                batch.add(fields[0].trim(), fields[1]);
+                if (batch.size() == batchSize) {
+                    batch.hashed = hash(batch, hashers);
+                    imported += write(pending);
+                    pending = batch;
+                    batch = new Batch(batchSize);
+                }
+            }
+            if (batch.size() > 0) {
+                batch.hashed = hash(batch, hashers);
+            }
+            imported += write(pending);
+            imported += write(batch.size() > 0 ? batch : null);
+        } finally {
+            hashers.shutdownNow();
+        }
+        return new Result(read, imported, invalid, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Starts hashing the batch's passwords in place, one slice per thread. */
+    private CompletableFuture<Void> hash(Batch batch, ExecutorService hashers) {
+        if (passwordsHashed) {
+            return CompletableFuture.completedFuture(null);
+        }
+        int size = batch.size();
+        int slices = Math.min(hashThreads, size);
+        CompletableFuture<?>[] parts = new CompletableFuture<?>[slices];
+        for (int s = 0; s < slices; s++) {
+            int from = (int) ((long) size * s / slices);
+            int to = (int) ((long) size * (s + 1) / slices);
+            parts[s] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    batch.passwords.set(i, passwordManager.hashPassword(batch.passwords.get(i)));
+                }
+            }, hashers);
+        }
+        return CompletableFuture.allOf(parts);
+    }
+
+    /** Waits for the batch's hashes and inserts it as one transaction. */
+    private int write(Batch batch) throws SQLException {
+        if (batch == null) {
+            return 0;
+        }
+        try {
+            batch.hashed.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+        return repository.insertBatch(batch.usernames, batch.passwords, 0, batch.size());
+    }
+
+    private static boolean isHeader(String[] fields) {
+        return fields != null && fields.length >= 2
+                && fields[0].trim().equalsIgnoreCase("username")
+                && fields[1].trim().equalsIgnoreCase("password");
+    }
+
+    /**
+     * Splits one CSV line into fields. Fields may be wrapped in double quotes, with {@code ""}
+     * for a quote inside. Returns null for an unterminated quote.
+     */
+    static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder field = new StringBuilder();
+        int i = 0;
+        while (true) {
+            field.setLength(0);
+            if (i < line.length() && line.charAt(i) == '"') {
+                i++;
+                while (true) {
+                    if (i >= line.length()) {
+                        return null;
+                    }
+                    char c = line.charAt(i++);
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                int comma = line.indexOf(',', i);
+                i = comma < 0 ? line.length() : comma;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? line.length() : comma;
+                field.append(line, i, end);
+                i = end;
+            }
+            fields.add(field.toString());
+            if (i >= line.length()) {
+                return fields.toArray(new String[0]);
+            }
+            i++;
+        }
+    }
+
+    /** Rows read from the file; passwords are replaced by their hashes once hashing completes. */
+    private static final class Batch {
+        final List<String> usernames;
+        final List<String> passwords;
+        CompletableFuture<Void> hashed;
+
+        Batch(int capacity) {
+            usernames = new ArrayList<>(capacity);
+            passwords = Arrays.asList(new String[capacity]);
+        }
+
+        void add(String username, String password) {
+            passwords.set(usernames.size(), password);
+            usernames.add(username);
+        }
+
+        int size() {
+            return usernames.size();
+        }
+    }
+}
@@ -3,45 +3,38 @@
  */
 package com.devinroyal.security;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class UserManager {
     private static final Logger LOGGER = Logger.getLogger(UserManager.class.getName());
-    private final DatabaseManager dbManager;
+    private final UserRepository repository;
+    private final PasswordManager passwordManager;
 
     public UserManager(DatabaseManager dbManager) {
-        this.dbManager = dbManager;
+        this(dbManager, new PasswordManager());
     }
 
-    public void addUser(String username, String password) {
-        String sql = "INSERT INTO users (username, password) VALUES (?, ?)";
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    public UserManager(DatabaseManager dbManager, PasswordManager passwordManager) {
+        this.repository = new UserRepository(dbManager);
+        this.passwordManager = passwordManager;
+    }
 
-            stmt.setString(1, username);
-            stmt.setString(2, new PasswordManager().hashPassword(password));
-            stmt.executeUpdate();
+    public void addUser(String username, String password) {
+        try {
+            repository.insert(username, passwordManager.hashPassword(password));
             System.out.println("User added successfully.");
-
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding user", e);
         }
     }
 
     public void deletePassword(String username) {
-        String sql = "UPDATE users SET password = NULL WHERE username = ?";
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, username);
-            int rows = stmt.executeUpdate();
-
-            if (rows > 0) {
+        try {
+            if (repository.updatePassword(username, null)) {
                 System.out.println("Password deleted successfully.");
             } else {
                 System.out.println("User not found.");
@@ -52,15 +45,8 @@ public class UserManager {
     }
 
     public void resetPassword(String username, String newPassword) {
-        String sql = "UPDATE users SET password = ? WHERE username = ?";
-        try (Connection conn = dbManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, new PasswordManager().hashPassword(newPassword));
-            stmt.setString(2, username);
-            int rows = stmt.executeUpdate();
-
-            if (rows > 0) {
+        try {
+            if (repository.updatePassword(username, passwordManager.hashPassword(newPassword))) {
                 System.out.println("Password reset successfully. New password: " + newPassword);
             } else {
                 System.out.println("User not found.");
@@ -69,4 +55,16 @@ public class UserManager {
             LOGGER.log(Level.SEVERE, "Error resetting password", e);
         }
     }
+
+    /** Adds every user listed in a {@code username,password} CSV file; see {@link UserImporter}. */
+    public void importUsers(Path csv, int batchSize) {
+        try {
+            UserImporter.Result result = new UserImporter(repository, passwordManager)
+                    .batchSize(batchSize)
+                    .importCsv(csv);
+            System.out.println("Import finished: " + result);
+        } catch (IOException | SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error importing users", e);
+        }
+    }
 }
@@ -0,0 +1,87 @@
+/**
+ * Copyright © 2024 Devin B. Royal. All Rights Reserved.
+ */
+package com.devinroyal.security;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQL for the users table. Each call borrows a pooled connection from the
+ * {@link DatabaseManager} and returns it when done. Passwords arrive here already hashed.
+ */
+public class UserRepository {
+    private static final String INSERT_SQL = "INSERT INTO users (username, password) VALUES (?, ?)";
+    private static final String INSERT_IGNORE_SQL = "INSERT OR IGNORE INTO users (username, password) VALUES (?, ?)";
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE username = ?";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM users";
+
+    private final DatabaseManager dbManager;
+
+    public UserRepository(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+    }
+
+    /** Inserts one user; fails if the username is taken. */
+    public void insert(String username, String passwordHash) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL)) {
+            stmt.setString(1, username);
+            stmt.setString(2, passwordHash);
+            stmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Inserts {@code usernames[i]} with {@code passwordHashes[i]} for i in [from, to) as one
+     * transaction and one JDBC batch. Usernames that already exist are skipped.
+     *
+     * @return the number of users inserted
+     */
+    public int insertBatch(List<String> usernames, List<String> passwordHashes, int from, int to) throws SQLException {
+        try (Connection conn = dbManager.getConnection()) {
+            conn.setAutoCommit(false);
+            int inserted = 0;
+            try (PreparedStatement stmt = conn.prepareStatement(INSERT_IGNORE_SQL)) {
+                for (int i = from; i < to; i++) {
+                    stmt.setString(1, usernames.get(i));
+                    stmt.setString(2, passwordHashes.get(i));
+                    stmt.addBatch();
+                }
+                for (int count : stmt.executeBatch()) {
+                    if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                        inserted++;
+                    }
+                }
+            }
+            conn.commit();
+            return inserted;
+        }
+    }
+
+    /**
+     * Sets the password hash, or clears it when {@code passwordHash} is null.
+     *
+     * @return false if there is no such user
+     */
+    public boolean updatePassword(String username, String passwordHash) throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(UPDATE_PASSWORD_SQL)) {
+            stmt.setString(1, passwordHash);
+            stmt.setString(2, username);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    public long count() throws SQLException {
+        try (Connection conn = dbManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(COUNT_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+}